@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,22 +10,30 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.aop.core.internal.model;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.springframework.ide.eclipse.aop.core.logging.AopLog;
 import org.springframework.ide.eclipse.aop.core.model.IAopProject;
 import org.springframework.ide.eclipse.aop.core.model.IAopReference;
 
 /**
+ * Holds the {@link IAopReference}s of a single java project.
+ * <p>
+ * Next to the plain set of references the project maintains hash indexes from target element, advice element,
+ * target bean and resource to references. They are updated in {@link #addAopReference(IAopReference)} and
+ * {@link #clearReferencesForResource(IResource)} and allow label decorators and content providers to look up the
+ * references of a single element without scanning all references.
+ *
  * @author Christian Dupuis
  * @since 2.0
  */
@@ -35,6 +43,18 @@ public class AopProject implements IAopProject {
 
 	private Set<IAopReference> references = new CopyOnWriteArraySet<IAopReference>();
 
+	private final Map<IJavaElement, Set<IAopReference>> referencesByTarget = new HashMap<IJavaElement, Set<IAopReference>>();
+
+	private final Map<IJavaElement, Set<IAopReference>> referencesBySource = new HashMap<IJavaElement, Set<IAopReference>>();
+
+	private final Map<String, Set<IAopReference>> referencesByTargetBean = new HashMap<String, Set<IAopReference>>();
+
+	/** References keyed by the resource of their aspect definition */
+	private final Map<IResource, Set<IAopReference>> referencesByDefinitionResource = new HashMap<IResource, Set<IAopReference>>();
+
+	/** References keyed by every resource they are related to */
+	private final Map<IResource, Set<IAopReference>> referencesByResource = new HashMap<IResource, Set<IAopReference>>();
+
 	protected final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
 
 	protected final Lock r = rwl.readLock();
@@ -49,7 +69,15 @@ public class AopProject implements IAopProject {
 		AopLog.log(AopLog.BUILDER_MESSAGES, "Created AOP reference '" + reference + "'");
 		try {
 			w.lock();
-			this.references.add(reference);
+			if (this.references.add(reference)) {
+				addToIndex(referencesByTarget, reference.getTarget(), reference);
+				addToIndex(referencesBySource, reference.getSource(), reference);
+				addToIndex(referencesByTargetBean, reference.getTargetBeanId(), reference);
+				addToIndex(referencesByDefinitionResource, getDefinitionResource(reference), reference);
+				for (IResource resource : getRelatedResources(reference)) {
+					addToIndex(referencesByResource, resource, reference);
+				}
+			}
 		}
 		finally {
 			w.unlock();
@@ -57,15 +85,24 @@ public class AopProject implements IAopProject {
 	}
 
 	public void clearReferencesForResource(IResource resource) {
-		List<IAopReference> toRemove = new ArrayList<IAopReference>();
+		if (resource == null) {
+			return;
+		}
 		try {
 			w.lock();
-			for (IAopReference reference : this.references) {
-				if (resource != null && resource.equals(reference.getDefinition().getResource())) {
-					toRemove.add(reference);
-				}
+			Set<IAopReference> toRemove = referencesByDefinitionResource.remove(resource);
+			if (toRemove == null) {
+				return;
 			}
 			this.references.removeAll(toRemove);
+			for (IAopReference reference : toRemove) {
+				removeFromIndex(referencesByTarget, reference.getTarget(), reference);
+				removeFromIndex(referencesBySource, reference.getSource(), reference);
+				removeFromIndex(referencesByTargetBean, reference.getTargetBeanId(), reference);
+				for (IResource relatedResource : getRelatedResources(reference)) {
+					removeFromIndex(referencesByResource, relatedResource, reference);
+				}
+			}
 		}
 		finally {
 			w.unlock();
@@ -84,10 +121,12 @@ public class AopProject implements IAopProject {
 		try {
 			r.lock();
 			Set<IAopReference> list = new LinkedHashSet<IAopReference>();
-			for (IAopReference reference : this.references) {
-				if (reference.getResource().equals(resource)
-						|| reference.getDefinition().getResource().equals(resource)) {
-					list.add(reference);
+			Set<IAopReference> candidates = referencesByResource.get(resource);
+			if (candidates != null) {
+				for (IAopReference reference : candidates) {
+					if (resource.equals(reference.getResource()) || resource.equals(getDefinitionResource(reference))) {
+						list.add(reference);
+					}
 				}
 			}
 			return list;
@@ -96,4 +135,81 @@ public class AopProject implements IAopProject {
 			r.unlock();
 		}
 	}
+
+	public Set<IAopReference> getReferencesForTarget(IJavaElement target) {
+		return getFromIndex(referencesByTarget, target);
+	}
+
+	public Set<IAopReference> getReferencesForSource(IJavaElement source) {
+		return getFromIndex(referencesBySource, source);
+	}
+
+	public Set<IAopReference> getReferencesForTargetBean(String beanId) {
+		return getFromIndex(referencesByTargetBean, beanId);
+	}
+
+	public Set<IAopReference> getAllReferencesForResource(IResource resource) {
+		return getFromIndex(referencesByResource, resource);
+	}
+
+	private <K> Set<IAopReference> getFromIndex(Map<K, Set<IAopReference>> index, K key) {
+		if (key == null) {
+			return Collections.emptySet();
+		}
+		try {
+			r.lock();
+			Set<IAopReference> indexed = index.get(key);
+			if (indexed == null) {
+				return Collections.emptySet();
+			}
+			return new LinkedHashSet<IAopReference>(indexed);
+		}
+		finally {
+			r.unlock();
+		}
+	}
+
+	private <K> void addToIndex(Map<K, Set<IAopReference>> index, K key, IAopReference reference) {
+		if (key == null) {
+			return;
+		}
+		Set<IAopReference> indexed = index.get(key);
+		if (indexed == null) {
+			indexed = new LinkedHashSet<IAopReference>();
+			index.put(key, indexed);
+		}
+		indexed.add(reference);
+	}
+
+	private <K> void removeFromIndex(Map<K, Set<IAopReference>> index, K key, IAopReference reference) {
+		if (key == null) {
+			return;
+		}
+		Set<IAopReference> indexed = index.get(key);
+		if (indexed != null) {
+			indexed.remove(reference);
+			if (indexed.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	private IResource getDefinitionResource(IAopReference reference) {
+		return (reference.getDefinition() != null ? reference.getDefinition().getResource() : null);
+	}
+
+	private Set<IResource> getRelatedResources(IAopReference reference) {
+		Set<IResource> resources = new LinkedHashSet<IResource>(5);
+		resources.add(reference.getResource());
+		resources.add(getDefinitionResource(reference));
+		resources.add(reference.getTargetBeanResource());
+		if (reference.getSource() != null) {
+			resources.add(reference.getSource().getResource());
+		}
+		if (reference.getTarget() != null) {
+			resources.add(reference.getTarget().getResource());
+		}
+		resources.remove(null);
+		return resources;
+	}
 }
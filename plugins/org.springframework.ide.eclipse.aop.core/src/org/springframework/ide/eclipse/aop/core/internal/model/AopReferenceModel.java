@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,11 +23,11 @@ import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.AspectDefinitionMatchCache;
 import org.springframework.ide.eclipse.aop.core.model.IAopModelChangedListener;
 import org.springframework.ide.eclipse.aop.core.model.IAopProject;
 import org.springframework.ide.eclipse.aop.core.model.IAopReference;
 import org.springframework.ide.eclipse.aop.core.model.IAopReferenceModel;
-import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelUtils;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.core.internal.model.resources.SpringResourceChangeListener;
 
@@ -59,9 +59,9 @@ public class AopReferenceModel implements IAopReferenceModel {
 
 	public List<IAopReference> getAdviceDefinition(IJavaElement je) {
 		List<IAopReference> advices = new LinkedList<IAopReference>();
-		for (IAopReference reference : getAllReferences()) {
-			if (reference.getSource() != null && reference.getSource().equals(je)) {
-				advices.add(reference);
+		if (je != null) {
+			for (IAopProject project : projects.values()) {
+				advices.addAll(project.getReferencesForSource(je));
 			}
 		}
 		return advices;
@@ -77,15 +77,9 @@ public class AopReferenceModel implements IAopReferenceModel {
 
 	public List<IAopReference> getAllReferencesForResource(IResource resource) {
 		List<IAopReference> references = new ArrayList<IAopReference>();
-		for (IAopReference ref : getAllReferences()) {
-			if ((ref.getResource() != null && ref.getResource().equals(resource))
-					|| (AopReferenceModelUtils.getBeanFromElementId(ref.getTargetBeanId()) != null && resource
-							.equals(AopReferenceModelUtils.getBeanFromElementId(ref.getTargetBeanId())
-									.getElementResource()))
-					|| (ref.getSource() != null && resource.equals(ref.getSource().getResource()))
-					|| (ref.getTarget() != null && resource.equals(ref.getTarget().getResource()))
-					|| (ref.getDefinition().getResource().equals(resource))) {
-				references.add(ref);
+		if (resource != null) {
+			for (IAopProject project : projects.values()) {
+				references.addAll(project.getAllReferencesForResource(resource));
 			}
 		}
 		return references;
@@ -111,14 +105,20 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public boolean isAdvice(IJavaElement je) {
-		return getAdviceDefinition(je).size() > 0;
+		if (je != null) {
+			for (IAopProject project : projects.values()) {
+				if (!project.getReferencesForSource(je).isEmpty()) {
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 
 	public boolean isAdvised(IJavaElement je) {
 		if (je != null) {
-			List<IAopReference> references = getAllReferences();
-			for (IAopReference reference : references) {
-				if (reference.getTarget().equals(je)) {
+			for (IAopProject project : projects.values()) {
+				if (!project.getReferencesForTarget(je).isEmpty()) {
 					return true;
 				}
 			}
@@ -129,9 +129,8 @@ public class AopReferenceModel implements IAopReferenceModel {
 	public boolean isAdvised(IBean bean) {
 		if (bean != null) {
 			String beanId = bean.getElementID();
-			List<IAopReference> references = getAllReferences();
-			for (IAopReference reference : references) {
-				if (reference.getTargetBeanId().equals(beanId)) {
+			for (IAopProject project : projects.values()) {
+				if (!project.getReferencesForTargetBean(beanId).isEmpty()) {
 					return true;
 				}
 			}
@@ -148,6 +147,7 @@ public class AopReferenceModel implements IAopReferenceModel {
 		for (IJavaProject jp : projects.keySet()) {
 			if (jp.equals(project)) {
 				projects.remove(jp);
+				AspectDefinitionMatchCache.clear(jp.getProject());
 				fireModelChanged();
 				break;
 			}
@@ -156,6 +156,7 @@ public class AopReferenceModel implements IAopReferenceModel {
 
 	public synchronized void clearProjects() {
 		this.projects.clear();
+		AspectDefinitionMatchCache.clear();
 	}
 
 	public void shutdown() {
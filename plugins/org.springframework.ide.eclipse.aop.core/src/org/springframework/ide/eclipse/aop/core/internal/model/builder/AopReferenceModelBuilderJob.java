@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 - 2013 Spring IDE Developers
+ * Copyright (c) 2007 - 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -44,6 +45,7 @@ import org.springframework.ide.eclipse.aop.core.internal.model.AopReferenceModel
 import org.springframework.ide.eclipse.aop.core.internal.model.BeanAspectDefinition;
 import org.springframework.ide.eclipse.aop.core.internal.model.BeanIntroductionDefinition;
 import org.springframework.ide.eclipse.aop.core.internal.model.JavaAdvisorDefinition;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.AspectDefinitionMatchCache.CachedMatch;
 import org.springframework.ide.eclipse.aop.core.logging.AopLog;
 import org.springframework.ide.eclipse.aop.core.model.IAopProject;
 import org.springframework.ide.eclipse.aop.core.model.IAopReference;
@@ -62,6 +64,9 @@ import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.ClassUtils;
 import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.typehierarchy.BytecodeTypeHierarchyClassReaderFactory;
+import org.springframework.ide.eclipse.core.java.typehierarchy.DirectTypeHierarchyElementCacheFactory;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
 import org.springframework.ide.eclipse.core.model.IModelElement;
 
 /**
@@ -99,6 +104,25 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	private AspectDefinitionBuilderHelper aspectDefinitionBuilder;
 
+	private AspectDefinitionMatchCache matchCache = null;
+
+	private PointcutTypePatternFilter pointcutTypeFilter = null;
+
+	/** Reads the type hierarchies of this job; the job runs after the build and can't share the build's engine */
+	private TypeHierarchyEngine typeEngine = null;
+
+	/** Bean class and all its super types per project and class name; <code>null</code> if not fully resolvable */
+	private Map<String, Set<String>> typeHierarchyCache = null;
+
+	/** Modification stamps of the source files of types per project and class name */
+	private Map<String, Long> typeStampCache = null;
+
+	private int cachedMatches;
+
+	private int filteredMatches;
+
+	private int matchedPairs;
+
 	/**
 	 * Constructor to create a {@link AopReferenceModelBuilderJob} instance.
 	 * @param affectedResources the set of resources that should be processed
@@ -204,6 +228,42 @@ public class AopReferenceModelBuilderJob extends Job {
 				return;
 			}
 
+			String matchKey = null;
+			long matchStamp = 0;
+			boolean ruledOut = false;
+			if (info instanceof BeanAspectDefinition && !(info instanceof BeanIntroductionDefinition)) {
+				Set<String> targetTypes = getTypeHierarchy(file.getProject(), className);
+
+				// rule out beans that can't match before creating and matching the pointcut; the bean class still
+				// gets loaded below, so that classes missing from the class path are reported as before
+				if (targetTypes != null && !pointcutTypeFilter.mayMatch(info.getPointcutExpression(), targetTypes)) {
+					filteredMatches++;
+					ruledOut = true;
+				}
+
+				// reuse the result of a previous build if neither the bean, the aspect nor their types changed
+				Set<String> aspectTypes = getTypeHierarchy(file.getProject(), info.getAspectClassName());
+				if (!ruledOut && matchCache != null && targetTypes != null && aspectTypes != null && project != null
+						&& project.equals(file.getProject()) && AspectDefinitionMatchCache.isCacheable(info)) {
+					matchKey = AspectDefinitionMatchCache.getKey(bean, className, info);
+					matchStamp = 31 * getTypeStamp(project, targetTypes) + getTypeStamp(project, aspectTypes);
+
+					CachedMatch cachedMatch = matchCache.get(matchKey, matchStamp);
+					if (cachedMatch != null) {
+						cachedMatches++;
+						addAopReferences(bean, info, file, aopProject, cachedMatch.getAdviceMethod(), cachedMatch
+								.getMatchingMethods());
+						return;
+					}
+				}
+				if (!ruledOut) {
+					matchedPairs++;
+				}
+			}
+			final String finalMatchKey = matchKey;
+			final long finalMatchStamp = matchStamp;
+			final boolean finalRuledOut = ruledOut;
+
 			// do in context of active weaving class loader
 			this.classLoaderSupport.executeCallback(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
 
@@ -219,6 +279,9 @@ public class AopReferenceModelBuilderJob extends Job {
 						ClassLoader loader = JdtUtils.getClassLoader(file.getProject(), null);
 						targetClass = ClassUtils.loadClass(className, loader);
 					}
+					if (finalRuledOut) {
+						return;
+					}
 
 					// handle introductions first
 					if (info instanceof BeanIntroductionDefinition) {
@@ -261,12 +324,10 @@ public class AopReferenceModelBuilderJob extends Job {
 							// long start = System.currentTimeMillis();
 							Set<IMethod> matchingMethods = aspectDefinitionMatcher.matches(targetClass, bean, info,
 									aopProject.getProject().getProject());
-							for (IMethod method : matchingMethods) {
-								IAopReference ref = new AopReference(info.getType(), jdtAspectMethod, JdtUtils
-										.getLineNumber(jdtAspectMethod), method, JdtUtils.getLineNumber(method), info,
-										file, bean);
-								aopProject.addAopReference(ref);
+							if (finalMatchKey != null) {
+								matchCache.put(finalMatchKey, finalMatchStamp, jdtAspectMethod, matchingMethods);
 							}
+							addAopReferences(bean, info, file, aopProject, jdtAspectMethod, matchingMethods);
 							// System.out.println(String.format("--- matching on '%s' took '%s'", targetClass, (System
 							// .currentTimeMillis() - start)));
 						}
@@ -279,6 +340,76 @@ public class AopReferenceModelBuilderJob extends Job {
 		}
 	}
 
+	private void addAopReferences(IBean bean, IAspectDefinition info, IResource file, IAopProject aopProject,
+			IMethod jdtAspectMethod, Set<IMethod> matchingMethods) {
+		for (IMethod method : matchingMethods) {
+			IAopReference ref = new AopReference(info.getType(), jdtAspectMethod, JdtUtils
+					.getLineNumber(jdtAspectMethod), method, JdtUtils.getLineNumber(method), info, file, bean);
+			aopProject.addAopReference(ref);
+		}
+	}
+
+	/**
+	 * Returns the names of the given class and all its super classes and interfaces or <code>null</code> if the
+	 * type hierarchy of the class can't be fully resolved.
+	 */
+	private Set<String> getTypeHierarchy(IProject project, String className) {
+		if (className == null) {
+			return null;
+		}
+		String key = project.getName() + "|" + className;
+		if (typeHierarchyCache.containsKey(key)) {
+			return typeHierarchyCache.get(key);
+		}
+
+		Set<String> typeNames = new LinkedHashSet<>();
+		List<String> todo = new LinkedList<>();
+		todo.add(className);
+		while (!todo.isEmpty()) {
+			String typeName = todo.remove(0);
+			if (!typeNames.add(typeName) || Object.class.getName().equals(typeName)) {
+				continue;
+			}
+			String superclassName = typeEngine.getSupertype(project, typeName);
+			if (superclassName == null) {
+				// every type but java.lang.Object has a super class, so this type couldn't be found
+				typeNames = null;
+				break;
+			}
+			todo.add(superclassName);
+			String[] interfaceNames = typeEngine.getInterfaces(project, typeName);
+			if (interfaceNames != null) {
+				for (String interfaceName : interfaceNames) {
+					todo.add(interfaceName);
+				}
+			}
+		}
+		typeHierarchyCache.put(key, typeNames);
+		return typeNames;
+	}
+
+	/**
+	 * Combines the modification stamps of the source files of the given types. Binary types don't contribute, the
+	 * {@link AspectDefinitionMatchCache} is dropped on class path changes.
+	 */
+	private long getTypeStamp(IProject project, Set<String> typeNames) {
+		long stamp = 17;
+		for (String typeName : typeNames) {
+			String key = project.getName() + "|" + typeName;
+			Long typeStamp = typeStampCache.get(key);
+			if (typeStamp == null) {
+				typeStamp = 0L;
+				IType type = JdtUtils.getJavaType(project, typeName);
+				if (type != null && !type.isBinary() && type.getResource() != null) {
+					typeStamp = type.getResource().getModificationStamp();
+				}
+				typeStampCache.put(key, typeStamp);
+			}
+			stamp = 31 * stamp + typeStamp;
+		}
+		return stamp;
+	}
+
 	private void buildAopReferencesForBeans(IModelElement config, IAspectDefinition info, IProgressMonitor monitor,
 			IResource file, IAopProject aopProject, Set<IBean> beans) {
 
@@ -439,6 +570,16 @@ public class AopReferenceModelBuilderJob extends Job {
 		aspectDefinitionCache = new HashMap<>();
 		aspectDefinitionBuilder = new AspectDefinitionBuilderHelper();
 		classLoaderSupport = createWeavingClassLoaderSupport();
+		matchCache = AspectDefinitionMatchCache.getCache(project);
+		pointcutTypeFilter = new PointcutTypePatternFilter();
+		typeEngine = new TypeHierarchyEngine(false);
+		typeEngine.setClassReaderFactory(new BytecodeTypeHierarchyClassReaderFactory());
+		typeEngine.setTypeHierarchyElementCacheFactory(new DirectTypeHierarchyElementCacheFactory());
+		typeHierarchyCache = new HashMap<>();
+		typeStampCache = new HashMap<>();
+		cachedMatches = 0;
+		filteredMatches = 0;
+		matchedPairs = 0;
 
 		monitor.beginTask(Activator.getFormattedMessage("AopReferenceModelBuilder.startBuildingAopReferenceModel"),
 				affectedResources.size());
@@ -484,10 +625,15 @@ public class AopReferenceModelBuilderJob extends Job {
 			}
 
 			AopLog.logEnd(AopLog.BUILDER, PROCESSING_TOOK_MSG);
+			if (DEBUG_BUILDER) {
+				System.out.println(String.format("> aop model matching: %s pairs matched, %s taken from cache, %s ruled out by type patterns",
+						matchedPairs, cachedMatches, filteredMatches));
+			}
 		}
 		finally {
 			aspectDefinitionMatcher.close();
 			aspectDefinitionBuilder.close();
+			typeEngine.cleanup();
 			// schedule marker update job
 			markerJob.schedule();
 		}
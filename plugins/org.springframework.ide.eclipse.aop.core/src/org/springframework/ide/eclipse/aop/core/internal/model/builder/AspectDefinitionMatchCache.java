@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.springframework.ide.eclipse.aop.core.model.IAspectDefinition;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher.IJavaElementDeltaListener;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+
+/**
+ * Per-project cache of the results of matching an {@link IAspectDefinition} against a single {@link IBean}.
+ * <p>
+ * The pointcut objects used by the {@link AspectDefinitionMatcher} hold on to classes of the weaving class loader
+ * of a single build and can't be reused across builds. The outcome of a match however only depends on the bean
+ * definition, the aspect definition and the classes involved. Entries are therefore keyed by bean, bean class and
+ * aspect definition (including its pointcut expression) and carry a stamp of the sources of the bean class, the
+ * aspect class and their super types. A following build only re-matches the pairs whose key or stamp changed.
+ * <p>
+ * Binary types are not part of the stamp. Instead the cache of a project is dropped as soon as the
+ * {@link JavaElementDeltaDispatcher} reports a change of the project's class path, of a container, library or
+ * project on it, or of a class file in one of its class folders.
+ *
+ * @since 3.9.22
+ */
+public class AspectDefinitionMatchCache {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.aop.core.incrementalMatching";
+
+	public static final String SIZE_PROPERTY = "org.springframework.ide.eclipse.aop.core.matchCacheSize";
+
+	private static final int MAX_SIZE = Integer.getInteger(SIZE_PROPERTY, 10000);
+
+	private static final ConcurrentMap<IProject, AspectDefinitionMatchCache> CACHES = new ConcurrentHashMap<IProject, AspectDefinitionMatchCache>();
+
+	private final IProject project;
+
+	private final IJavaElementDeltaListener listener = new CacheInvalidatingListener();
+
+	private final Map<String, CachedMatch> matches = new LinkedHashMap<String, CachedMatch>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedMatch> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private AspectDefinitionMatchCache(IProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Returns the cache for the given project or <code>null</code> if incremental matching is disabled.
+	 * @param project the project the build runs for
+	 */
+	public static AspectDefinitionMatchCache getCache(IProject project) {
+		if (!isEnabled() || MAX_SIZE <= 0 || project == null) {
+			return null;
+		}
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		if (javaProject == null) {
+			return null;
+		}
+
+		AspectDefinitionMatchCache cache = CACHES.get(project);
+		if (cache == null) {
+			AspectDefinitionMatchCache newCache = new AspectDefinitionMatchCache(project);
+			cache = CACHES.putIfAbsent(project, newCache);
+			if (cache == null) {
+				cache = newCache;
+				JavaElementDeltaDispatcher.addListener(cache.listener, javaProject);
+				if (CACHES.get(project) != cache) {
+					// cleared while registering
+					JavaElementDeltaDispatcher.removeListener(cache.listener);
+				}
+			}
+		}
+		return cache;
+	}
+
+	public static void clear(IProject project) {
+		AspectDefinitionMatchCache cache = CACHES.remove(project);
+		if (cache != null) {
+			JavaElementDeltaDispatcher.removeListener(cache.listener);
+		}
+	}
+
+	public static void clear() {
+		for (IProject project : CACHES.keySet()) {
+			clear(project);
+		}
+	}
+
+	/**
+	 * Returns the key for matching the given aspect definition against the given bean.
+	 */
+	public static String getKey(IBean bean, String className, IAspectDefinition info) {
+		StringBuilder key = new StringBuilder();
+		key.append(bean.getElementID()).append('|');
+		key.append(className).append('|');
+		key.append(bean.getElementName());
+		if (bean.getAliases() != null) {
+			key.append(Arrays.toString(bean.getAliases()));
+		}
+		key.append('|');
+		key.append(getDefinitionKey(info));
+		return key.toString();
+	}
+
+	/**
+	 * Returns a key that identifies the given aspect definition by everything that is used to create and match
+	 * its pointcut. Definitions with equal keys result in the same matches.
+	 */
+	public static String getDefinitionKey(IAspectDefinition info) {
+		StringBuilder key = new StringBuilder();
+		key.append(info.getClass().getName()).append('|');
+		key.append(info.getAspectClassName()).append('|');
+		key.append(info.getAdviceMethodName());
+		key.append(Arrays.toString(info.getAdviceMethodParameterTypes())).append('|');
+		key.append(info.getType()).append('|');
+		key.append(info.getPointcutExpression()).append('|');
+		key.append(info.getReturning()).append('|');
+		key.append(info.getThrowing()).append('|');
+		key.append(Arrays.toString(info.getArgNames())).append('|');
+		key.append(info.isProxyTargetClass());
+		return key.toString();
+	}
+
+	/**
+	 * Returns <code>true</code> if matches of the given aspect definition can be cached. That is not the case for
+	 * pointcuts that refer to named pointcuts, as those may be declared in classes that are not part of the stamp,
+	 * and for pointcuts whose matches depend on the hierarchies of argument, return or exception types.
+	 */
+	public static boolean isCacheable(IAspectDefinition info) {
+		return PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly(info.getPointcutExpression())
+				&& !PointcutTypePatternFilter.usesArgumentTypes(info.getPointcutExpression());
+	}
+
+	/**
+	 * Returns the cached match for the given key or <code>null</code> if there is none for the given stamp.
+	 */
+	public synchronized CachedMatch get(String key, long stamp) {
+		CachedMatch match = matches.get(key);
+		if (match != null && match.getStamp() != stamp) {
+			matches.remove(key);
+			return null;
+		}
+		return match;
+	}
+
+	public synchronized void put(String key, long stamp, IMethod adviceMethod, Set<IMethod> matchingMethods) {
+		matches.put(key, new CachedMatch(stamp, adviceMethod, matchingMethods));
+	}
+
+	private static boolean isEnabled() {
+		return Boolean.valueOf(System.getProperty(ENABLE_PROPERTY, "true"));
+	}
+
+	/**
+	 * Drops the cache when binary types on the class path may have changed. Changes of source files are covered by
+	 * the stamps of the entries.
+	 */
+	private class CacheInvalidatingListener implements IJavaElementDeltaListener {
+
+		public void classPathChanged(IJavaProject changedProject) {
+			if (CACHES.remove(project, AspectDefinitionMatchCache.this)) {
+				JavaElementDeltaDispatcher.removeListener(this);
+			}
+		}
+
+		public void openablesChanged(List<IJavaElementDelta> deltas) {
+			for (IJavaElementDelta delta : deltas) {
+				if (delta.getElement() instanceof IClassFile) {
+					classPathChanged(delta.getElement().getJavaProject());
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The result of matching an aspect definition against a bean.
+	 */
+	public static class CachedMatch {
+
+		private final long stamp;
+
+		private final IMethod adviceMethod;
+
+		private final Set<IMethod> matchingMethods;
+
+		public CachedMatch(long stamp, IMethod adviceMethod, Set<IMethod> matchingMethods) {
+			this.stamp = stamp;
+			this.adviceMethod = adviceMethod;
+			this.matchingMethods = Collections.unmodifiableSet(new LinkedHashSet<IMethod>(matchingMethods));
+		}
+
+		public long getStamp() {
+			return stamp;
+		}
+
+		public IMethod getAdviceMethod() {
+			return adviceMethod;
+		}
+
+		public Set<IMethod> getMatchingMethods() {
+			return matchingMethods;
+		}
+	}
+
+}
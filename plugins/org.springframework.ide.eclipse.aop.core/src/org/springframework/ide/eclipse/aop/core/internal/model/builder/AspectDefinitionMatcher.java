@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -56,8 +56,12 @@ import org.springframework.util.ReflectionUtils;
  */
 public class AspectDefinitionMatcher {
 
-	/** Internal cache to used with {@link AspectJExpressionPointcut} */
-	private Map<IAspectDefinition, Object> pointcutExpressionCache = new HashMap<IAspectDefinition, Object>();
+	/**
+	 * Internal cache to used with {@link AspectJExpressionPointcut}; keyed by
+	 * {@link AspectDefinitionMatchCache#getDefinitionKey(IAspectDefinition)} to share pointcuts between equal aspect
+	 * definitions of different config files
+	 */
+	private Map<String, Object> pointcutExpressionCache = new HashMap<String, Object>();
 
 	/**
 	 * Returns all matches on {@link Method} in form of the corresponding {@link IMethod}.
@@ -179,12 +183,13 @@ public class AspectDefinitionMatcher {
 	private Object createAspectJPointcutExpression(IAspectDefinition info) throws Throwable {
 		try {
 
-			if (pointcutExpressionCache.containsKey(info)) {
-				return pointcutExpressionCache.get(info);
+			String key = AspectDefinitionMatchCache.getDefinitionKey(info);
+			if (pointcutExpressionCache.containsKey(key)) {
+				return pointcutExpressionCache.get(key);
 			}
 
 			Object pc = initAspectJExpressionPointcut(info);
-			pointcutExpressionCache.put(info, pc);
+			pointcutExpressionCache.put(key, pc);
 
 			Class<?> aspectJAdviceClass = AspectJAdviceClassFactory.getAspectJAdviceClass(info);
 			Class<?> aspectInstanceFactoryClass = ClassUtils
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Cheap pre-check that rules out beans a pointcut expression can't match before the pointcut gets created and
+ * matched against the methods of the bean class.
+ * <p>
+ * The filter only looks at pointcut expressions that are a plain conjunction of the designators supported by Spring
+ * AOP, so that malformed expressions and references to named pointcuts are still reported when the pointcut gets
+ * created. For every
+ * <code>within(..)</code> and <code>execution(..)</code> designator of such an expression the declaring type
+ * pattern is extracted; a bean can only be matched if each of these patterns matches the bean class or one of its
+ * super classes and interfaces. Expressions and patterns the filter does not understand (disjunctions, negations,
+ * annotation and generic patterns, simple type names that depend on the imports of the aspect, etc.) never rule
+ * out any bean.
+ *
+ * @since 3.9.22
+ */
+public class PointcutTypePatternFilter {
+
+	/** The pointcut designators supported by Spring AOP */
+	private static final Set<String> PRIMITIVE_DESIGNATORS = new HashSet<String>(Arrays.asList("execution", "within",
+			"this", "target", "args", "@annotation", "@within", "@target", "@args", "bean"));
+
+	/** Designators whose matches depend on the types of the arguments or the runtime type of the bean */
+	private static final Set<String> ARGUMENT_DESIGNATORS = new HashSet<String>(Arrays.asList("this", "target",
+			"args", "@args"));
+
+	/** Return and parameter type patterns of <code>execution(..)</code> that don't refer to any class */
+	private static final Set<String> NON_CLASS_TYPE_PATTERNS = new HashSet<String>(Arrays.asList("*", "..", "void",
+			"boolean", "byte", "char", "short", "int", "long", "float", "double"));
+
+	private static final Pattern TYPE_PATTERN = Pattern.compile("[\\w$.*]+\\+?");
+
+	/** Compiled type patterns per pointcut expression; an empty list means the expression can't be used to filter */
+	private final Map<String, List<Pattern>> typePatterns = new HashMap<String, List<Pattern>>();
+
+	/**
+	 * Returns <code>false</code> if a pointcut with the given expression can't match any method of a class with
+	 * the given type hierarchy.
+	 * @param expression the pointcut expression
+	 * @param typeNames the fully qualified names of the bean class and all its super classes and interfaces
+	 */
+	public boolean mayMatch(String expression, Set<String> typeNames) {
+		if (expression == null || typeNames == null || typeNames.isEmpty()) {
+			return true;
+		}
+
+		List<Pattern> patterns = typePatterns.get(expression);
+		if (patterns == null) {
+			patterns = compile(expression);
+			typePatterns.put(expression, patterns);
+		}
+
+		for (Pattern pattern : patterns) {
+			if (!matchesAny(pattern, typeNames)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given expression only uses the pointcut designators supported by Spring AOP,
+	 * i.e. it does not reference named pointcuts that are declared elsewhere.
+	 */
+	public static boolean usesPrimitiveDesignatorsOnly(String expression) {
+		if (expression == null) {
+			return false;
+		}
+
+		int i = 0;
+		while (i < expression.length()) {
+			char c = expression.charAt(i);
+			if (Character.isJavaIdentifierStart(c) || c == '@') {
+				int start = i;
+				while (i < expression.length() && isWordPart(expression.charAt(i))) {
+					i++;
+				}
+				String word = expression.substring(start, i);
+				int next = skipWhitespace(expression, i);
+				if (next < expression.length() && expression.charAt(next) == '(') {
+					if (!PRIMITIVE_DESIGNATORS.contains(word)) {
+						return false;
+					}
+					// don't look into the arguments of the designator
+					i = findClosingParenthesis(expression, next);
+					if (i < 0) {
+						return false;
+					}
+					i++;
+				}
+			}
+			else {
+				i++;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if a match of the given expression may depend on classes other than the bean class,
+	 * the aspect class and their super types: <code>this(..)</code>, <code>target(..)</code>,
+	 * <code>args(..)</code> and <code>@args(..)</code> designators as well as <code>execution(..)</code> designators
+	 * with return, parameter or exception type patterns that refer to classes. Returns <code>true</code> for
+	 * expressions that can't be read as well.
+	 */
+	public static boolean usesArgumentTypes(String expression) {
+		if (expression == null) {
+			return true;
+		}
+
+		int i = 0;
+		while (i < expression.length()) {
+			char c = expression.charAt(i);
+			if (Character.isJavaIdentifierStart(c) || c == '@') {
+				int start = i;
+				while (i < expression.length() && isWordPart(expression.charAt(i))) {
+					i++;
+				}
+				String word = expression.substring(start, i);
+				int next = skipWhitespace(expression, i);
+				if (next < expression.length() && expression.charAt(next) == '(') {
+					i = findClosingParenthesis(expression, next);
+					if (i < 0 || ARGUMENT_DESIGNATORS.contains(word)) {
+						return true;
+					}
+					if ("execution".equals(word) && usesClassTypes(expression.substring(next + 1, i))) {
+						return true;
+					}
+					i++;
+				}
+			}
+			else {
+				i++;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks the return, parameter and exception type patterns of the body of an <code>execution(..)</code>
+	 * designator, e.g. <code>* com.foo..*.get*(..)</code>.
+	 */
+	private static boolean usesClassTypes(String execution) {
+		int parameters = execution.indexOf('(');
+		int parametersEnd = (parameters < 0 ? -1 : findClosingParenthesis(execution, parameters));
+		if (parametersEnd < 0 || execution.substring(parametersEnd + 1).trim().length() > 0) {
+			// unreadable or a throws clause
+			return true;
+		}
+
+		String[] tokens = execution.substring(0, parameters).trim().split("\\s+");
+		if (tokens.length < 2 || !NON_CLASS_TYPE_PATTERNS.contains(tokens[tokens.length - 2])) {
+			return true;
+		}
+
+		String parameterList = execution.substring(parameters + 1, parametersEnd).trim();
+		if (parameterList.length() > 0) {
+			for (String parameter : parameterList.split(",")) {
+				if (!NON_CLASS_TYPE_PATTERNS.contains(parameter.trim())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private List<Pattern> compile(String expression) {
+		List<Pattern> patterns = new ArrayList<Pattern>();
+		if (!usesPrimitiveDesignatorsOnly(expression) || expression.contains("||") || expression.contains("!") || containsWord(expression, "or")
+				|| containsWord(expression, "not")) {
+			return patterns;
+		}
+
+		List<String> conjuncts = new ArrayList<String>();
+		if (!collectConjuncts(expression.trim(), conjuncts)) {
+			return patterns;
+		}
+
+		for (String conjunct : conjuncts) {
+			String typePattern = null;
+			if (conjunct.startsWith("within(") && conjunct.endsWith(")")) {
+				typePattern = conjunct.substring("within(".length(), conjunct.length() - 1).trim();
+			}
+			else if (conjunct.startsWith("execution(") && conjunct.endsWith(")")) {
+				typePattern = getDeclaringTypePattern(conjunct.substring("execution(".length(), conjunct.length() - 1));
+			}
+
+			Pattern pattern = toRegex(typePattern);
+			if (pattern != null) {
+				patterns.add(pattern);
+			}
+		}
+		return patterns;
+	}
+
+	/**
+	 * Splits the given expression into its top-level <code>&&</code> (or <code>and</code>) operands, unwrapping
+	 * parenthesized groups. Returns <code>false</code> if the expression is not well-formed.
+	 */
+	private boolean collectConjuncts(String expression, List<String> conjuncts) {
+		while (expression.startsWith("(")) {
+			int end = findClosingParenthesis(expression, 0);
+			if (end < 0) {
+				return false;
+			}
+			if (end != expression.length() - 1) {
+				break;
+			}
+			expression = expression.substring(1, end).trim();
+		}
+
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+				if (depth < 0) {
+					return false;
+				}
+			}
+			else if (depth == 0) {
+				int operatorLength = 0;
+				if (expression.startsWith("&&", i)) {
+					operatorLength = 2;
+				}
+				else if (expression.startsWith("and", i) && isWordBoundary(expression, i, 3)) {
+					operatorLength = 3;
+				}
+				if (operatorLength > 0) {
+					String operand = expression.substring(start, i).trim();
+					if (operand.length() == 0 || !collectConjuncts(operand, conjuncts)) {
+						return false;
+					}
+					start = i + operatorLength;
+					i = start - 1;
+				}
+			}
+		}
+		if (depth != 0) {
+			return false;
+		}
+
+		String operand = expression.substring(start).trim();
+		if (operand.length() == 0) {
+			return false;
+		}
+		if (start == 0) {
+			conjuncts.add(operand);
+			return true;
+		}
+		return collectConjuncts(operand, conjuncts);
+	}
+
+	/**
+	 * Extracts the declaring type pattern from the body of an <code>execution(..)</code> designator, e.g.
+	 * <code>com.foo..*</code> from <code>* com.foo..*.get*(..)</code>.
+	 */
+	private String getDeclaringTypePattern(String execution) {
+		int parameters = execution.indexOf('(');
+		if (parameters < 0) {
+			return null;
+		}
+		String head = execution.substring(0, parameters).trim();
+		if (head.contains("@") || head.contains("<")) {
+			return null;
+		}
+
+		String[] tokens = head.split("\\s+");
+		String declaringTypeAndName = tokens[tokens.length - 1];
+		int separator = declaringTypeAndName.lastIndexOf('.');
+		if (separator <= 0 || declaringTypeAndName.charAt(separator - 1) == '.') {
+			// no declaring type or a trailing '..' pattern
+			return null;
+		}
+		return declaringTypeAndName.substring(0, separator);
+	}
+
+	/**
+	 * Converts an AspectJ type pattern into a regular expression. Returns <code>null</code> for patterns that
+	 * either match any type or are not supported.
+	 */
+	private Pattern toRegex(String typePattern) {
+		if (typePattern == null || !TYPE_PATTERN.matcher(typePattern).matches()) {
+			return null;
+		}
+		if (typePattern.endsWith("+")) {
+			// the pattern is matched against all super types anyway
+			typePattern = typePattern.substring(0, typePattern.length() - 1);
+		}
+		if (typePattern.indexOf('.') < 0 || typePattern.indexOf("...") >= 0 || typePattern.startsWith(".")
+				|| typePattern.endsWith(".")) {
+			// simple type names depend on the imports of the aspect
+			return null;
+		}
+
+		StringBuilder regex = new StringBuilder();
+		for (int i = 0; i < typePattern.length(); i++) {
+			char c = typePattern.charAt(i);
+			if (c == '.') {
+				if (i + 1 < typePattern.length() && typePattern.charAt(i + 1) == '.') {
+					regex.append("\\.(?:.*\\.)?");
+					i++;
+				}
+				else {
+					regex.append("\\.");
+				}
+			}
+			else if (c == '*') {
+				regex.append("[^.]*");
+			}
+			else if (c == '$') {
+				regex.append("\\$");
+			}
+			else {
+				regex.append(c);
+			}
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	private boolean matchesAny(Pattern pattern, Set<String> typeNames) {
+		for (String typeName : typeNames) {
+			if (pattern.matcher(typeName).matches()
+					|| (typeName.indexOf('$') >= 0 && pattern.matcher(typeName.replace('$', '.')).matches())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsWord(String expression, String word) {
+		int index = expression.indexOf(word);
+		while (index >= 0) {
+			if (isWordBoundary(expression, index, word.length())) {
+				return true;
+			}
+			index = expression.indexOf(word, index + 1);
+		}
+		return false;
+	}
+
+	private static boolean isWordBoundary(String expression, int start, int length) {
+		return (start == 0 || !isWordPart(expression.charAt(start - 1)))
+				&& (start + length == expression.length() || !isWordPart(expression.charAt(start + length)));
+	}
+
+	private static boolean isWordPart(char c) {
+		return Character.isJavaIdentifierPart(c) || c == '.' || c == '*' || c == '@';
+	}
+
+	private static int skipWhitespace(String expression, int index) {
+		while (index < expression.length() && Character.isWhitespace(expression.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	private static int findClosingParenthesis(String expression, int open) {
+		int depth = 0;
+		for (int i = open; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+}
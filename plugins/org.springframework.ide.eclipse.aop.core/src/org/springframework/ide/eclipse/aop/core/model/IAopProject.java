@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 Spring IDE Developers
+ * Copyright (c) 2006, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.aop.core.model;
 import java.util.Set;
 
 import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 
 /**
@@ -29,4 +30,29 @@ public interface IAopProject {
 	void clearReferencesForResource(IResource resource);
 
 	Set<IAopReference> getReferencesForResource(IResource resource);
+
+	/**
+	 * Returns all references that advise the given java element.
+	 * @since 3.9.22
+	 */
+	Set<IAopReference> getReferencesForTarget(IJavaElement target);
+
+	/**
+	 * Returns all references whose advice is the given java element.
+	 * @since 3.9.22
+	 */
+	Set<IAopReference> getReferencesForSource(IJavaElement source);
+
+	/**
+	 * Returns all references that advise the bean with the given element id.
+	 * @since 3.9.22
+	 */
+	Set<IAopReference> getReferencesForTargetBean(String beanId);
+
+	/**
+	 * Returns all references that are related to the given resource in any way, i.e. by their aspect definition,
+	 * their advice, their target or their target bean.
+	 * @since 3.9.22
+	 */
+	Set<IAopReference> getAllReferencesForResource(IResource resource);
 }
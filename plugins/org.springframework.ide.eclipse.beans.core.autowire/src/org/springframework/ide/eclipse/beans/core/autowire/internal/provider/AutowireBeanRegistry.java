@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.autowire.IFactoryBeanTypeResolver;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.ValidationRuleUtils;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeanAlias;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
+import org.springframework.ide.eclipse.core.java.ClassUtils;
+
+/**
+ * Lookup tables for the beans of a single autowire resolution run.
+ * <p>
+ * The registry is built once with the active project class loader and maps bean names and aliases to beans as
+ * well as every type a bean can be injected as (its class, all super classes and interfaces and the object types
+ * of factory beans, including those contributed by {@link FactoryBeanTypeResolverExtensions}) to the names of the
+ * matching beans. This replaces a scan of all beans for every injection point.
+ *
+ * @since 3.9.22
+ */
+class AutowireBeanRegistry {
+
+	private static final String[] NO_BEAN_NAMES = new String[0];
+
+	private final Map<String, IBean> beansByName = new HashMap<String, IBean>();
+
+	private final Map<String, Set<String>> aliasesByBeanName = new HashMap<String, Set<String>>();
+
+	private final Map<Class<?>, Set<String>> beanNamesByType = new HashMap<Class<?>, Set<String>>();
+
+	/** Array types can't be indexed by their super types and are checked one by one */
+	private final Map<Class<?>, Set<String>> beanNamesByArrayType = new HashMap<Class<?>, Set<String>>();
+
+	private final Map<Class<?>, String[]> beanNamesForType = new HashMap<Class<?>, String[]>();
+
+	public AutowireBeanRegistry(Set<IBean> beans, IBeansModelElement context, Class<?> factoryBeanClass) {
+		Set<IBeanAlias> aliases = Collections.emptySet();
+		if (context instanceof IBeansConfig) {
+			aliases = ((IBeansConfig) context).getAliases();
+		}
+		else if (context instanceof IBeansConfigSet) {
+			aliases = ((IBeansConfigSet) context).getAliases();
+		}
+		for (IBeanAlias alias : aliases) {
+			Set<String> beanAliases = aliasesByBeanName.get(alias.getBeanName());
+			if (beanAliases == null) {
+				beanAliases = new LinkedHashSet<String>();
+				aliasesByBeanName.put(alias.getBeanName(), beanAliases);
+			}
+			beanAliases.add(alias.getElementName());
+		}
+
+		IFactoryBeanTypeResolver[] resolvers = FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers();
+		for (IBean bean : beans) {
+			String beanName = bean.getElementName();
+
+			// the first bean with a matching name or alias wins
+			if (!beansByName.containsKey(beanName)) {
+				beansByName.put(beanName, bean);
+			}
+			for (String alias : getAliases(beanName)) {
+				if (!beansByName.containsKey(alias)) {
+					beansByName.put(alias, bean);
+				}
+			}
+
+			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
+			if (beanClassName != null) {
+				try {
+					Class<?> beanClass = ClassUtils.loadClass(beanClassName);
+					addType(beanClass, beanName);
+					if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
+						addFactoryObjectTypes(bean, beanClass, resolvers);
+					}
+				}
+				catch (ClassNotFoundException e) {
+					// Ignore here as this can easily happen if project class path is not complete
+				}
+				catch (NoClassDefFoundError e) {
+					// Ignore here as this can easily happen if project class path is not complete
+				}
+				catch (Throwable e) {
+					BeansCorePlugin.log(e);
+				}
+			}
+		}
+	}
+
+	public IBean getBean(String beanNameOrAlias) {
+		return beansByName.get(beanNameOrAlias);
+	}
+
+	public String[] getAliases(String beanName) {
+		Set<String> aliases = aliasesByBeanName.get(beanName);
+		return (aliases != null ? aliases.toArray(new String[aliases.size()]) : NO_BEAN_NAMES);
+	}
+
+	public String[] getBeansForType(Class<?> requiredType) {
+		String[] beanNames = beanNamesForType.get(requiredType);
+		if (beanNames == null) {
+			Set<String> matchingBeans = new LinkedHashSet<String>();
+			Set<String> indexedBeans = beanNamesByType.get(requiredType);
+			if (indexedBeans != null) {
+				matchingBeans.addAll(indexedBeans);
+			}
+			for (Map.Entry<Class<?>, Set<String>> entry : beanNamesByArrayType.entrySet()) {
+				if (requiredType.isAssignableFrom(entry.getKey())) {
+					matchingBeans.addAll(entry.getValue());
+				}
+			}
+			beanNames = matchingBeans.toArray(new String[matchingBeans.size()]);
+			beanNamesForType.put(requiredType, beanNames);
+		}
+		return beanNames.clone();
+	}
+
+	private void addFactoryObjectTypes(IBean bean, Class<?> beanClass, IFactoryBeanTypeResolver[] resolvers) {
+		String beanName = bean.getElementName();
+		try {
+			Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
+			if (factoryMethod != null) {
+				addType(factoryMethod.getReturnType(), beanName);
+			}
+		}
+		catch (NoClassDefFoundError e) {
+			// Ignore here as this can easily happen if project class path is not complete
+		}
+		catch (Throwable e) {
+			BeansCorePlugin.log(e);
+		}
+
+		for (IFactoryBeanTypeResolver factoryTypeResolver : resolvers) {
+			Class<?> beanType = factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass);
+			if (beanType != null) {
+				addType(beanType, beanName);
+			}
+		}
+	}
+
+	/**
+	 * Registers the bean under the given type and every type the given type is assignable to.
+	 */
+	private void addType(Class<?> type, String beanName) {
+		if (type.isArray()) {
+			addBeanName(beanNamesByArrayType, type, beanName);
+			return;
+		}
+
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		Set<Class<?>> visited = new HashSet<Class<?>>();
+		types.add(type);
+		while (!types.isEmpty()) {
+			Class<?> current = types.remove(types.size() - 1);
+			if (!visited.add(current)) {
+				continue;
+			}
+			addBeanName(beanNamesByType, current, beanName);
+			if (current.getSuperclass() != null) {
+				types.add(current.getSuperclass());
+			}
+			else if (current.isInterface()) {
+				// interfaces are assignable to Object as well
+				types.add(Object.class);
+			}
+			types.addAll(Arrays.asList(current.getInterfaces()));
+		}
+	}
+
+	private void addBeanName(Map<Class<?>, Set<String>> index, Class<?> type, String beanName) {
+		Set<String> beanNames = index.get(type);
+		if (beanNames == null) {
+			beanNames = new LinkedHashSet<String>();
+			index.put(type, beanNames);
+		}
+		beanNames.add(beanName);
+	}
+
+}
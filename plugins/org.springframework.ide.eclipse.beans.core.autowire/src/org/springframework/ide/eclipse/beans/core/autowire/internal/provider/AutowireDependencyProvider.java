@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -118,6 +118,9 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	private Class<?> objectFactoryClass;
 	private Class<?> providerClass;
 
+	/** Lookup tables for the beans, only available while autowired dependencies get resolved */
+	private AutowireBeanRegistry registry;
+
 	public AutowireDependencyProvider(IBeansModelElement element, IBeansModelElement context) {
 		this.context = (context == null ? element : context);
 		this.element = element;
@@ -145,6 +148,9 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 					// fill in the resolvableDependencies
 					fillResolvableDependencies();
 
+					// index bean names and types once instead of scanning all beans per injection point
+					registry = new AutowireBeanRegistry(beans, context, factoryBeanClass);
+
 					Set<IBean> elementBeans = BeansModelUtils.getBeans(element);
 					for (IInjectionMetadataProvider provider : createInjectionMetadataProviders()) {
 						for (final IBean bean : elementBeans) {
@@ -280,6 +286,9 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 		catch (Throwable e) {
 			BeansCorePlugin.log(e);
 		}
+		finally {
+			registry = null;
+		}
 
 		return autowiredBeanReferences;
 	}
@@ -309,6 +318,10 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public String[] getAliases(String beanName) {
+		if (registry != null) {
+			return registry.getAliases(beanName);
+		}
+
 		Set<String> aliases = new HashSet<String>();
 		if (context instanceof IBeansConfig) {
 			for (IBeanAlias alias : ((IBeansConfig) context).getAliases()) {
@@ -328,6 +341,10 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public IBean getBean(String candidateName) {
+		if (registry != null) {
+			return registry.getBean(candidateName);
+		}
+
 		for (IBean bean : beans) {
 			if (bean.getElementName().equals(candidateName)) {
 				return bean;
@@ -361,6 +378,10 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public String[] getBeansForType(Class<?> requiredType) {
+		if (registry != null) {
+			return registry.getBeansForType(requiredType);
+		}
+
 		Set<String> matchingBeans = new HashSet<String>();
 		
 		for (IBean bean : beans) {
@@ -445,6 +466,7 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 
 	private Set<IInjectionMetadataProvider> createInjectionMetadataProviders() {
 		Set<IInjectionMetadataProvider> providers = new HashSet<IInjectionMetadataProvider>();
+		InjectionMetadataCache sharedCache = InjectionMetadataCache.getCache(project.getProject());
 		String[] autowiredAnnotationBeanPostProcessorNames = getBeansForType(AutowiredAnnotationBeanPostProcessor.class.getName());
 		for (String autowiredAnnotationBeanPostProcessorName : autowiredAnnotationBeanPostProcessorNames) {
 			AutowiredAnnotationInjectionMetadataProvider provider = new AutowiredAnnotationInjectionMetadataProvider(
@@ -466,6 +488,7 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 				}
 			}
 			provider.setProblemReporter(problemReporter);
+			provider.setInjectionMetadataCache(sharedCache);
 			providers.add(provider);
 		}
 
@@ -489,6 +512,7 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 				}
 			}
 			provider.setProblemReporter(problemReporter);
+			provider.setInjectionMetadataCache(sharedCache);
 			providers.add(provider);
 		}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 Spring IDE Developers
+ * Copyright (c) 2009, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -79,6 +80,8 @@ public class AutowiredAnnotationInjectionMetadataProvider implements IInjectionM
 	private final Map<Class<?>, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<Class<?>, InjectionMetadata>();
 
 	private IInjectionMetadataProviderProblemReporter problemReporter = new PassThroughProblemReporter();
+
+	private InjectionMetadataCache sharedCache;
 	
 	/**
 	 * Create a new AutowiredAnnotationBeanPostProcessor for Spring's standard {@link Autowired} annotation.
@@ -103,6 +106,14 @@ public class AutowiredAnnotationInjectionMetadataProvider implements IInjectionM
 		this.problemReporter = problemReporter;
 	}
 
+	/**
+	 * Set the {@link InjectionMetadataCache} that is used to share the annotated members of classes across validation
+	 * runs.
+	 */
+	public void setInjectionMetadataCache(InjectionMetadataCache sharedCache) {
+		this.sharedCache = sharedCache;
+	}
+
 	/**
 	 * Set the 'autowired' annotation type, to be used on constructors, fields, setter methods and arbitrary config
 	 * methods.
@@ -161,84 +172,7 @@ public class AutowiredAnnotationInjectionMetadataProvider implements IInjectionM
 			synchronized (this.injectionMetadataCache) {
 				metadata = this.injectionMetadataCache.get(clazz);
 				if (metadata == null) {
-					final InjectionMetadata newMetadata = new InjectionMetadata();
-					ReflectionUtils.doWithFields(clazz, new ReflectionUtils.FieldCallback() {
-						public void doWith(Field field) {
-							Annotation annotation = findAutowiredAnnotation(field);
-							if (annotation != null) {
-								if (Modifier.isStatic(field.getModifiers())) {
-									problemReporter.error("@Autowired annotation is not supported on static fields",
-											field);
-									return;
-								}
-								boolean required = determineRequiredStatus(annotation);
-								newMetadata.addInjectedField(new AutowiredFieldElement(field, required));
-							}
-						}
-					});
-					ReflectionUtils.doWithMethods(clazz, new ReflectionUtils.MethodCallback() {
-						public void doWith(Method method) {
-							Annotation annotation = findAutowiredAnnotation(method);
-							if (annotation != null && method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
-								boolean error = false;
-								if (Modifier.isStatic(method.getModifiers())) {
-									problemReporter.error("@Autowired annotation is not supported on static methods",
-											method);
-									error = true;
-								}
-								if (method.getParameterTypes().length == 0) {
-									problemReporter.error("@Autowired annotation requires at least one argument",
-											method);
-									error = true;
-								}
-								if (!error) {
-									boolean required = determineRequiredStatus(annotation);
-									PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
-									newMetadata.addInjectedMethod(new AutowiredMethodElement(clazz, method, required,
-											pd));
-								}
-							}
-						}
-					});
-					// add constructor
-					Constructor<?>[] rawCandidates = clazz.getDeclaredConstructors();
-					List<Constructor<?>> candidates = new ArrayList<Constructor<?>>(rawCandidates.length);
-					Constructor<?> requiredConstructor = null;
-					for (Constructor<?> candidate : rawCandidates) {
-						Annotation annotation = findAutowiredAnnotation(candidate);
-						if (annotation != null) {
-							if (requiredConstructor != null) {
-								problemReporter.error("Invalid @Autowire-marked constructor", candidate);
-								problemReporter.error(
-										"Found another constructor with 'required' @Autowired annotation",
-										requiredConstructor);
-								break;
-							}
-							if (candidate.getParameterTypes().length == 0) {
-								problemReporter
-										.error("@Autowired annotation requires at least one argument", candidate);
-								break;
-							}
-							boolean required = determineRequiredStatus(annotation);
-							if (required) {
-								if (!candidates.isEmpty()) {
-									for (Constructor<?> ctor : candidates) {
-										problemReporter.error("Invalid @Autowire-marked constructor", ctor);
-									}
-									problemReporter.error(
-											"Found another constructor with 'required' @Autowired annotation",
-											requiredConstructor);
-									break;
-								}
-								requiredConstructor = candidate;
-							}
-							newMetadata.addInjectedConstructor(new AutowiredConstructorElement(clazz, candidate,
-									required));
-							candidates.add(candidate);
-						}
-					}
-
-					metadata = newMetadata;
+					metadata = buildAutowiringMetadata(clazz);
 					this.injectionMetadataCache.put(clazz, metadata);
 				}
 			}
@@ -246,6 +180,157 @@ public class AutowiredAnnotationInjectionMetadataProvider implements IInjectionM
 		return metadata;
 	}
 
+	private InjectionMetadata buildAutowiringMetadata(final Class<?> clazz) {
+		final InjectionMetadata newMetadata = new InjectionMetadata();
+
+		// Only look at the members that have been annotated during a previous validation run
+		String cacheKey = getCacheKey();
+		List<Member> cachedMembers = (this.sharedCache != null ? this.sharedCache.getAnnotatedMembers(cacheKey, clazz)
+				: null);
+		if (cachedMembers != null) {
+			List<Constructor<?>> constructors = new ArrayList<Constructor<?>>();
+			for (Member member : cachedMembers) {
+				if (member instanceof Field) {
+					addInjectedField((Field) member, newMetadata);
+				}
+				else if (member instanceof Method) {
+					addInjectedMethod(clazz, (Method) member, newMetadata);
+				}
+				else if (member instanceof Constructor) {
+					constructors.add((Constructor<?>) member);
+				}
+			}
+			addInjectedConstructors(clazz, constructors, newMetadata);
+			return newMetadata;
+		}
+
+		final List<Member> annotatedMembers = new ArrayList<Member>();
+		ReflectionUtils.doWithFields(clazz, new ReflectionUtils.FieldCallback() {
+			public void doWith(Field field) {
+				if (addInjectedField(field, newMetadata)) {
+					annotatedMembers.add(field);
+				}
+			}
+		});
+		ReflectionUtils.doWithMethods(clazz, new ReflectionUtils.MethodCallback() {
+			public void doWith(Method method) {
+				if (addInjectedMethod(clazz, method, newMetadata)) {
+					annotatedMembers.add(method);
+				}
+			}
+		});
+		// add constructor
+		List<Constructor<?>> constructors = new ArrayList<Constructor<?>>();
+		for (Constructor<?> candidate : clazz.getDeclaredConstructors()) {
+			if (findAutowiredAnnotation(candidate) != null) {
+				constructors.add(candidate);
+			}
+		}
+		addInjectedConstructors(clazz, constructors, newMetadata);
+		annotatedMembers.addAll(constructors);
+
+		if (this.sharedCache != null) {
+			this.sharedCache.put(cacheKey, clazz, annotatedMembers);
+		}
+		return newMetadata;
+	}
+
+	/**
+	 * Adds the given field to the metadata if it is annotated.
+	 * @return <code>true</code> if the field carries an autowired annotation
+	 */
+	private boolean addInjectedField(Field field, InjectionMetadata metadata) {
+		Annotation annotation = findAutowiredAnnotation(field);
+		if (annotation == null) {
+			return false;
+		}
+		if (Modifier.isStatic(field.getModifiers())) {
+			problemReporter.error("@Autowired annotation is not supported on static fields", field);
+			return true;
+		}
+		boolean required = determineRequiredStatus(annotation);
+		metadata.addInjectedField(new AutowiredFieldElement(field, required));
+		return true;
+	}
+
+	/**
+	 * Adds the given method to the metadata if it is annotated.
+	 * @return <code>true</code> if the method carries an autowired annotation
+	 */
+	private boolean addInjectedMethod(Class<?> clazz, Method method, InjectionMetadata metadata) {
+		Annotation annotation = findAutowiredAnnotation(method);
+		if (annotation == null) {
+			return false;
+		}
+		if (method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
+			boolean error = false;
+			if (Modifier.isStatic(method.getModifiers())) {
+				problemReporter.error("@Autowired annotation is not supported on static methods", method);
+				error = true;
+			}
+			if (method.getParameterTypes().length == 0) {
+				problemReporter.error("@Autowired annotation requires at least one argument", method);
+				error = true;
+			}
+			if (!error) {
+				boolean required = determineRequiredStatus(annotation);
+				PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
+				metadata.addInjectedMethod(new AutowiredMethodElement(clazz, method, required, pd));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the given annotated constructors to the metadata.
+	 */
+	private void addInjectedConstructors(Class<?> clazz, List<Constructor<?>> annotatedConstructors,
+			InjectionMetadata metadata) {
+		List<Constructor<?>> candidates = new ArrayList<Constructor<?>>(annotatedConstructors.size());
+		Constructor<?> requiredConstructor = null;
+		for (Constructor<?> candidate : annotatedConstructors) {
+			Annotation annotation = findAutowiredAnnotation(candidate);
+			if (annotation != null) {
+				if (requiredConstructor != null) {
+					problemReporter.error("Invalid @Autowire-marked constructor", candidate);
+					problemReporter.error("Found another constructor with 'required' @Autowired annotation",
+							requiredConstructor);
+					break;
+				}
+				if (candidate.getParameterTypes().length == 0) {
+					problemReporter.error("@Autowired annotation requires at least one argument", candidate);
+					break;
+				}
+				boolean required = determineRequiredStatus(annotation);
+				if (required) {
+					if (!candidates.isEmpty()) {
+						for (Constructor<?> ctor : candidates) {
+							problemReporter.error("Invalid @Autowire-marked constructor", ctor);
+						}
+						problemReporter.error("Found another constructor with 'required' @Autowired annotation",
+								requiredConstructor);
+						break;
+					}
+					requiredConstructor = candidate;
+				}
+				metadata.addInjectedConstructor(new AutowiredConstructorElement(clazz, candidate, required));
+				candidates.add(candidate);
+			}
+		}
+	}
+
+	/**
+	 * Returns a key for the {@link InjectionMetadataCache} that covers everything that decides which members are
+	 * annotated.
+	 */
+	private String getCacheKey() {
+		StringBuilder key = new StringBuilder(getClass().getName());
+		for (Class<? extends Annotation> type : this.autowiredAnnotationTypes) {
+			key.append(',').append(type.getName());
+		}
+		return key.toString();
+	}
+
 	private Annotation findAutowiredAnnotation(AccessibleObject ao) {
 		for (Class<? extends Annotation> type : this.autowiredAnnotationTypes) {
 			Annotation annotation = ao.getAnnotation(type);
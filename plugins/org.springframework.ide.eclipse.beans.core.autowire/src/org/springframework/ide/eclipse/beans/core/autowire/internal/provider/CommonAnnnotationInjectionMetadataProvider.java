@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 Spring IDE Developers
+ * Copyright (c) 2009, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,9 +18,11 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -107,6 +109,8 @@ public class CommonAnnnotationInjectionMetadataProvider implements IInjectionMet
 
 	private transient final Map<Class<?>, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<Class<?>, InjectionMetadata>();
 
+	private InjectionMetadataCache sharedCache;
+
 	public CommonAnnnotationInjectionMetadataProvider() {
 		ignoreResourceType("javax.xml.ws.WebServiceContext");
 	}
@@ -118,6 +122,14 @@ public class CommonAnnnotationInjectionMetadataProvider implements IInjectionMet
 		this.problemReporter = problemReporter;
 	}
 
+	/**
+	 * Set the {@link InjectionMetadataCache} that is used to share the annotated members of classes across validation
+	 * runs.
+	 */
+	public void setInjectionMetadataCache(InjectionMetadataCache sharedCache) {
+		this.sharedCache = sharedCache;
+	}
+
 	/**
 	 * Ignore the given resource type when resolving <code>@Resource</code> annotations.
 	 * <p>
@@ -138,121 +150,172 @@ public class CommonAnnnotationInjectionMetadataProvider implements IInjectionMet
 		InjectionMetadata metadata = this.injectionMetadataCache.get(clazz);
 		if (metadata == null) {
 			synchronized (this.injectionMetadataCache) {
-				Class<? extends Annotation> annotationClass = null;
+				metadata = this.injectionMetadataCache.get(clazz);
+				if (metadata == null) {
+					metadata = buildAutowiringMetadata(clazz);
+					this.injectionMetadataCache.put(clazz, metadata);
+				}
+			}
+		}
+		return metadata;
+	}
 
-				// Load the annotation classes in the same class loader context as the user clazz
-				try {
-					annotationClass = (Class<? extends Annotation>) clazz.getClassLoader().loadClass(resourceClassName);
+	private InjectionMetadata buildAutowiringMetadata(final Class<?> clazz) {
+		// Load the annotation classes in the same class loader context as the user clazz
+		final Class<? extends Annotation> resourceClass = loadAnnotationClass(clazz, resourceClassName);
+		final Class<? extends Annotation> webServiceRefClass = loadAnnotationClass(clazz, webServiceRefClassName);
+		final Class<? extends Annotation> ejbRefClass = loadAnnotationClass(clazz, ejbRefClassName);
+
+		final InjectionMetadata newMetadata = new InjectionMetadata();
+
+		// Only look at the members that have been annotated during a previous validation run
+		String cacheKey = getCacheKey();
+		List<Member> cachedMembers = (this.sharedCache != null ? this.sharedCache.getAnnotatedMembers(cacheKey, clazz)
+				: null);
+		if (cachedMembers != null) {
+			for (Member member : cachedMembers) {
+				if (member instanceof Field) {
+					addInjectedField((Field) member, newMetadata, resourceClass, webServiceRefClass, ejbRefClass);
 				}
-				catch (ClassNotFoundException e) {
-					annotationClass = null;
+				else if (member instanceof Method) {
+					addInjectedMethod(clazz, (Method) member, newMetadata, resourceClass, webServiceRefClass,
+							ejbRefClass);
 				}
-				final Class<? extends Annotation> resourceClass = annotationClass;
+			}
+			return newMetadata;
+		}
 
-				try {
-					annotationClass = (Class<? extends Annotation>) clazz.getClassLoader().loadClass(
-							webServiceRefClassName);
+		final List<Member> annotatedMembers = new ArrayList<Member>();
+		ReflectionUtils.doWithFields(clazz, new ReflectionUtils.FieldCallback() {
+			public void doWith(Field field) {
+				if (addInjectedField(field, newMetadata, resourceClass, webServiceRefClass, ejbRefClass)) {
+					annotatedMembers.add(field);
 				}
-				catch (ClassNotFoundException e) {
-					annotationClass = null;
+			}
+		});
+		ReflectionUtils.doWithMethods(clazz, new ReflectionUtils.MethodCallback() {
+			public void doWith(Method method) {
+				if (addInjectedMethod(clazz, method, newMetadata, resourceClass, webServiceRefClass, ejbRefClass)) {
+					annotatedMembers.add(method);
 				}
-				final Class<? extends Annotation> webServiceRefClass = annotationClass;
+			}
+		});
 
-				try {
-					annotationClass = (Class<? extends Annotation>) clazz.getClassLoader().loadClass(ejbRefClassName);
+		if (this.sharedCache != null) {
+			this.sharedCache.put(cacheKey, clazz, annotatedMembers);
+		}
+		return newMetadata;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Class<? extends Annotation> loadAnnotationClass(Class<?> clazz, String annotationClassName) {
+		try {
+			return (Class<? extends Annotation>) clazz.getClassLoader().loadClass(annotationClassName);
+		}
+		catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Adds the given field to the metadata if it is annotated.
+	 * @return <code>true</code> if the field carries one of the supported annotations
+	 */
+	private boolean addInjectedField(Field field, InjectionMetadata metadata, Class<? extends Annotation> resourceClass,
+			Class<? extends Annotation> webServiceRefClass, Class<? extends Annotation> ejbRefClass) {
+		if (webServiceRefClass != null && field.isAnnotationPresent(webServiceRefClass)) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				problemReporter.error("@WebServiceRef annotation is not supported on static fields", field);
+				return true;
+			}
+			metadata.addInjectedField(new WebServiceRefElement(field, null, webServiceRefClass));
+			return true;
+		}
+		else if (ejbRefClass != null && field.isAnnotationPresent(ejbRefClass)) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				problemReporter.error("@EJB annotation is not supported on static fields", field);
+				return true;
+			}
+			metadata.addInjectedField(new EjbRefElement(field, null, ejbRefClass));
+			return true;
+		}
+		else if (field.isAnnotationPresent(resourceClass)) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				problemReporter.error("@Resource annotation is not supported on static fields", field);
+				return true;
+			}
+			if (!ignoredResourceTypes.contains(field.getType().getName())) {
+				metadata.addInjectedField(new ResourceElement(field, null, resourceClass));
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the given method to the metadata if it is annotated.
+	 * @return <code>true</code> if the method carries one of the supported annotations
+	 */
+	private boolean addInjectedMethod(Class<?> clazz, Method method, InjectionMetadata metadata,
+			Class<? extends Annotation> resourceClass, Class<? extends Annotation> webServiceRefClass,
+			Class<? extends Annotation> ejbRefClass) {
+		if (webServiceRefClass != null && method.isAnnotationPresent(webServiceRefClass)) {
+			if (method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
+				if (Modifier.isStatic(method.getModifiers())) {
+					problemReporter.error("@WebServiceRef annotation is not supported on static methods", method);
+					return true;
 				}
-				catch (ClassNotFoundException e) {
-					annotationClass = null;
+				if (method.getParameterTypes().length != 1) {
+					problemReporter.error("@WebServiceRef annotation requires a single-arg method", method);
+					return true;
 				}
-				final Class<? extends Annotation> ejbRefClass = annotationClass;
-
-				metadata = this.injectionMetadataCache.get(clazz);
-				if (metadata == null) {
-					final InjectionMetadata newMetadata = new InjectionMetadata();
-					ReflectionUtils.doWithFields(clazz, new ReflectionUtils.FieldCallback() {
-						public void doWith(Field field) {
-							if (webServiceRefClass != null && field.isAnnotationPresent(webServiceRefClass)) {
-								if (Modifier.isStatic(field.getModifiers())) {
-									problemReporter.error(
-											"@WebServiceRef annotation is not supported on static fields", field);
-									return;
-								}
-								newMetadata.addInjectedField(new WebServiceRefElement(field, null, webServiceRefClass));
-							}
-							else if (ejbRefClass != null && field.isAnnotationPresent(ejbRefClass)) {
-								if (Modifier.isStatic(field.getModifiers())) {
-									problemReporter.error("@EJB annotation is not supported on static fields", field);
-									return;
-								}
-								newMetadata.addInjectedField(new EjbRefElement(field, null, ejbRefClass));
-							}
-							else if (field.isAnnotationPresent(resourceClass)) {
-								if (Modifier.isStatic(field.getModifiers())) {
-									problemReporter.error("@Resource annotation is not supported on static fields",
-											field);
-									return;
-								}
-								if (!ignoredResourceTypes.contains(field.getType().getName())) {
-									newMetadata.addInjectedField(new ResourceElement(field, null, resourceClass));
-								}
-							}
-						}
-					});
-					ReflectionUtils.doWithMethods(clazz, new ReflectionUtils.MethodCallback() {
-						public void doWith(Method method) {
-							if (webServiceRefClass != null && method.isAnnotationPresent(webServiceRefClass)
-									&& method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
-								if (Modifier.isStatic(method.getModifiers())) {
-									problemReporter.error(
-											"@WebServiceRef annotation is not supported on static methods", method);
-									return;
-								}
-								if (method.getParameterTypes().length != 1) {
-									problemReporter.error("@WebServiceRef annotation requires a single-arg method",
-											method);
-									return;
-								}
-								PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
-								newMetadata.addInjectedMethod(new WebServiceRefElement(method, pd, webServiceRefClass));
-							}
-							else if (ejbRefClass != null && method.isAnnotationPresent(ejbRefClass)
-									&& method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
-								if (Modifier.isStatic(method.getModifiers())) {
-									problemReporter.error("@EJB annotation is not supported on static methods", method);
-									return;
-								}
-								if (method.getParameterTypes().length != 1) {
-									problemReporter.error("@EJB annotation requires a single-arg method", method);
-									return;
-								}
-								PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
-								newMetadata.addInjectedMethod(new EjbRefElement(method, pd, ejbRefClass));
-							}
-							else if (method.isAnnotationPresent(resourceClass)
-									&& method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
-								if (Modifier.isStatic(method.getModifiers())) {
-									problemReporter.error("@Resource annotation is not supported on static methods",
-											method);
-									return;
-								}
-								Class<?>[] paramTypes = method.getParameterTypes();
-								if (paramTypes.length != 1) {
-									problemReporter.error("@Resource annotation requires a single-arg method", method);
-									return;
-								}
-								if (!ignoredResourceTypes.contains(paramTypes[0].getName())) {
-									PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
-									newMetadata.addInjectedMethod(new ResourceElement(method, pd, resourceClass));
-								}
-							}
-						}
-					});
-					metadata = newMetadata;
-					this.injectionMetadataCache.put(clazz, metadata);
+				PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
+				metadata.addInjectedMethod(new WebServiceRefElement(method, pd, webServiceRefClass));
+			}
+			return true;
+		}
+		else if (ejbRefClass != null && method.isAnnotationPresent(ejbRefClass)) {
+			if (method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
+				if (Modifier.isStatic(method.getModifiers())) {
+					problemReporter.error("@EJB annotation is not supported on static methods", method);
+					return true;
+				}
+				if (method.getParameterTypes().length != 1) {
+					problemReporter.error("@EJB annotation requires a single-arg method", method);
+					return true;
 				}
+				PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
+				metadata.addInjectedMethod(new EjbRefElement(method, pd, ejbRefClass));
 			}
+			return true;
 		}
-		return metadata;
+		else if (method.isAnnotationPresent(resourceClass)) {
+			if (method.equals(ClassUtils.getMostSpecificMethod(method, clazz))) {
+				if (Modifier.isStatic(method.getModifiers())) {
+					problemReporter.error("@Resource annotation is not supported on static methods", method);
+					return true;
+				}
+				Class<?>[] paramTypes = method.getParameterTypes();
+				if (paramTypes.length != 1) {
+					problemReporter.error("@Resource annotation requires a single-arg method", method);
+					return true;
+				}
+				if (!ignoredResourceTypes.contains(paramTypes[0].getName())) {
+					PropertyDescriptor pd = BeanUtils.findPropertyForMethod(method);
+					metadata.addInjectedMethod(new ResourceElement(method, pd, resourceClass));
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a key for the {@link InjectionMetadataCache}; which members are annotated doesn't depend on the
+	 * configuration of this provider.
+	 */
+	private String getCacheKey() {
+		return getClass().getName();
 	}
 
 	/**
@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher.IJavaElementDeltaListener;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Per-project cache of the members of bean classes that carry injection annotations.
+ * <p>
+ * The {@link InjectionMetadata} created by an {@link IInjectionMetadataProvider} holds on to reflection objects of
+ * the class loader of a single validation run and can't be shared across runs. Which members of a class are
+ * annotated however only depends on the class files of the class and its super types. This cache remembers these
+ * members by name and signature, so that a provider only needs to look at the previously annotated members of a
+ * class instead of introspecting every field, method and constructor of the whole class hierarchy again.
+ * <p>
+ * Entries get removed as soon as a compilation unit or class file that declares one of the types in the hierarchy of
+ * the cached class changes on the class path of the project, as reported by the {@link JavaElementDeltaDispatcher},
+ * and for the Java source files in the delta of a build by {@link InjectionMetadataCacheInvalidatingEventListener}.
+ * The cache of a project is dropped when the project's class path changes.
+ *
+ * @since 3.9.22
+ */
+public class InjectionMetadataCache {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.beans.core.autowire.sharedInjectionMetadata";
+
+	public static final String SIZE_PROPERTY = "org.springframework.ide.eclipse.beans.core.autowire.injectionMetadataCacheSize";
+
+	private static final int MAX_SIZE = Integer.getInteger(SIZE_PROPERTY, 20000);
+
+	private static final ConcurrentMap<IProject, InjectionMetadataCache> CACHES = new ConcurrentHashMap<IProject, InjectionMetadataCache>();
+
+	private final IProject project;
+
+	private final IJavaElementDeltaListener listener = new CacheInvalidatingListener();
+
+	private final Map<String, CachedMembers> members = new LinkedHashMap<String, CachedMembers>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedMembers> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private InjectionMetadataCache(IProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Returns the cache for the given project or <code>null</code> if sharing of injection metadata is disabled.
+	 * @param project the project the beans are validated for
+	 */
+	public static InjectionMetadataCache getCache(IProject project) {
+		if (!isEnabled() || MAX_SIZE <= 0 || project == null) {
+			return null;
+		}
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		if (javaProject == null) {
+			return null;
+		}
+
+		InjectionMetadataCache cache = CACHES.get(project);
+		if (cache == null) {
+			InjectionMetadataCache newCache = new InjectionMetadataCache(project);
+			cache = CACHES.putIfAbsent(project, newCache);
+			if (cache == null) {
+				cache = newCache;
+				JavaElementDeltaDispatcher.addListener(cache.listener, javaProject);
+				if (CACHES.get(project) != cache) {
+					// cleared while registering
+					JavaElementDeltaDispatcher.removeListener(cache.listener);
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Removes the entries of all projects whose class hierarchy contains one of the given types or a type nested in
+	 * one of them.
+	 */
+	public static void invalidate(Collection<String> typeNames) {
+		if (typeNames.isEmpty()) {
+			return;
+		}
+		for (InjectionMetadataCache cache : CACHES.values()) {
+			cache.removeEntries(typeNames);
+		}
+	}
+
+	public static void clear(IProject project) {
+		InjectionMetadataCache cache = CACHES.remove(project);
+		if (cache != null) {
+			JavaElementDeltaDispatcher.removeListener(cache.listener);
+		}
+	}
+
+	public static void clear() {
+		for (IProject project : CACHES.keySet()) {
+			clear(project);
+		}
+	}
+
+	/**
+	 * Adds the names of the types declared in the given compilation unit to the given names. The name of the primary
+	 * type is added even if the unit doesn't exist anymore; it covers all nested types.
+	 */
+	static void addTypeNames(ICompilationUnit unit, Collection<String> typeNames) {
+		String packageName = unit.getParent().getElementName();
+		String typeName = unit.getElementName().substring(0,
+				unit.getElementName().length() - JdtUtils.JAVA_FILE_EXTENSION.length());
+		typeNames.add(packageName.length() > 0 ? packageName + "." + typeName : typeName);
+
+		if (unit.exists()) {
+			try {
+				for (IType type : unit.getTypes()) {
+					typeNames.add(type.getFullyQualifiedName());
+				}
+			}
+			catch (JavaModelException e) {
+				// only the primary type gets invalidated
+			}
+		}
+	}
+
+	/**
+	 * Returns the previously recorded annotated members of the given class, resolved against the given class, or
+	 * <code>null</code> if nothing is recorded or the recorded members can't be resolved anymore.
+	 * @param providerKey identifies the provider and its configuration
+	 * @param clazz the bean class
+	 */
+	public List<Member> getAnnotatedMembers(String providerKey, Class<?> clazz) {
+		String key = providerKey + '|' + clazz.getName();
+		CachedMembers cachedMembers;
+		synchronized (this) {
+			cachedMembers = members.get(key);
+		}
+		if (cachedMembers == null) {
+			return null;
+		}
+
+		List<Class<?>> hierarchy = getHierarchy(clazz);
+		List<Member> resolvedMembers = (getNames(hierarchy).equals(cachedMembers.hierarchy) ? cachedMembers
+				.resolve(hierarchy) : null);
+		if (resolvedMembers == null) {
+			synchronized (this) {
+				members.remove(key);
+			}
+		}
+		return resolvedMembers;
+	}
+
+	/**
+	 * Records the members of the given class that carry an annotation of interest for the given provider.
+	 * @param providerKey identifies the provider and its configuration
+	 * @param clazz the bean class
+	 * @param annotatedMembers the fields, methods and constructors of the class or its super types that carry an
+	 * annotation; in the order they have been processed
+	 */
+	public void put(String providerKey, Class<?> clazz, List<Member> annotatedMembers) {
+		List<MemberKey> memberKeys = new ArrayList<MemberKey>(annotatedMembers.size());
+		for (Member member : annotatedMembers) {
+			memberKeys.add(new MemberKey(member));
+		}
+		CachedMembers cachedMembers = new CachedMembers(getNames(getHierarchy(clazz)), memberKeys);
+		synchronized (this) {
+			members.put(providerKey + '|' + clazz.getName(), cachedMembers);
+		}
+	}
+
+	/**
+	 * Returns the number of classes whose annotated members are recorded, counted once per provider.
+	 */
+	public synchronized int size() {
+		return members.size();
+	}
+
+	private synchronized void removeEntries(Collection<String> typeNames) {
+		Iterator<CachedMembers> iterator = members.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().dependsOn(typeNames)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the given class followed by all its super classes and interfaces.
+	 */
+	private static List<Class<?>> getHierarchy(Class<?> clazz) {
+		Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		types.add(clazz);
+		for (int i = 0; i < types.size(); i++) {
+			Class<?> type = types.get(i);
+			if (hierarchy.add(type)) {
+				if (type.getSuperclass() != null) {
+					types.add(type.getSuperclass());
+				}
+				for (Class<?> ifc : type.getInterfaces()) {
+					types.add(ifc);
+				}
+			}
+		}
+		return new ArrayList<Class<?>>(hierarchy);
+	}
+
+	private static List<String> getNames(List<Class<?>> classes) {
+		List<String> names = new ArrayList<String>(classes.size());
+		for (Class<?> clazz : classes) {
+			names.add(clazz.getName());
+		}
+		return names;
+	}
+
+	private synchronized void removeAllEntries() {
+		members.clear();
+	}
+
+	private static boolean isEnabled() {
+		return Boolean.valueOf(System.getProperty(ENABLE_PROPERTY, "true"));
+	}
+
+	/**
+	 * Removes the entries that depend on changed compilation units or class files and drops the whole cache of the
+	 * project once its class path changes.
+	 */
+	private class CacheInvalidatingListener implements IJavaElementDeltaListener {
+
+		public void classPathChanged(IJavaProject changedProject) {
+			if (CACHES.remove(project, InjectionMetadataCache.this)) {
+				JavaElementDeltaDispatcher.removeListener(this);
+			}
+		}
+
+		public void openablesChanged(List<IJavaElementDelta> deltas) {
+			Set<String> typeNames = new LinkedHashSet<String>();
+			for (IJavaElementDelta delta : deltas) {
+				IJavaElement element = delta.getElement();
+				if (element instanceof ICompilationUnit) {
+					addTypeNames(((ICompilationUnit) element).getPrimary(), typeNames);
+				}
+				else if (element instanceof IClassFile) {
+					String packageName = element.getParent().getElementName();
+					String typeName = element.getElementName().substring(0,
+							element.getElementName().length() - ".class".length());
+					typeNames.add(packageName.length() > 0 ? packageName + "." + typeName : typeName);
+				}
+				else {
+					removeAllEntries();
+					return;
+				}
+			}
+			if (!typeNames.isEmpty()) {
+				removeEntries(typeNames);
+			}
+		}
+	}
+
+	/**
+	 * The annotated members of a class together with the names of all types in its hierarchy.
+	 */
+	private static class CachedMembers {
+
+		private final List<String> hierarchy;
+
+		private final List<MemberKey> memberKeys;
+
+		public CachedMembers(List<String> hierarchy, List<MemberKey> memberKeys) {
+			this.hierarchy = hierarchy;
+			this.memberKeys = memberKeys;
+		}
+
+		public boolean dependsOn(Collection<String> typeNames) {
+			for (String type : hierarchy) {
+				for (String typeName : typeNames) {
+					if (type.equals(typeName) || type.startsWith(typeName + '$')) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		public List<Member> resolve(List<Class<?>> classes) {
+			List<Member> resolvedMembers = new ArrayList<Member>(memberKeys.size());
+			for (MemberKey memberKey : memberKeys) {
+				Member member = memberKey.resolve(classes);
+				if (member == null) {
+					return null;
+				}
+				resolvedMembers.add(member);
+			}
+			return resolvedMembers;
+		}
+	}
+
+	/**
+	 * Class loader independent description of a field, method or constructor.
+	 */
+	private static class MemberKey {
+
+		private final String declaringClassName;
+
+		private final String name;
+
+		private final boolean isField;
+
+		private final boolean isConstructor;
+
+		private final String[] parameterTypeNames;
+
+		public MemberKey(Member member) {
+			this.declaringClassName = member.getDeclaringClass().getName();
+			this.name = member.getName();
+			this.isField = (member instanceof Field);
+			this.isConstructor = (member instanceof Constructor);
+
+			Class<?>[] parameterTypes = new Class<?>[0];
+			if (member instanceof Method) {
+				parameterTypes = ((Method) member).getParameterTypes();
+			}
+			else if (member instanceof Constructor) {
+				parameterTypes = ((Constructor<?>) member).getParameterTypes();
+			}
+			this.parameterTypeNames = new String[parameterTypes.length];
+			for (int i = 0; i < parameterTypes.length; i++) {
+				this.parameterTypeNames[i] = parameterTypes[i].getName();
+			}
+		}
+
+		public Member resolve(List<Class<?>> classes) {
+			for (Class<?> declaringClass : classes) {
+				if (declaringClass.getName().equals(declaringClassName)) {
+					try {
+						if (isField) {
+							return declaringClass.getDeclaredField(name);
+						}
+						Class<?>[] parameterTypes = new Class<?>[parameterTypeNames.length];
+						for (int i = 0; i < parameterTypeNames.length; i++) {
+							parameterTypes[i] = ClassUtils.forName(parameterTypeNames[i],
+									declaringClass.getClassLoader());
+						}
+						if (isConstructor) {
+							return declaringClass.getDeclaredConstructor(parameterTypes);
+						}
+						return declaringClass.getDeclaredMethod(name, parameterTypes);
+					}
+					catch (Throwable e) {
+						// member or parameter type is gone; the entry is outdated
+						return null;
+					}
+				}
+			}
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaCore;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinition;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.project.IProjectContributionEventListener;
+import org.springframework.ide.eclipse.core.project.IProjectContributorState;
+import org.springframework.ide.eclipse.core.project.ProjectBuilderDefinition;
+import org.springframework.ide.eclipse.core.project.ProjectContributionEventListenerAdapter;
+
+/**
+ * {@link IProjectContributionEventListener} implementation that removes entries from the
+ * {@link InjectionMetadataCache} for types declared in the Java source files of the build delta.
+ * <p>
+ * This covers class files that changed after the cache has last been invalidated through the Java element deltas,
+ * e.g. if beans have been validated between saving and building a source file. Full and clean builds drop all cached
+ * entries.
+ *
+ * @since 3.9.22
+ */
+public class InjectionMetadataCacheInvalidatingEventListener extends ProjectContributionEventListenerAdapter {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void start(int kind, IResourceDelta delta, List<ProjectBuilderDefinition> builderDefinitions,
+			List<ValidatorDefinition> validatorDefinitions, IProjectContributorState state, IProject project) {
+		if (delta == null || kind == IncrementalProjectBuilder.FULL_BUILD
+				|| kind == IncrementalProjectBuilder.CLEAN_BUILD) {
+			// types of this project might be cached for dependent projects as well
+			InjectionMetadataCache.clear();
+			return;
+		}
+
+		try {
+			ChangedTypesCollectingVisitor visitor = new ChangedTypesCollectingVisitor();
+			delta.accept(visitor);
+			InjectionMetadataCache.invalidate(visitor.getChangedTypes());
+		}
+		catch (CoreException e) {
+			BeansCorePlugin.log(e);
+			InjectionMetadataCache.clear();
+		}
+	}
+
+	/**
+	 * Collects the names of the types declared in changed Java source files.
+	 */
+	private static class ChangedTypesCollectingVisitor implements IResourceDeltaVisitor {
+
+		private final Set<String> changedTypes = new LinkedHashSet<String>();
+
+		public Set<String> getChangedTypes() {
+			return changedTypes;
+		}
+
+		public boolean visit(IResourceDelta aDelta) throws CoreException {
+			IResource resource = aDelta.getResource();
+			if (resource instanceof IFile) {
+				if (resource.getName().endsWith(JdtUtils.JAVA_FILE_EXTENSION)) {
+					IJavaElement element = JavaCore.create(resource);
+					if (element instanceof ICompilationUnit) {
+						InjectionMetadataCache.addTypeNames((ICompilationUnit) element, changedTypes);
+					}
+				}
+				return false;
+			}
+			return true;
+		}
+	}
+
+}
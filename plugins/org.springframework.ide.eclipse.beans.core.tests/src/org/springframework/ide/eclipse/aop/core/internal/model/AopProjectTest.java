@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.aop.core.model.IAopReference;
+import org.springframework.ide.eclipse.aop.core.model.IAopReference.ADVICE_TYPE;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class AopProjectTest {
+
+	private IProject project;
+
+	private AopProject aopProject;
+
+	private IFile config;
+
+	private IFile otherConfig;
+
+	private IType aspect;
+
+	private IType simpleBean;
+
+	private IType subType;
+
+	private IAopReference simpleBeanReference;
+
+	private IAopReference subTypeReference;
+
+	private IAopReference otherReference;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-model-utils-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		aopProject = new AopProject(javaProject);
+		config = project.getFile("basic-bean-config.xml");
+		otherConfig = project.getFile("basic-bean-config-2.xml");
+		aspect = javaProject.findType("org.test.spring.NotInvolvedClass");
+		simpleBean = javaProject.findType("org.test.spring.SimpleBeanClass");
+		subType = javaProject.findType("org.test.spring.SubType");
+
+		// two references defined in config, one in the other config, all advised by the same aspect
+		simpleBeanReference = reference(simpleBean, config, 10, "simpleBean");
+		subTypeReference = reference(subType, config, 11, "subType");
+		otherReference = reference(simpleBean, otherConfig, 12, "otherBean");
+		aopProject.addAopReference(simpleBeanReference);
+		aopProject.addAopReference(subTypeReference);
+		aopProject.addAopReference(otherReference);
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testIndexesMatchScan() throws Exception {
+		assertEquals(set(simpleBeanReference, otherReference), aopProject.getReferencesForTarget(simpleBean));
+		assertEquals(set(subTypeReference), aopProject.getReferencesForTarget(subType));
+		assertEquals(set(simpleBeanReference, subTypeReference, otherReference), aopProject.getReferencesForSource(aspect));
+		assertEquals(set(subTypeReference), aopProject.getReferencesForTargetBean("subType"));
+
+		for (IResource resource : Arrays.asList(config, otherConfig, simpleBean.getResource(), subType.getResource(),
+				aspect.getResource(), project.getFile("basic-bean-config-3.xml"))) {
+			assertEquals(resource.toString(), scanReferencesForResource(resource), aopProject.getReferencesForResource(resource));
+			assertEquals(resource.toString(), scanAllReferencesForResource(resource), aopProject.getAllReferencesForResource(resource));
+		}
+	}
+
+	@Test
+	public void testClearedResourceDropsIndexedReferences() throws Exception {
+		aopProject.clearReferencesForResource(config);
+
+		assertEquals(set(otherReference), aopProject.getAllReferences());
+		assertEquals(set(otherReference), aopProject.getReferencesForTarget(simpleBean));
+		assertTrue(aopProject.getReferencesForTarget(subType).isEmpty());
+		assertEquals(set(otherReference), aopProject.getReferencesForSource(aspect));
+		assertTrue(aopProject.getReferencesForTargetBean("simpleBean").isEmpty());
+		assertTrue(aopProject.getReferencesForResource(config).isEmpty());
+		assertEquals(set(otherReference), aopProject.getAllReferencesForResource(simpleBean.getResource()));
+		assertTrue(aopProject.getAllReferencesForResource(subType.getResource()).isEmpty());
+
+		// references of the cleared resource can be added again
+		aopProject.addAopReference(subTypeReference);
+		assertEquals(set(subTypeReference), aopProject.getReferencesForTarget(subType));
+		assertEquals(set(subTypeReference), aopProject.getReferencesForResource(config));
+	}
+
+	@Test
+	public void testClearingUnrelatedResourceKeepsReferences() throws Exception {
+		aopProject.clearReferencesForResource(simpleBean.getResource());
+		aopProject.clearReferencesForResource(null);
+
+		assertEquals(set(simpleBeanReference, subTypeReference, otherReference), aopProject.getAllReferences());
+		assertEquals(set(simpleBeanReference, otherReference), aopProject.getReferencesForTarget(simpleBean));
+	}
+
+	private Set<IAopReference> scanReferencesForResource(IResource resource) {
+		Set<IAopReference> references = new LinkedHashSet<IAopReference>();
+		for (IAopReference reference : aopProject.getAllReferences()) {
+			if (reference.getResource().equals(resource) || reference.getDefinition().getResource().equals(resource)) {
+				references.add(reference);
+			}
+		}
+		return references;
+	}
+
+	private Set<IAopReference> scanAllReferencesForResource(IResource resource) {
+		Set<IAopReference> references = new LinkedHashSet<IAopReference>();
+		for (IAopReference reference : aopProject.getAllReferences()) {
+			if (resource.equals(reference.getResource()) || resource.equals(reference.getTargetBeanResource())
+					|| resource.equals(reference.getSource().getResource())
+					|| resource.equals(reference.getTarget().getResource())
+					|| resource.equals(reference.getDefinition().getResource())) {
+				references.add(reference);
+			}
+		}
+		return references;
+	}
+
+	private IAopReference reference(IType target, IFile file, int line, String beanId) {
+		BeanAspectDefinition definition = new BeanAspectDefinition();
+		definition.setResource(file);
+		definition.setAspectStartLineNumber(line);
+		definition.setAspectName("aspect");
+		definition.setType(ADVICE_TYPE.BEFORE);
+		return new AopReference(ADVICE_TYPE.BEFORE, aspect, line, target, line, definition, file, beanId, file, line);
+	}
+
+	private static Set<IAopReference> set(IAopReference... references) {
+		return new HashSet<IAopReference>(Arrays.asList(references));
+	}
+
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class AspectDefinitionMatchCacheTest {
+
+	private IProject project;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		StsTestUtil.waitForAutoBuild();
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		AspectDefinitionMatchCache.clear(project);
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testCacheIsKeptAcrossBuilds() throws Exception {
+		AspectDefinitionMatchCache cache = AspectDefinitionMatchCache.getCache(project);
+		cache.put("key", 1, null, Collections.<IMethod> emptySet());
+
+		assertSame(cache, AspectDefinitionMatchCache.getCache(project));
+		assertNotNull(cache.get("key", 1));
+		// the sources of the bean or the aspect changed
+		assertNull(cache.get("key", 2));
+	}
+
+	@Test
+	public void testCacheIsDroppedOnClassPathChange() throws Exception {
+		AspectDefinitionMatchCache cache = AspectDefinitionMatchCache.getCache(project);
+		cache.put("key", 1, null, Collections.<IMethod> emptySet());
+
+		// a new class folder doesn't replace any class loader of the project, but may hold new binary types
+		IFolder classes = project.getFolder("lib-classes");
+		classes.create(true, true, null);
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		IClasspathEntry[] classPath = javaProject.getRawClasspath();
+		IClasspathEntry[] newClassPath = Arrays.copyOf(classPath, classPath.length + 1);
+		newClassPath[classPath.length] = JavaCore.newLibraryEntry(classes.getFullPath(), null, null);
+		javaProject.setRawClasspath(newClassPath, null);
+		StsTestUtil.waitForAutoBuild();
+
+		AspectDefinitionMatchCache newCache = AspectDefinitionMatchCache.getCache(project);
+		assertNotSame(cache, newCache);
+		assertNull(newCache.get("key", 1));
+	}
+
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * @since 3.9.22
+ */
+public class PointcutTypePatternFilterTest {
+
+	private static final Set<String> ORDER_SERVICE = new LinkedHashSet<String>(Arrays.asList(
+			"com.foo.service.OrderService", "com.foo.service.AbstractService", "com.foo.api.Service",
+			"java.lang.Object"));
+
+	private static final Set<String> INNER_SERVICE = new LinkedHashSet<String>(Arrays.asList(
+			"com.foo.service.Services$Inner", "java.lang.Object"));
+
+	private final PointcutTypePatternFilter filter = new PointcutTypePatternFilter();
+
+	@Test
+	public void testWithin() throws Exception {
+		assertTrue(filter.mayMatch("within(com.foo.service.OrderService)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(com.foo.service.*)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(com.foo.*.OrderService)", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("within(com.bar.OrderService)", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("within(com.bar.*)", ORDER_SERVICE));
+
+		// a single '*' doesn't match sub packages
+		assertFalse(filter.mayMatch("within(com.*)", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testWithinSubPackages() throws Exception {
+		assertTrue(filter.mayMatch("within(com.foo..*)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(com..service.*)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(com..OrderService)", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("within(org..*)", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("within(com..repository.*)", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testSubTypes() throws Exception {
+		assertTrue(filter.mayMatch("within(com.foo.api.Service+)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(com.foo.service.AbstractService+)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("execution(* com.foo.api.Service+.*(..))", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("within(com.bar.Service+)", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testNestedTypes() throws Exception {
+		assertTrue(filter.mayMatch("within(com.foo.service.Services.Inner)", INNER_SERVICE));
+		assertTrue(filter.mayMatch("within(com.foo.service.Services$Inner)", INNER_SERVICE));
+		assertFalse(filter.mayMatch("within(com.foo.service.Services.Other)", INNER_SERVICE));
+	}
+
+	@Test
+	public void testExecution() throws Exception {
+		assertTrue(filter.mayMatch("execution(* com.foo.service.OrderService.*(..))", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("execution(public * com.foo..*.get*(..))", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("execution(void com.foo.api.Service.save(java.lang.String))", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("execution(* com.bar..*.*(..))", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("execution(* com.bar.Repository.find*(..))", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testExecutionWithoutDeclaringTypeNeverRulesOut() throws Exception {
+		assertTrue(filter.mayMatch("execution(* get*(..))", ORDER_SERVICE));
+		// the declaring type of a method pattern that follows '..' is not known
+		assertTrue(filter.mayMatch("execution(* com.bar..*(..))", ORDER_SERVICE));
+		// annotation and generic patterns are not supported
+		assertTrue(filter.mayMatch("execution(@com.bar.Audited * com.bar.Repository.*(..))", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("execution(* com.bar.Repository<?>.*(..))", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testAnnotation() throws Exception {
+		assertTrue(filter.mayMatch("@annotation(com.bar.Audited)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("@annotation(com.bar.Audited) && within(com.foo..*)", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("@annotation(com.bar.Audited) && within(com.bar..*)", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("within(com.bar..*) and @within(com.bar.Audited)", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testConjunctions() throws Exception {
+		assertTrue(filter.mayMatch("within(com.foo..*) && execution(* com.foo.api.Service.*(..))", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("within(com.foo..*) && execution(* com.bar.Repository.*(..))", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("(within(com.foo..*) && bean(*Service)) and within(com.bar..*)", ORDER_SERVICE));
+		assertFalse(filter.mayMatch("((within(com.bar..*)))", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testUnsupportedExpressionsNeverRuleOut() throws Exception {
+		// disjunctions and negations
+		assertTrue(filter.mayMatch("within(com.bar..*) || within(com.baz..*)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(com.bar..*) or within(com.baz..*)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("!within(com.foo..*)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("not within(com.foo..*)", ORDER_SERVICE));
+
+		// simple type names depend on the imports of the aspect
+		assertTrue(filter.mayMatch("within(Repository)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(Repository+)", ORDER_SERVICE));
+
+		// named pointcuts and misspelled designators must still reach the pointcut parser
+		assertTrue(filter.mayMatch("com.bar.Pointcuts.repositories() && within(com.bar..*)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("executon(* *(..)) && within(com.bar..*)", ORDER_SERVICE));
+
+		// malformed expressions
+		assertTrue(filter.mayMatch("within(com.bar..*) && execution(* *(..)", ORDER_SERVICE));
+		assertTrue(filter.mayMatch("within(com.bar..*) &&", ORDER_SERVICE));
+	}
+
+	@Test
+	public void testUnresolvedHierarchiesAreNeverRuledOut() throws Exception {
+		// the bean class gets loaded and any class that is missing gets reported
+		assertTrue(filter.mayMatch("within(com.bar..*)", null));
+		assertTrue(filter.mayMatch("within(com.bar..*)", new LinkedHashSet<String>()));
+		assertTrue(filter.mayMatch(null, ORDER_SERVICE));
+	}
+
+	@Test
+	public void testUsesPrimitiveDesignatorsOnly() throws Exception {
+		assertTrue(PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly("execution(* *(..)) && bean(orderService)"));
+		assertTrue(PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly("@annotation(com.bar.Audited)"));
+		assertTrue(PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly("within(com.foo..*) and this(com.foo.api.Service)"));
+		assertFalse(PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly("com.bar.Pointcuts.repositories()"));
+		assertFalse(PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly("anyPublicOperation() && within(com.foo..*)"));
+		assertFalse(PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly("within(com.foo..*"));
+		assertFalse(PointcutTypePatternFilter.usesPrimitiveDesignatorsOnly(null));
+	}
+
+	@Test
+	public void testUsesArgumentTypes() throws Exception {
+		assertFalse(PointcutTypePatternFilter.usesArgumentTypes("execution(* com.foo..*.*(..))"));
+		assertFalse(PointcutTypePatternFilter.usesArgumentTypes("execution(void com.foo..*.set*(int, ..))"));
+		assertFalse(PointcutTypePatternFilter.usesArgumentTypes("within(com.foo..*) && @annotation(com.bar.Audited)"));
+		assertTrue(PointcutTypePatternFilter.usesArgumentTypes("execution(java.lang.String com.foo..*.*(..))"));
+		assertTrue(PointcutTypePatternFilter.usesArgumentTypes("execution(* com.foo..*.*(java.lang.String))"));
+		assertTrue(PointcutTypePatternFilter.usesArgumentTypes("execution(* com.foo..*.*(..) throws java.io.IOException)"));
+		assertTrue(PointcutTypePatternFilter.usesArgumentTypes("within(com.foo..*) && args(java.lang.String)"));
+		assertTrue(PointcutTypePatternFilter.usesArgumentTypes("target(com.foo.api.Service)"));
+		assertTrue(PointcutTypePatternFilter.usesArgumentTypes(null));
+	}
+
+}
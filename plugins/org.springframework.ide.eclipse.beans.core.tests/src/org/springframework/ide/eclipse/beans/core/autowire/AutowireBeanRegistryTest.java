@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireDependencyProvider;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Compares the lookups of the bean registry used during a resolution run with the scan over all beans that is used
+ * outside of a run.
+ *
+ * @since 3.9.22
+ */
+public class AutowireBeanRegistryTest {
+
+	private static final List<String> TYPES = Arrays.asList("test.beans.TestBean", "test.beans.ITestBean",
+			"test.beans.NestedTestBean", "test.beans.INestedTestBean", "test.beans.IOther", "java.lang.Object",
+			"java.io.Serializable", "java.lang.CharSequence", "java.lang.String", "java.lang.Comparable",
+			"org.springframework.beans.factory.FactoryBean", "test.beans.Colour");
+
+	private static final List<String> NAMES = Arrays.asList("annotatedBean", "testBean", "testBean2", "xy",
+			"testBean9", "unknown");
+
+	private IProject project;
+
+	private BeansModel model;
+
+	private IBeansProject beansProject;
+
+	private BeansModel modelBackup;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("autowire", "org.springframework.ide.eclipse.beans.core.tests");
+
+		model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+
+		modelBackup = (BeansModel) BeansCorePlugin.getModel();
+		BeansCorePlugin.setModel(model);
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+		BeansCorePlugin.setModel(modelBackup);
+	}
+
+	@Test
+	public void testAliasLookups() throws Exception {
+		Map<String, String>[] lookups = lookup("src/org/springframework/context/annotation/testExtendedEjbInjection-context.xml");
+		assertEquals(lookups[0], lookups[1]);
+
+		assertEquals("[testBean9]", lookups[1].get("aliases of xy"));
+		assertEquals("xy", lookups[1].get("bean testBean9"));
+		assertEquals("null", lookups[1].get("bean unknown"));
+	}
+
+	@Test
+	public void testSuperTypeLookups() throws Exception {
+		Map<String, String>[] lookups = lookup("src/org/springframework/context/annotation/testExtendedResourceInjection-context.xml");
+		assertEquals(lookups[0], lookups[1]);
+
+		assertEquals("[testBean, testBean2, testBean3, testBean4]", lookups[1].get("beans for test.beans.ITestBean"));
+		assertEquals("[xy]", lookups[1].get("beans for test.beans.INestedTestBean"));
+		assertTrue(lookups[1].get("beans for java.lang.Object").contains("annotatedBean2"));
+		assertEquals("[]", lookups[1].get("beans for test.beans.Colour"));
+	}
+
+	@Test
+	public void testFactoryBeanLookups() throws Exception {
+		Map<String, String>[] lookups = lookup("src/org/springframework/beans/factory/annotation/testStringTypeFactoryBean-context.xml");
+		assertEquals(lookups[0], lookups[1]);
+
+		assertEquals("[testBean]", lookups[1].get("beans for java.lang.String"));
+		assertEquals("[testBean]", lookups[1].get("beans for java.lang.CharSequence"));
+		assertEquals("[testBean]", lookups[1].get("beans for org.springframework.beans.factory.FactoryBean"));
+		assertFalse(lookups[1].get("beans for java.lang.Object").equals("[]"));
+	}
+
+	/**
+	 * Returns the results of the scan and of the registry, both taken with the active project class loader.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, String>[] lookup(String configName) throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, configName, IBeansConfig.Type.MANUAL);
+		final AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		final IProjectClassLoaderSupport classLoaderSupport = JdtUtils.getProjectClassLoaderSupport(project, null);
+		final Map<String, String>[] lookups = new Map[2];
+		provider.setProjectClassLoaderSupport(new IProjectClassLoaderSupport() {
+
+			public void executeCallback(final IProjectClassLoaderAwareCallback callback) throws Throwable {
+				classLoaderSupport.executeCallback(new IProjectClassLoaderAwareCallback() {
+
+					public void doWithActiveProjectClassLoader() throws Throwable {
+						provider.preloadClasses();
+						lookups[0] = lookup(provider);
+
+						// the registry is only in place until the run returns
+						callback.doWithActiveProjectClassLoader();
+						lookups[1] = lookup(provider);
+					}
+				});
+			}
+
+			public ClassLoader getProjectClassLoader() {
+				return classLoaderSupport.getProjectClassLoader();
+			}
+		});
+		provider.resolveAutowiredDependencies();
+		return lookups;
+	}
+
+	private static Map<String, String> lookup(AutowireDependencyProvider provider) {
+		Map<String, String> result = new TreeMap<String, String>();
+		for (String type : TYPES) {
+			result.put("beans for " + type, new TreeSet<String>(Arrays.asList(provider.getBeansForType(type))).toString());
+		}
+		for (String name : NAMES) {
+			result.put("aliases of " + name, new TreeSet<String>(Arrays.asList(provider.getAliases(name))).toString());
+			IBean bean = provider.getBean(name);
+			result.put("bean " + name, (bean != null ? bean.getElementName() : "null"));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireDependencyProvider;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.InjectionMetadataCache;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeanReference;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class InjectionMetadataCacheTest {
+
+	private static final String[] CONFIGS = {
+			"src/org/springframework/beans/factory/annotation/testResourceInjection-context.xml",
+			"src/org/springframework/beans/factory/annotation/testExtendedResourceInjection-context.xml",
+			"src/org/springframework/beans/factory/annotation/testExtendedResourceInjectionWithOverriding-context.xml",
+			"src/org/springframework/context/annotation/testExtendedResourceInjection-context.xml",
+			"src/org/springframework/context/annotation/testExtendedEjbInjection-context.xml" };
+
+	private IProject project;
+
+	private BeansModel model;
+
+	private IBeansProject beansProject;
+
+	private BeansModel modelBackup;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("autowire", "org.springframework.ide.eclipse.beans.core.tests");
+
+		model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+
+		modelBackup = (BeansModel) BeansCorePlugin.getModel();
+		BeansCorePlugin.setModel(model);
+		InjectionMetadataCache.clear();
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		InjectionMetadataCache.clear();
+		project.delete(true, null);
+		BeansCorePlugin.setModel(modelBackup);
+	}
+
+	@Test
+	public void testCachedAndUncachedMetadataAreEqual() throws Exception {
+		for (String config : CONFIGS) {
+			Map<String, Set<String>> uncached;
+			System.setProperty(InjectionMetadataCache.ENABLE_PROPERTY, "false");
+			try {
+				uncached = resolve(config);
+			}
+			finally {
+				System.clearProperty(InjectionMetadataCache.ENABLE_PROPERTY);
+			}
+			assertTrue(config, !uncached.isEmpty());
+
+			// the first run fills the cache, the second one only resolves the recorded members
+			assertEquals(config, uncached, resolve(config));
+			int size = getCache().size();
+			assertTrue(config, size > 0);
+			assertEquals(config, uncached, resolve(config));
+			assertEquals(config, size, getCache().size());
+		}
+	}
+
+	@Test
+	public void testAnnotationChangeEvictsEntry() throws Exception {
+		String config = CONFIGS[0];
+		Map<String, Set<String>> references = resolve(config);
+		assertEquals(1, references.size());
+		int size = getCache().size();
+		assertTrue(size > 0);
+
+		// without builds, only the Java element deltas can evict the entries
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		IWorkspaceDescription description = workspace.getDescription();
+		boolean autoBuilding = description.isAutoBuilding();
+		description.setAutoBuilding(false);
+		workspace.setDescription(description);
+		try {
+			IFile unrelated = project.getFile("src/test/beans/NumberTestBean.java");
+			setContents(unrelated, getContents(unrelated) + "\n");
+			assertEquals(size, getCache().size());
+
+			IFile source = project.getFile("src/org/springframework/beans/factory/annotation/AutowiredAnnotationBeanPostProcessorTests.java");
+			String contents = getContents(source);
+			assertTrue(contents.contains("@Autowired(required = false)"));
+			setContents(source, contents.replaceFirst("@Autowired\\(required = false\\)", ""));
+			assertTrue(getCache().size() < size);
+		}
+		finally {
+			description.setAutoBuilding(autoBuilding);
+			workspace.setDescription(description);
+		}
+		StsTestUtil.waitForAutoBuild();
+
+		// entries of unchanged classes are recorded again
+		assertEquals(references.keySet(), resolve(config).keySet());
+		assertTrue(getCache().size() > 0);
+	}
+
+	private InjectionMetadataCache getCache() {
+		InjectionMetadataCache cache = InjectionMetadataCache.getCache(project);
+		assertNotNull(cache);
+		return cache;
+	}
+
+	/**
+	 * Returns the names and lines of the references of every bean, by bean name.
+	 */
+	private Map<String, Set<String>> resolve(String configName) {
+		BeansConfig config = new BeansConfig(beansProject, configName, IBeansConfig.Type.MANUAL);
+		AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		Map<String, Set<String>> result = new TreeMap<String, Set<String>>();
+		for (Map.Entry<IBean, Set<IBeanReference>> entry : provider.resolveAutowiredDependencies().entrySet()) {
+			Set<String> references = new TreeSet<String>();
+			for (IBeanReference reference : entry.getValue()) {
+				references.add(reference.getBeanName() + ":" + reference.getElementSourceLocation().getStartLine());
+			}
+			result.put(entry.getKey().getElementName(), references);
+		}
+		return result;
+	}
+
+	private static String getContents(IFile file) throws Exception {
+		Scanner scanner = new Scanner(file.getContents(), file.getCharset());
+		try {
+			return scanner.useDelimiter("\\A").next();
+		}
+		finally {
+			scanner.close();
+		}
+	}
+
+	private static void setContents(IFile file, String contents) throws Exception {
+		file.setContents(new ByteArrayInputStream(contents.getBytes(file.getCharset())), true, false, null);
+	}
+
+}
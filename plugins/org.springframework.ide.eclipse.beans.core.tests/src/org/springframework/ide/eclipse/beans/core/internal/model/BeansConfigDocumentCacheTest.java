@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.ide.eclipse.core.io.xml.LineNumberPreservingDOMParser;
+import org.springframework.ide.eclipse.core.io.xml.XercesDocumentLoader;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+/**
+ * @since 3.9.22
+ */
+public class BeansConfigDocumentCacheTest {
+
+	private IProject project;
+
+	private IFile file;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		StsTestUtil.waitForAutoBuild();
+		file = project.getFile("basic-bean-config.xml");
+		BeansConfigDocumentCache.clear();
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		BeansConfigDocumentCache.clear();
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testEveryLookupGetsOwnCopy() throws Exception {
+		Document document = load(file);
+		String lineNumbers = Arrays.toString(LineNumberPreservingDOMParser.collectLineNumbers(document));
+		BeansConfigDocumentCache.put(project, file, file.getModificationStamp(), document);
+
+		Document first = BeansConfigDocumentCache.get(project, file);
+		Document second = BeansConfigDocumentCache.get(project, file);
+		assertNotNull(first);
+		assertNotNull(second);
+		assertNotSame(first, second);
+		assertNotSame(document, first);
+		assertEquals(lineNumbers, Arrays.toString(LineNumberPreservingDOMParser.collectLineNumbers(first)));
+		assertEquals(lineNumbers, Arrays.toString(LineNumberPreservingDOMParser.collectLineNumbers(second)));
+	}
+
+	@Test
+	public void testChangedFileIsNotReturned() throws Exception {
+		BeansConfigDocumentCache.put(project, file, file.getModificationStamp(), load(file));
+
+		file.setContents(file.getContents(), true, false, null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertNull(BeansConfigDocumentCache.get(project, file));
+		assertEquals(0, BeansConfigDocumentCache.size());
+	}
+
+	@Test
+	public void testXsdChangeEvictsAllDocuments() throws Exception {
+		BeansConfigDocumentCache.put(project, file, file.getModificationStamp(), load(file));
+		assertEquals(1, BeansConfigDocumentCache.size());
+
+		IFile schema = project.getFile("src/test.xsd");
+		schema.create(new ByteArrayInputStream("<xsd:schema xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\"/>".getBytes("UTF-8")),
+				true, null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertEquals(0, BeansConfigDocumentCache.size());
+		assertNull(BeansConfigDocumentCache.get(project, file));
+	}
+
+	@Test
+	public void testClassPathChangeEvictsDocumentsOfProject() throws Exception {
+		BeansConfigDocumentCache.put(project, file, file.getModificationStamp(), load(file));
+		assertEquals(1, BeansConfigDocumentCache.size());
+
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		IClasspathEntry[] rawClasspath = javaProject.getRawClasspath();
+		List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>();
+		for (IClasspathEntry entry : rawClasspath) {
+			if (!entry.getPath().lastSegment().startsWith("org.springframework.web")) {
+				entries.add(entry);
+			}
+		}
+		javaProject.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]), null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertEquals(0, BeansConfigDocumentCache.size());
+		assertNull(BeansConfigDocumentCache.get(project, file));
+
+		// documents put later are evicted by the next change again
+		BeansConfigDocumentCache.put(project, file, file.getModificationStamp(), load(file));
+		javaProject.setRawClasspath(rawClasspath, null);
+		StsTestUtil.waitForAutoBuild();
+		assertEquals(0, BeansConfigDocumentCache.size());
+	}
+
+	private static Document load(IFile file) throws Exception {
+		InputStream contents = file.getContents();
+		try {
+			return new XercesDocumentLoader().loadDocument(new InputSource(contents), null, null,
+					XmlBeanDefinitionReader.VALIDATION_NONE, true);
+		}
+		finally {
+			contents.close();
+		}
+	}
+
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class BeansConfigLoaderTest {
+
+	private static final int CONFIG_COUNT = 12;
+
+	private IProject project;
+
+	private BeansModel model;
+
+	private BeansProject beansProject;
+
+	private BeansModel modelBackup;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		StsTestUtil.waitForAutoBuild();
+
+		model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+
+		modelBackup = (BeansModel) BeansCorePlugin.getModel();
+		BeansCorePlugin.setModel(model);
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		System.clearProperty(BeansConfigLoader.ENABLE_PROPERTY);
+		project.delete(true, null);
+		BeansCorePlugin.setModel(modelBackup);
+	}
+
+	@Test
+	public void testLoadConfigs() throws Exception {
+		List<IBeansConfig> configs = createConfigs();
+		for (IBeansConfig config : configs) {
+			assertFalse(((BeansConfig) config).isInitialized());
+		}
+
+		CountingProgressMonitor monitor = new CountingProgressMonitor();
+		BeansConfigLoader.loadConfigs(configs, monitor);
+
+		assertEquals(CONFIG_COUNT, monitor.work);
+		for (int i = 0; i < CONFIG_COUNT; i++) {
+			BeansConfig config = (BeansConfig) configs.get(i);
+			assertTrue(config.isInitialized());
+			assertEquals(1, config.getBeans().size());
+			assertNotNull(config.getBean("bean" + i));
+		}
+	}
+
+	@Test
+	public void testReloadedConfigIsLoadedAgain() throws Exception {
+		List<IBeansConfig> configs = createConfigs();
+		BeansConfigLoader.loadConfigs(configs, new NullProgressMonitor());
+		BeansConfig config = (BeansConfig) configs.get(0);
+		assertNotNull(config.getBean("bean0"));
+
+		// loaded configs are skipped
+		CountingProgressMonitor monitor = new CountingProgressMonitor();
+		BeansConfigLoader.loadConfigs(configs, monitor);
+		assertEquals(CONFIG_COUNT, monitor.work);
+
+		project.getFile("loader-config-0.xml").setContents(
+				new ByteArrayInputStream(document("changedBean").getBytes("UTF-8")), true, false, null);
+		config.reload();
+		assertFalse(config.isInitialized());
+
+		BeansConfigLoader.loadConfigs(configs, new NullProgressMonitor());
+		assertTrue(config.isInitialized());
+		assertNull(config.getBean("bean0"));
+		assertNotNull(config.getBean("changedBean"));
+	}
+
+	@Test
+	public void testConcurrentCallersWaitForSameLoads() throws Exception {
+		final List<IBeansConfig> configs = createConfigs();
+		final CountDownLatch done = new CountDownLatch(2);
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		for (int i = 0; i < 2; i++) {
+			new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						BeansConfigLoader.loadConfigs(configs, new NullProgressMonitor());
+						for (IBeansConfig config : configs) {
+							// every caller returns only after all configs got loaded
+							assertTrue(((BeansConfig) config).isInitialized());
+						}
+					}
+					catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+					finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+
+		assertTrue(done.await(60, TimeUnit.SECONDS));
+		assertTrue(failures.toString(), failures.isEmpty());
+	}
+
+	@Test
+	public void testDisabledLoadingLeavesConfigsToCaller() throws Exception {
+		System.setProperty(BeansConfigLoader.ENABLE_PROPERTY, "false");
+		List<IBeansConfig> configs = createConfigs();
+
+		BeansConfigLoader.loadConfigs(configs, new NullProgressMonitor());
+		for (IBeansConfig config : configs) {
+			assertFalse(((BeansConfig) config).isInitialized());
+		}
+	}
+
+	@Test
+	public void testCanceledMonitorLoadsNothing() throws Exception {
+		List<IBeansConfig> configs = createConfigs();
+		IProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+
+		BeansConfigLoader.loadConfigs(configs, monitor);
+		for (IBeansConfig config : configs) {
+			assertFalse(((BeansConfig) config).isInitialized());
+		}
+	}
+
+	private List<IBeansConfig> createConfigs() throws Exception {
+		List<IBeansConfig> configs = new ArrayList<IBeansConfig>();
+		for (int i = 0; i < CONFIG_COUNT; i++) {
+			IFile file = project.getFile("loader-config-" + i + ".xml");
+			file.create(new ByteArrayInputStream(document("bean" + i).getBytes("UTF-8")), true, null);
+			configs.add(new BeansConfig(beansProject, file.getProjectRelativePath().toString(), IBeansConfig.Type.MANUAL));
+		}
+		return configs;
+	}
+
+	private static String document(String beanName) {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n"
+				+ "\txmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+				+ "\txsi:schemaLocation=\"http://www.springframework.org/schema/beans "
+				+ "https://www.springframework.org/schema/beans/spring-beans.xsd\">\n"
+				+ "\t<bean id=\"" + beanName + "\" class=\"org.test.spring.SimpleBeanClass\" />\n"
+				+ "</beans>\n";
+	}
+
+	/**
+	 * Counts the reported units of work.
+	 */
+	private static class CountingProgressMonitor extends NullProgressMonitor {
+
+		private int work;
+
+		@Override
+		public synchronized void worked(int work) {
+			this.work += work;
+		}
+	}
+
+}
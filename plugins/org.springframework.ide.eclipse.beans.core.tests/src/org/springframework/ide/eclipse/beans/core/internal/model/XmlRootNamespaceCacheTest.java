@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class XmlRootNamespaceCacheTest {
+
+	private static final String BEANS_NAMESPACE = "http://www.springframework.org/schema/beans";
+
+	private static final String CONTEXT_NAMESPACE = "http://www.springframework.org/schema/context";
+
+	private IProject project;
+
+	private IFile file;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		file = project.getFile("root-namespace.xml");
+		file.create(new ByteArrayInputStream(document("beans", BEANS_NAMESPACE).getBytes("UTF-8")), true, null);
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testRootNamespace() throws Exception {
+		assertEquals(BEANS_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(project.getFile("basic-bean-config.xml")));
+		assertEquals(BEANS_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+
+		setContents(file, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<beans/>\n");
+		assertNull(XmlRootNamespaceCache.getRootNamespace(file));
+
+		// a DTD is never loaded
+		setContents(file, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<!DOCTYPE beans PUBLIC \"-//SPRING//DTD BEAN//EN\" \"http://localhost:1/spring-beans.dtd\">\n"
+				+ document("beans", BEANS_NAMESPACE).substring("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n".length()));
+		assertEquals(BEANS_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+
+		setContents(file, "no xml at all");
+		assertNull(XmlRootNamespaceCache.getRootNamespace(file));
+	}
+
+	@Test
+	public void testUnchangedStampsAreAnsweredFromCache() throws Exception {
+		assertEquals(BEANS_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+
+		// change the file behind the back of the workspace; its stamps stay the same until it gets refreshed
+		long modificationStamp = file.getModificationStamp();
+		File location = file.getLocation().toFile();
+		FileOutputStream out = new FileOutputStream(location);
+		try {
+			out.write(document("context", CONTEXT_NAMESPACE).getBytes("UTF-8"));
+		}
+		finally {
+			out.close();
+		}
+		location.setLastModified(location.lastModified() + 10000);
+		assertEquals(modificationStamp, file.getModificationStamp());
+		assertEquals(BEANS_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+
+		file.refreshLocal(IResource.DEPTH_ZERO, null);
+		assertEquals(CONTEXT_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+	}
+
+	@Test
+	public void testStampMismatchRescansFile() throws Exception {
+		assertEquals(BEANS_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+
+		setContents(file, document("context", CONTEXT_NAMESPACE));
+		assertEquals(CONTEXT_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+		assertEquals(CONTEXT_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+
+		setContents(file, document("beans", BEANS_NAMESPACE));
+		assertEquals(BEANS_NAMESPACE, XmlRootNamespaceCache.getRootNamespace(file));
+	}
+
+	private static void setContents(IFile file, String contents) throws Exception {
+		file.setContents(new ByteArrayInputStream(contents.getBytes("UTF-8")), true, false, null);
+	}
+
+	private static String document(String rootElement, String namespace) {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<" + rootElement + " xmlns=\"" + namespace + "\">\n</"
+				+ rootElement + ">\n";
+	}
+
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class BeansTypeHierarchyIndexTest {
+
+	private IProject project;
+
+	private IJavaProject javaProject;
+
+	private BeansModel originalModel;
+
+	private BeansProject beansProject;
+
+	private TypeHierarchyEngine typeEngine;
+
+	private BeansTypeHierarchyIndex index;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-model-utils-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		javaProject = JdtUtils.getJavaProject(project);
+
+		BeansModel model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+		model.addProject(beansProject);
+
+		originalModel = (BeansModel) BeansCorePlugin.getModel();
+		BeansCorePlugin.setModel(model);
+
+		beansProject.addConfig("basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		beansProject.addConfig("basic-bean-config-2.xml", IBeansConfig.Type.MANUAL);
+
+		typeEngine = SpringCore.getTypeHierarchyEngine();
+		index = BeansTypeHierarchyIndex.getInstance();
+		index.clear();
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		index.clear();
+		project.delete(true, null);
+		typeEngine.clearCache();
+		BeansCorePlugin.setModel(originalModel);
+	}
+
+	@Test
+	public void testLookupBuildsIndex() throws Exception {
+		assertFalse(index.isIndexed(project));
+		assertSimpleBeanClassConfig();
+		assertTrue(index.isIndexed(project));
+	}
+
+	@Test
+	public void testSourceChangeKeepsIndex() throws Exception {
+		assertSimpleBeanClassConfig();
+
+		IFile source = (IFile) getResource("org.test.spring.NotInvolvedClass");
+		source.appendContents(new ByteArrayInputStream("// changed\n".getBytes()), true, false, null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertTrue(index.isIndexed(project));
+		assertSimpleBeanClassConfig();
+	}
+
+	@Test
+	public void testClassPathChangeDropsIndex() throws Exception {
+		assertSimpleBeanClassConfig();
+
+		List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>();
+		for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+			if (!entry.getPath().lastSegment().startsWith("org.springframework.context")) {
+				entries.add(entry);
+			}
+		}
+		javaProject.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]), null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertFalse(index.isIndexed(project));
+		assertSimpleBeanClassConfig();
+		assertTrue(index.isIndexed(project));
+	}
+
+	@Test
+	public void testLibraryChangeDropsIndex() throws Exception {
+		assertSimpleBeanClassConfig();
+
+		IFile library = project.getFile("lib/org.springframework.core_3.1.4.RELEASE.jar");
+		library.setContents(library.getContents(), true, false, null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertFalse(index.isIndexed(project));
+	}
+
+	@Test
+	public void testProjectDeletionDropsIndex() throws Exception {
+		assertSimpleBeanClassConfig();
+
+		project.delete(true, null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertFalse(index.isIndexed(project));
+	}
+
+	@Test
+	public void testDisposeDropsIndexes() throws Exception {
+		assertSimpleBeanClassConfig();
+
+		index.dispose();
+		assertFalse(index.isIndexed(project));
+
+		// a later lookup starts listening again
+		assertSimpleBeanClassConfig();
+		assertTrue(index.isIndexed(project));
+	}
+
+	private void assertSimpleBeanClassConfig() throws Exception {
+		Set<IBeansConfig> configs = index.getConfigsByContainingTypes(getResource("org.test.spring.SimpleBeanClass"),
+				typeEngine);
+		assertEquals(1, configs.size());
+		assertEquals(beansProject.getConfig("basic-bean-config.xml"), configs.iterator().next());
+	}
+
+	private IResource getResource(String className) throws Exception {
+		return javaProject.findType(className).getResource();
+	}
+
+}
@@ -16,9 +16,18 @@ import org.junit.runners.Suite.SuiteClasses;
 import org.springframework.ide.core.classreading.tests.JdtAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtBasedAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtClassMetadataTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.AopProjectTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.AspectDefinitionMatchCacheTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.PointcutTypePatternFilterTest;
+import org.springframework.ide.eclipse.beans.core.autowire.AutowireBeanRegistryTest;
 import org.springframework.ide.eclipse.beans.core.autowire.AutowireDependencyProviderTest;
 import org.springframework.ide.eclipse.beans.core.autowire.CommonAnnotationInjectionMetadataProviderTests;
+import org.springframework.ide.eclipse.beans.core.autowire.InjectionMetadataCacheTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigDocumentCacheTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoaderTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.XmlRootNamespaceCacheTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.resources.tests.ResourceChangeEventHandlerTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.BeansTypeHierarchyIndexTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanClassRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRulesAutowireTest;
@@ -38,9 +47,19 @@ import org.springframework.ide.eclipse.beans.core.model.tests.BeansJavaConfigTes
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansModelUtilsTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectTest;
 import org.springframework.ide.eclipse.beans.ui.refactoring.tests.BeansJavaConfigRenameTypeRefactoringParticipantTest;
+import org.springframework.ide.eclipse.core.internal.project.ProjectContributorSchedulerTest;
+import org.springframework.ide.eclipse.core.internal.project.SpringProjectContributionManagerTest;
+import org.springframework.ide.eclipse.core.io.xml.LineNumberPreservingDOMParserTest;
+import org.springframework.ide.eclipse.core.io.xml.SharedGrammarPoolTest;
 import org.springframework.ide.eclipse.core.java.IntrospectorTest;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcherTest;
 import org.springframework.ide.eclipse.core.java.JdtUtilsTest;
+import org.springframework.ide.eclipse.core.java.SuperTypeHierarchyCacheTest;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyElementCacheTest;
 import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyJarIndexTest;
+import org.springframework.ide.eclipse.webflow.core.internal.model.WebflowProjectTest;
+import org.springframework.ide.eclipse.webflow.core.internal.model.validation.WebflowValidatorTest;
 
 /**
  * Test suite for <code>beans.core</code> plugin.
@@ -67,20 +86,39 @@ import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
 	IntrospectorTest.class,
 	JdtUtilsTest.class,
 	AutowireDependencyProviderTest.class,
+	AutowireBeanRegistryTest.class,
 	CommonAnnotationInjectionMetadataProviderTests.class,
+	InjectionMetadataCacheTest.class,
 	JdtAnnotationMetadataTest.class,
 	JdtBasedAnnotationMetadataTest.class,
 	JdtClassMetadataTest.class,
 	BeansConfigTest.class,
 	BeansJavaConfigTest.class,
 	BeansConfigFactoryTest.class,
+	BeansConfigDocumentCacheTest.class,
+	XmlRootNamespaceCacheTest.class,
+	BeansConfigLoaderTest.class,
 	BeansProjectTest.class,
 	BeansProjectAutoConfigTest.class,
 	BeansProjectDescriptionWriterTest.class,
 	BeansJavaConfigRenameTypeRefactoringParticipantTest.class,
 	ResourceChangeEventHandlerTest.class,
+	SpringProjectContributionManagerTest.class,
+	ProjectContributorSchedulerTest.class,
 	TypeHierarchyEngineTest.class,
-	BeansModelUtilsTest.class
+	TypeHierarchyElementCacheTest.class,
+	TypeHierarchyJarIndexTest.class,
+	SuperTypeHierarchyCacheTest.class,
+	JavaElementDeltaDispatcherTest.class,
+	SharedGrammarPoolTest.class,
+	LineNumberPreservingDOMParserTest.class,
+	BeansModelUtilsTest.class,
+	PointcutTypePatternFilterTest.class,
+	AspectDefinitionMatchCacheTest.class,
+	WebflowProjectTest.class,
+	WebflowValidatorTest.class,
+	BeansTypeHierarchyIndexTest.class,
+	AopProjectTest.class
 })
 public class AllBeansCoreTests {
 	// goofy junit4, no class body needed
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.internal.project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.internal.project.ProjectContributorScheduler.Contribution;
+
+/**
+ * @since 3.9.22
+ */
+public class ProjectContributorSchedulerTest {
+
+	private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+	@Test
+	public void testConflictingContributionsRunInOrder() throws Exception {
+		List<Contribution> contributions = Arrays.<Contribution> asList(
+				new RecordingContribution("first", null, set("state")),
+				new RecordingContribution("second", set("state"), null),
+				new RecordingContribution("third", null, set("state")),
+				new RecordingContribution("fourth", set("state"), set("other")));
+
+		new ProjectContributorScheduler().run(contributions, new NullProgressMonitor());
+
+		assertEquals(Arrays.asList("first started", "first finished", "second started", "second finished",
+				"third started", "third finished", "fourth started", "fourth finished"), events);
+	}
+
+	@Test
+	public void testDisjointContributionsRunInParallel() throws Exception {
+		assumeTrue(Runtime.getRuntime().availableProcessors() > 1);
+
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		final Thread buildThread = Thread.currentThread();
+		List<Contribution> contributions = new ArrayList<Contribution>();
+		for (final String id : new String[] { "first", "second" }) {
+			contributions.add(new Contribution(id, set("shared"), set(id)) {
+
+				@Override
+				public void run(IProgressMonitor monitor) {
+					try {
+						// both contributions have to be running at the same time to pass the barrier
+						barrier.await(10, TimeUnit.SECONDS);
+						if (Thread.currentThread() != buildThread) {
+							events.add(id + " passed");
+						}
+					}
+					catch (Exception e) {
+						events.add(id + " failed: " + e);
+					}
+				}
+			});
+		}
+
+		new ProjectContributorScheduler().run(contributions, new NullProgressMonitor());
+
+		Collections.sort(events);
+		assertEquals(Arrays.asList("first passed", "second passed"), events);
+	}
+
+	@Test
+	public void testCoreExceptionFromWorker() throws Exception {
+		final Thread buildThread = Thread.currentThread();
+		final CoreException exception = new CoreException(new Status(IStatus.ERROR, "test", "failed"));
+		final Thread[] threads = new Thread[2];
+		final CoreException[] caught = new CoreException[1];
+		List<Contribution> contributions = Arrays.<Contribution> asList(new Contribution("failing", null, set("state")) {
+
+			@Override
+			public void run(IProgressMonitor monitor) {
+				threads[0] = Thread.currentThread();
+				try {
+					ProjectContributorScheduler.runOnBuildThread(new IWorkspaceRunnable() {
+						public void run(IProgressMonitor monitor) throws CoreException {
+							threads[1] = Thread.currentThread();
+							throw exception;
+						}
+					}, monitor);
+				}
+				catch (CoreException e) {
+					caught[0] = e;
+				}
+				throw new IllegalStateException("failed after the workspace operation");
+			}
+		}, new RecordingContribution("next", set("state"), null));
+
+		new ProjectContributorScheduler().run(contributions, new NullProgressMonitor());
+
+		assertNotSame(buildThread, threads[0]);
+		assertSame(buildThread, threads[1]);
+		assertSame(exception, caught[0]);
+
+		// the failure of a worker doesn't stop the contributions that had to wait for it
+		assertEquals(Arrays.asList("next started", "next finished"), events);
+	}
+
+	@Test
+	public void testUndeclaredContributionsRunInline() throws Exception {
+		final Thread buildThread = Thread.currentThread();
+		final Thread[] thread = new Thread[1];
+		List<Contribution> contributions = Arrays.<Contribution> asList(
+				new RecordingContribution("first", null, set("first")),
+				new RecordingContribution("undeclared", null, null) {
+
+					@Override
+					public void run(IProgressMonitor monitor) {
+						thread[0] = Thread.currentThread();
+						super.run(monitor);
+					}
+				},
+				new RecordingContribution("last", null, set("last")));
+
+		new ProjectContributorScheduler().run(contributions, new NullProgressMonitor());
+
+		assertSame(buildThread, thread[0]);
+		assertEquals(Arrays.asList("first started", "first finished", "undeclared started", "undeclared finished",
+				"last started", "last finished"), events);
+	}
+
+	@Test
+	public void testRunOnBuildThread() throws Exception {
+		final Thread buildThread = Thread.currentThread();
+		final IProgressMonitor buildMonitor = new NullProgressMonitor();
+		final List<Object> seen = Collections.synchronizedList(new ArrayList<Object>());
+		final IWorkspaceRunnable operation = new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				seen.add(Thread.currentThread());
+				seen.add(monitor);
+			}
+		};
+
+		// outside of a scheduler the operation runs directly
+		ProjectContributorScheduler.runOnBuildThread(operation, buildMonitor);
+		assertEquals(Arrays.<Object> asList(buildThread, buildMonitor), seen);
+		seen.clear();
+
+		final IProgressMonitor workerMonitor = new NullProgressMonitor();
+		List<Contribution> contributions = new ArrayList<Contribution>();
+		for (String id : new String[] { "first", "second", "third" }) {
+			contributions.add(new Contribution(id, null, set(id)) {
+
+				@Override
+				public void run(IProgressMonitor monitor) {
+					try {
+						ProjectContributorScheduler.runOnBuildThread(operation, workerMonitor);
+					}
+					catch (CoreException e) {
+						seen.add(e);
+					}
+				}
+			});
+		}
+		new ProjectContributorScheduler().run(contributions, buildMonitor);
+
+		assertEquals(6, seen.size());
+		for (int i = 0; i < seen.size(); i += 2) {
+			assertSame(buildThread, seen.get(i));
+			assertSame(workerMonitor, seen.get(i + 1));
+		}
+	}
+
+	@Test
+	public void testCanceledMonitorStartsNothing() throws Exception {
+		IProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+
+		new ProjectContributorScheduler().run(Arrays.asList(new RecordingContribution("first", null, set("first")),
+				new RecordingContribution("undeclared", null, null)), monitor);
+
+		assertTrue(events.isEmpty());
+	}
+
+	private static Set<String> set(String... keys) {
+		return new HashSet<String>(Arrays.asList(keys));
+	}
+
+	/**
+	 * Records when it starts and finishes, taking long enough for overlapping runs to show.
+	 */
+	private class RecordingContribution extends Contribution {
+
+		public RecordingContribution(String id, Set<String> reads, Set<String> writes) {
+			super(id, reads, writes);
+		}
+
+		@Override
+		public void run(IProgressMonitor monitor) {
+			events.add(getId() + " started");
+			try {
+				Thread.sleep(50);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			events.add(getId() + " finished");
+		}
+	}
+
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.internal.project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.internal.project.SpringProjectContributionManager.MultiContributorResourceDeltaVisitor;
+import org.springframework.ide.eclipse.core.internal.project.SpringProjectContributionManager.MultiContributorResourceTreeVisitor;
+import org.springframework.ide.eclipse.core.internal.project.SpringProjectContributionManager.ResourceDeltaVisitor;
+import org.springframework.ide.eclipse.core.internal.project.SpringProjectContributionManager.ResourceTreeVisitor;
+import org.springframework.ide.eclipse.core.project.IProjectContributor;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests that a single walk over the resources yields the same affected resources per contributor as a walk for
+ * every contributor.
+ * @since 3.9.22
+ */
+public class SpringProjectContributionManagerTest {
+
+	private IProject project;
+
+	private List<IProjectContributor> contributors;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		StsTestUtil.waitForAutoBuild();
+
+		contributors = new ArrayList<IProjectContributor>();
+		contributors.add(new ExtensionContributor("xml"));
+		contributors.add(new ExtensionContributor("java"));
+		contributors.add(new ConfigForJavaContributor(project.getFile("basic-bean-config.xml")));
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testTreeWalkMatchesSeparateWalks() throws Exception {
+		MultiContributorResourceTreeVisitor visitor = new MultiContributorResourceTreeVisitor(unfiltered());
+		project.accept(visitor);
+		Map<IProjectContributor, Set<IResource>> resources = visitor.getAffectedResources();
+
+		assertEquals(contributors.size(), resources.size());
+		for (IProjectContributor contributor : contributors) {
+			ResourceTreeVisitor separateVisitor = new ResourceTreeVisitor(contributor);
+			project.accept(separateVisitor);
+			assertFalse(separateVisitor.getResources().isEmpty());
+			assertEquals(separateVisitor.getResources(), resources.get(contributor));
+		}
+	}
+
+	@Test
+	public void testDeltaWalkMatchesSeparateWalks() throws Exception {
+		final Map<IProjectContributor, Set<IResource>> resources = new LinkedHashMap<IProjectContributor, Set<IResource>>();
+		final Map<IProjectContributor, Set<IResource>> separateResources = new LinkedHashMap<IProjectContributor, Set<IResource>>();
+		IResourceChangeListener listener = new IResourceChangeListener() {
+
+			public void resourceChanged(IResourceChangeEvent event) {
+				IResourceDelta delta = event.getDelta().findMember(project.getFullPath());
+				if (delta == null) {
+					return;
+				}
+				try {
+					MultiContributorResourceDeltaVisitor visitor = new MultiContributorResourceDeltaVisitor(
+							unfiltered(), IncrementalProjectBuilder.INCREMENTAL_BUILD);
+					delta.accept(visitor);
+					addAll(resources, visitor.getAffectedResources());
+
+					for (IProjectContributor contributor : contributors) {
+						ResourceDeltaVisitor separateVisitor = new ResourceDeltaVisitor(contributor,
+								IncrementalProjectBuilder.INCREMENTAL_BUILD);
+						delta.accept(separateVisitor);
+						addAll(separateResources, Collections.singletonMap(contributor, separateVisitor.getResources()));
+					}
+				}
+				catch (CoreException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+		try {
+			IFile javaFile = project.getFile("src/org/test/spring/SimpleBeanClass.java");
+			javaFile.appendContents(new ByteArrayInputStream("// changed\n".getBytes()), true, false, null);
+			project.getFile("added-config.xml").create(new ByteArrayInputStream("<beans/>".getBytes()), true, null);
+			project.getFile("importing-bean-config.xml").delete(true, null);
+			StsTestUtil.waitForAutoBuild();
+		}
+		finally {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(listener);
+		}
+
+		assertEquals(separateResources, resources);
+		assertTrue(resources.get(contributors.get(0)).contains(project.getFile("added-config.xml")));
+		assertTrue(resources.get(contributors.get(0)).contains(project.getFile("importing-bean-config.xml")));
+		assertTrue(resources.get(contributors.get(1)).contains(project.getFile("src/org/test/spring/SimpleBeanClass.java")));
+		assertTrue(resources.get(contributors.get(2)).contains(project.getFile("basic-bean-config.xml")));
+	}
+
+	@Test
+	public void testFileExtensionFilter() throws Exception {
+		IProjectContributor allFiles = new ExtensionContributor(null);
+		Map<IProjectContributor, Set<String>> filtered = new LinkedHashMap<IProjectContributor, Set<String>>();
+		filtered.put(allFiles, Collections.singleton("xml"));
+		MultiContributorResourceTreeVisitor visitor = new MultiContributorResourceTreeVisitor(filtered);
+		project.accept(visitor);
+
+		Set<IResource> resources = visitor.getAffectedResources().get(allFiles);
+		assertNotNull(resources);
+		assertTrue(resources.contains(project.getFile("basic-bean-config.xml")));
+		for (IResource resource : resources) {
+			assertTrue(resource.getName(), resource instanceof IProject || "xml".equals(resource.getFileExtension()));
+		}
+	}
+
+	private Map<IProjectContributor, Set<String>> unfiltered() {
+		Map<IProjectContributor, Set<String>> result = new LinkedHashMap<IProjectContributor, Set<String>>();
+		for (IProjectContributor contributor : contributors) {
+			result.put(contributor, null);
+		}
+		return result;
+	}
+
+	private static void addAll(Map<IProjectContributor, Set<IResource>> target,
+			Map<IProjectContributor, Set<IResource>> resources) {
+		for (Map.Entry<IProjectContributor, Set<IResource>> entry : resources.entrySet()) {
+			Set<IResource> targetResources = target.get(entry.getKey());
+			if (targetResources == null) {
+				targetResources = new LinkedHashSet<IResource>();
+				target.put(entry.getKey(), targetResources);
+			}
+			targetResources.addAll(entry.getValue());
+		}
+	}
+
+	/**
+	 * Affects the project itself and every file with the given extension.
+	 */
+	private static class ExtensionContributor implements IProjectContributor {
+
+		private final String extension;
+
+		public ExtensionContributor(String extension) {
+			this.extension = extension;
+		}
+
+		public Set<IResource> getAffectedResources(IResource resource, int kind, int deltaKind) {
+			Set<IResource> resources = new HashSet<IResource>();
+			if (resource instanceof IProject
+					|| (resource instanceof IFile && (extension == null || extension.equals(resource.getFileExtension())))) {
+				resources.add(resource);
+			}
+			return resources;
+		}
+
+		public void cleanup(IResource resource, IProgressMonitor monitor) {
+		}
+	}
+
+	/**
+	 * Affects a config for every java file, as a validator of bean classes would.
+	 */
+	private static class ConfigForJavaContributor implements IProjectContributor {
+
+		private final IFile config;
+
+		public ConfigForJavaContributor(IFile config) {
+			this.config = config;
+		}
+
+		public Set<IResource> getAffectedResources(IResource resource, int kind, int deltaKind) {
+			if (resource instanceof IFile && "java".equals(resource.getFileExtension())) {
+				return Collections.<IResource> singleton(config);
+			}
+			return Collections.emptySet();
+		}
+
+		public void cleanup(IResource resource, IProgressMonitor monitor) {
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigDocumentCache;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+/**
+ * @since 3.9.22
+ */
+public class LineNumberPreservingDOMParserTest {
+
+	private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<beans>\n"
+			+ "	<bean id=\"first\" class=\"First\"/>\n"
+			+ "	<bean id=\"second\" class=\"Second\">\n"
+			+ "		<property name=\"value\" value=\"1\"/>\n"
+			+ "	</bean>\n"
+			+ "</beans>\n";
+
+	private IProject project;
+
+	@After
+	public void tearDown() throws Exception {
+		BeansConfigDocumentCache.clear();
+		if (project != null) {
+			project.delete(true, true, null);
+		}
+	}
+
+	@Test
+	public void testPositions() throws Exception {
+		Document document = load(XML);
+		Element second = getSecondBean(document);
+
+		assertEquals(4, LineNumberPreservingDOMParser.getStartLineNumber(second));
+		assertEquals(6, LineNumberPreservingDOMParser.getEndLineNumber(second));
+		assertTrue(LineNumberPreservingDOMParser.getStartColumnNumber(second) > 0);
+		assertTrue(LineNumberPreservingDOMParser.getEndColumnNumber(second) > 0);
+	}
+
+	@Test
+	public void testLookupFromOtherThread() throws Exception {
+		final Document document = load(XML);
+
+		final int[][] positions = new int[1][];
+		Thread thread = new Thread() {
+
+			@Override
+			public void run() {
+				positions[0] = getPositions(getSecondBean(document));
+			}
+		};
+		thread.start();
+		thread.join();
+
+		assertEquals(4, positions[0][0]);
+		assertEquals(6, positions[0][2]);
+		assertEquals(Arrays.toString(getPositions(getSecondBean(document))), Arrays.toString(positions[0]));
+	}
+
+	@Test
+	public void testCollectLineNumbers() throws Exception {
+		Document document = load(XML);
+		int[] lines = LineNumberPreservingDOMParser.collectLineNumbers(document);
+
+		// four ints for the document node and each of the four elements, in document order
+		assertEquals(5 * 4, lines.length);
+		assertEquals(Arrays.toString(getPositions(getSecondBean(document))),
+				Arrays.toString(Arrays.copyOfRange(lines, 3 * 4, 4 * 4)));
+	}
+
+	@Test
+	public void testPositionsOfCachedCopy() throws Exception {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("LineNumberPreservingDOMParserTest");
+		project.create(null);
+		project.open(null);
+		IFile file = project.getFile("beans.xml");
+		file.create(new ByteArrayInputStream(XML.getBytes("UTF-8")), true, null);
+
+		// the cache takes over the document, so the expected positions are taken before it is put
+		Document document = load(XML);
+		String expectedLines = Arrays.toString(LineNumberPreservingDOMParser.collectLineNumbers(document));
+		String expectedPositions = Arrays.toString(getPositions(getSecondBean(document)));
+		BeansConfigDocumentCache.put(project, file, file.getModificationStamp(), document);
+		final Document copy = BeansConfigDocumentCache.get(project, file);
+
+		assertNotNull(copy);
+		assertNotSame(document, copy);
+		assertEquals(expectedLines, Arrays.toString(LineNumberPreservingDOMParser.collectLineNumbers(copy)));
+
+		// the copy is handed out to other threads, e.g. when the importing config is read by a build job
+		final int[][] positions = new int[1][];
+		Thread thread = new Thread() {
+
+			@Override
+			public void run() {
+				positions[0] = getPositions(getSecondBean(copy));
+			}
+		};
+		thread.start();
+		thread.join();
+
+		assertEquals(expectedPositions, Arrays.toString(positions[0]));
+	}
+
+	private static Document load(String xml) throws Exception {
+		return new XercesDocumentLoader().loadDocument(new InputSource(new StringReader(xml)), null, null,
+				XmlBeanDefinitionReader.VALIDATION_NONE, true);
+	}
+
+	private static Element getSecondBean(Document document) {
+		return (Element) document.getElementsByTagName("bean").item(1);
+	}
+
+	private static int[] getPositions(Element element) {
+		return new int[] { LineNumberPreservingDOMParser.getStartLineNumber(element),
+				LineNumberPreservingDOMParser.getStartColumnNumber(element),
+				LineNumberPreservingDOMParser.getEndLineNumber(element),
+				LineNumberPreservingDOMParser.getEndColumnNumber(element) };
+	}
+
+}
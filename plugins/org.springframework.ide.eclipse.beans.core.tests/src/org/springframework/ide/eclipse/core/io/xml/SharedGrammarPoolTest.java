@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since 3.9.22
+ */
+public class SharedGrammarPoolTest {
+
+	private static final String NAMESPACE = "http://www.springframework.org/schema/beans";
+
+	private static final String LOCATION = "http://www.springframework.org/schema/beans/spring-beans-3.0.xsd";
+
+	private ClassLoader classLoader;
+
+	private URL[] folders;
+
+	@Before
+	public void setup() throws Exception {
+		// a class loader of its own keeps the pools of other tests out
+		classLoader = new URLClassLoader(new URL[0], null);
+		folders = new URL[] { new URL("file:/test/src/"), new URL("file:/test/bin/") };
+	}
+
+	@Test
+	public void testPoolsAreKeyedByClassLoaderAndFolders() throws Exception {
+		SharedGrammarPool pool = SharedGrammarPool.getPool(classLoader, folders);
+		assertSame(pool, SharedGrammarPool.getPool(classLoader, folders.clone()));
+		assertNotSame(pool, SharedGrammarPool.getPool(classLoader, new URL[] { folders[0] }));
+		assertNotSame(pool, SharedGrammarPool.getPool(new URLClassLoader(new URL[0], null), folders));
+		assertNull(SharedGrammarPool.getPool(null, folders));
+		assertNull(SharedGrammarPool.getPool(classLoader, null));
+	}
+
+	@Test
+	public void testGrammarsAreKeyedByTypeNamespacePublicIdAndLocation() throws Exception {
+		SharedGrammarPool pool = SharedGrammarPool.getPool(classLoader, folders);
+		Grammar grammar = new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null, LOCATION, null);
+		pool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+
+		assertSame(grammar, pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null,
+				LOCATION, null)));
+
+		// another version of the schema for the same namespace
+		assertNull(pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null,
+				LOCATION.replace("3.0", "3.1"), null)));
+		assertNull(pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE + "/other", null,
+				LOCATION, null)));
+		assertNull(pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, "-//TEST//EN",
+				LOCATION, null)));
+		assertNull(pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_DTD, NAMESPACE, null, LOCATION,
+				null)));
+	}
+
+	@Test
+	public void testRelativeLocationsAreExpanded() throws Exception {
+		SharedGrammarPool pool = SharedGrammarPool.getPool(classLoader, folders);
+		Grammar grammar = new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null, "beans.xsd",
+				"file:/first/beans.xsd");
+		pool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+
+		assertSame(grammar, pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null,
+				"beans.xsd", "file:/first/beans.xsd")));
+		assertNull(pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null,
+				"beans.xsd", "file:/second/beans.xsd")));
+
+		// without any location there is nothing to share
+		assertNull(pool.retrieveGrammar(new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null, null,
+				null)));
+	}
+
+	@Test
+	public void testHitAndMissCounts() throws Exception {
+		SharedGrammarPool pool = SharedGrammarPool.getPool(classLoader, folders);
+		TestGrammar grammar = new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null, LOCATION, null);
+		long hits = SharedGrammarPool.getHitCount();
+		long misses = SharedGrammarPool.getMissCount();
+
+		assertNull(pool.retrieveGrammar(grammar));
+		pool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+		assertSame(grammar, pool.retrieveGrammar(grammar));
+		assertSame(grammar, pool.retrieveGrammar(grammar));
+
+		assertEquals(hits + 2, SharedGrammarPool.getHitCount());
+		assertEquals(misses + 1, SharedGrammarPool.getMissCount());
+	}
+
+	@Test
+	public void testLockedPoolDoesNotTakeGrammars() throws Exception {
+		SharedGrammarPool pool = SharedGrammarPool.getPool(classLoader, folders);
+		TestGrammar grammar = new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null, LOCATION, null);
+
+		pool.lockPool();
+		pool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+		assertNull(pool.retrieveGrammar(grammar));
+
+		pool.unlockPool();
+		pool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+		assertSame(grammar, pool.retrieveGrammar(grammar));
+	}
+
+	@Test
+	public void testClearAllDropsPools() throws Exception {
+		SharedGrammarPool pool = SharedGrammarPool.getPool(classLoader, folders);
+		SharedGrammarPool.clearAll();
+		assertNotSame(pool, SharedGrammarPool.getPool(classLoader, folders));
+	}
+
+	@Test
+	public void testPoolIsReplacedTogetherWithFullSymbolTable() throws Exception {
+		SharedGrammarPool pool = SharedGrammarPool.getPool(classLoader, folders);
+		TestGrammar grammar = new TestGrammar(XMLGrammarDescription.XML_SCHEMA, NAMESPACE, null, LOCATION, null);
+		pool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+
+		System.setProperty(SharedGrammarPool.SYMBOL_LIMIT_PROPERTY, "10");
+		try {
+			for (int i = 0; i < 10; i++) {
+				pool.getSymbolTable().addSymbol("name" + i);
+			}
+			assertSame(pool, SharedGrammarPool.getPool(classLoader, folders));
+
+			pool.getSymbolTable().addSymbol("name10");
+			assertEquals(11, pool.getSymbolCount());
+			SharedGrammarPool replacement = SharedGrammarPool.getPool(classLoader, folders);
+			assertNotSame(pool, replacement);
+			assertEquals(0, replacement.getSymbolCount());
+			assertNull(replacement.retrieveGrammar(grammar));
+
+			// parsers created with the old pool keep working with its grammars and names
+			assertSame(grammar, pool.retrieveGrammar(grammar));
+			assertTrue(pool.getSymbolTable().containsSymbol("name0"));
+		}
+		finally {
+			System.clearProperty(SharedGrammarPool.SYMBOL_LIMIT_PROPERTY);
+		}
+	}
+
+	private static class TestGrammar implements Grammar, XMLGrammarDescription {
+
+		private final String grammarType;
+
+		private String namespace;
+
+		private String publicId;
+
+		private String literalSystemId;
+
+		private String expandedSystemId;
+
+		private String baseSystemId;
+
+		public TestGrammar(String grammarType, String namespace, String publicId, String literalSystemId,
+				String expandedSystemId) {
+			this.grammarType = grammarType;
+			this.namespace = namespace;
+			this.publicId = publicId;
+			this.literalSystemId = literalSystemId;
+			this.expandedSystemId = expandedSystemId;
+		}
+
+		public XMLGrammarDescription getGrammarDescription() {
+			return this;
+		}
+
+		public String getGrammarType() {
+			return grammarType;
+		}
+
+		public String getNamespace() {
+			return namespace;
+		}
+
+		public void setNamespace(String namespace) {
+			this.namespace = namespace;
+		}
+
+		public String getPublicId() {
+			return publicId;
+		}
+
+		public void setPublicId(String publicId) {
+			this.publicId = publicId;
+		}
+
+		public String getLiteralSystemId() {
+			return literalSystemId;
+		}
+
+		public void setLiteralSystemId(String literalSystemId) {
+			this.literalSystemId = literalSystemId;
+		}
+
+		public String getExpandedSystemId() {
+			return expandedSystemId;
+		}
+
+		public void setExpandedSystemId(String expandedSystemId) {
+			this.expandedSystemId = expandedSystemId;
+		}
+
+		public String getBaseSystemId() {
+			return baseSystemId;
+		}
+
+		public void setBaseSystemId(String baseSystemId) {
+			this.baseSystemId = baseSystemId;
+		}
+	}
+
+}
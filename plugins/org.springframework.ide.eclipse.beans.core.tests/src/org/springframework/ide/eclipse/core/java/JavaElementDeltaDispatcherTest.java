@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher.IJavaElementDeltaListener;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class JavaElementDeltaDispatcherTest {
+
+	private IProject project;
+
+	private IProject otherProject;
+
+	private IJavaProject javaProject;
+
+	private IJavaProject otherJavaProject;
+
+	private RecordingListener listener;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-model-utils-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		otherProject = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		StsTestUtil.waitForAutoBuild();
+		javaProject = JdtUtils.getJavaProject(project);
+		otherJavaProject = JdtUtils.getJavaProject(otherProject);
+		listener = new RecordingListener();
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		JavaElementDeltaDispatcher.removeListener(listener);
+		otherProject.delete(true, null);
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testSourceChangesOfRegisteredProject() throws Exception {
+		JavaElementDeltaDispatcher.addListener(listener, javaProject);
+
+		touch(project.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		assertEquals(Arrays.asList("changed SimpleBeanClass.java"), listener.events);
+
+		// changes of other projects are not reported
+		listener.events.clear();
+		touch(otherProject.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		assertTrue(listener.events.isEmpty());
+	}
+
+	@Test
+	public void testClassPathChangeOfRegisteredProject() throws Exception {
+		JavaElementDeltaDispatcher.addListener(listener, javaProject);
+
+		removeLibrary(javaProject, "org.springframework.context");
+		assertEquals(Arrays.asList("class path " + project.getName()), listener.events);
+
+		// a library change is reported as a class path change as well
+		listener.events.clear();
+		touch(project.getFile("lib/org.springframework.core_3.1.4.RELEASE.jar"));
+		assertEquals(Arrays.asList("class path " + project.getName()), listener.events);
+	}
+
+	@Test
+	public void testRemovedListenerIsNotNotified() throws Exception {
+		JavaElementDeltaDispatcher.addListener(listener, javaProject);
+		JavaElementDeltaDispatcher.removeListener(listener);
+
+		touch(project.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		removeLibrary(javaProject, "org.springframework.context");
+		assertTrue(listener.events.isEmpty());
+	}
+
+	@Test
+	public void testRegistrationIncludesProjectsOnClassPath() throws Exception {
+		addProjectEntry(javaProject, otherProject);
+		JavaElementDeltaDispatcher.addListener(listener, javaProject);
+
+		touch(otherProject.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		assertEquals(Arrays.asList("changed SimpleBeanClass.java"), listener.events);
+	}
+
+	@Test
+	public void testRegistrationIncludesDependentProjects() throws Exception {
+		addProjectEntry(otherJavaProject, project);
+		JavaElementDeltaDispatcher.addListener(listener, javaProject, true);
+
+		touch(otherProject.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		assertEquals(Arrays.asList("changed SimpleBeanClass.java"), listener.events);
+	}
+
+	@Test
+	public void testNewDependentProjectExtendsRegistration() throws Exception {
+		JavaElementDeltaDispatcher.addListener(listener, javaProject, true);
+		touch(otherProject.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		assertTrue(listener.events.isEmpty());
+
+		addProjectEntry(otherJavaProject, project);
+		assertEquals(Arrays.asList("class path " + otherProject.getName()), listener.events);
+
+		listener.events.clear();
+		touch(otherProject.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		assertEquals(Arrays.asList("changed SimpleBeanClass.java"), listener.events);
+	}
+
+	@Test
+	public void testNewDependentProjectWithoutDependentRegistration() throws Exception {
+		JavaElementDeltaDispatcher.addListener(listener, javaProject);
+
+		addProjectEntry(otherJavaProject, project);
+		touch(otherProject.getFile("src/org/test/spring/SimpleBeanClass.java"));
+		assertTrue(listener.events.isEmpty());
+	}
+
+	@Test
+	public void testRegistrationsShareClassPaths() throws Exception {
+		RecordingListener otherListener = new RecordingListener();
+		JavaElementDeltaDispatcher.addListener(listener, javaProject, true);
+		JavaElementDeltaDispatcher.addListener(otherListener, otherJavaProject, true);
+		try {
+			// a class path change of one project is seen by registrations computed before it
+			addProjectEntry(otherJavaProject, project);
+			assertEquals(Arrays.asList("class path " + otherProject.getName()), listener.events);
+			assertEquals(Arrays.asList("class path " + otherProject.getName()), otherListener.events);
+
+			// and by registrations computed after it
+			RecordingListener lateListener = new RecordingListener();
+			JavaElementDeltaDispatcher.addListener(lateListener, javaProject, true);
+			try {
+				touch(otherProject.getFile("src/org/test/spring/SimpleBeanClass.java"));
+				assertEquals(Arrays.asList("changed SimpleBeanClass.java"), lateListener.events);
+			}
+			finally {
+				JavaElementDeltaDispatcher.removeListener(lateListener);
+			}
+		}
+		finally {
+			JavaElementDeltaDispatcher.removeListener(otherListener);
+		}
+	}
+
+	private static void touch(IFile file) throws Exception {
+		file.setContents(file.getContents(), true, false, null);
+	}
+
+	private static void removeLibrary(IJavaProject javaProject, String prefix) throws Exception {
+		List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>();
+		for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+			if (!entry.getPath().lastSegment().startsWith(prefix)) {
+				entries.add(entry);
+			}
+		}
+		javaProject.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]), null);
+	}
+
+	private static void addProjectEntry(IJavaProject javaProject, IProject requiredProject) throws Exception {
+		List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>(Arrays.asList(javaProject.getRawClasspath()));
+		entries.add(JavaCore.newProjectEntry(requiredProject.getFullPath()));
+		javaProject.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]), null);
+	}
+
+	/**
+	 * Records the names of changed compilation units and the projects of class path changes.
+	 */
+	private static class RecordingListener implements IJavaElementDeltaListener {
+
+		private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+		public void classPathChanged(IJavaProject project) {
+			events.add("class path " + project.getElementName());
+		}
+
+		public void openablesChanged(List<IJavaElementDelta> deltas) {
+			for (IJavaElementDelta delta : deltas) {
+				events.add("changed " + delta.getElement().getElementName());
+			}
+		}
+	}
+
+}
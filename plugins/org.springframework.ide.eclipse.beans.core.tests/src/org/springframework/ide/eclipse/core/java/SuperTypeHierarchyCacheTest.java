@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class SuperTypeHierarchyCacheTest {
+
+	private IProject project;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		StsTestUtil.waitForAutoBuild();
+		SpringCore.getDefault().getPluginPreferences().setValue(SpringCore.TYPE_HIERARCHY_CACHE_SIZE, 2);
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		SpringCore.getDefault().getPluginPreferences().setToDefault(SpringCore.TYPE_HIERARCHY_CACHE_SIZE);
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedHierarchyIsEvicted() throws Exception {
+		IType first = getType("org.test.spring.SimpleBeanClass");
+		IType second = getType("org.test.spring.SimpleConfigurationClass");
+		IType third = getType("org.test.advanced.AdvancedConfigurationClass");
+
+		// hierarchies cached by other tests are evicted while filling the cache
+		ITypeHierarchy firstHierarchy = SuperTypeHierarchyCache.getTypeHierarchy(first);
+		SuperTypeHierarchyCache.getTypeHierarchy(second);
+		assertEquals(2, SuperTypeHierarchyCache.getSize());
+
+		long hits = SuperTypeHierarchyCache.getHitCount();
+		long misses = SuperTypeHierarchyCache.getMissCount();
+		long evictions = SuperTypeHierarchyCache.getEvictionCount();
+
+		// the access makes the second hierarchy the least recently used one
+		assertSame(firstHierarchy, SuperTypeHierarchyCache.getTypeHierarchy(first));
+		SuperTypeHierarchyCache.getTypeHierarchy(third);
+
+		assertEquals(2, SuperTypeHierarchyCache.getSize());
+		assertEquals(hits + 1, SuperTypeHierarchyCache.getHitCount());
+		assertEquals(misses + 1, SuperTypeHierarchyCache.getMissCount());
+		assertEquals(evictions + 1, SuperTypeHierarchyCache.getEvictionCount());
+
+		assertTrue(SuperTypeHierarchyCache.hasInCache(first));
+		assertTrue(SuperTypeHierarchyCache.hasInCache(third));
+		assertFalse(SuperTypeHierarchyCache.hasInCache(second));
+
+		assertEquals(hits + 3, SuperTypeHierarchyCache.getHitCount());
+		assertEquals(misses + 2, SuperTypeHierarchyCache.getMissCount());
+		assertEquals(evictions + 1, SuperTypeHierarchyCache.getEvictionCount());
+	}
+
+	@Test
+	public void testHierarchyIsFoundByContainedType() throws Exception {
+		IType type = getType("org.test.spring.SimpleBeanClass");
+		ITypeHierarchy hierarchy = SuperTypeHierarchyCache.getTypeHierarchy(type);
+
+		long hits = SuperTypeHierarchyCache.getHitCount();
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(hierarchy.getSuperclass(type)));
+		assertEquals(hits + 1, SuperTypeHierarchyCache.getHitCount());
+	}
+
+	@Test
+	public void testChangedSuperTypeDropsHierarchy() throws Exception {
+		IType type = getType("org.test.spring.SimpleBeanClass");
+		SuperTypeHierarchyCache.getTypeHierarchy(type);
+		assertTrue(SuperTypeHierarchyCache.hasInCache(type));
+
+		IFile file = (IFile) type.getResource();
+		String source = "package org.test.spring;\n\npublic class SimpleBeanClass extends java.util.ArrayList {\n}\n";
+		file.setContents(new ByteArrayInputStream(source.getBytes("UTF-8")), true, false, null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertFalse(SuperTypeHierarchyCache.hasInCache(type));
+		ITypeHierarchy hierarchy = SuperTypeHierarchyCache.getTypeHierarchy(type);
+		assertEquals("ArrayList", hierarchy.getSuperclass(type).getElementName());
+	}
+
+	private IType getType(String className) {
+		IType type = JdtUtils.getJavaType(project, className);
+		assertTrue(type.exists());
+		return type;
+	}
+
+}
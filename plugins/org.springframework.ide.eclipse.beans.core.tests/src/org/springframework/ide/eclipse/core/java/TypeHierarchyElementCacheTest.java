@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementCache;
+
+/**
+ * @since 3.9.22
+ */
+public class TypeHierarchyElementCacheTest {
+	
+	@Test
+	public void testNamesWithSameHashCodeDontCollide() throws Exception {
+		// "Aa" and "BB" share the same String-style hash code
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		TypeHierarchyElement aa = cache.put("org/Aa".toCharArray(),
+				new TypeHierarchyElement("org/Aa".toCharArray(), "java/lang/Object".toCharArray(), null));
+		
+		assertNull(cache.get("org/BB".toCharArray()));
+		
+		TypeHierarchyElement bb = cache.put("org/BB".toCharArray(),
+				new TypeHierarchyElement("org/BB".toCharArray(), "org/Aa".toCharArray(), null));
+		
+		assertSame(aa, cache.get("org/Aa".toCharArray()));
+		assertSame(bb, cache.get("org/BB".toCharArray()));
+	}
+
+	@Test
+	public void testSuperTypeNamesAreShared() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		
+		TypeHierarchyElement first = cache.put("org/First".toCharArray(), new TypeHierarchyElement(
+				"org/First".toCharArray(), "java/lang/Object".toCharArray(), new char[][] {"java/io/Serializable".toCharArray()}));
+		TypeHierarchyElement second = cache.put("org/Second".toCharArray(), new TypeHierarchyElement(
+				"org/Second".toCharArray(), "java/lang/Object".toCharArray(), new char[][] {"java/io/Serializable".toCharArray()}));
+		
+		assertSame(first.superclassName, second.superclassName);
+		assertSame(first.interfaces[0], second.interfaces[0]);
+		assertSame(first.superclassName, cache.getInternedName("java.lang.Object"));
+		assertSame(second, cache.get("org/Second".toCharArray()));
+	}
+
+	@Test
+	public void testCachedElementsAreNotChanged() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		cache.put("org/First".toCharArray(), new TypeHierarchyElement("org/First".toCharArray(),
+				"java/lang/Object".toCharArray(), new char[][] {"java/io/Serializable".toCharArray()}));
+		
+		char[] superclassName = "java/lang/Object".toCharArray();
+		char[][] interfaces = new char[][] {"java/io/Serializable".toCharArray()};
+		char[] interfaceName = interfaces[0];
+		TypeHierarchyElement second = new TypeHierarchyElement("org/Second".toCharArray(), superclassName, interfaces);
+		TypeHierarchyElement cached = cache.put("org/Second".toCharArray(), second);
+		
+		// the names are known already, so a copy with the shared arrays is cached instead
+		assertNotSame(second, cached);
+		assertSame(superclassName, second.superclassName);
+		assertSame(interfaceName, second.interfaces[0]);
+		assertSame(cache.getInternedName("java.lang.Object"), cached.superclassName);
+		assertSame(cache.getInternedName("java.io.Serializable"), cached.interfaces[0]);
+		assertEquals(1, cached.interfacesElements.length);
+	}
+
+	@Test
+	public void testManyElements() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		for (int i = 0; i < 40000; i++) {
+			char[] name = ("org/test/Class" + i).toCharArray();
+			cache.put(name, new TypeHierarchyElement(name, "java/lang/Object".toCharArray(), null));
+		}
+		
+		assertEquals(40000, cache.size());
+		for (int i = 0; i < 40000; i++) {
+			TypeHierarchyElement element = cache.get(("org/test/Class" + i).toCharArray());
+			assertEquals("org/test/Class" + i, new String(element.className));
+		}
+		assertNull(cache.get("org/test/Class40000".toCharArray()));
+	}
+
+	@Test
+	public void testUnknownNamesAreNotInterned() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		
+		char[] first = cache.getInternedName("org.test.Unknown");
+		char[] second = cache.getInternedName("org.test.Unknown");
+		assertEquals("org/test/Unknown", new String(first));
+		assertNotSame(first, second);
+		assertNull(cache.get(first));
+		assertEquals(0, cache.size());
+		
+		cache.put(first, new TypeHierarchyElement(first, "java/lang/Object".toCharArray(), null));
+		assertSame(first, cache.getInternedName("org.test.Unknown"));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testSizeCountsReplacedElementsOnce() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		char[] name = "org/test/Class".toCharArray();
+		cache.put(name, new TypeHierarchyElement(name, "java/lang/Object".toCharArray(), null));
+		cache.put(name, new TypeHierarchyElement(name, "java/lang/Object".toCharArray(), null));
+		
+		assertEquals(1, cache.size());
+	}
+
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyJarIndex;
+
+/**
+ * @since 3.9.22
+ */
+public class TypeHierarchyJarIndexTest {
+
+	public static class Base implements Serializable {
+		private static final long serialVersionUID = 1L;
+	}
+
+	public static class Derived extends Base implements Runnable, Cloneable {
+		private static final long serialVersionUID = 1L;
+
+		public void run() {
+		}
+	}
+
+	private static final String BASE = Base.class.getName().replace('.', '/');
+
+	private static final String DERIVED = Derived.class.getName().replace('.', '/');
+
+	private File folder;
+
+	private File jarFile;
+
+	private File indexFile;
+
+	@Before
+	public void setup() throws Exception {
+		folder = File.createTempFile("typehierarchy", "");
+		folder.delete();
+		folder.mkdirs();
+		jarFile = new File(folder, "classes.jar");
+		indexFile = new File(new File(folder, "index"), "classes.jar.idx");
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		delete(folder);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		writeJar(Base.class, Derived.class);
+
+		TypeHierarchyJarIndex index = TypeHierarchyJarIndex.open(jarFile, indexFile);
+		assertTrue(indexFile.isFile());
+		assertEquals(2, index.size());
+		assertEquals(jarFile.getAbsolutePath(), index.getJarPath());
+		assertTrue(index.isValid(jarFile));
+		assertDerived(index.get(DERIVED));
+
+		// a second open maps the existing file
+		long written = indexFile.lastModified();
+		TypeHierarchyJarIndex reopened = TypeHierarchyJarIndex.open(jarFile, indexFile);
+		assertEquals(written, indexFile.lastModified());
+		assertEquals(2, reopened.size());
+		assertTrue(reopened.contains(BASE));
+		assertDerived(reopened.get(DERIVED));
+
+		TypeHierarchyElement base = reopened.get(BASE);
+		assertEquals(BASE, new String(base.className));
+		assertEquals("java/lang/Object", new String(base.superclassName));
+		assertEquals(1, base.interfaces.length);
+		assertEquals("java/io/Serializable", new String(base.interfaces[0]));
+
+		assertFalse(reopened.contains("java/lang/Object"));
+		assertNull(reopened.get("java/lang/Object"));
+		assertNull(reopened.get(BASE + "x"));
+	}
+
+	@Test
+	public void testStaleStampRebuildsIndex() throws Exception {
+		writeJar(Base.class);
+		TypeHierarchyJarIndex index = TypeHierarchyJarIndex.open(jarFile, indexFile);
+		assertNull(index.get(DERIVED));
+
+		writeJar(Base.class, Derived.class);
+		jarFile.setLastModified(jarFile.lastModified() + 10000);
+		assertFalse(index.isValid(jarFile));
+
+		// the old index is still mapped while the new one replaces it
+		TypeHierarchyJarIndex rebuilt = TypeHierarchyJarIndex.open(jarFile, indexFile);
+		assertTrue(rebuilt.isValid(jarFile));
+		assertEquals(2, rebuilt.size());
+		assertDerived(rebuilt.get(DERIVED));
+		assertNotNull(index.get(BASE));
+	}
+
+	@Test
+	public void testTruncatedIndexIsRebuilt() throws Exception {
+		writeJar(Base.class, Derived.class);
+		TypeHierarchyJarIndex.open(jarFile, indexFile);
+		long length = indexFile.length();
+
+		RandomAccessFile file = new RandomAccessFile(indexFile, "rw");
+		try {
+			file.setLength(length - 10);
+		}
+		finally {
+			file.close();
+		}
+
+		TypeHierarchyJarIndex index = TypeHierarchyJarIndex.open(jarFile, indexFile);
+		assertEquals(length, indexFile.length());
+		assertDerived(index.get(DERIVED));
+	}
+
+	@Test
+	public void testVersionMismatchRebuildsIndex() throws Exception {
+		writeJar(Base.class, Derived.class);
+		TypeHierarchyJarIndex.open(jarFile, indexFile);
+		int version = readInt(indexFile, 4);
+
+		RandomAccessFile file = new RandomAccessFile(indexFile, "rw");
+		try {
+			file.seek(4);
+			file.writeInt(version - 1);
+		}
+		finally {
+			file.close();
+		}
+
+		TypeHierarchyJarIndex index = TypeHierarchyJarIndex.open(jarFile, indexFile);
+		assertEquals(version, readInt(indexFile, 4));
+		assertDerived(index.get(DERIVED));
+	}
+
+	@Test
+	public void testWriteFailure() throws Exception {
+		writeJar(Base.class, Derived.class);
+
+		// the index folder cannot be created where a file exists
+		File blocked = new File(folder, "blocked");
+		assertTrue(blocked.createNewFile());
+		try {
+			TypeHierarchyJarIndex.open(jarFile, new File(blocked, "classes.jar.idx"));
+			fail("index written into a file");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	private void assertDerived(TypeHierarchyElement derived) {
+		assertNotNull(derived);
+		assertEquals(DERIVED, new String(derived.className));
+		assertEquals(BASE, new String(derived.superclassName));
+		assertEquals(2, derived.interfaces.length);
+		assertEquals("java/lang/Runnable", new String(derived.interfaces[0]));
+		assertEquals("java/lang/Cloneable", new String(derived.interfaces[1]));
+	}
+
+	private void writeJar(Class<?>... classes) throws IOException {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile));
+		try {
+			for (Class<?> clazz : classes) {
+				String name = clazz.getName().replace('.', '/') + ".class";
+				out.putNextEntry(new ZipEntry(name));
+				InputStream in = clazz.getClassLoader().getResourceAsStream(name);
+				try {
+					byte[] buffer = new byte[4096];
+					for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+						out.write(buffer, 0, read);
+					}
+				}
+				finally {
+					in.close();
+				}
+				out.closeEntry();
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private int readInt(File file, long position) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			in.seek(position);
+			return in.readInt();
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
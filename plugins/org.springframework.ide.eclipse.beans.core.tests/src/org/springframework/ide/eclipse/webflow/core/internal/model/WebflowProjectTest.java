@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.webflow.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.webflow.core.Activator;
+import org.springframework.ide.eclipse.webflow.core.model.IWebflowConfig;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class WebflowProjectTest {
+
+	private IProject project;
+
+	private WebflowProject webflowProject;
+
+	private IWebflowConfig parentConfig;
+
+	private IWebflowConfig childConfig;
+
+	private IWebflowConfig userConfig;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		webflowProject = new WebflowProject(project, Activator.getModel());
+
+		// child-flow inherits from parent-flow, user-flow looks up a state of child-flow
+		parentConfig = addConfig("parent-flow.xml", flow("", "<end-state id=\"end\" />"));
+		childConfig = addConfig("child-flow.xml", flow(" parent=\"parent-flow\"", "<end-state id=\"end\" />"));
+		userConfig = addConfig("user-flow.xml",
+				flow("", "<end-state id=\"end\" parent=\"child-flow#end\" />"));
+		webflowProject.setConfigs(new ArrayList<IWebflowConfig>(Arrays.asList(parentConfig, childConfig, userConfig)));
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testDependentConfigs() throws Exception {
+		assertEquals(set(childConfig, userConfig), webflowProject.getDependentConfigs(parentConfig));
+		assertEquals(set(userConfig), webflowProject.getDependentConfigs(childConfig));
+		assertTrue(webflowProject.getDependentConfigs(userConfig).isEmpty());
+	}
+
+	@Test
+	public void testChangedFlowIsReadAgain() throws Exception {
+		assertEquals(set(childConfig, userConfig), webflowProject.getDependentConfigs(parentConfig));
+
+		setContents(childConfig.getResource(), flow("", "<end-state id=\"end\" />"));
+		assertTrue(webflowProject.getDependentConfigs(childConfig).contains(userConfig));
+		assertTrue(webflowProject.getDependentConfigs(parentConfig).isEmpty());
+	}
+
+	@Test
+	public void testRemovedConfigDropsReferences() throws Exception {
+		assertEquals(set(userConfig), webflowProject.getDependentConfigs(childConfig));
+
+		webflowProject.setConfigs(new ArrayList<IWebflowConfig>(Arrays.asList(parentConfig, childConfig)));
+		assertTrue(webflowProject.getDependentConfigs(childConfig).isEmpty());
+		assertEquals(set(childConfig), webflowProject.getDependentConfigs(parentConfig));
+	}
+
+	@Test
+	public void testRenameInPlaceUpdatesLookups() throws Exception {
+		assertSame(childConfig, webflowProject.getConfig("child-flow"));
+		assertEquals(set(userConfig), webflowProject.getDependentConfigs(childConfig));
+
+		// the list of configs keeps its identity and size
+		childConfig.setName("renamed-flow");
+		assertSame(childConfig, webflowProject.getConfig("renamed-flow"));
+		assertNull(webflowProject.getConfig("child-flow"));
+		assertTrue(webflowProject.getDependentConfigs(childConfig).isEmpty());
+	}
+
+	@Test
+	public void testResourceChangeInPlaceUpdatesLookups() throws Exception {
+		assertEquals(set(userConfig), webflowProject.getDependentConfigs(childConfig));
+
+		IFile file = project.getFile("other-flow.xml");
+		file.create(new ByteArrayInputStream(flow("", "<end-state id=\"end\" />").getBytes("UTF-8")), true, null);
+		IFile oldFile = userConfig.getResource();
+		userConfig.setResource(file);
+
+		assertSame(userConfig, webflowProject.getConfig(file));
+		assertNull(webflowProject.getConfig(oldFile));
+		assertTrue(webflowProject.getDependentConfigs(childConfig).isEmpty());
+	}
+
+	private IWebflowConfig addConfig(String fileName, String contents) throws Exception {
+		IFile file = project.getFile(fileName);
+		file.create(new ByteArrayInputStream(contents.getBytes("UTF-8")), true, null);
+		WebflowConfig config = new WebflowConfig(webflowProject);
+		config.setResource(file);
+		return config;
+	}
+
+	private static void setContents(IFile file, String contents) throws Exception {
+		file.setContents(new ByteArrayInputStream(contents.getBytes("UTF-8")), true, false, null);
+	}
+
+	private static String flow(String rootAttributes, String states) {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<flow xmlns=\"http://www.springframework.org/schema/webflow\"\n"
+				+ "\txmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+				+ "\txsi:schemaLocation=\"http://www.springframework.org/schema/webflow "
+				+ "http://www.springframework.org/schema/webflow/spring-webflow-2.0.xsd\"" + rootAttributes + ">\n"
+				+ "\t" + states + "\n"
+				+ "</flow>\n";
+	}
+
+	private static Set<IWebflowConfig> set(IWebflowConfig... configs) {
+		Set<IWebflowConfig> result = new HashSet<IWebflowConfig>();
+		Collections.addAll(result, configs);
+		return result;
+	}
+
+}
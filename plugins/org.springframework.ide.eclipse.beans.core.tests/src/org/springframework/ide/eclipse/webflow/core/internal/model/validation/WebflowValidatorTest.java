@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.webflow.core.internal.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.wst.sse.core.StructuredModelManager;
+import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.model.validation.IValidationElementLifecycleManager;
+import org.springframework.ide.eclipse.webflow.core.model.IState;
+import org.springframework.ide.eclipse.webflow.core.model.IWebflowState;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+@SuppressWarnings("restriction")
+public class WebflowValidatorTest {
+
+	private static final String FLOW = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<flow xmlns=\"http://www.springframework.org/schema/webflow\"\n"
+			+ "\txmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+			+ "\txsi:schemaLocation=\"http://www.springframework.org/schema/webflow "
+			+ "http://www.springframework.org/schema/webflow/spring-webflow-2.0.xsd\">\n"
+			+ "\t<view-state id=\"start\">\n"
+			+ "\t\t<transition on=\"next\" to=\"end\" />\n"
+			+ "\t</view-state>\n"
+			+ "\t<end-state id=\"end\" />\n"
+			+ "</flow>\n";
+
+	private IProject project;
+
+	private IFile file;
+
+	@Before
+	public void setup() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		file = project.getFile("test-flow.xml");
+		file.create(new ByteArrayInputStream(FLOW.getBytes("UTF-8")), true, null);
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testFlowWithoutEditorIsReadWithoutSharedModel() throws Exception {
+		IValidationElementLifecycleManager manager = createLifecycleManager();
+		manager.init(file);
+		try {
+			IWebflowState state = (IWebflowState) manager.getRootElement();
+			assertNotNull(state);
+			List<IState> states = state.getStates();
+			assertEquals(2, states.size());
+			assertEquals("start", states.get(0).getId());
+			assertEquals(5, states.get(0).getElementStartLine());
+			assertEquals("end", states.get(1).getId());
+			assertEquals(8, states.get(1).getElementStartLine());
+
+			// the flow must not have been registered with the model manager
+			assertNull(StructuredModelManager.getModelManager().getExistingModelForRead(file));
+		}
+		finally {
+			manager.destroy();
+		}
+	}
+
+	@Test
+	public void testFlowOpenInEditorIsReadFromSharedModel() throws Exception {
+		IStructuredModel model = StructuredModelManager.getModelManager().getModelForEdit(file);
+		try {
+			// an unsaved change only exists in the shared model
+			String text = model.getStructuredDocument().get();
+			int offset = text.indexOf("\t<end-state");
+			model.getStructuredDocument().replace(offset, 0, "\t<end-state id=\"cancel\" />\n");
+
+			IValidationElementLifecycleManager manager = createLifecycleManager();
+			manager.init(file);
+			try {
+				List<IState> states = ((IWebflowState) manager.getRootElement()).getStates();
+				assertEquals(3, states.size());
+				assertEquals("cancel", states.get(1).getId());
+				assertEquals(8, states.get(1).getElementStartLine());
+			}
+			finally {
+				manager.destroy();
+			}
+
+			// the validator has released its reference only
+			IStructuredModel existing = StructuredModelManager.getModelManager().getExistingModelForRead(file);
+			assertNotNull(existing);
+			existing.releaseFromRead();
+		}
+		finally {
+			model.releaseFromEdit();
+		}
+	}
+
+	private IValidationElementLifecycleManager createLifecycleManager() {
+		return new WebflowValidator() {
+			@Override
+			protected IValidationElementLifecycleManager createValidationElementLifecycleManager() {
+				return super.createValidationElementLifecycleManager();
+			}
+		}.createValidationElementLifecycleManager();
+	}
+
+}
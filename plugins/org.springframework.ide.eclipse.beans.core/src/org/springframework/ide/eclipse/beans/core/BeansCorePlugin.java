@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,6 +37,7 @@ import org.osgi.framework.BundleListener;
 import org.osgi.framework.Constants;
 import org.osgi.framework.Version;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.BeansTypeHierarchyIndex;
 import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
 import org.springframework.ide.eclipse.core.MessageUtils;
 import org.springframework.ide.eclipse.xml.namespaces.NamespaceManagerProvider;
@@ -167,6 +168,7 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 			isClosed = true;
 		}
 		model.stop();
+		BeansTypeHierarchyIndex.getInstance().dispose();
 //		if (projectAwareUrlService != null) {
 //			projectAwareUrlService.unregister();
 //		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2017 Spring IDE Developers
+ * Copyright (c) 2004, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,11 +12,13 @@ package org.springframework.ide.eclipse.beans.core.internal.model;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -109,6 +111,7 @@ import org.springframework.ide.eclipse.core.io.ZipEntryStorage;
 import org.springframework.ide.eclipse.core.io.xml.LineNumberPreservingDOMParser;
 import org.springframework.ide.eclipse.core.io.xml.XercesDocumentLoader;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
 import org.springframework.ide.eclipse.core.model.DefaultModelSourceLocation;
 import org.springframework.ide.eclipse.core.model.ILazyInitializedModelElement;
 import org.springframework.ide.eclipse.core.model.IModelElement;
@@ -126,6 +129,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
@@ -374,9 +378,13 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 
 					problemReporter = new BeansConfigProblemReporter();
 					beanNameGenerator = new UniqueBeanNameGenerator(this);
+					final BeansConfigErrorHandler errorHandler = new BeansConfigErrorHandler();
 
 					final XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(registry) {
 
+						/** Freshly parsed imported documents that go to the cache once they have been read */
+						private final Map<Document, ParsedDocument> parsedDocuments = new IdentityHashMap<Document, ParsedDocument>();
+
 						@Override
 						public int loadBeanDefinitions(EncodedResource encodedResource)
 								throws BeanDefinitionStoreException {
@@ -406,13 +414,41 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 						@Override
 						public int registerBeanDefinitions(Document doc, Resource resource)
 								throws BeanDefinitionStoreException {
+							ParsedDocument parsedDocument = parsedDocuments.remove(doc);
+							int count;
 							try {
 								documentAccessor.pushDocument(doc);
-								return super.registerBeanDefinitions(doc, resource);
+								count = super.registerBeanDefinitions(doc, resource);
 							}
 							finally {
 								documentAccessor.popDocument();
 							}
+							if (parsedDocument != null) {
+								// the reader is done with the document, so the cache can keep it without a copy
+								BeansConfigDocumentCache.put(file.getProject(), parsedDocument.file,
+										parsedDocument.modificationStamp, doc);
+							}
+							return count;
+						}
+
+						@Override
+						protected Document doLoadDocument(InputSource inputSource, Resource resource) throws Exception {
+							// Imported files are parsed once and the documents are shared by all configs importing them
+							if (resource == BeansConfig.this.resource || !(currentResource instanceof IFile)) {
+								return super.doLoadDocument(inputSource, resource);
+							}
+
+							IFile importedFile = (IFile) currentResource;
+							Document document = BeansConfigDocumentCache.get(file.getProject(), importedFile);
+							if (document == null) {
+								long modificationStamp = importedFile.getModificationStamp();
+								int problemCount = errorHandler.getProblemCount();
+								document = super.doLoadDocument(inputSource, resource);
+								if (errorHandler.getProblemCount() == problemCount) {
+									parsedDocuments.put(document, new ParsedDocument(importedFile, modificationStamp));
+								}
+							}
+							return document;
 						}
 
 						@Override
@@ -427,14 +463,24 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 						}
 					};
 
-					reader.setDocumentLoader(new XercesDocumentLoader());
+					// Compiled schemas are shared with all configs that resolve schemas from the same class path. The
+					// project class loader is replaced whenever its folders change, its parent for the libraries is
+					// shared by all projects with the same libraries; project class loaders that don't come from the
+					// cache don't share schemas at all
+					ClassLoader schemaClassLoader = namespaceResolvingClassloader;
+					URL[] schemaFolders = new URL[0];
+					if (schemaClassLoader == projectIncludingClassloader) {
+						schemaFolders = ProjectClassLoaderCache.getFolderUrls(projectIncludingClassloader);
+						schemaClassLoader = schemaClassLoader.getParent();
+					}
+					reader.setDocumentLoader(new XercesDocumentLoader(schemaClassLoader, schemaFolders));
 					reader.setResourceLoader(resourceLoader);
 
 					reader.setEntityResolver(resolver);
 					reader.setSourceExtractor(sourceExtractor);
 					reader.setEventListener(eventListener);
 					reader.setProblemReporter(problemReporter);
-					reader.setErrorHandler(new BeansConfigErrorHandler());
+					reader.setErrorHandler(errorHandler);
 					reader.setNamespaceHandlerResolver(namespaceHandlerResolver);
 					reader.setBeanNameGenerator(beanNameGenerator);
 					reader.setEnvironment(new ToolingAwareEnvironment());
@@ -1104,10 +1150,20 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 	 */
 	class BeansConfigErrorHandler implements ErrorHandler {
 
+		private int problemCount = 0;
+
+		/**
+		 * Returns the number of problems reported to this handler so far.
+		 */
+		public int getProblemCount() {
+			return problemCount;
+		}
+
 		/**
 		 * {@inheritDoc}
 		 */
 		public void warning(SAXParseException e) throws SAXException {
+			problemCount++;
 			problems.add(new ValidationProblem(IMarker.SEVERITY_WARNING, e.getMessage(), getCurrentResource(), e
 					.getLineNumber()));
 		}
@@ -1116,6 +1172,7 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 		 * {@inheritDoc}
 		 */
 		public void error(SAXParseException e) throws SAXException {
+			problemCount++;
 			problems.add(new ValidationProblem(IMarker.SEVERITY_ERROR, e.getMessage(), getCurrentResource(), e
 					.getLineNumber()));
 		}
@@ -1124,6 +1181,7 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 		 * {@inheritDoc}
 		 */
 		public void fatalError(SAXParseException e) throws SAXException {
+			problemCount++;
 			problems.add(new ValidationProblem(IMarker.SEVERITY_ERROR, e.getMessage(), getCurrentResource(), e
 					.getLineNumber()));
 		}
@@ -1240,6 +1298,21 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 		}
 	}
 
+	/**
+	 * An imported file that has been parsed without problems and the modification stamp it has been read with.
+	 */
+	private static class ParsedDocument {
+
+		private final IFile file;
+
+		private final long modificationStamp;
+
+		public ParsedDocument(IFile file, long modificationStamp) {
+			this.file = file;
+			this.modificationStamp = modificationStamp;
+		}
+	}
+
 	/**
 	 * Alternative to {@link ScannedGenericBeanDefinition} that rejects the internal dependency to a ClassLoader hold by
 	 * the {@link AnnotationMetadata}.
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.springframework.ide.eclipse.core.io.xml.LineNumberPreservingDOMParser;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher.IJavaElementDeltaListener;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.w3c.dom.Document;
+
+/**
+ * Workspace-wide cache of parsed XML {@link Document}s of imported bean config files.
+ * <p>
+ * A file that is imported by many configs is parsed and validated once; every further import gets a deep copy of
+ * the cached document (including the line numbers of its elements) as long as the file's modification stamp is
+ * unchanged. Entries are keyed by the importing project and the file, as the resolution of the XSDs used for
+ * validation depends on the project classpath. Only documents that were parsed without any warnings or errors are
+ * cached, so that problems are still reported for every importing config.
+ * <p>
+ * The cache holds at most {@link #MAX_SIZE} documents and evicts the least recently used one first. Entries of
+ * changed or removed files are evicted by the {@link org.springframework.ide.eclipse.beans.core.internal.model.resources.BeansResourceChangeListener},
+ * which drops all entries once an XSD file in the workspace changes. The entries of a project are dropped when the
+ * {@link JavaElementDeltaDispatcher} reports a change of its class path or of a library on it.
+ *
+ * @since 3.9.22
+ */
+public class BeansConfigDocumentCache {
+
+	public static final String SIZE_PROPERTY = "org.springframework.ide.eclipse.beans.core.documentCacheSize";
+
+	private static final int MAX_SIZE = Integer.getInteger(SIZE_PROPERTY, 100);
+
+	private static final Map<String, CachedDocument> CACHE = new LinkedHashMap<String, CachedDocument>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedDocument> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/** Class path listeners of the projects with cached documents; guarded by {@link #CACHE} */
+	private static final Map<IProject, IJavaElementDeltaListener> LISTENERS = new HashMap<IProject, IJavaElementDeltaListener>();
+
+	/**
+	 * Returns a private copy of the cached document for the given file or <code>null</code> if there is no document
+	 * for the file's current modification stamp. The line numbers are attached to the copy.
+	 */
+	public static Document get(IProject project, IFile file) {
+		if (MAX_SIZE <= 0) {
+			return null;
+		}
+
+		CachedDocument cachedDocument;
+		synchronized (CACHE) {
+			cachedDocument = CACHE.get(getKey(project, file));
+		}
+		if (cachedDocument == null || cachedDocument.modificationStamp != file.getModificationStamp()) {
+			return null;
+		}
+		return cachedDocument.copy();
+	}
+
+	/**
+	 * Caches the given freshly parsed document together with its line numbers. The cache takes over the document:
+	 * it must not be used by the caller anymore, so put it once the bean definitions have been read from it.
+	 */
+	public static void put(IProject project, IFile file, long modificationStamp, Document document) {
+		if (MAX_SIZE <= 0) {
+			return;
+		}
+
+		CachedDocument cachedDocument = new CachedDocument(modificationStamp, document,
+				LineNumberPreservingDOMParser.collectLineNumbers(document));
+		ClassPathListener listener = null;
+		synchronized (CACHE) {
+			CACHE.put(getKey(project, file), cachedDocument);
+			if (!LISTENERS.containsKey(project)) {
+				listener = new ClassPathListener(project);
+				LISTENERS.put(project, listener);
+			}
+		}
+
+		// register outside of the lock; resolving the class path may have to wait for the java model
+		IJavaProject javaProject = (listener != null ? JdtUtils.getJavaProject(project) : null);
+		if (javaProject != null) {
+			JavaElementDeltaDispatcher.addListener(listener, javaProject);
+			synchronized (CACHE) {
+				if (LISTENERS.get(project) != listener) {
+					// invalidated while registering
+					JavaElementDeltaDispatcher.removeListener(listener);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evicts all documents of the given file. A changed XSD file may change the validation of every document, so
+	 * all documents are evicted for these.
+	 */
+	public static void invalidate(IFile file) {
+		if ("xsd".equalsIgnoreCase(file.getFileExtension())) {
+			clear();
+			return;
+		}
+		String suffix = "|" + file.getFullPath().toString() + "|";
+		synchronized (CACHE) {
+			for (Iterator<String> keys = CACHE.keySet().iterator(); keys.hasNext();) {
+				if (keys.next().contains(suffix)) {
+					keys.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evicts all documents that have been imported by configs of the given project.
+	 */
+	public static void invalidate(IProject project) {
+		String prefix = project.getName() + "|";
+		IJavaElementDeltaListener listener;
+		synchronized (CACHE) {
+			for (Iterator<String> keys = CACHE.keySet().iterator(); keys.hasNext();) {
+				if (keys.next().startsWith(prefix)) {
+					keys.remove();
+				}
+			}
+			listener = LISTENERS.remove(project);
+		}
+		if (listener != null) {
+			JavaElementDeltaDispatcher.removeListener(listener);
+		}
+	}
+
+	public static void clear() {
+		List<IJavaElementDeltaListener> listeners;
+		synchronized (CACHE) {
+			CACHE.clear();
+			listeners = new ArrayList<IJavaElementDeltaListener>(LISTENERS.values());
+			LISTENERS.clear();
+		}
+		for (IJavaElementDeltaListener listener : listeners) {
+			JavaElementDeltaDispatcher.removeListener(listener);
+		}
+	}
+
+	/**
+	 * Returns the number of cached documents.
+	 */
+	public static int size() {
+		synchronized (CACHE) {
+			return CACHE.size();
+		}
+	}
+
+	private static String getKey(IProject project, IFile file) {
+		return project.getName() + "|" + file.getFullPath().toString() + "|";
+	}
+
+	/**
+	 * Evicts the documents of a project once its class path changes, as the XSDs may resolve differently then.
+	 */
+	private static class ClassPathListener implements IJavaElementDeltaListener {
+
+		private final IProject project;
+
+		public ClassPathListener(IProject project) {
+			this.project = project;
+		}
+
+		public void classPathChanged(IJavaProject changedProject) {
+			invalidate(project);
+		}
+
+		public void openablesChanged(List<IJavaElementDelta> deltas) {
+			// java sources and class files don't resolve any XSDs
+		}
+	}
+
+	private static class CachedDocument {
+
+		private final long modificationStamp;
+
+		private final Document document;
+
+		private final int[] lineNumbers;
+
+		public CachedDocument(long modificationStamp, Document document, int[] lineNumbers) {
+			this.modificationStamp = modificationStamp;
+			this.document = document;
+			this.lineNumbers = lineNumbers;
+		}
+
+		public Document copy() {
+			Document copy;
+			// DOM implementations are not thread-safe, not even for reading
+			synchronized (this) {
+				copy = (Document) document.cloneNode(true);
+			}
+			LineNumberPreservingDOMParser.applyLineNumbers(copy, lineNumbers);
+			return copy;
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.model.ILazyInitializedModelElement;
+
+/**
+ * Loads a number of {@link IBeansConfig}s in parallel.
+ * <p>
+ * Configs are loaded on a bounded thread pool sized to the number of available processors. The work queue is
+ * bounded as well: once it is full the submitting thread loads the next config itself instead of queueing more
+ * work. A config that is already being loaded on behalf of another caller (e.g. because it is part of several
+ * {@link IBeansConfigSet}s) is not loaded twice; the second caller simply waits for the running load.
+ * <p>
+ * Loading itself still happens via the lazy initialization of the config, so configs that are accessed while
+ * the warm-up is running are consistently guarded by the config's own lock.
+ *
+ * @since 3.9.22
+ */
+public class BeansConfigLoader {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.beans.core.parallelConfigLoading";
+
+	private static final String THREAD_NAME_TEMPLATE = "Spring Config Loader (%s)";
+
+	private static final int POOL_SIZE = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+	private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+	/** Loads currently in progress, shared by all callers */
+	private static final Map<IBeansConfig, FutureTask<Object>> IN_FLIGHT = new ConcurrentHashMap<IBeansConfig, FutureTask<Object>>();
+
+	/** Marks the threads of the loader pool to prevent nested loads from waiting for the pool they run on */
+	private static final ThreadLocal<Boolean> LOADER_THREAD = new ThreadLocal<Boolean>();
+
+	/**
+	 * Loads all configs of the given project, including the configs of other projects that are part of one of the
+	 * project's config sets.
+	 */
+	public static void loadConfigs(IBeansProject project, IProgressMonitor monitor) {
+		Set<IBeansConfig> configs = new LinkedHashSet<IBeansConfig>(project.getConfigs());
+		for (IBeansConfigSet configSet : project.getConfigSets()) {
+			configs.addAll(configSet.getConfigs());
+		}
+		loadConfigs(configs, monitor);
+	}
+
+	/**
+	 * Loads all configs of the given config set.
+	 */
+	public static void loadConfigs(IBeansConfigSet configSet, IProgressMonitor monitor) {
+		loadConfigs(configSet.getConfigs(), monitor);
+	}
+
+	/**
+	 * Loads the given configs in parallel and returns as soon as all of them are loaded or the monitor got
+	 * canceled. Reports one unit of work per config against the given monitor.
+	 */
+	public static void loadConfigs(Collection<IBeansConfig> configs, IProgressMonitor monitor) {
+		if (!isEnabled() || Boolean.TRUE.equals(LOADER_THREAD.get())) {
+			// the configs get loaded lazily by the caller, one after the other
+			return;
+		}
+
+		List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>();
+		for (IBeansConfig config : configs) {
+			if (monitor.isCanceled()) {
+				break;
+			}
+			if (isInitialized(config)) {
+				monitor.worked(1);
+				continue;
+			}
+
+			FutureTask<Object> task = createTask(config);
+			FutureTask<Object> existingTask = IN_FLIGHT.putIfAbsent(config, task);
+			if (existingTask != null) {
+				tasks.add(existingTask);
+			}
+			else {
+				tasks.add(task);
+				EXECUTOR.execute(task);
+			}
+		}
+
+		for (FutureTask<Object> task : tasks) {
+			try {
+				while (!monitor.isCanceled()) {
+					try {
+						task.get(100, TimeUnit.MILLISECONDS);
+						monitor.worked(1);
+						break;
+					}
+					catch (TimeoutException e) {
+						// check for cancellation again
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (ExecutionException e) {
+				BeansCorePlugin.log(e.getCause());
+			}
+		}
+	}
+
+	private static FutureTask<Object> createTask(final IBeansConfig config) {
+		return new FutureTask<Object>(new Callable<Object>() {
+			public Object call() throws Exception {
+				Boolean previous = LOADER_THREAD.get();
+				LOADER_THREAD.set(Boolean.TRUE);
+				try {
+					if (!isInitialized(config)) {
+						// trigger lazy initialization
+						config.getElementChildren();
+					}
+					return null;
+				}
+				finally {
+					LOADER_THREAD.set(previous);
+					IN_FLIGHT.remove(config);
+				}
+			}
+		});
+	}
+
+	private static boolean isInitialized(IBeansConfig config) {
+		return config instanceof ILazyInitializedModelElement && ((ILazyInitializedModelElement) config).isInitialized();
+	}
+
+	private static boolean isEnabled() {
+		return Boolean.valueOf(System.getProperty(ENABLE_PROPERTY, "true"));
+	}
+
+	private static ThreadPoolExecutor createExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(POOL_SIZE * 4), new ThreadFactory() {
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, String.format(THREAD_NAME_TEMPLATE, threadCount.incrementAndGet()));
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,8 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.wst.common.project.facet.core.FacetedProjectFramework;
@@ -173,6 +175,25 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 		FacetedProjectFramework.addListener(facetedProjectListener, IFacetedProjectEvent.Type.POST_INSTALL,
 				IFacetedProjectEvent.Type.POST_UNINSTALL);
 
+		// Load all configs in parallel in the background instead of one by one on first access
+		Job warmUpJob = new Job("Loading Spring bean configs") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				Set<IBeansProject> beansProjects = getProjects();
+				monitor.beginTask("Loading Spring bean configs", beansProjects.size());
+				for (IBeansProject beansProject : beansProjects) {
+					if (monitor.isCanceled()) {
+						return Status.CANCEL_STATUS;
+					}
+					BeansConfigLoader.loadConfigs(beansProject, new SubProgressMonitor(monitor, 1));
+				}
+				monitor.done();
+				return Status.OK_STATUS;
+			}
+		};
+		warmUpJob.setSystem(true);
+		warmUpJob.setPriority(Job.DECORATE);
+		warmUpJob.schedule();
 	}
 
 	public void addProject(IBeansProject project) {
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.parsers.SAXParser;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.core.SpringCoreUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Persistent cache of the namespace URI of the root element of XML files.
+ * <p>
+ * The namespace is determined by a SAX parser that stops right after the start tag of the root element, without
+ * loading external DTDs or building any document model. The result is cached together with the modification stamp
+ * and local time stamp of the file, so finding out the root namespace of an unchanged file doesn't touch its
+ * contents again. The cache is written to the plugin state location by {@link #save()} and survives restarts.
+ *
+ * @since 3.9.22
+ */
+public class XmlRootNamespaceCache {
+
+	public static final String SIZE_PROPERTY = "org.springframework.ide.eclipse.beans.core.rootNamespaceCacheSize";
+
+	private static final int MAX_SIZE = Integer.getInteger(SIZE_PROPERTY, 50000);
+
+	private static final int MAGIC = 0x53524e43; // "SRNC"
+	private static final int VERSION = 1;
+
+	private static final String STATE_FILE_NAME = "rootnamespaces.dat";
+
+	/** Cached value for files without a root element or with a root element without namespace */
+	private static final String NO_NAMESPACE = "";
+
+	private static final Map<String, CachedNamespace> CACHE = new LinkedHashMap<String, CachedNamespace>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedNamespace> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private static boolean loaded = false;
+
+	private static boolean dirty = false;
+
+	/**
+	 * Returns the namespace URI of the root element of the given file or <code>null</code> if the file has no root
+	 * element with a namespace (or is not a well-formed XML file).
+	 */
+	public static String getRootNamespace(IFile file) {
+		String key = file.getFullPath().toString();
+		long modificationStamp = file.getModificationStamp();
+		long localTimeStamp = file.getLocalTimeStamp();
+
+		synchronized (CACHE) {
+			load();
+			CachedNamespace cachedNamespace = CACHE.get(key);
+			if (cachedNamespace != null && cachedNamespace.modificationStamp == modificationStamp
+					&& cachedNamespace.localTimeStamp == localTimeStamp) {
+				return toNamespace(cachedNamespace.namespace);
+			}
+		}
+
+		String namespace = sniffRootNamespace(file);
+
+		synchronized (CACHE) {
+			CACHE.put(key, new CachedNamespace(modificationStamp, localTimeStamp, namespace != null ? namespace
+					: NO_NAMESPACE));
+			dirty = true;
+		}
+		return namespace;
+	}
+
+	/**
+	 * Writes the cache to the plugin state location if it has been changed since it was loaded or saved.
+	 */
+	public static void save() {
+		synchronized (CACHE) {
+			if (!dirty) {
+				return;
+			}
+			File stateFile = getStateFile();
+			if (stateFile == null) {
+				return;
+			}
+			try {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile)));
+				try {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					out.writeInt(CACHE.size());
+					for (Map.Entry<String, CachedNamespace> entry : CACHE.entrySet()) {
+						out.writeUTF(entry.getKey());
+						out.writeLong(entry.getValue().modificationStamp);
+						out.writeLong(entry.getValue().localTimeStamp);
+						out.writeUTF(entry.getValue().namespace);
+					}
+				}
+				finally {
+					out.close();
+				}
+				dirty = false;
+			}
+			catch (IOException e) {
+				BeansCorePlugin.log(e);
+			}
+		}
+	}
+
+	private static void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+
+		File stateFile = getStateFile();
+		if (stateFile == null || !stateFile.isFile()) {
+			return;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+					return;
+				}
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					String key = in.readUTF();
+					long modificationStamp = in.readLong();
+					long localTimeStamp = in.readLong();
+					String namespace = in.readUTF();
+					CACHE.put(key, new CachedNamespace(modificationStamp, localTimeStamp, namespace));
+				}
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (IOException e) {
+			// truncated or corrupt state file, start from scratch
+			CACHE.clear();
+		}
+	}
+
+	private static File getStateFile() {
+		BeansCorePlugin plugin = BeansCorePlugin.getDefault();
+		return (plugin != null ? plugin.getStateLocation().append(STATE_FILE_NAME).toFile() : null);
+	}
+
+	private static String sniffRootNamespace(IFile file) {
+		SAXParser parser = SpringCoreUtils.getSaxParser();
+		if (parser == null) {
+			return null;
+		}
+
+		RootElementHandler handler = new RootElementHandler();
+		InputStream contents = null;
+		try {
+			try {
+				parser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd",
+						false);
+			}
+			catch (SAXException e) {
+				// not supported by the parser, the entity resolver below still prevents remote access
+			}
+			contents = file.getContents(true);
+			parser.parse(contents, handler);
+		}
+		catch (RootElementFoundException e) {
+			// expected, parsing stops at the root element
+		}
+		catch (SAXException e) {
+			// not a well-formed XML file
+		}
+		catch (IOException e) {
+			BeansCorePlugin.log(e);
+		}
+		catch (CoreException e) {
+			BeansCorePlugin.log(e);
+		}
+		finally {
+			if (contents != null) {
+				try {
+					contents.close();
+				}
+				catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+		return handler.namespace;
+	}
+
+	private static String toNamespace(String cachedNamespace) {
+		return (NO_NAMESPACE.equals(cachedNamespace) ? null : cachedNamespace);
+	}
+
+	private static class CachedNamespace {
+
+		private final long modificationStamp;
+
+		private final long localTimeStamp;
+
+		private final String namespace;
+
+		public CachedNamespace(long modificationStamp, long localTimeStamp, String namespace) {
+			this.modificationStamp = modificationStamp;
+			this.localTimeStamp = localTimeStamp;
+			this.namespace = namespace;
+		}
+	}
+
+	/**
+	 * Records the namespace of the root element and aborts parsing.
+	 */
+	private static class RootElementHandler extends DefaultHandler {
+
+		private String namespace;
+
+		@Override
+		public InputSource resolveEntity(String publicId, String systemId) {
+			// never resolve external entities or DTDs
+			return new InputSource(new StringReader(""));
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			if (uri != null && uri.length() > 0) {
+				namespace = uri;
+			}
+			throw new RootElementFoundException();
+		}
+	}
+
+	private static class RootElementFoundException extends SAXException {
+
+		private static final long serialVersionUID = 1L;
+
+		public RootElementFoundException() {
+			super("root element found");
+		}
+	}
+
+}
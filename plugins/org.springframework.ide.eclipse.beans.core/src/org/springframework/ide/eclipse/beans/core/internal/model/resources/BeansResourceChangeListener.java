@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2009 Spring IDE Developers
+ * Copyright (c) 2004, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,11 +16,13 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.springframework.ide.eclipse.beans.core.BeansCoreUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigDocumentCache;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.beans.core.model.locate.BeansConfigLocatorDefinition;
 import org.springframework.ide.eclipse.beans.core.model.locate.BeansConfigLocatorFactory;
 import org.springframework.ide.eclipse.core.SpringCoreUtils;
+import org.springframework.ide.eclipse.core.io.xml.SharedGrammarPool;
 import org.springframework.ide.eclipse.core.internal.model.resources.SpringResourceChangeListener;
 
 /**
@@ -86,6 +88,7 @@ public class BeansResourceChangeListener extends SpringResourceChangeListener {
 		protected boolean resourceAdded(IResource resource) {
 			if (resource instanceof IFile) {
 				IFile file = (IFile) resource;
+				invalidateCaches(file);
 				if (isProjectDescriptionFile(file)) {
 					if (SpringCoreUtils.isSpringProject(file)) {
 						events.projectDescriptionChanged(file, eventType);
@@ -112,6 +115,7 @@ public class BeansResourceChangeListener extends SpringResourceChangeListener {
 			if (resource instanceof IFile) {
 				if ((flags & IResourceDelta.CONTENT) != 0) {
 					IFile file = (IFile) resource;
+					invalidateCaches(file);
 					if (isProjectDescriptionFile(file)) {
 						if (SpringCoreUtils.isSpringProject(file)) {
 							events.projectDescriptionChanged(file, eventType);
@@ -140,6 +144,7 @@ public class BeansResourceChangeListener extends SpringResourceChangeListener {
 		@Override
 		protected boolean resourceRemoved(IResource resource) {
 			if (resource instanceof IFile) {
+				invalidateCaches((IFile) resource);
 				if (BeansCoreUtils.isBeansConfig(resource)) {
 					events.configRemoved((IFile) resource, eventType);
 				}
@@ -151,6 +156,18 @@ public class BeansResourceChangeListener extends SpringResourceChangeListener {
 			return super.resourceRemoved(resource);
 		}
 
+		/**
+		 * Drops the cached documents of the given file; a schema or DTD may be on the namespace class path of any
+		 * project, so their changes drop the shared grammars as well.
+		 */
+		private void invalidateCaches(IFile file) {
+			BeansConfigDocumentCache.invalidate(file);
+			String extension = file.getFileExtension();
+			if ("xsd".equalsIgnoreCase(extension) || "dtd".equalsIgnoreCase(extension)) {
+				SharedGrammarPool.clearAll();
+			}
+		}
+
 		/**
 		 * Checks if the given <code>resource</code> represents a .springBeans project description.
 		 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2014 Spring IDE Developers
+ * Copyright (c) 2009, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.BeansCoreUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoader;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
@@ -101,16 +102,22 @@ public class BeansConfigReloadingProjectContributionEventListener extends Projec
 		if (configs.size() > 0) {
 			IProgressMonitor subMonitor = new SubProgressMonitor(monitor, 1);
 			subMonitor.beginTask("Initializing Spring Model", configs.size());
+			Set<IBeansConfig> reloadedConfigs = new LinkedHashSet<IBeansConfig>();
 			for (IBeansConfig config : configs) {
-				subMonitor.subTask("Loading '" + config.getElementResource().getFullPath().toString().substring(1)
-						+ "'");
-				
 				if (config instanceof IReloadableBeansConfig) {
 					((IReloadableBeansConfig) config).reload();
-					config.getBeans();
-					subMonitor.worked(1);
+					reloadedConfigs.add(config);
 				}
 			}
+
+			// Load all reset configs in parallel
+			subMonitor.subTask("Loading " + reloadedConfigs.size() + " Spring bean configs");
+			BeansConfigLoader.loadConfigs(reloadedConfigs, subMonitor);
+
+			// Make sure everything got loaded in case parallel loading is disabled
+			for (IBeansConfig config : reloadedConfigs) {
+				config.getBeans();
+			}
 			subMonitor.done();
 		}
 	}
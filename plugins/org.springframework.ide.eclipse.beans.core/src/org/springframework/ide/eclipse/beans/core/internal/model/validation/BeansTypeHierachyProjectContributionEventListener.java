@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Spring IDE Developers
+ * Copyright (c) 2008, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ import java.util.List;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinition;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
 import org.springframework.ide.eclipse.core.project.IProjectContributionEventListener;
@@ -38,6 +39,10 @@ public class BeansTypeHierachyProjectContributionEventListener extends ProjectCo
 
 //		System.out.println("new beans type hierarchy state created");
 		
+		if (kind == IncrementalProjectBuilder.FULL_BUILD) {
+			BeansTypeHierarchyIndex.getInstance().clear(project);
+		}
+
 		TypeHierarchyEngine typeEngine = state.get(TypeHierarchyEngine.class);
 		state.hold(new BeansTypeHierachyState(typeEngine));
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Spring IDE Developers
+ * Copyright (c) 2008, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -44,15 +44,22 @@ public class BeansTypeHierachyState {
 
 	private TypeHierarchyEngine typeEngine = null;
 	
+	/** Reverse type index kept across builds, only used if the {@link TypeHierarchyEngine} is enabled */
+	private BeansTypeHierarchyIndex typeIndex = null;
+	
 	public BeansTypeHierachyState(TypeHierarchyEngine typeEngine) {
 		this.typeEngine = typeEngine;
+		if (typeEngine != null && System.getProperty(TypeHierarchyEngine.ENABLE_PROPERTY, "true").equals("true")) {
+			this.typeIndex = BeansTypeHierarchyIndex.getInstance();
+		}
 	}
 
 	/**
 	 * Returns all {@link IBean} that need re-processing on change to the given {@link IResource}
 	 * representing a java source file.
 	 * <p>
-	 * This implementation delegates to {@link BeansModelUtils#getBeansByContainingTypes(IResource)}
+	 * This implementation delegates to {@link BeansTypeHierarchyIndex} (or
+	 * {@link BeansModelUtils#getBeansByContainingTypes(IResource)} if the type hierarchy engine is disabled)
 	 * and caches the result for the execution of a {@link IProjectContributor} execution.
 	 * @param resource the java source file which has potentially been changed.
 	 * @return a set of {@link IBean} affected by a change to the given java source file
@@ -61,7 +68,12 @@ public class BeansTypeHierachyState {
 		// First check the internal cache for faster access
 		if (!beansByType.containsKey(resource)) {
 			// Only if not in cache do the calculation
-			beansByType.put(resource, BeansModelUtils.getBeansByContainingTypes(resource, typeEngine, new NullProgressMonitor()));
+			if (typeIndex != null) {
+				beansByType.put(resource, typeIndex.getBeansByContainingTypes(resource, typeEngine));
+			}
+			else {
+				beansByType.put(resource, BeansModelUtils.getBeansByContainingTypes(resource, typeEngine, new NullProgressMonitor()));
+			}
 		}
 		return beansByType.get(resource);
 	}
@@ -70,8 +82,9 @@ public class BeansTypeHierachyState {
 	 * Returns all {@link IBeansConfig} that need re-processing on change to the given
 	 * {@link IResource} representing a java source file.
 	 * <p>
-	 * This implementation delegates to
-	 * {@link BeansModelUtils#getConfigsByContainingTypes(IResource)} and caches the result for the
+	 * This implementation delegates to {@link BeansTypeHierarchyIndex} (or
+	 * {@link BeansModelUtils#getConfigsByContainingTypes(IResource)} if the type hierarchy engine is disabled)
+	 * and caches the result for the
 	 * execution of a {@link IProjectContributor} execution.
 	 * @param resource the java source file which has potentially been changed.
 	 * @return a set of {@link IBeansConfig} affected by a change to the given java source file
@@ -80,7 +93,12 @@ public class BeansTypeHierachyState {
 		// First check the internal cache for faster access
 		if (!configsByType.containsKey(resource)) {
 			// Only if not in cache do the calculation
-			configsByType.put(resource, BeansModelUtils.getConfigsByContainingTypes(resource, typeEngine, new NullProgressMonitor()));
+			if (typeIndex != null) {
+				configsByType.put(resource, typeIndex.getConfigsByContainingTypes(resource, typeEngine));
+			}
+			else {
+				configsByType.put(resource, BeansModelUtils.getConfigsByContainingTypes(resource, typeEngine, new NullProgressMonitor()));
+			}
 		}
 		return configsByType.get(resource);
 	}
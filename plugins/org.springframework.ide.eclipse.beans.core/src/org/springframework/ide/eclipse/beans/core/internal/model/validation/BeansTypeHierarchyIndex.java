@@ -0,0 +1,606 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.validation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher.IJavaElementDeltaListener;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+
+/**
+ * Reverse index from a type name to the {@link IBeansConfig}s and {@link IBean}s whose bean class is that type
+ * or one of its subtypes.
+ * <p>
+ * The index of a {@link IBeansProject} is built on first access by walking the super classes and interfaces of
+ * every bean class exactly once using the {@link TypeHierarchyEngine}. Finding the configs and beans that are
+ * affected by a changed java source file is then a lookup of the contained type names instead of running
+ * <code>doesExtend</code>/<code>doesImplement</code> checks for every combination of config, bean class and
+ * changed type.
+ * <p>
+ * The index is kept across builds. Java source files that changed since the last build are taken from the
+ * workspace delta before each build; only the bean classes whose hierarchy contains one of their types are walked
+ * again, using the {@link TypeHierarchyEngine} of the build that asks next. Configs that have been reloaded since
+ * they were indexed are indexed again. The index of a project is dropped once the {@link JavaElementDeltaDispatcher}
+ * reports a change of its class path or of a library on it, and when the project is built from scratch.
+ * @since 3.9.22
+ * @see BeansModelUtils#getConfigsByContainingTypes(IResource, TypeHierarchyEngine, org.eclipse.core.runtime.IProgressMonitor)
+ * @see BeansModelUtils#getBeansByContainingTypes(IResource, TypeHierarchyEngine, org.eclipse.core.runtime.IProgressMonitor)
+ */
+public class BeansTypeHierarchyIndex {
+
+	private static final BeansTypeHierarchyIndex INSTANCE = new BeansTypeHierarchyIndex();
+
+	private final Map<IProject, ProjectIndex> projectIndexes = new HashMap<IProject, ProjectIndex>();
+
+	/** Listener for the java source changes before each build; <code>null</code> until the first lookup */
+	private IndexResetListener resetListener;
+
+	private BeansTypeHierarchyIndex() {
+	}
+
+	public static BeansTypeHierarchyIndex getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns all {@link IBeansConfig}s that contain a bean whose bean class is one of the types of the given
+	 * java source file or a subtype of it.
+	 */
+	public Set<IBeansConfig> getConfigsByContainingTypes(IResource resource, TypeHierarchyEngine typeEngine) {
+		Set<IBeansConfig> result = new LinkedHashSet<IBeansConfig>();
+
+		IJavaElement element = getCompilationUnit(resource);
+		String[] typeNames = getTypeNames(element);
+		if (typeNames.length == 0) {
+			return result;
+		}
+
+		Set<IBeansProject> projects = BeansCorePlugin.getModel().getProjects();
+		if (projects != null) {
+			for (IBeansProject project : projects) {
+				if (project != null && isOnClasspath(project, element)) {
+					getProjectIndex(project).addConfigs(typeNames, typeEngine, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all {@link IBean}s whose bean class is one of the types of the given java source file or a
+	 * subtype of it, plus all beans whose bean class can't be determined.
+	 */
+	public Set<IBean> getBeansByContainingTypes(IResource resource, TypeHierarchyEngine typeEngine) {
+		Set<IBean> result = new LinkedHashSet<IBean>();
+
+		IJavaElement element = getCompilationUnit(resource);
+		String[] typeNames = getTypeNames(element);
+		if (typeNames.length == 0) {
+			return result;
+		}
+
+		Set<IBeansProject> projects = BeansCorePlugin.getModel().getProjects();
+		if (projects != null) {
+			for (IBeansProject project : projects) {
+				if (project != null && isOnClasspath(project, element)) {
+					// We can't determine the beans type so don't be cleverer as we can and let it be processed again
+					boolean includeUnresolved = JdtUtils.isJavaProject(project.getProject())
+							&& JdtUtils.getJavaProject(project.getProject()).isOnClasspath(resource);
+					getProjectIndex(project).addBeans(typeNames, includeUnresolved, typeEngine, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Drops the index of the given project, e.g. because it is about to be built from scratch.
+	 */
+	public void clear(IProject project) {
+		ProjectIndex index;
+		synchronized (projectIndexes) {
+			index = projectIndexes.remove(project);
+		}
+		if (index != null) {
+			JavaElementDeltaDispatcher.removeListener(index.listener);
+		}
+	}
+
+	/**
+	 * Drops the indexes of all projects.
+	 */
+	public void clear() {
+		List<ProjectIndex> indexes;
+		synchronized (projectIndexes) {
+			indexes = new ArrayList<ProjectIndex>(projectIndexes.values());
+			projectIndexes.clear();
+		}
+		for (ProjectIndex index : indexes) {
+			JavaElementDeltaDispatcher.removeListener(index.listener);
+		}
+	}
+
+	/**
+	 * Drops the indexes of all projects and stops listening for workspace changes; called when the plugin stops.
+	 */
+	public void dispose() {
+		synchronized (projectIndexes) {
+			if (resetListener != null) {
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(resetListener);
+				resetListener = null;
+			}
+		}
+		clear();
+	}
+
+	/**
+	 * Returns <code>true</code> if an index of the given project is kept.
+	 */
+	public boolean isIndexed(IProject project) {
+		synchronized (projectIndexes) {
+			return projectIndexes.containsKey(project);
+		}
+	}
+
+	/**
+	 * Marks the given types (and their member types) as changed; the bean classes whose hierarchy contains one of
+	 * them are walked again before the next lookup.
+	 */
+	public void typesChanged(Set<String> typeNames) {
+		List<ProjectIndex> indexes;
+		synchronized (projectIndexes) {
+			indexes = new ArrayList<ProjectIndex>(projectIndexes.values());
+		}
+		for (ProjectIndex index : indexes) {
+			index.typesChanged(typeNames);
+		}
+	}
+
+	private ProjectIndex getProjectIndex(IBeansProject project) {
+		ProjectIndex index;
+		ProjectIndex replaced;
+		synchronized (projectIndexes) {
+			if (resetListener == null) {
+				resetListener = new IndexResetListener();
+				ResourcesPlugin.getWorkspace().addResourceChangeListener(resetListener, IResourceChangeEvent.PRE_BUILD);
+			}
+			index = projectIndexes.get(project.getProject());
+			if (index != null && index.project == project) {
+				return index;
+			}
+			replaced = index;
+			index = new ProjectIndex(project);
+			projectIndexes.put(project.getProject(), index);
+		}
+		if (replaced != null) {
+			JavaElementDeltaDispatcher.removeListener(replaced.listener);
+		}
+
+		// register outside of the lock; resolving the class path may have to wait for the java model
+		IJavaProject javaProject = JdtUtils.getJavaProject(project.getProject());
+		if (javaProject != null) {
+			JavaElementDeltaDispatcher.addListener(index.listener, javaProject);
+			synchronized (projectIndexes) {
+				if (projectIndexes.get(project.getProject()) != index) {
+					// dropped while registering
+					JavaElementDeltaDispatcher.removeListener(index.listener);
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Drops the given index unless it has been replaced already.
+	 */
+	private void drop(ProjectIndex index) {
+		synchronized (projectIndexes) {
+			IProject project = index.project.getProject();
+			if (projectIndexes.get(project) == index) {
+				projectIndexes.remove(project);
+			}
+		}
+		JavaElementDeltaDispatcher.removeListener(index.listener);
+	}
+
+	private IJavaElement getCompilationUnit(IResource resource) {
+		if (resource != null && resource.isAccessible() && resource.isSynchronized(IResource.DEPTH_ZERO)
+				&& resource.getName().endsWith(".java")) {
+			IJavaElement element = JavaCore.create(resource);
+			if (element instanceof ICompilationUnit && element.getJavaProject().isOnClasspath(element)) {
+				return element;
+			}
+		}
+		return null;
+	}
+
+	private String[] getTypeNames(IJavaElement element) {
+		if (element != null) {
+			try {
+				IType[] types = ((ICompilationUnit) element).getAllTypes();
+				String[] typeNames = new String[types.length];
+				for (int i = 0; i < types.length; i++) {
+					typeNames[i] = types[i].getFullyQualifiedName();
+				}
+				return typeNames;
+			}
+			catch (JavaModelException e) {
+				BeansCorePlugin.log(e);
+			}
+		}
+		return new String[0];
+	}
+
+	private boolean isOnClasspath(IBeansProject project, IJavaElement element) {
+		// don't look at projects that do not have the java element on their classpath
+		return !JdtUtils.isJavaProject(project.getProject())
+				|| JdtUtils.getJavaProject(project.getProject()).isOnClasspath(element);
+	}
+
+	private static boolean isChanged(String typeName, Set<String> changedTypeNames) {
+		if (changedTypeNames.contains(typeName)) {
+			return true;
+		}
+		int memberSeparator = typeName.indexOf('$');
+		return memberSeparator > 0 && changedTypeNames.contains(typeName.substring(0, memberSeparator));
+	}
+
+	private static <T> void add(Map<String, Set<T>> index, Set<String> keys, T value) {
+		for (String key : keys) {
+			Set<T> values = index.get(key);
+			if (values == null) {
+				values = new LinkedHashSet<T>();
+				index.put(key, values);
+			}
+			values.add(value);
+		}
+	}
+
+	private static <T> void remove(Map<String, Set<T>> index, Set<String> keys, T value) {
+		for (String key : keys) {
+			Set<T> values = index.get(key);
+			if (values != null) {
+				values.remove(value);
+				if (values.isEmpty()) {
+					index.remove(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Index of a single {@link IBeansProject}.
+	 */
+	private class ProjectIndex {
+
+		private final IBeansProject project;
+
+		private final IJavaElementDeltaListener listener = new IndexInvalidatingListener(this);
+
+		/** Super classes and interfaces (transitively, including the type itself) per type name */
+		private final Map<String, Set<String>> supertypes = new HashMap<String, Set<String>>();
+
+		/** Bean classes whose hierarchy needs to be walked again */
+		private final Set<String> changedClasses = new HashSet<String>();
+
+		private final Map<IBeansConfig, ConfigIndex> configIndexes = new LinkedHashMap<IBeansConfig, ConfigIndex>();
+
+		private final Map<String, Set<IBeansConfig>> configsByType = new HashMap<String, Set<IBeansConfig>>();
+
+		private final Map<String, Set<IBean>> beansByType = new HashMap<String, Set<IBean>>();
+
+		private final Set<IBean> unresolvedBeans = new LinkedHashSet<IBean>();
+
+		/** The engine the index has last been brought up to date with, i.e. the one of the last build */
+		private TypeHierarchyEngine typeEngine;
+
+		public ProjectIndex(IBeansProject project) {
+			this.project = project;
+		}
+
+		public synchronized void addConfigs(String[] typeNames, TypeHierarchyEngine typeEngine,
+				Set<IBeansConfig> result) {
+			update(typeEngine);
+			for (String typeName : typeNames) {
+				Set<IBeansConfig> configs = configsByType.get(typeName);
+				if (configs != null) {
+					result.addAll(configs);
+				}
+			}
+		}
+
+		public synchronized void addBeans(String[] typeNames, boolean includeUnresolved,
+				TypeHierarchyEngine typeEngine, Set<IBean> result) {
+			update(typeEngine);
+			for (String typeName : typeNames) {
+				Set<IBean> beans = beansByType.get(typeName);
+				if (beans != null) {
+					result.addAll(beans);
+				}
+			}
+			if (includeUnresolved) {
+				result.addAll(unresolvedBeans);
+			}
+		}
+
+		public synchronized void typesChanged(Set<String> typeNames) {
+			for (Iterator<Map.Entry<String, Set<String>>> entries = supertypes.entrySet().iterator(); entries
+					.hasNext();) {
+				Map.Entry<String, Set<String>> entry = entries.next();
+				for (String supertype : entry.getValue()) {
+					if (isChanged(supertype, typeNames)) {
+						changedClasses.add(entry.getKey());
+						entries.remove();
+						break;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Brings the index up to date once per build: configs that have been removed, added or reloaded and configs
+		 * with a changed bean class are indexed again.
+		 */
+		private void update(TypeHierarchyEngine typeEngine) {
+			if (this.typeEngine == typeEngine) {
+				return;
+			}
+			this.typeEngine = typeEngine;
+
+			Set<IBeansConfig> configs = project.getConfigs();
+			for (Iterator<Map.Entry<IBeansConfig, ConfigIndex>> entries = configIndexes.entrySet().iterator(); entries
+					.hasNext();) {
+				Map.Entry<IBeansConfig, ConfigIndex> entry = entries.next();
+				if (!configs.contains(entry.getKey()) || entry.getValue().isOutdated(entry.getKey(), changedClasses)) {
+					unindex(entry.getKey(), entry.getValue());
+					entries.remove();
+				}
+			}
+			changedClasses.clear();
+
+			for (IBeansConfig config : configs) {
+				if (!configIndexes.containsKey(config)) {
+					configIndexes.put(config, index(config));
+				}
+			}
+		}
+
+		private ConfigIndex index(IBeansConfig config) {
+			ConfigIndex configIndex = new ConfigIndex(config.getBeans());
+			for (String className : config.getBeanClasses()) {
+				configIndex.classNames.add(className);
+				configIndex.configKeys.addAll(getSupertypes(className));
+			}
+			add(configsByType, configIndex.configKeys, config);
+
+			for (IBean bean : BeansModelUtils.getBeans(config)) {
+				String className = BeansModelUtils.resolveBeanTypeAsString(bean);
+				if (className == null) {
+					configIndex.unresolvedBeans.add(bean);
+					unresolvedBeans.add(bean);
+					continue;
+				}
+				configIndex.classNames.add(className);
+				Set<String> beanKeys = getSupertypes(className);
+				configIndex.beanKeys.put(bean, beanKeys);
+				add(beansByType, beanKeys, bean);
+			}
+			return configIndex;
+		}
+
+		private void unindex(IBeansConfig config, ConfigIndex configIndex) {
+			remove(configsByType, configIndex.configKeys, config);
+			for (Map.Entry<IBean, Set<String>> entry : configIndex.beanKeys.entrySet()) {
+				remove(beansByType, entry.getValue(), entry.getKey());
+			}
+			unresolvedBeans.removeAll(configIndex.unresolvedBeans);
+		}
+
+		private Set<String> getSupertypes(String className) {
+			Set<String> result = supertypes.get(className);
+			if (result != null) {
+				return result;
+			}
+
+			result = new HashSet<String>();
+			result.add(className);
+			// register early to terminate on cyclic (broken) hierarchies
+			supertypes.put(className, result);
+
+			IProject resource = project.getProject();
+			String superclassName = typeEngine.getSupertype(resource, className);
+			if (superclassName != null) {
+				result.addAll(getSupertypes(superclassName));
+			}
+			String[] interfaceNames = typeEngine.getInterfaces(resource, className);
+			if (interfaceNames != null) {
+				for (String interfaceName : interfaceNames) {
+					result.addAll(getSupertypes(interfaceName));
+				}
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * What has been indexed for a single {@link IBeansConfig}.
+	 */
+	private static class ConfigIndex {
+
+		/** The beans of the config when it was indexed; a reloaded config has new bean instances */
+		private final List<IBean> beans;
+
+		private final Set<String> classNames = new HashSet<String>();
+
+		private final Set<String> configKeys = new HashSet<String>();
+
+		private final Map<IBean, Set<String>> beanKeys = new HashMap<IBean, Set<String>>();
+
+		private final Set<IBean> unresolvedBeans = new HashSet<IBean>();
+
+		public ConfigIndex(Collection<IBean> beans) {
+			this.beans = new ArrayList<IBean>(beans);
+		}
+
+		public boolean isOutdated(IBeansConfig config, Set<String> changedClasses) {
+			if (!Collections.disjoint(classNames, changedClasses)) {
+				return true;
+			}
+			Set<IBean> currentBeans = config.getBeans();
+			if (currentBeans.size() != beans.size()) {
+				return true;
+			}
+			Iterator<IBean> indexedBeans = beans.iterator();
+			for (IBean bean : currentBeans) {
+				if (bean != indexedBeans.next()) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Drops the index of a project once the class path of the project changes or a library on it is added, removed
+	 * or replaced. Changed class files of class folders mark their types as changed; source changes are taken from
+	 * the workspace delta before the build by the {@link IndexResetListener}.
+	 */
+	private class IndexInvalidatingListener implements IJavaElementDeltaListener {
+
+		private final ProjectIndex index;
+
+		public IndexInvalidatingListener(ProjectIndex index) {
+			this.index = index;
+		}
+
+		public void classPathChanged(IJavaProject project) {
+			drop(index);
+		}
+
+		public void openablesChanged(List<IJavaElementDelta> deltas) {
+			Set<String> typeNames = new HashSet<String>();
+			for (IJavaElementDelta delta : deltas) {
+				IJavaElement element = delta.getElement();
+				if (element instanceof IClassFile) {
+					String packageName = element.getParent().getElementName();
+					String typeName = element.getElementName().substring(0,
+							element.getElementName().length() - ".class".length());
+					typeNames.add(packageName.length() > 0 ? packageName + "." + typeName : typeName);
+				}
+			}
+			if (!typeNames.isEmpty()) {
+				index.typesChanged(typeNames);
+			}
+		}
+	}
+
+	/**
+	 * Passes the types of changed java source files to the index before a build starts and drops the index of a
+	 * project that goes away.
+	 */
+	private class IndexResetListener implements IResourceChangeListener, IResourceDeltaVisitor {
+
+		private final Set<String> changedTypeNames = new HashSet<String>();
+
+		public synchronized void resourceChanged(IResourceChangeEvent event) {
+			if (event.getDelta() == null) {
+				return;
+			}
+			changedTypeNames.clear();
+			try {
+				event.getDelta().accept(this);
+			}
+			catch (CoreException e) {
+				// changes can't be told apart anymore
+				clear();
+				return;
+			}
+			if (!changedTypeNames.isEmpty()) {
+				typesChanged(new HashSet<String>(changedTypeNames));
+			}
+		}
+
+		public boolean visit(IResourceDelta delta) throws CoreException {
+			IResource resource = delta.getResource();
+			if (resource.getType() == IResource.PROJECT && delta.getKind() == IResourceDelta.REMOVED) {
+				clear((IProject) resource);
+				return false;
+			}
+			if (resource.getType() == IResource.FILE) {
+				if ("java".equalsIgnoreCase(resource.getFileExtension())) {
+					addTypeNames((IFile) resource);
+				}
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Adds the top-level types of the given source file; for a deleted file only its primary type is known.
+		 */
+		private void addTypeNames(IFile file) {
+			IJavaElement element = JavaCore.create(file);
+			if (!(element instanceof ICompilationUnit)) {
+				return;
+			}
+			ICompilationUnit compilationUnit = (ICompilationUnit) element;
+			String packageName = compilationUnit.getParent().getElementName();
+			String primaryTypeName = file.getFullPath().removeFileExtension().lastSegment();
+			changedTypeNames.add(packageName.length() > 0 ? packageName + '.' + primaryTypeName : primaryTypeName);
+			if (compilationUnit.exists()) {
+				try {
+					for (IType type : compilationUnit.getTypes()) {
+						changedTypeNames.add(type.getFullyQualifiedName());
+					}
+				}
+				catch (JavaModelException e) {
+					// source not readable; the primary type has to do
+				}
+			}
+		}
+	}
+
+}
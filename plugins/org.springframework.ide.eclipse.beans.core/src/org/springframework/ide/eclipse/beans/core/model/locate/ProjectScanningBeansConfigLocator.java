@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Spring IDE Developers
+ * Copyright (c) 2008, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,6 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.model.locate;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -20,7 +19,6 @@ import java.util.concurrent.ConcurrentSkipListSet;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
@@ -31,6 +29,7 @@ import org.eclipse.wst.xml.core.internal.document.DOMModelImpl;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMDocument;
 import org.springframework.beans.factory.xml.NamespaceHandlerResolver;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.XmlRootNamespaceCache;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.DelegatingNamespaceHandlerResolver;
 import org.springframework.ide.eclipse.beans.core.namespaces.NamespaceUtils;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
@@ -42,7 +41,9 @@ import org.springsource.ide.eclipse.commons.core.SpringCoreUtils;
  * {@link IProject} or {@link IJavaProject} for Spring XML configuration files.
  * <p>
  * Only those XML files that have any known namespace uri at the root element
- * level are being considered to be a suitable candidate.
+ * level are being considered to be a suitable candidate. The namespace uri is
+ * sniffed from the file and cached by the {@link XmlRootNamespaceCache}, so
+ * rescanning a project only looks at the contents of changed files.
  * 
  * @author Christian Dupuis
  * @since 2.0.5
@@ -168,41 +169,42 @@ public class ProjectScanningBeansConfigLocator extends
 			}
 
 			// check if the file is known Spring xml file
-			IStructuredModel model = null;
+			if (applyNamespaceFilter(file, getRootNamespace(file))) {
+				detectedFiles.add(file);
+			}
+		}
+		XmlRootNamespaceCache.save();
+		return detectedFiles;
+	}
+
+	/**
+	 * Returns the namespace uri of the root element of the given file. Uses
+	 * the model of an open editor if there is one in order to see unsaved
+	 * changes; otherwise the namespace is read from the file by the
+	 * {@link XmlRootNamespaceCache} without creating a model.
+	 */
+	private String getRootNamespace(IFile file) {
+		IStructuredModel model = null;
+		try {
 			try {
-				try {
-					model = StructuredModelManager.getModelManager()
-							.getExistingModelForRead(file);
-				} catch (RuntimeException e) {
-					// sometimes WTP throws a NPE in concurrency situations
-				}
-				if (model == null) {
-					model = StructuredModelManager.getModelManager()
-							.getModelForRead(file);
-				}
-				if (model != null) {
-					IDOMDocument document = ((DOMModelImpl) model)
-							.getDocument();
-					if (document != null
-							&& document.getDocumentElement() != null) {
-						String namespaceUri = document.getDocumentElement()
-								.getNamespaceURI();
-						if (applyNamespaceFilter(file, namespaceUri)) {
-							detectedFiles.add(file);
-						}
-					}
-				}
-			} catch (IOException e) {
-				BeansCorePlugin.log(e);
-			} catch (CoreException e) {
-				BeansCorePlugin.log(e);
-			} finally {
-				if (model != null) {
-					model.releaseFromRead();
+				model = StructuredModelManager.getModelManager()
+						.getExistingModelForRead(file);
+			} catch (RuntimeException e) {
+				// sometimes WTP throws a NPE in concurrency situations
+			}
+			if (model instanceof DOMModelImpl) {
+				IDOMDocument document = ((DOMModelImpl) model).getDocument();
+				if (document != null && document.getDocumentElement() != null) {
+					return document.getDocumentElement().getNamespaceURI();
 				}
+				return null;
+			}
+		} finally {
+			if (model != null) {
+				model.releaseFromRead();
 			}
 		}
-		return detectedFiles;
+		return XmlRootNamespaceCache.getRootNamespace(file);
 	}
 
 	protected boolean applyNamespaceFilter(IFile file, String namespaceUri) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2015 Pivotal, Inc.
+ * Copyright (c) 2014-2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,6 +26,8 @@ import org.junit.runners.Suite.SuiteClasses;
 	MetaDataManipulatorTest.class,
 	SpringPropertiesEditorTests.class,
 	TypeUtilTests.class,
+	JarMetadataCacheTest.class,
+	SpringPropertiesIndexManagerTest.class,
 	FuzzyMapTests.class,
 	TypeParserTest.class,
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,11 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor.test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -133,6 +135,56 @@ public class FuzzyMapTests extends TestCase {
 	}
 
 
+	public void testIndexedFindOnLargeMap() {
+		TestMap map = createSyntheticMap(20000);
+		String[] patterns = {
+				"s", "sp", "spring.port", "sdu", "eureka.client.svc", "kafka.con", "zzz", "hibtout",
+				"mgmt", "PORT", "bootstrap-servers", "a.b", "..", "ss", "server.port0"
+		};
+		for (String pattern : patterns) {
+			//The index must find exactly what a sequential scan finds, in the same order
+			List<String> expected = new ArrayList<>();
+			for (String data : map) {
+				if (FuzzyMatcher.matchScore(pattern, data)!=0.0) {
+					expected.add(data);
+				}
+			}
+			List<String> actual = new ArrayList<>();
+			for (Match<String> match : map.find(pattern)) {
+				actual.add(match.data);
+			}
+			assertEquals("pattern: "+pattern, expected, actual);
+		}
+	}
+
+	/**
+	 * Creates a map with keys that look like the property names of a large spring boot / spring cloud
+	 * application.
+	 */
+	private TestMap createSyntheticMap(int size) {
+		String[] segments = {
+				"spring", "server", "cloud", "netflix", "eureka", "client", "port", "data", "jpa", "hibernate",
+				"datasource", "url", "timeout", "enabled", "security", "oauth2", "management", "endpoint",
+				"health", "kafka", "consumer", "group-id", "bootstrap-servers", "ribbon", "zuul", "routes",
+				"max-connections", "ssl", "key-store", "logging", "level", "redis", "pool", "max-idle"
+		};
+		Random random = new Random(4711);
+		TestMap map = new TestMap();
+		for (int i = 0; i < size; i++) {
+			StringBuilder key = new StringBuilder();
+			int length = 2 + random.nextInt(4);
+			for (int j = 0; j < length; j++) {
+				if (j>0) {
+					key.append('.');
+				}
+				key.append(segments[random.nextInt(segments.length)]);
+			}
+			key.append(i);
+			map.add(key.toString());
+		}
+		return map;
+	}
+
 	private void assertMatchOrder(String pattern, String... datas) {
 		TestMap map = new TestMap(datas);
 		List<Match<String>> found = map.find(pattern);
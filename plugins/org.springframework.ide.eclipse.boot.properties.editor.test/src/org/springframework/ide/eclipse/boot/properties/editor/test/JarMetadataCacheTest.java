@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+import org.springframework.ide.eclipse.boot.properties.editor.JarMetadataCache;
+import org.springframework.ide.eclipse.boot.properties.editor.StsConfigMetadataRepositoryJsonLoader;
+
+/**
+ * @since 3.9.22
+ */
+public class JarMetadataCacheTest extends TestCase {
+
+	private static final String[] LOCATIONS = StsConfigMetadataRepositoryJsonLoader.JAR_META_DATA_LOCATIONS;
+
+	private File jar;
+
+	@Override
+	protected void setUp() throws Exception {
+		JarMetadataCache.clear();
+		jar = File.createTempFile("metadata", ".jar");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		jar.delete();
+		JarMetadataCache.clear();
+	}
+
+	public void testUnchangedJarIsParsedOnce() throws Exception {
+		writeJar(jar, metadata("foo.first"));
+
+		List<?> metadata = JarMetadataCache.getMetadata(jar, LOCATIONS);
+		assertEquals(1, metadata.size());
+		assertTrue(metadata.get(0).toString().contains("foo.first"));
+		assertSame(metadata, JarMetadataCache.getMetadata(jar, LOCATIONS));
+	}
+
+	public void testReplacedJarIsParsedAgain() throws Exception {
+		writeJar(jar, metadata("foo.first"));
+		long lastModified = jar.lastModified();
+		List<?> metadata = JarMetadataCache.getMetadata(jar, LOCATIONS);
+
+		writeJar(jar, metadata("foo.second.with.a.longer.name"));
+		jar.setLastModified(lastModified + 10000);
+		List<?> changed = JarMetadataCache.getMetadata(jar, LOCATIONS);
+		assertNotSame(metadata, changed);
+		assertEquals(1, changed.size());
+		assertTrue(changed.get(0).toString().contains("foo.second.with.a.longer.name"));
+		assertSame(changed, JarMetadataCache.getMetadata(jar, LOCATIONS));
+	}
+
+	public void testJarWithoutMetadata() throws Exception {
+		writeJar(jar, null);
+
+		List<?> metadata = JarMetadataCache.getMetadata(jar, LOCATIONS);
+		assertTrue(metadata.isEmpty());
+		assertSame(metadata, JarMetadataCache.getMetadata(jar, LOCATIONS));
+	}
+
+	public void testClear() throws Exception {
+		writeJar(jar, metadata("foo.first"));
+		List<?> metadata = JarMetadataCache.getMetadata(jar, LOCATIONS);
+
+		JarMetadataCache.clear();
+		List<?> reread = JarMetadataCache.getMetadata(jar, LOCATIONS);
+		assertNotSame(metadata, reread);
+		assertEquals(metadata.toString(), reread.toString());
+	}
+
+	private static String metadata(String propertyName) {
+		return "{\"properties\": [{\"name\": \"" + propertyName + "\", \"type\": \"java.lang.String\"}]}";
+	}
+
+	/**
+	 * Writes a jar with the given metadata, or with an unrelated entry only if the metadata is null.
+	 */
+	private static void writeJar(File jar, String metadata) throws Exception {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new ZipEntry("demo/readme.txt"));
+			out.write("demo".getBytes("UTF-8"));
+			out.closeEntry();
+			if (metadata!=null) {
+				out.putNextEntry(new ZipEntry(LOCATIONS[0]));
+				out.write(metadata.getBytes("UTF-8"));
+				out.closeEntry();
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.boot.properties.editor.test;
 import static org.springframework.ide.eclipse.boot.properties.editor.reconciling.SpringPropertiesProblemType.PROP_DUPLICATE_KEY;
 import static org.springsource.ide.eclipse.commons.tests.util.StsTestCase.assertContains;
 
+import java.io.ByteArrayInputStream;
 import java.time.Duration;
 import java.util.List;
 
@@ -31,6 +32,7 @@ import org.springframework.ide.eclipse.boot.properties.editor.reconciling.Spring
 import org.springframework.ide.eclipse.boot.properties.editor.test.ApplicationYamlEditorTestHarness.YamlEditor;
 import org.springframework.ide.eclipse.boot.properties.editor.util.AptUtils;
 import org.springframework.ide.eclipse.boot.util.JavaProjectUtil;
+import org.springframework.ide.eclipse.editor.support.reconcile.IReconcileEngine;
 import org.springframework.ide.eclipse.editor.support.reconcile.ProblemSeverity;
 import org.springframework.ide.eclipse.editor.support.reconcile.ReconcileProblem;
 
@@ -268,6 +270,173 @@ public class SpringPropertiesEditorTests extends SpringPropertiesEditorTestHarne
 
 	}
 
+	public void testReconcileReplaysShiftedEntries() throws Exception {
+		defaultTestData();
+		IReconcileEngine engine = createReconcileEngine();
+		MockEditor editor = newEditor(
+				"server.port=badPort\n" +
+				"bogus.no.good=true\n"
+		);
+		assertProblems(editor, engine,
+				"badPort|'int'",
+				"ogus.no.good|unknown property"
+		);
+
+		//Unchanged entries are replayed from the previous reconcile at their new offsets
+		editor.getDocument().replace(0, 0, "liquibase.enabled=true\n");
+		assertProblems(editor, engine,
+				"badPort|'int'",
+				"ogus.no.good|unknown property"
+		);
+		editor.getDocument().replace(0, editor.getDocument().get().indexOf("bogus"), "");
+		assertProblems(editor, engine,
+				"ogus.no.good|unknown property"
+		);
+	}
+
+	public void testReconcileRechecksChangedValue() throws Exception {
+		defaultTestData();
+		IReconcileEngine engine = createReconcileEngine();
+		MockEditor editor = newEditor(
+				"server.port=8080\n" +
+				"liquibase.enabled=true\n"
+		);
+		assertProblems(editor, engine /*none*/);
+
+		int start = editor.getDocument().get().indexOf("8080");
+		editor.getDocument().replace(start, "8080".length(), "badPort");
+		assertProblems(editor, engine,
+				"badPort|'int'"
+		);
+
+		editor.getDocument().replace(start, "badPort".length(), "8080");
+		assertProblems(editor, engine /*none*/);
+	}
+
+	public void testReconcileUpdatesDuplicatesOfChangedEntries() throws Exception {
+		defaultTestData();
+		IReconcileEngine engine = createReconcileEngine();
+		MockEditor editor = newEditor(
+				"server.port=8080\n" +
+				"liquibase.enabled=true\n" +
+				"server.port=8081\n"
+		);
+		assertProblems(editor, engine,
+				"server.port|Duplicate",
+				"server.port|Duplicate"
+		);
+
+		//Only the last entry is edited, but the first one is no longer a duplicate either
+		int start = editor.getDocument().get().lastIndexOf("server.port");
+		editor.getDocument().replace(start, "server.port".length(), "debug");
+		assertProblems(editor, engine,
+				"8081|'boolean'"
+		);
+
+		editor.getDocument().replace(0, 0, "liquibase.enabled=false\n");
+		assertProblems(editor, engine,
+				"8081|'boolean'",
+				"liquibase.enabled|Duplicate",
+				"liquibase.enabled|Duplicate"
+		);
+	}
+
+	public void testReconcileRechecksEntriesJoinedByEdit() throws Exception {
+		defaultTestData();
+		IReconcileEngine engine = createReconcileEngine();
+		MockEditor editor = newEditor(
+				"server.port=8080\n" +
+				"bogus.no.good=true\n"
+		);
+		assertProblems(editor, engine,
+				"ogus.no.good|unknown property"
+		);
+
+		//A line continuation turns the next line into part of the value
+		int end = editor.getDocument().get().indexOf('\n');
+		editor.getDocument().replace(end, 0, " \\");
+		assertProblems(editor, engine,
+				"8080 \\\nbogus.no.good=true|'int'"
+		);
+	}
+
+	public void testReconcileRechecksAfterIndexChange() throws Exception {
+		defaultTestData();
+		IReconcileEngine engine = createReconcileEngine();
+		MockEditor editor = newEditor(
+				"server.port=8080\n" +
+				"my.new.property=foo\n"
+		);
+		assertProblems(editor, engine,
+				"my.new.property|unknown property"
+		);
+
+		//Adding metadata replaces the index, so the unchanged entry must be checked again
+		data("my.new.property", INTEGER, null, "A new property");
+		assertProblems(editor, engine,
+				"foo|'int'"
+		);
+	}
+
+	public void testReconcileRechecksAfterJavaTypeChange() throws Exception {
+		IProject p = createPredefinedMavenProject("demo-list-of-pojo");
+		IJavaProject jp = JavaCore.create(p);
+		useProject(jp);
+		assertNotNull(jp.findType("demo.Foo"));
+
+		IReconcileEngine engine = createReconcileEngine();
+		MockEditor editor = newEditor(
+				"volder.foo.list[0].name=Kris\n" +
+				"volder.foo.list[0].bogus=Bad\n"
+		);
+		assertProblems(editor, engine,
+				"bogus|has no property"
+		);
+
+		IFile foo = p.getFile("src/main/java/demo/Foo.java");
+		String source = jp.findType("demo.Foo").getCompilationUnit().getSource();
+		int end = source.lastIndexOf('}');
+		source = source.substring(0, end) +
+				"\tpublic String getBogus() {\n" +
+				"\t\treturn null;\n" +
+				"\t}\n" +
+				"\tpublic void setBogus(String bogus) {\n" +
+				"\t}\n" +
+				source.substring(end);
+		foo.setContents(new ByteArrayInputStream(source.getBytes(foo.getCharset())), true, true, null);
+
+		//The document didn't change, but the entry must be checked again against the changed type
+		assertProblems(editor, engine /*none*/);
+	}
+
+	public void testReconcileRechecksAfterEnumChange() throws Exception {
+		ignoreProblem(PROP_DUPLICATE_KEY);
+
+		IProject p = createPredefinedMavenProject("demo-enum");
+		IJavaProject jp = JavaCore.create(p);
+		useProject(jp);
+		assertNotNull(jp.findType("demo.Color"));
+
+		data("foo.color", "demo.Color", null, "A foonky colour");
+		IReconcileEngine engine = createReconcileEngine();
+		MockEditor editor = newEditor(
+				"foo.color=RED\n" +
+				"foo.color=YELLOW\n"
+		);
+		assertProblems(editor, engine,
+				"YELLOW|Color"
+		);
+
+		IFile color = p.getFile("src/main/java/demo/Color.java");
+		String source = jp.findType("demo.Color").getCompilationUnit().getSource();
+		int end = source.indexOf("BLUE") + "BLUE".length();
+		source = source.substring(0, end) + ",\n\tYELLOW" + source.substring(end);
+		color.setContents(new ByteArrayInputStream(source.getBytes(color.getCharset())), true, true, null);
+
+		//Enum values aren't cached typed properties, but the entry must be checked again all the same
+		assertProblems(editor, engine /*none*/);
+	}
+
 	public void testReconcilePojoArray() throws Exception {
 		IProject p = createPredefinedMavenProject("demo-list-of-pojo");
 		IJavaProject jp = JavaCore.create(p);
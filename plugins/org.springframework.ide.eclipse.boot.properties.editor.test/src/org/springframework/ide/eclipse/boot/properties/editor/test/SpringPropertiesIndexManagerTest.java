@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.properties.editor.SpringPropertiesEditorPlugin;
+import org.springframework.ide.eclipse.boot.properties.editor.StsConfigMetadataRepositoryJsonLoader;
+import org.springframework.ide.eclipse.boot.properties.editor.util.Listener;
+import org.springframework.ide.eclipse.boot.properties.editor.util.SpringPropertiesIndexManager;
+import org.springframework.ide.eclipse.boot.test.BootProjectTestHarness;
+import org.springframework.ide.eclipse.boot.util.JavaProjectUtil;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.22
+ */
+public class SpringPropertiesIndexManagerTest {
+
+	private static final String REFRESH_JOB_NAME = "Refresh SpringPropertiesIndexManager";
+
+	private SpringPropertiesIndexManager indexManager = SpringPropertiesEditorPlugin.getIndexManager();
+	private AtomicInteger notifications = new AtomicInteger();
+	private Listener<SpringPropertiesIndexManager> listener = (manager) -> notifications.incrementAndGet();
+	private IJavaProject demo;
+	private IJavaProject other;
+
+	@Before
+	public void setup() throws Exception {
+		StsTestUtil.deleteAllProjects();
+		demo = JavaCore.create(createPredefinedMavenProject("demo"));
+		other = JavaCore.create(createPredefinedMavenProject("demo-enum"));
+		waitForRefresh();
+		indexManager.addListener(listener);
+	}
+
+	@After
+	public void teardown() throws Exception {
+		indexManager.removeListener(listener);
+	}
+
+	@Test
+	public void liveMetadataChangeDropsOnlyIndexOfChangedProject() throws Exception {
+		Object demoIndex = indexManager.get(demo);
+		Object otherIndex = indexManager.get(other);
+
+		indexManager.liveMetadataChanged(demo, getMetadataFile(demo));
+		waitForRefresh();
+
+		assertEquals(1, notifications.get());
+		assertNotSame(demoIndex, indexManager.get(demo));
+		assertSame(otherIndex, indexManager.get(other));
+	}
+
+	@Test
+	public void changeDropsIndexesOfRequiringProjects() throws Exception {
+		List<IClasspathEntry> entries = new ArrayList<>(Arrays.asList(other.getRawClasspath()));
+		entries.add(JavaCore.newProjectEntry(demo.getProject().getFullPath()));
+		other.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]), null);
+		waitForRefresh();
+		notifications.set(0);
+
+		Object demoIndex = indexManager.get(demo);
+		Object otherIndex = indexManager.get(other);
+
+		indexManager.liveMetadataChanged(demo, getMetadataFile(demo));
+		waitForRefresh();
+
+		assertEquals(1, notifications.get());
+		assertNotSame(demoIndex, indexManager.get(demo));
+		assertNotSame(otherIndex, indexManager.get(other));
+	}
+
+	@Test
+	public void changeWithoutIndexesToDropIsNotNotified() throws Exception {
+		indexManager.liveMetadataChanged(demo, getMetadataFile(demo));
+		waitForRefresh();
+		notifications.set(0);
+
+		Object otherIndex = indexManager.get(other);
+		indexManager.liveMetadataChanged(demo, getMetadataFile(demo));
+		waitForRefresh();
+
+		assertEquals(0, notifications.get());
+		assertSame(otherIndex, indexManager.get(other));
+	}
+
+	@Test
+	public void closedProjectDropsItsIndex() throws Exception {
+		Object demoIndex = indexManager.get(demo);
+		indexManager.get(other);
+
+		other.getProject().close(null);
+		waitForRefresh();
+
+		assertEquals(1, notifications.get());
+		assertSame(demoIndex, indexManager.get(demo));
+	}
+
+	private IFile getMetadataFile(IJavaProject jp) throws Exception {
+		return JavaProjectUtil.getOutputFile(jp, StsConfigMetadataRepositoryJsonLoader.PROJECT_META_DATA_LOCATIONS[0]);
+	}
+
+	private void waitForRefresh() throws Exception {
+		for (Job job : Job.getJobManager().find(null)) {
+			if (REFRESH_JOB_NAME.equals(job.getName())) {
+				job.join();
+			}
+		}
+	}
+
+	protected IProject createPredefinedMavenProject(final String projectName) throws Exception {
+		final String bundleName = getBundleName();
+		return BootProjectTestHarness.createPredefinedMavenProject(projectName, bundleName);
+	}
+
+	private String getBundleName() {
+		return "org.springframework.ide.eclipse.boot.properties.editor.test";
+	}
+
+}
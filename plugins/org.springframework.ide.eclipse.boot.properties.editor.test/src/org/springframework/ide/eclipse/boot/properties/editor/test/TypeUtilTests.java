@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,13 +10,23 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor.test;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.springframework.ide.eclipse.boot.properties.editor.util.Type;
 import org.springframework.ide.eclipse.boot.properties.editor.util.TypeParser;
+import org.springframework.ide.eclipse.boot.properties.editor.util.TypedPropertiesCache;
 import org.springframework.ide.eclipse.boot.properties.editor.util.TypedProperty;
 import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil.BeanPropertyNameMode;
 import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil.EnumCaseMode;
@@ -132,5 +142,126 @@ public class TypeUtilTests extends SpringPropertiesEditorTestHarness {
 		assertType("java.lang.String[]", Type.fromSignature("[QString;", jp.findType("demo.ColorData")));
 	}
 
+	public void testCachedPropertiesFollowTypeChanges() throws Exception {
+		IProject p = createPredefinedMavenProject("demo-enum");
+		IJavaProject jp = JavaCore.create(p);
+		useProject(jp);
+
+		Type data = TypeParser.parse("demo.ColorData");
+		Type colorMap = TypeParser.parse("java.util.Map<demo.Color,Something>");
+		assertType(null, getPropertyType(data, "hue"));
+		assertType(null, getPropertyType(colorMap, "yellow"));
+
+		String source = getSource(jp, "demo.ColorData");
+		int end = source.lastIndexOf('}');
+		setSource(p.getFile("src/main/java/demo/ColorData.java"), source.substring(0, end) +
+				"\tpublic String getHue() {\n" +
+				"\t\treturn null;\n" +
+				"\t}\n" +
+				source.substring(end));
+		assertType("java.lang.String", getPropertyType(data, "hue"));
+
+		source = getSource(jp, "demo.Color");
+		end = source.indexOf("BLUE") + "BLUE".length();
+		setSource(p.getFile("src/main/java/demo/Color.java"), source.substring(0, end) + ",\n\tYELLOW" + source.substring(end));
+		assertType("Something", getPropertyType(colorMap, "yellow"));
+	}
+
+	public void testTypeChangeDropsOnlyDependentEntries() throws Exception {
+		IProject p = createPredefinedMavenProject("demo-enum");
+		IJavaProject jp = JavaCore.create(p);
+		useProject(jp);
+		TypedPropertiesCache.clear(jp);
+
+		CountingSupplier data = new CountingSupplier();
+		CountingSupplier nested = new CountingSupplier();
+		CountingSupplier color = new CountingSupplier();
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+		assertEquals(Arrays.asList(1, 1, 1), Arrays.asList(data.count(), nested.count(), color.count()));
+
+		//A change of an unrelated type keeps all entries
+		IFile foo = p.getFile("src/main/java/demo/FooProperties.java");
+		setSource(foo, getSource(jp, "demo.FooProperties") + "\n");
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+		assertEquals(Arrays.asList(1, 1, 1), Arrays.asList(data.count(), nested.count(), color.count()));
+
+		//A change of ColorData drops its entries, including those of its nested types
+		long modificationCount = TypedPropertiesCache.getModificationCount();
+		setSource(p.getFile("src/main/java/demo/ColorData.java"), getSource(jp, "demo.ColorData") + "\n");
+		assertTrue(TypedPropertiesCache.getModificationCount()!=modificationCount);
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+		assertEquals(Arrays.asList(2, 2, 1), Arrays.asList(data.count(), nested.count(), color.count()));
+	}
+
+	public void testClasspathChangeDropsAllEntries() throws Exception {
+		IProject p = createPredefinedMavenProject("demo-enum");
+		IJavaProject jp = JavaCore.create(p);
+		useProject(jp);
+		TypedPropertiesCache.clear(jp);
+
+		CountingSupplier data = new CountingSupplier();
+		CountingSupplier nested = new CountingSupplier();
+		CountingSupplier color = new CountingSupplier();
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+
+		List<IClasspathEntry> entries = new ArrayList<>(Arrays.asList(jp.getRawClasspath()));
+		entries.add(JavaCore.newLibraryEntry(new Path("/demo-enum/lib/missing.jar"), null, null));
+		jp.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]), null);
+
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+		assertEquals(Arrays.asList(2, 2, 2), Arrays.asList(data.count(), nested.count(), color.count()));
+	}
+
+	public void testClosedProjectDropsItsEntries() throws Exception {
+		IProject p = createPredefinedMavenProject("demo-enum");
+		IJavaProject jp = JavaCore.create(p);
+		useProject(jp);
+		TypedPropertiesCache.clear(jp);
+
+		CountingSupplier data = new CountingSupplier();
+		CountingSupplier nested = new CountingSupplier();
+		CountingSupplier color = new CountingSupplier();
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+
+		p.close(null);
+		getCachedProperties(jp, "demo.ColorData", data, nested, color);
+		assertEquals(Arrays.asList(2, 2, 2), Arrays.asList(data.count(), nested.count(), color.count()));
+		p.open(null);
+	}
+
+	/**
+	 * Looks up entries depending on the given type, on a type nested in it and on demo.Color.
+	 */
+	private void getCachedProperties(IJavaProject jp, String typeName, CountingSupplier type, CountingSupplier nested, CountingSupplier color) {
+		TypedPropertiesCache.getProperties(jp, TypeParser.parse(typeName), EnumCaseMode.ALIASED, BeanPropertyNameMode.ALIASED,
+				typeName, type);
+		TypedPropertiesCache.getProperties(jp, TypeParser.parse(typeName + "$Nested"), EnumCaseMode.ALIASED, BeanPropertyNameMode.ALIASED,
+				typeName + "$Nested", nested);
+		TypedPropertiesCache.getProperties(jp, TypeParser.parse("java.util.Map<demo.Color,Something>"), EnumCaseMode.ALIASED, BeanPropertyNameMode.ALIASED,
+				"demo.Color", color);
+	}
+
+	private String getSource(IJavaProject jp, String typeName) throws Exception {
+		return jp.findType(typeName).getCompilationUnit().getSource();
+	}
+
+	private void setSource(IFile file, String source) throws Exception {
+		file.setContents(new ByteArrayInputStream(source.getBytes(file.getCharset())), true, true, null);
+	}
+
+	private static class CountingSupplier implements Supplier<List<TypedProperty>> {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public List<TypedProperty> get() {
+			count.incrementAndGet();
+			return Collections.emptyList();
+		}
+
+		int count() {
+			return count.get();
+		}
+	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -676,7 +676,14 @@ public abstract class YamlOrPropertyEditorTestHarness extends TestCase {
 	}
 
 	public List<ReconcileProblem> reconcile(MockEditor editor) {
-		IReconcileEngine reconciler = createReconcileEngine();
+		return reconcile(editor, createReconcileEngine());
+	}
+
+	/**
+	 * Reconcile with the given engine, e.g. to check what an engine remembers from a previous
+	 * reconcile of the same editor.
+	 */
+	public List<ReconcileProblem> reconcile(MockEditor editor, IReconcileEngine reconciler) {
 		MockProblemCollector problems=new MockProblemCollector(ignoredTypes);
 		reconciler.reconcile(editor.document, problems, new NullProgressMonitor());
 		return problems.getAllProblems();
@@ -731,7 +738,15 @@ public abstract class YamlOrPropertyEditorTestHarness extends TestCase {
 	 */
 	public List<ReconcileProblem> assertProblems(MockEditor editor, String... expectedProblems)
 			throws BadLocationException {
-		List<ReconcileProblem> actualProblems = reconcile(editor);
+		return assertProblems(editor, createReconcileEngine(), expectedProblems);
+	}
+
+	/**
+	 * Like {@link #assertProblems(MockEditor, String...)} but reconciles with the given engine.
+	 */
+	public List<ReconcileProblem> assertProblems(MockEditor editor, IReconcileEngine reconciler, String... expectedProblems)
+			throws BadLocationException {
+		List<ReconcileProblem> actualProblems = reconcile(editor, reconciler);
 		Collections.sort(actualProblems, PROBLEM_COMPARATOR);
 		String bad = null;
 		if (actualProblems.size()!=expectedProblems.length) {
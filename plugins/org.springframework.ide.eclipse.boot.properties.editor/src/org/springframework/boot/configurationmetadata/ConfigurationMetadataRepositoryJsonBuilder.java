@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.ide.eclipse.org.json.JSONException;
+import org.springframework.ide.eclipse.org.json.JSONObject;
 
 /**
  * Load a {@link ConfigurationMetadataRepository} from the content of arbitrary
@@ -87,6 +88,56 @@ public final class ConfigurationMetadataRepositoryJsonBuilder {
 		return this;
 	}
 
+	/**
+	 * Add the content of a {@link ConfigurationMetadataRepository} defined by a json
+	 * document previously read with {@link #readJson(InputStream)}. The document is
+	 * not modified and can be added to any number of builders.
+	 * @param json the parsed json document
+	 * @return this builder
+	 */
+	public ConfigurationMetadataRepositoryJsonBuilder withJson(JSONObject json) {
+		if (json == null) {
+			throw new IllegalArgumentException("JSONObject must not be null.");
+		}
+		try {
+			this.rawDatas.add(this.reader.read(json));
+		}
+		catch (JSONException ex) {
+			throw new IllegalArgumentException(
+					"Invalid configuration " + "metadata document", ex);
+		}
+		return this;
+	}
+
+	/**
+	 * Read a json document using the {@link #UTF_8} charset, so that it can be added
+	 * to builders with {@link #withJson(JSONObject)}.
+	 * <p>
+	 * Closes the stream when done.
+	 * @param inputStream the source input stream
+	 * @return the parsed json document
+	 * @throws IOException in case of I/O errors
+	 */
+	public static JSONObject readJson(InputStream inputStream) throws IOException {
+		if (inputStream == null) {
+			throw new IllegalArgumentException("InputStream must not be null.");
+		}
+		try {
+			return new JsonReader().readJson(inputStream, UTF_8);
+		}
+		catch (IOException ex) {
+			throw new IllegalArgumentException(
+					"Failed to read configuration " + "metadata", ex);
+		}
+		catch (JSONException ex) {
+			throw new IllegalArgumentException(
+					"Invalid configuration " + "metadata document", ex);
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 	/**
 	 * Build a {@link ConfigurationMetadataRepository} with the current state of this
 	 * builder.
@@ -42,16 +42,27 @@ class JsonReader {
 	public RawConfigurationMetadata read(InputStream in, Charset charset)
 			throws IOException {
 		try {
-			JSONObject json = readJson(in, charset);
+			return read(readJson(in, charset));
+		}
+		catch (Exception ex) {
+			if (ex instanceof IOException) {
+				throw (IOException) ex;
+			}
+			if (ex instanceof RuntimeException) {
+				throw (RuntimeException) ex;
+			}
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	public RawConfigurationMetadata read(JSONObject json) {
+		try {
 			List<ConfigurationMetadataSource> groups = parseAllSources(json);
 			List<ConfigurationMetadataItem> items = parseAllItems(json);
 			List<ConfigurationMetadataHint> hints = parseAllHints(json);
 			return new RawConfigurationMetadata(groups, items, hints);
 		}
 		catch (Exception ex) {
-			if (ex instanceof IOException) {
-				throw (IOException) ex;
-			}
 			if (ex instanceof RuntimeException) {
 				throw (RuntimeException) ex;
 			}
@@ -204,7 +215,7 @@ class JsonReader {
 		return value;
 	}
 
-	private JSONObject readJson(InputStream in, Charset charset) throws Exception {
+	JSONObject readJson(InputStream in, Charset charset) throws Exception {
 		try {
 			StringBuilder out = new StringBuilder();
 			InputStreamReader reader = new InputStreamReader(in, charset);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Pivotal, Inc.
+ * Copyright (c) 2014, 2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,9 @@
 package org.springframework.ide.eclipse.boot.properties.editor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -27,6 +29,16 @@ import org.springsource.ide.eclipse.commons.core.util.StringUtil;
  * <p>
  * The collection can then be searched for items who's key matches
  * simple 'fuzzy' patterns.
+ * <p>
+ * To avoid scoring every key on each search, the map keeps an index of
+ * 'ordered character pairs': for every pair of characters (a,b) it records
+ * (as a bitset over the entries) which keys contain an 'a' somewhere before
+ * a 'b'. A key can only contain a pattern as a subsequence if it contains
+ * every pair of consecutive pattern characters in that order, so
+ * intersecting the bitsets of those pairs yields a (usually small) set of
+ * candidates that are then scored as before. The index is case-insensitive
+ * and only covers letters, digits and '.'; patterns with other characters
+ * fall back to a sequential scan.
  */
 public abstract class FuzzyMap<E> implements Iterable<E> {
 
@@ -68,6 +80,39 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 
 	private TreeMap<String,E> entries = new TreeMap<>();
 
+	/**
+	 * Number of distinct characters in the index: a-z, 0-9 and '.'
+	 */
+	private static final int ALPHABET_SIZE = 26 + 10 + 1;
+
+	/**
+	 * Keys and values of all entries by ordinal (i.e. the order in which they were added).
+	 */
+	private final List<String> indexedKeys = new ArrayList<>();
+	private final List<E> indexedValues = new ArrayList<>();
+
+	/**
+	 * Bitsets over the entry ordinals: charIndex[c] for keys containing c, pairIndex[a*ALPHABET_SIZE+b]
+	 * for keys containing a before b. Allocated lazily and grown as entries are added.
+	 */
+	private final long[][] charIndex = new long[ALPHABET_SIZE][];
+	private final long[][] pairIndex = new long[ALPHABET_SIZE*ALPHABET_SIZE][];
+
+	/**
+	 * Lexicographic rank of each entry ordinal, recomputed on the first search after entries were added.
+	 * Searches may run concurrently, so both arrays are published together through a volatile field.
+	 */
+	private volatile Ranks ranks = null;
+
+	private static class Ranks {
+		final int[] rankByOrdinal;
+		final int[] ordinalByRank;
+		Ranks(int[] rankByOrdinal, int[] ordinalByRank) {
+			this.rankByOrdinal = rankByOrdinal;
+			this.ordinalByRank = ordinalByRank;
+		}
+	}
+
 	protected abstract String getKey(E entry);
 
 	public void add(E value) {
@@ -76,6 +121,7 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		E existing = entries.get(key);
 		if (existing==null) {
 			entries.put(getKey(value), value);
+			addToIndex(key, value);
 		} else {
 			SpringPropertiesEditorPlugin.warning(FuzzyMap.class.getName()+": Multiple entries for key "+key+" some entries discarded");
 		}
@@ -99,19 +145,179 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 			}
 			return matches;
 		} else {
-			//TODO: optimize somehow with a smarter index? (right now searches all map entries sequentially)
+			int[] candidates = findCandidates(pattern);
 			ArrayList<Match<E>> matches = new ArrayList<>();
-			for (Entry<String, E> e : entries.entrySet()) {
-				String key = e.getKey();
-				double score = FuzzyMatcher.matchScore(pattern, key);
-				if (score!=0.0) {
-					matches.add(new Match<>(pattern, score, e.getValue()));
+			if (candidates==null) {
+				//pattern not covered by the index, search all map entries sequentially
+				for (Entry<String, E> e : entries.entrySet()) {
+					String key = e.getKey();
+					double score = FuzzyMatcher.matchScore(pattern, key);
+					if (score!=0.0) {
+						matches.add(new Match<>(pattern, score, e.getValue()));
+					}
+				}
+			} else {
+				for (int ordinal : candidates) {
+					String key = indexedKeys.get(ordinal);
+					double score = FuzzyMatcher.matchScore(pattern, key);
+					if (score!=0.0) {
+						matches.add(new Match<>(pattern, score, indexedValues.get(ordinal)));
+					}
 				}
 			}
 			return matches;
 		}
 	}
 
+	private void addToIndex(String key, E value) {
+		int ordinal = indexedKeys.size();
+		indexedKeys.add(key);
+		indexedValues.add(value);
+		ranks = null;
+
+		boolean[] seen = new boolean[ALPHABET_SIZE];
+		int[] seenCodes = new int[ALPHABET_SIZE];
+		int seenCount = 0;
+		for (int i = 0; i < key.length(); i++) {
+			int code = charCode(key.charAt(i));
+			if (code<0) {
+				continue;
+			}
+			for (int j = 0; j < seenCount; j++) {
+				pairIndex[seenCodes[j]*ALPHABET_SIZE+code] = setBit(pairIndex[seenCodes[j]*ALPHABET_SIZE+code], ordinal);
+			}
+			if (!seen[code]) {
+				seen[code] = true;
+				seenCodes[seenCount++] = code;
+				charIndex[code] = setBit(charIndex[code], ordinal);
+			}
+		}
+	}
+
+	/**
+	 * Determines the ordinals of all entries that may match the given (non-empty) pattern, sorted
+	 * lexicographically by key. Returns null if the pattern can't be handled by the index.
+	 */
+	private int[] findCandidates(String pattern) {
+		int[] codes = new int[pattern.length()];
+		for (int i = 0; i < codes.length; i++) {
+			codes[i] = charCode(pattern.charAt(i));
+			if (codes[i]<0) {
+				return null;
+			}
+		}
+
+		long[] bits;
+		if (codes.length==1) {
+			bits = charIndex[codes[0]];
+			bits = bits==null ? null : bits.clone();
+		} else {
+			bits = null;
+			for (int i = 0; i < codes.length-1; i++) {
+				long[] pairBits = pairIndex[codes[i]*ALPHABET_SIZE+codes[i+1]];
+				if (pairBits==null) {
+					return new int[0];
+				}
+				if (bits==null) {
+					bits = Arrays.copyOf(pairBits, pairBits.length);
+				} else {
+					int length = Math.min(bits.length, pairBits.length);
+					for (int w = 0; w < length; w++) {
+						bits[w] &= pairBits[w];
+					}
+					for (int w = length; w < bits.length; w++) {
+						bits[w] = 0;
+					}
+				}
+			}
+		}
+		if (bits==null) {
+			return new int[0];
+		}
+
+		int count = 0;
+		for (long word : bits) {
+			count += Long.bitCount(word);
+		}
+
+		//keep the lexicographic order of a sequential search of the TreeMap
+		Ranks ranks = getRanks();
+		int[] candidateRanks = new int[count];
+		int n = 0;
+		for (int w = 0; w < bits.length; w++) {
+			long word = bits[w];
+			while (word!=0) {
+				candidateRanks[n++] = ranks.rankByOrdinal[w*64 + Long.numberOfTrailingZeros(word)];
+				word &= word-1;
+			}
+		}
+		Arrays.sort(candidateRanks);
+		for (int i = 0; i < count; i++) {
+			candidateRanks[i] = ranks.ordinalByRank[candidateRanks[i]];
+		}
+		return candidateRanks;
+	}
+
+	private Ranks getRanks() {
+		Ranks ranks = this.ranks;
+		if (ranks==null) {
+			synchronized (this) {
+				ranks = this.ranks;
+				if (ranks==null) {
+					ranks = computeRanks();
+					this.ranks = ranks;
+				}
+			}
+		}
+		return ranks;
+	}
+
+	private Ranks computeRanks() {
+		Integer[] ordinals = new Integer[indexedKeys.size()];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = i;
+		}
+		Arrays.sort(ordinals, new Comparator<Integer>() {
+			public int compare(Integer o1, Integer o2) {
+				return indexedKeys.get(o1).compareTo(indexedKeys.get(o2));
+			}
+		});
+		int[] ordinalByRank = new int[ordinals.length];
+		int[] rankByOrdinal = new int[ordinals.length];
+		for (int rank = 0; rank < ordinals.length; rank++) {
+			ordinalByRank[rank] = ordinals[rank];
+			rankByOrdinal[ordinals[rank]] = rank;
+		}
+		return new Ranks(rankByOrdinal, ordinalByRank);
+	}
+
+	private static long[] setBit(long[] bits, int ordinal) {
+		int word = ordinal >>> 6;
+		if (bits==null) {
+			bits = new long[Math.max(word+1, 4)];
+		} else if (word>=bits.length) {
+			bits = Arrays.copyOf(bits, Math.max(word+1, bits.length*2));
+		}
+		bits[word] |= 1L << (ordinal & 63);
+		return bits;
+	}
+
+	/**
+	 * @return the index code of the given character or -1 if the character is not covered by the index.
+	 */
+	private static int charCode(char c) {
+		if (c>='a' && c<='z') {
+			return c-'a';
+		} else if (c>='A' && c<='Z') {
+			return c-'A';
+		} else if (c>='0' && c<='9') {
+			return 26+c-'0';
+		} else if (c=='.') {
+			return 36;
+		}
+		return -1;
+	}
+
 	/**
 	 * Searches the index for the longest string which is both
 	 *  - a prefix of propertyName
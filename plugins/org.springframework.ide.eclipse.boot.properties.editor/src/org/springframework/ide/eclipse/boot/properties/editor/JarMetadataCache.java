@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor;
+
+import static org.springframework.ide.eclipse.boot.properties.editor.SpringPropertiesCompletionEngine.debug;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepositoryJsonBuilder;
+import org.springframework.ide.eclipse.org.json.JSONObject;
+
+/**
+ * Session wide cache of the parsed config metadata found in jar files.
+ * <p>
+ * Most projects in a workspace share the bulk of their jars, so the metadata of a jar
+ * is parsed once and then added to the builder of each project that has the jar on
+ * its classpath. Entries are keyed by the path, size and modification time of the jar,
+ * so a jar that is replaced is read again. Jars without metadata are remembered
+ * as well, so they don't need to be opened again either.
+ * <p>
+ * The number of cached jars is limited by the system property {@link #SIZE_PROPERTY};
+ * a size of 0 disables caching.
+ *
+ * @since 3.9.22
+ */
+public class JarMetadataCache {
+
+	public static final String SIZE_PROPERTY = "org.springframework.ide.eclipse.boot.properties.editor.jarMetadataCacheSize";
+
+	private static final int MAX_SIZE = Integer.getInteger(SIZE_PROPERTY, 1000);
+
+	private static final Map<String, List<JSONObject>> CACHE = new LinkedHashMap<String, List<JSONObject>>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<JSONObject>> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/**
+	 * Returns the parsed metadata documents found at the given locations in the given jar
+	 * file. The returned documents are shared and must not be modified.
+	 */
+	public static List<JSONObject> getMetadata(File jarFile, String[] locations) {
+		String key = jarFile.getAbsolutePath()+"|"+jarFile.length()+"|"+jarFile.lastModified();
+		if (MAX_SIZE>0) {
+			synchronized (CACHE) {
+				List<JSONObject> cached = CACHE.get(key);
+				if (cached!=null) {
+					return cached;
+				}
+			}
+		}
+		List<JSONObject> metadata = readMetadata(jarFile, locations);
+		if (MAX_SIZE>0) {
+			synchronized (CACHE) {
+				CACHE.put(key, metadata);
+			}
+		}
+		return metadata;
+	}
+
+	public static void clear() {
+		synchronized (CACHE) {
+			CACHE.clear();
+		}
+	}
+
+	private static List<JSONObject> readMetadata(File f, String[] locations) {
+		debug("load from jar: "+f);
+		List<JSONObject> metadata = new ArrayList<>(locations.length);
+		JarFile jarFile = null;
+		try {
+			jarFile = new JarFile(f);
+			for (String loc : locations) {
+				ZipEntry e = jarFile.getEntry(loc);
+				if (e!=null) {
+					JSONObject json = readJson(jarFile, e);
+					if (json!=null) {
+						metadata.add(json);
+					}
+				}
+			}
+		} catch (Throwable e) {
+			SpringPropertiesEditorPlugin.log(e);
+		} finally {
+			if (jarFile!=null) {
+				try {
+					jarFile.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		return metadata.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(metadata);
+	}
+
+	private static JSONObject readJson(JarFile jarFile, ZipEntry ze) {
+		InputStream is = null;
+		try {
+			is = jarFile.getInputStream(ze);
+			return ConfigurationMetadataRepositoryJsonBuilder.readJson(is);
+		} catch (Throwable e) {
+			SpringPropertiesEditorPlugin.log(e);
+		} finally {
+			if (is!=null) {
+				try {
+					is.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		return null;
+	}
+
+}
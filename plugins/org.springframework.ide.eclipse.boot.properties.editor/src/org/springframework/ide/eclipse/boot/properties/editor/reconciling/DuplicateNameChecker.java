@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Pivotal, Inc.
+ * Copyright (c) 2016-2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,45 +20,39 @@ import static org.springframework.ide.eclipse.boot.properties.editor.reconciling
 import static org.springframework.ide.eclipse.boot.properties.editor.reconciling.SpringPropertiesProblemType.*;
 
 /**
- * Instance of this class is fed the regions of names in a properties file, checks them for duplicates and
- * reports the duplicates to {@link IProblemCollector}.
+ * Instance of this class keeps track of the names in a properties file and reports the duplicates
+ * to {@link IProblemCollector}.
+ * <p>
+ * Names are counted rather than checked in document order, so that the names of edited entries
+ * can be removed and added again without going over the names of the other entries.
  *
  * @author Kris De Volder
  */
 public class DuplicateNameChecker {
 
 	/**
-	 * Keep track of seen names. The value in the map entries is either null
-	 * or the Region for the first time the name was seen.
-	 * <p>
-	 * This is used so that the first occurrence can still be reported retroactively
-	 * when the second occurrence is encountered.
+	 * Number of occurrences of each name.
 	 */
-	private Map<String, DocumentRegion> seen = new HashMap<>();
+	private Map<String, Integer> counts = new HashMap<>();
 
-	IProblemCollector problems;
-
-	public DuplicateNameChecker(IProblemCollector problems) {
-		this.problems = problems;
+	public void add(String name) {
+		if (!name.isEmpty()) {
+			counts.merge(name, 1, Integer::sum);
+		}
 	}
 
-	public void check(DocumentRegion nameRegion) {
-		if (!nameRegion.isEmpty()) {
-			String name = nameRegion.toString();
-			if (seen.containsKey(name)) {
-				DocumentRegion pending = seen.get(name);
-				if (pending!=null) {
-					reportDuplicate(pending);
-					seen.put(name, null);
-				}
-				reportDuplicate(nameRegion);
-			} else {
-				seen.put(name, nameRegion);
-			}
+	public void remove(String name) {
+		if (!name.isEmpty()) {
+			counts.computeIfPresent(name, (n, count) -> count>1 ? count-1 : null);
 		}
 	}
 
-	private void reportDuplicate(DocumentRegion nameRegion) {
+	public boolean isDuplicate(String name) {
+		Integer count = counts.get(name);
+		return count!=null && count>1;
+	}
+
+	public void reportDuplicate(DocumentRegion nameRegion, IProblemCollector problems) {
 		problems.accept(problem(PROP_DUPLICATE_KEY,
 				"Duplicate property '"+nameRegion+"'", nameRegion));
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,9 @@ import static org.springframework.ide.eclipse.boot.properties.editor.reconciling
 import static org.springframework.ide.eclipse.boot.properties.editor.reconciling.SpringPropertyProblem.problem;
 import static org.springsource.ide.eclipse.commons.core.util.StringUtil.commonPrefix;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import javax.inject.Provider;
@@ -28,10 +31,13 @@ import org.eclipse.jdt.internal.ui.propertiesfileeditor.IPropertiesFilePartition
 import org.eclipse.jdt.internal.ui.propertiesfileeditor.PropertiesFileEditorMessages;
 import org.eclipse.jdt.internal.ui.propertiesfileeditor.PropertiesFileEscapes;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITypedRegion;
 import org.eclipse.jface.text.TextUtilities;
+import org.eclipse.jface.text.TypedRegion;
 import org.springframework.boot.configurationmetadata.Deprecation;
 import org.springframework.boot.configurationmetadata.Deprecation.Level;
 import org.springframework.ide.eclipse.boot.properties.editor.FuzzyMap;
@@ -42,8 +48,10 @@ import org.springframework.ide.eclipse.boot.properties.editor.quickfix.ReplaceDe
 import org.springframework.ide.eclipse.boot.properties.editor.util.Type;
 import org.springframework.ide.eclipse.boot.properties.editor.util.TypeParser;
 import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil;
+import org.springframework.ide.eclipse.boot.properties.editor.util.TypedPropertiesCache;
 import org.springframework.ide.eclipse.editor.support.reconcile.IProblemCollector;
 import org.springframework.ide.eclipse.editor.support.reconcile.IReconcileEngine;
+import org.springframework.ide.eclipse.editor.support.reconcile.ReconcileProblem;
 import org.springframework.ide.eclipse.editor.support.util.DocumentRegion;
 import org.springframework.ide.eclipse.editor.support.util.DocumentUtil;
 import org.springframework.ide.eclipse.editor.support.util.ValueParseException;
@@ -78,9 +86,26 @@ public class SpringPropertiesReconcileEngine implements IReconcileEngine {
 	 */
 	private static final Pattern ASSIGN = SpringPropertiesCompletionEngine.ASSIGN;
 
+	private static final String PARTITIONING = IPropertiesFilePartitions.PROPERTIES_FILE_PARTITIONING;
+
 	private Provider<FuzzyMap<PropertyInfo>> fIndexProvider;
 	private TypeUtil typeUtil;
 
+	/**
+	 * Results of the previous reconcile of {@link #fDocument}: its partitioning and, aligned
+	 * with it, the property entry (if any) that starts with each region. Only what was touched
+	 * by the edits collected by {@link #fDirtyRegion} since is partitioned and checked again.
+	 * The problems of the entries are only valid for the index and the state of the Java types
+	 * they were computed with.
+	 */
+	private IDocument fDocument;
+	private final DirtyRegionTracker fDirtyRegion = new DirtyRegionTracker();
+	private ITypedRegion[] fRegions;
+	private Entry[] fEntries;
+	private DuplicateNameChecker fNames;
+	private FuzzyMap<PropertyInfo> fEntriesIndex;
+	private long fEntriesTypesCount;
+
 	public SpringPropertiesReconcileEngine(Provider<FuzzyMap<PropertyInfo>> provider, TypeUtil typeUtil) {
 		this.fIndexProvider = provider;
 		this.typeUtil = typeUtil;
@@ -96,58 +121,319 @@ public class SpringPropertiesReconcileEngine implements IReconcileEngine {
 		}
 		problemCollector.beginCollecting();
 		try {
-			DuplicateNameChecker duplicateNameChecker = new DuplicateNameChecker(problemCollector);
-			ITypedRegion[] regions = TextUtilities.computePartitioning(doc, IPropertiesFilePartitions.PROPERTIES_FILE_PARTITIONING, 0, doc.getLength(), true);
-			if (regions!=null && regions.length>0) {
+			if (fDocument!=doc) {
+				if (fDocument!=null) {
+					fDocument.removeDocumentListener(fDirtyRegion);
+				}
+				doc.addDocumentListener(fDirtyRegion);
+				fDocument = doc;
+				fRegions = null;
+			}
+			long changes = fDirtyRegion.getChangeCount();
+			int[] dirty = fDirtyRegion.take();
+			int[] window = new int[3];
+			ITypedRegion[] regions = partition(doc, dirty, window);
+			long typesCount = TypedPropertiesCache.getModificationCount();
+			if (fEntries==null || fEntriesIndex!=index || fEntriesTypesCount!=typesCount || window[0]<0) {
+				//Nothing can be reused, check all entries.
+				window[0] = 0;
+				window[1] = 0;
+				window[2] = regions.length;
+				fEntries = new Entry[0];
+				fNames = new DuplicateNameChecker();
+				fEntriesIndex = index;
+				fEntriesTypesCount = typesCount;
+			}
+			Entry[] entries = updateEntries(doc, regions, window);
+			fRegions = null;
+			fEntries = entries;
+			if (regions.length>0) {
 				mon.beginTask("Reconciling Spring Properties", regions.length);
-				for (int i = 0; i < regions.length; i++) {
+			}
+			for (int i = 0; i < regions.length; i++) {
+				Entry entry = entries[i];
+				if (entry!=null) {
 					ITypedRegion r = regions[i];
 					try {
-						String type = r.getType();
-						if (IDocument.DEFAULT_CONTENT_TYPE.equals(type)) {
-							DocumentRegion fullName = new DocumentRegion(doc, r).trim();
-							if (fullName.isEmpty()) {
-								if (!isAssigned(doc, r)) {
-									//empty 'properties' are okay if not being assigned to. This just means that
-									// there are empty sections in the props file and this is okay.
-									continue;
-								}
+						if (fNames.isDuplicate(entry.name)) {
+							fNames.reportDuplicate(entry.getName(doc, r), problemCollector);
+						}
+						if (entry.problems!=null) {
+							//Unchanged entry, only its position may have changed.
+							for (SpringPropertyProblem p : entry.problems) {
+								problemCollector.accept(p.shift(r.getOffset()));
 							}
-							duplicateNameChecker.check(fullName);
-							PropertyInfo validProperty = SpringPropertiesCompletionEngine.findLongestValidProperty(index, fullName.toString());
-							if (validProperty!=null) {
-								//TODO: Remove last remnants of 'IRegion trimmedRegion' here and replace
-								// it all with just passing around 'fullName' DocumentRegion. This may require changes
-								// in PropertyNavigator (probably these changes are also for the better making it simpler as well)
-								IRegion trimmedRegion = fullName.asRegion();
-								if (validProperty.isDeprecated()) {
-									problemCollector.accept(problemDeprecated(fullName, validProperty));
+						} else {
+							List<ReconcileProblem> found = new ArrayList<>();
+							try {
+								reconcileEntry(doc, index, regions, i, entry.getName(doc, r), collector(found));
+							} finally {
+								//Also report what was found before a failure, but don't reuse it.
+								for (ReconcileProblem p : found) {
+									problemCollector.accept(p);
 								}
-								int offset = validProperty.getId().length() + trimmedRegion.getOffset();
-								PropertyNavigator navigator = new PropertyNavigator(doc, problemCollector, typeUtil, trimmedRegion);
-								Type valueType = navigator.navigate(offset, TypeParser.parse(validProperty.getType()));
-								if (valueType!=null) {
-									reconcileType(doc, valueType, regions, i, problemCollector);
-								}
-							} else { //validProperty==null
-								//The name is invalid, with no 'prefix' of the name being a valid property name.
-								PropertyInfo similarEntry = index.findLongestCommonPrefixEntry(fullName.toString());
-								CharSequence validPrefix = commonPrefix(similarEntry.getId(), fullName);
-								problemCollector.accept(problemUnkownProperty(fullName, similarEntry, validPrefix));
-							} //end: validProperty==null
+							}
+							entry.problems = relativeProblems(found, r.getOffset());
 						}
 					} catch (Exception e) {
 						SpringPropertiesEditorPlugin.log(e);
 					}
-				} //end: for regions
+				}
+			} //end: for regions
+			if (fDirtyRegion.getChangeCount()==changes) {
+				fRegions = regions;
+			} else {
+				//The document was changed while reconciling, so the regions may not match it.
+				fEntries = null;
 			}
 		} catch (Throwable e2) {
+			fRegions = null;
+			fEntries = null;
 			SpringPropertiesEditorPlugin.log(e2);
 		} finally {
 			problemCollector.endCollecting();
 		}
 	}
 
+	private void reconcileEntry(IDocument doc, FuzzyMap<PropertyInfo> index, ITypedRegion[] regions, int i,
+			DocumentRegion fullName, IProblemCollector problemCollector) {
+		PropertyInfo validProperty = SpringPropertiesCompletionEngine.findLongestValidProperty(index, fullName.toString());
+		if (validProperty!=null) {
+			//TODO: Remove last remnants of 'IRegion trimmedRegion' here and replace
+			// it all with just passing around 'fullName' DocumentRegion. This may require changes
+			// in PropertyNavigator (probably these changes are also for the better making it simpler as well)
+			IRegion trimmedRegion = fullName.asRegion();
+			if (validProperty.isDeprecated()) {
+				problemCollector.accept(problemDeprecated(fullName, validProperty));
+			}
+			int offset = validProperty.getId().length() + trimmedRegion.getOffset();
+			PropertyNavigator navigator = new PropertyNavigator(doc, problemCollector, typeUtil, trimmedRegion);
+			Type valueType = navigator.navigate(offset, TypeParser.parse(validProperty.getType()));
+			if (valueType!=null) {
+				reconcileType(doc, valueType, regions, i, problemCollector);
+			}
+		} else { //validProperty==null
+			//The name is invalid, with no 'prefix' of the name being a valid property name.
+			PropertyInfo similarEntry = index.findLongestCommonPrefixEntry(fullName.toString());
+			CharSequence validPrefix = commonPrefix(similarEntry.getId(), fullName);
+			problemCollector.accept(problemUnkownProperty(fullName, similarEntry, validPrefix));
+		} //end: validProperty==null
+	}
+
+	/**
+	 * Partitions the document, reusing the regions of the previous reconcile that weren't touched
+	 * by the dirty region.
+	 *
+	 * @param dirty the dirty region as returned by {@link DirtyRegionTracker#take()}
+	 * @param window receives the bounds of the partitioned regions: the index of the first one,
+	 * the end index of the regions they replace in the previous partitioning and their own end index.
+	 * The index of the first one is -1 if the whole document was partitioned.
+	 */
+	private ITypedRegion[] partition(IDocument doc, int[] dirty, int[] window) throws BadLocationException {
+		ITypedRegion[] old = fRegions;
+		if (old!=null && dirty==null) {
+			//Unchanged document
+			return old;
+		}
+		if (old!=null && old.length>0) {
+			int delta = dirty[2];
+			//The first region touched by the edits, and the region before it which may be the name of
+			//an entry whose value was edited.
+			int first = 0;
+			while (first<old.length-1 && end(old[first])<dirty[0]) {
+				first++;
+			}
+			first = Math.max(first-1, 0);
+			//The first region that starts behind the edits, it and all following regions are only shifted.
+			int last = first;
+			while (last<old.length && old[last].getOffset()<=dirty[1]-delta) {
+				last++;
+			}
+			int start = old[first].getOffset();
+			int end = last<old.length ? old[last].getOffset()+delta : doc.getLength();
+			List<ITypedRegion> regions = new ArrayList<>(old.length+8);
+			regions.addAll(Arrays.asList(old).subList(0, first));
+			if (end>start) {
+				for (ITypedRegion r : TextUtilities.computePartitioning(doc, PARTITIONING, start, end-start, true)) {
+					//Empty regions touching the bounds may be clipped neighbours rather than regions of their own.
+					boolean clipped = r.getLength()==0 && isDefault(r) && (
+							r.getOffset()==start && first>0 && isDefault(old[first-1]) ||
+							r.getOffset()==end && last<old.length && isDefault(old[last])
+					);
+					if (!clipped) {
+						regions.add(r);
+					}
+				}
+			}
+			int windowEnd = regions.size();
+			boolean valid = windowEnd==first
+					? end==start
+					: regions.get(first).getOffset()==start && end(regions.get(windowEnd-1))==end;
+			if (valid && last<old.length) {
+				//The regions behind the edits are only shifted if the edits didn't change the first one.
+				ITypedRegion next = TextUtilities.getPartition(doc, PARTITIONING, end, false);
+				valid = next.getOffset()==end
+						&& next.getLength()==old[last].getLength()
+						&& next.getType().equals(old[last].getType());
+			}
+			if (valid) {
+				for (int i = last; i < old.length; i++) {
+					ITypedRegion r = old[i];
+					regions.add(new TypedRegion(r.getOffset()+delta, r.getLength(), r.getType()));
+				}
+				window[0] = first;
+				window[1] = last;
+				window[2] = windowEnd;
+				return regions.toArray(new ITypedRegion[regions.size()]);
+			}
+		}
+		window[0] = -1;
+		return TextUtilities.computePartitioning(doc, PARTITIONING, 0, doc.getLength(), true);
+	}
+
+	/**
+	 * Replaces the entries of the previous reconcile in the given window with the entries that start
+	 * with the regions that replace them, and keeps the names of the entries up to date.
+	 */
+	private Entry[] updateEntries(IDocument doc, ITypedRegion[] regions, int[] window) {
+		Entry[] old = fEntries;
+		Entry[] entries = new Entry[regions.length];
+		int first = window[0];
+		System.arraycopy(old, 0, entries, 0, first);
+		System.arraycopy(old, window[1], entries, window[2], old.length-window[1]);
+		for (int i = first; i < window[1]; i++) {
+			if (old[i]!=null) {
+				fNames.remove(old[i].name);
+			}
+		}
+		for (int i = first; i < window[2]; i++) {
+			ITypedRegion r = regions[i];
+			if (isDefault(r)) {
+				DocumentRegion fullName = new DocumentRegion(doc, r).trim();
+				if (!fullName.isEmpty() || isAssigned(doc, r)) {
+					//empty 'properties' are okay if not being assigned to. This just means that
+					// there are empty sections in the props file and this is okay.
+					entries[i] = new Entry(fullName, r);
+					fNames.add(entries[i].name);
+				}
+			}
+		}
+		return entries;
+	}
+
+	private static int end(ITypedRegion r) {
+		return r.getOffset()+r.getLength();
+	}
+
+	private static boolean isDefault(ITypedRegion r) {
+		return IDocument.DEFAULT_CONTENT_TYPE.equals(r.getType());
+	}
+
+	/**
+	 * Convert problems to offsets relative to the given offset, or null if not all of them can be reused.
+	 */
+	private List<SpringPropertyProblem> relativeProblems(List<ReconcileProblem> problems, int offset) {
+		List<SpringPropertyProblem> relative = new ArrayList<>(problems.size());
+		for (ReconcileProblem p : problems) {
+			if (!(p instanceof SpringPropertyProblem)) {
+				return null;
+			}
+			relative.add(((SpringPropertyProblem) p).shift(-offset));
+		}
+		return relative;
+	}
+
+	private static IProblemCollector collector(List<ReconcileProblem> problems) {
+		return new IProblemCollector() {
+			@Override
+			public void beginCollecting() {
+			}
+
+			@Override
+			public void endCollecting() {
+			}
+
+			@Override
+			public void accept(ReconcileProblem problem) {
+				problems.add(problem);
+			}
+		};
+	}
+
+	/**
+	 * A property entry, starting with the region holding its name. Checking an entry only depends on
+	 * that region and the following one, which holds the assigned value (if any).
+	 */
+	private static class Entry {
+		/** The trimmed name */
+		final String name;
+		/** Offset of the trimmed name relative to the start of the region */
+		final int nameOffset;
+		/** Problems relative to the start of the region, or null if the entry must be checked */
+		List<SpringPropertyProblem> problems;
+
+		Entry(DocumentRegion fullName, ITypedRegion r) {
+			this.name = fullName.toString();
+			this.nameOffset = fullName.getStart()-r.getOffset();
+		}
+
+		DocumentRegion getName(IDocument doc, ITypedRegion r) {
+			int start = r.getOffset()+nameOffset;
+			return new DocumentRegion(doc, start, start+name.length());
+		}
+	}
+
+	/**
+	 * Collects the region of a document that was changed by edits. The region is given in the
+	 * coordinates of the current document, together with the difference in length to the document
+	 * before the edits.
+	 */
+	private static class DirtyRegionTracker implements IDocumentListener {
+
+		private int start = -1;
+		private int end;
+		private int delta;
+		private long changeCount;
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+		}
+
+		@Override
+		public synchronized void documentChanged(DocumentEvent event) {
+			int offset = event.getOffset();
+			int length = event.getLength();
+			int textLength = event.getText()==null ? 0 : event.getText().length();
+			if (start<0) {
+				start = offset;
+				end = offset+textLength;
+			} else {
+				end = end>=offset+length ? end+textLength-length : offset+textLength;
+				start = Math.min(start, offset);
+			}
+			delta += textLength-length;
+			changeCount++;
+		}
+
+		public synchronized long getChangeCount() {
+			return changeCount;
+		}
+
+		/**
+		 * Returns start, end and length difference of the dirty region and resets it,
+		 * or returns null if the document wasn't changed.
+		 */
+		public synchronized int[] take() {
+			if (start<0) {
+				return null;
+			}
+			int[] dirty = { start, end, delta };
+			start = -1;
+			delta = 0;
+			return dirty;
+		}
+	}
+
 	protected SpringPropertyProblem problemDeprecated(DocumentRegion trimmedRegion, PropertyInfo property) {
 		SpringPropertyProblem p = problem(deprecationProblemType(property.getDeprecation()),
 				TypeUtil.deprecatedPropertyMessage(
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -132,6 +132,17 @@ public class SpringPropertyProblem implements ReconcileProblem, FixableProblem {
 		return new SpringPropertyProblem(problemType, message , offset, len);
 	}
 
+	/**
+	 * Create a copy of this problem moved by the given number of characters.
+	 */
+	SpringPropertyProblem shift(int delta) {
+		SpringPropertyProblem copy = new SpringPropertyProblem(type, msg, offset+delta, length);
+		copy.propertyName = propertyName;
+		copy.metadata = metadata;
+		copy.problemFixer = problemFixer;
+		return copy;
+	}
+
 	public List<ICompletionProposal> getQuickfixes(QuickfixContext context) {
 		List<ICompletionProposal> proposals = new ArrayList<>(2);
 
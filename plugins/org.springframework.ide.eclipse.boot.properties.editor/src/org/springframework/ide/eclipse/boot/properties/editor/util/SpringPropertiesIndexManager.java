@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Pivotal, Inc.
+ * Copyright (c) 2014, 2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,10 @@
 package org.springframework.ide.eclipse.boot.properties.editor.util;
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -46,13 +49,13 @@ import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProv
  */
 public class SpringPropertiesIndexManager extends ListenerManager<Listener<SpringPropertiesIndexManager>> implements ClasspathListener {
 
-	//TODO: More precise cache flushing?
-	// right now, any detected change that may affect the cached metadata results.
-	// in clearing the entire cache.
-	// Probably this is okay, since reading the data is pretty fast.
+	// A detected change only flushes the indexes of the changed project and of the projects
+	// that depend on it (they read metadata from its output folder). The parsed metadata of
+	// jars is kept in the JarMetadataCache, so rebuilding an index doesn't parse the jars again.
 
 	private Map<String, SpringPropertyIndex> indexes = null;
 	final private ValueProviderRegistry valueProviders;
+	final private Set<String> changedProjects = new LinkedHashSet<>();
 	final private Job refreshJob = new Job("Refresh SpringPropertiesIndexManager") {
 		{
 			setSystem(true);
@@ -60,7 +63,12 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 
 		@Override
 		protected IStatus run(IProgressMonitor arg0) {
-			clearAll();
+			Set<String> projects;
+			synchronized (changedProjects) {
+				projects = new LinkedHashSet<>(changedProjects);
+				changedProjects.clear();
+			}
+			clear(projects);
 			return Status.OK_STATUS;
 		}
 	};
@@ -86,18 +94,56 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 
 	@Override
 	public void classpathChanged(IJavaProject jp) {
+		projectChanged(jp.getElementName());
+	}
+
+	private void projectChanged(String projectName) {
+		synchronized (changedProjects) {
+			changedProjects.add(projectName);
+		}
 		refreshJob.schedule();
 	}
 
-	private synchronized void clearAll() {
-		if (indexes!=null) {
-			indexes.clear();
-			for (Listener<SpringPropertiesIndexManager> l : getListeners()) {
-				l.changed(this);
+	/**
+	 * Removes the indexes of the given projects and of all projects that require one of them.
+	 */
+	private synchronized void clear(Set<String> projectNames) {
+		if (indexes!=null && !projectNames.isEmpty()) {
+			boolean changed = false;
+			Iterator<String> iter = indexes.keySet().iterator();
+			while (iter.hasNext()) {
+				String name = iter.next();
+				if (projectNames.contains(name) || requiresAny(name, projectNames)) {
+					iter.remove();
+					changed = true;
+				}
+			}
+			if (changed) {
+				for (Listener<SpringPropertiesIndexManager> l : getListeners()) {
+					l.changed(this);
+				}
 			}
 		}
 	}
 
+	private boolean requiresAny(String projectName, Set<String> requiredProjects) {
+		try {
+			IProject p = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+			if (p.isAccessible() && p.hasNature(JavaCore.NATURE_ID)) {
+				for (String required : JavaCore.create(p).getRequiredProjectNames()) {
+					if (requiredProjects.contains(required)) {
+						return true;
+					}
+				}
+			}
+		} catch (Exception e) {
+			SpringPropertiesEditorPlugin.log(e);
+			//Can't tell, better rebuild the index.
+			return true;
+		}
+		return false;
+	}
+
 
 	/**
 	 * Called by LiveMetadataListener when a change to live json metadata file in the
@@ -107,7 +153,7 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 	 * @param jsonFile The IFile in project's output folder that was changed.
 	 */
 	public void liveMetadataChanged(IJavaProject jp, IFile jsonFile) {
-		refreshJob.schedule();
+		projectChanged(jp.getElementName());
 	}
 
 	private class LiveMetadataListener implements IResourceChangeListener, IResourceDeltaVisitor {
@@ -138,9 +184,9 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 							liveMetadataChanged(jp, jsonFile);
 						}
 					}
-				} else {
-					//TODO: not accessible (closed or deleted?)
-					//  Do we need to do something with these?
+				} else if (delta.getKind()==IResourceDelta.REMOVED || (delta.getFlags() & IResourceDelta.OPEN)!=0) {
+					//Closed or deleted: drop its index and those that read metadata from its output folder.
+					projectChanged(p.getName());
 				}
 				return false;
 			default:
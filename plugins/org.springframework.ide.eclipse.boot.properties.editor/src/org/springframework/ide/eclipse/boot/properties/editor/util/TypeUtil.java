@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2019 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -623,6 +623,9 @@ public class TypeUtil {
 	 * accessing properties is invalid and reconciler should show an error message
 	 * for any property access.
 	 *
+	 * <p>
+	 * Results are shared with other TypeUtils for the same project through the {@link TypedPropertiesCache}.
+	 *
 	 * @return A list of known properties or null if the list of properties is unknown.
 	 */
 	public List<TypedProperty> getProperties(Type type, EnumCaseMode enumMode, BeanPropertyNameMode beanMode) {
@@ -633,6 +636,15 @@ public class TypeUtil {
 			//If dot navigation is not valid then really this is just like saying the type has no properties.
 			return Collections.emptyList();
 		}
+		//Maps get their properties from the key type, beans from their own getters.
+		Type dependentType = isMap(type) ? getKeyType(type) : type;
+		return TypedPropertiesCache.getProperties(javaProject, type, enumMode, beanMode,
+				dependentType==null ? null : dependentType.getErasure(),
+				() -> computeProperties(type, enumMode, beanMode)
+		);
+	}
+
+	private List<TypedProperty> computeProperties(Type type, EnumCaseMode enumMode, BeanPropertyNameMode beanMode) {
 		if (isMap(type)) {
 			Type keyType = getKeyType(type);
 			if (keyType!=null) {
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil.BeanPropertyNameMode;
+import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil.EnumCaseMode;
+
+/**
+ * Per-project cache for the results of {@link TypeUtil#getProperties(Type, EnumCaseMode, BeanPropertyNameMode)}.
+ * <p>
+ * A TypeUtil is created per editor, but the properties of a type only depend on the
+ * type itself (its getters for beans, its enum constants for the keys of a map).
+ * Entries are therefore shared by all TypeUtils of a project and only dropped when
+ * a Java element delta touches the type they were computed from. Changes to the
+ * classpath or to jars drop all entries, since types might be visible from other
+ * projects as well.
+ * <p>
+ * The number of entries per project is limited by the system property {@link #SIZE_PROPERTY};
+ * a size of 0 disables caching.
+ *
+ * @since 3.9.22
+ */
+public class TypedPropertiesCache {
+
+	public static final String SIZE_PROPERTY = "org.springframework.ide.eclipse.boot.properties.editor.typedPropertiesCacheSize";
+
+	private static final int MAX_SIZE = Integer.getInteger(SIZE_PROPERTY, 2000);
+
+	private static final Map<IJavaProject, TypedPropertiesCache> CACHES = new ConcurrentHashMap<>();
+
+	private static final AtomicLong MODIFICATION_COUNT = new AtomicLong();
+
+	private static boolean listening = false;
+
+	private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			if (size() > MAX_SIZE) {
+				//changes of the evicted type would go unnoticed by clients of the modification count
+				MODIFICATION_COUNT.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private TypedPropertiesCache() {
+	}
+
+	/**
+	 * Returns the cached properties of the given type or computes and caches them.
+	 * @param dependentType the name of the type the properties are computed from. Entries
+	 * are dropped when this type or one of its nested types changes.
+	 * @return a copy of the cached list, or null if the properties are unknown.
+	 */
+	public static List<TypedProperty> getProperties(IJavaProject jp, Type type, EnumCaseMode enumMode,
+			BeanPropertyNameMode beanMode, String dependentType, Supplier<List<TypedProperty>> compute) {
+		if (jp==null || MAX_SIZE<=0) {
+			return compute.get();
+		}
+		ensureListening();
+		TypedPropertiesCache cache = CACHES.computeIfAbsent(jp, (p) -> new TypedPropertiesCache());
+		Key key = new Key(type, enumMode, beanMode);
+		Entry entry;
+		synchronized (cache) {
+			entry = cache.entries.get(key);
+		}
+		if (entry==null) {
+			List<TypedProperty> properties = compute.get();
+			entry = new Entry(dependentType, properties==null ? null : new ArrayList<>(properties));
+			synchronized (cache) {
+				cache.entries.put(key, entry);
+			}
+		}
+		return entry.properties==null ? null : new ArrayList<>(entry.properties);
+	}
+
+	/**
+	 * Returns a counter that changes whenever cached properties have been dropped
+	 * or Java types of any project may have changed. Clients that keep results derived
+	 * from Java types (typed properties, but also enum constants and value parsers,
+	 * which aren't cached here) can use it to find out when to drop them.
+	 */
+	public static long getModificationCount() {
+		if (MAX_SIZE<=0) {
+			//nothing is cached, so changes can't be tracked
+			return MODIFICATION_COUNT.incrementAndGet();
+		}
+		ensureListening();
+		return MODIFICATION_COUNT.get();
+	}
+
+	/**
+	 * Drops the entries of all projects that were computed from one of the given types
+	 * or from a type nested in one of them.
+	 */
+	public static void invalidate(Collection<String> typeNames) {
+		if (typeNames.isEmpty()) {
+			return;
+		}
+		boolean removed = false;
+		for (TypedPropertiesCache cache : CACHES.values()) {
+			removed |= cache.removeEntries(typeNames);
+		}
+		if (removed) {
+			MODIFICATION_COUNT.incrementAndGet();
+		}
+	}
+
+	public static void clear(IJavaProject jp) {
+		TypedPropertiesCache cache = CACHES.remove(jp);
+		if (cache!=null && !cache.isEmpty()) {
+			MODIFICATION_COUNT.incrementAndGet();
+		}
+	}
+
+	public static void clear() {
+		boolean removed = false;
+		for (IJavaProject jp : CACHES.keySet()) {
+			TypedPropertiesCache cache = CACHES.remove(jp);
+			removed |= cache!=null && !cache.isEmpty();
+		}
+		if (removed) {
+			MODIFICATION_COUNT.incrementAndGet();
+		}
+	}
+
+	private synchronized boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	/**
+	 * @return true if any entry was removed.
+	 */
+	private synchronized boolean removeEntries(Collection<String> typeNames) {
+		boolean removed = false;
+		Iterator<Entry> iter = entries.values().iterator();
+		while (iter.hasNext()) {
+			if (iter.next().dependsOn(typeNames)) {
+				iter.remove();
+				removed = true;
+			}
+		}
+		return removed;
+	}
+
+	private static synchronized void ensureListening() {
+		if (!listening) {
+			JavaCore.addElementChangedListener(new InvalidatingListener(), ElementChangedEvent.POST_CHANGE);
+			listening = true;
+		}
+	}
+
+	private static class Key {
+		private final Type type;
+		private final EnumCaseMode enumMode;
+		private final BeanPropertyNameMode beanMode;
+
+		Key(Type type, EnumCaseMode enumMode, BeanPropertyNameMode beanMode) {
+			this.type = type;
+			this.enumMode = enumMode;
+			this.beanMode = beanMode;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, enumMode, beanMode);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this==obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return Objects.equals(type, other.type)
+				&& enumMode==other.enumMode
+				&& beanMode==other.beanMode;
+		}
+	}
+
+	private static class Entry {
+		private final String dependentType;
+		private final List<TypedProperty> properties;
+
+		Entry(String dependentType, List<TypedProperty> properties) {
+			this.dependentType = dependentType;
+			this.properties = properties;
+		}
+
+		boolean dependsOn(Collection<String> typeNames) {
+			if (dependentType==null) {
+				return false;
+			}
+			for (String typeName : typeNames) {
+				if (dependentType.equals(typeName)
+						|| dependentType.startsWith(typeName + '$')
+						|| dependentType.startsWith(typeName + '.')) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Collects the primary types of changed compilation units and class files. Changes
+	 * that can't be attributed to individual types (classpath, jars, projects going away)
+	 * drop whole caches instead. The modification count is bumped for any such change,
+	 * whether or not it dropped cached entries.
+	 */
+	private static class InvalidatingListener implements IElementChangedListener {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			Set<String> changedTypes = new LinkedHashSet<>();
+			boolean clearAll = visit(event.getDelta(), changedTypes);
+			if (clearAll) {
+				clear();
+			} else {
+				invalidate(changedTypes);
+			}
+			if (clearAll || !changedTypes.isEmpty()) {
+				//Results derived from the changed types may be held by clients even if
+				//nothing was cached for them here.
+				MODIFICATION_COUNT.incrementAndGet();
+			}
+		}
+
+		/**
+		 * @return true if all caches must be dropped.
+		 */
+		private boolean visit(IJavaElementDelta delta, Set<String> changedTypes) {
+			IJavaElement el = delta.getElement();
+			int flags = delta.getFlags();
+			switch (el.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind()==IJavaElementDelta.REMOVED || (flags & IJavaElementDelta.F_CLOSED)!=0) {
+					clear((IJavaProject) el);
+					MODIFICATION_COUNT.incrementAndGet();
+					return false;
+				}
+				if ((flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED))!=0) {
+					return true;
+				}
+				return visitChildren(delta, changedTypes);
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind()!=IJavaElementDelta.CHANGED || (flags & (
+						IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED |
+						IJavaElementDelta.F_ADDED_TO_CLASSPATH |
+						IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+				))!=0) {
+					return true;
+				}
+				return visitChildren(delta, changedTypes);
+			case IJavaElement.COMPILATION_UNIT:
+			case IJavaElement.CLASS_FILE:
+				addPrimaryType(el, changedTypes);
+				return false;
+			default:
+				return visitChildren(delta, changedTypes);
+			}
+		}
+
+		private boolean visitChildren(IJavaElementDelta delta, Set<String> changedTypes) {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				if (visit(child, changedTypes)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void addPrimaryType(IJavaElement unit, Set<String> changedTypes) {
+			// the name of the unit rather than its types, which no longer exist for removed units
+			String name = unit.getElementName();
+			int dot = name.lastIndexOf('.');
+			if (dot>0) {
+				name = name.substring(0, dot);
+			}
+			int dollar = name.indexOf('$');
+			if (dollar>0) {
+				name = name.substring(0, dollar);
+			}
+			String packageName = unit.getParent().getElementName();
+			changedTypes.add(packageName.isEmpty() ? name : packageName + "." + name);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 Pivotal Software Inc.
+ *  Copyright (c) 2012, 2019 Pivotal Software Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -13,8 +13,11 @@ package org.springframework.ide.eclipse.config.graph;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EventObject;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -61,11 +64,14 @@ import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.actions.ActionFactory;
 import org.eclipse.ui.progress.UIJob;
 import org.eclipse.ui.views.contentoutline.IContentOutlinePage;
+import org.eclipse.wst.sse.core.internal.provisional.INodeAdapter;
+import org.eclipse.wst.sse.core.internal.provisional.INodeNotifier;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMDocument;
 import org.eclipse.wst.xml.core.internal.validation.XMLValidationReport;
 import org.eclipse.wst.xml.core.internal.validation.eclipse.XMLValidator;
@@ -82,6 +88,9 @@ import org.springframework.ide.eclipse.config.graph.model.AbstractConfigGraphDia
 import org.springframework.ide.eclipse.config.graph.parts.AbstractConfigEditPartFactory;
 import org.springframework.ide.eclipse.config.graph.parts.AbstractConfigPaletteFactory;
 import org.springframework.ide.eclipse.config.graph.parts.ActivityDiagramPart;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 /**
  * @author Leo Dos Santos
@@ -90,6 +99,51 @@ import org.springframework.ide.eclipse.config.graph.parts.ActivityDiagramPart;
 @SuppressWarnings("restriction")
 public abstract class AbstractConfigGraphicalEditor extends GraphicalEditorWithPalette implements IConfigEditorPage {
 
+	/**
+	 * Listens to the elements of the DOM document for changes that can affect
+	 * the diagram. The diagram is built from elements and their attributes
+	 * only, so changes of text content and comments are ignored. An attribute
+	 * change that only affects the activities of its element updates these
+	 * activities; any other change refreshes the diagram from XML.
+	 */
+	private class DomChangeAdapter implements INodeAdapter {
+
+		public boolean isAdapterForType(Object type) {
+			return type == this;
+		}
+
+		public void notifyChanged(INodeNotifier notifier, int eventType, Object changedFeature, Object oldValue,
+				Object newValue, int pos) {
+			switch (eventType) {
+			case INodeNotifier.ADD:
+				if (newValue instanceof Element) {
+					observe((Node) newValue);
+					diagramChanged();
+				}
+				break;
+			case INodeNotifier.REMOVE:
+				if (oldValue instanceof Element) {
+					unobserve((Node) oldValue);
+					diagramChanged();
+				}
+				break;
+			case INodeNotifier.CHANGE:
+				// an attribute or the start tag of an element
+				if (!(changedFeature instanceof Attr) || !updateActivities((Node) notifier, (Attr) changedFeature)) {
+					diagramChanged();
+				}
+				break;
+			case INodeNotifier.STRUCTURE_CHANGED:
+				unobserveDetached();
+				observe((Node) notifier);
+				diagramChanged();
+				break;
+			default:
+				// the text content of an element
+			}
+		}
+	}
+
 	public static String PAGE_KIND = "graphicalEditor"; //$NON-NLS-1$
 
 	private IConfigEditor editor;
@@ -116,6 +170,21 @@ public abstract class AbstractConfigGraphicalEditor extends GraphicalEditorWithP
 
 	private final AtomicBoolean updatePosted = new AtomicBoolean(false);
 
+	private final DomChangeAdapter domChangeAdapter = new DomChangeAdapter();
+
+	/** The document the {@link #domChangeAdapter} has been added to */
+	private IDOMDocument observedDocument;
+
+	/** The nodes the {@link #domChangeAdapter} has been added to */
+	private final Set<INodeNotifier> observedNodes = Collections
+			.newSetFromMap(new IdentityHashMap<INodeNotifier, Boolean>());
+
+	/**
+	 * Whether the DOM has been changed in a way that can affect the diagram
+	 * since the diagram has been refreshed
+	 */
+	private final AtomicBoolean diagramOutdated = new AtomicBoolean(true);
+
 	public AbstractConfigGraphicalEditor() {
 		super();
 	}
@@ -256,6 +325,8 @@ public abstract class AbstractConfigGraphicalEditor extends GraphicalEditorWithP
 		if (transferTargetListener != null) {
 			getGraphicalViewer().removeDropTargetListener(transferTargetListener);
 		}
+		unobserveAll();
+		observedDocument = null;
 		super.dispose();
 	}
 
@@ -386,7 +457,9 @@ public abstract class AbstractConfigGraphicalEditor extends GraphicalEditorWithP
 
 	@Override
 	protected void initializeGraphicalViewer() {
+		observeDomDocument();
 		getGraphicalViewer().setContents(diagram);
+		diagramOutdated.set(false);
 		transferTargetListener = new TemplateTransferDropTargetListener(getGraphicalViewer());
 		getGraphicalViewer().addDropTargetListener(transferTargetListener);
 	}
@@ -399,6 +472,12 @@ public abstract class AbstractConfigGraphicalEditor extends GraphicalEditorWithP
 	}
 
 	public void modelUpdated() {
+		observeDomDocument();
+		if (!diagramOutdated.get() || !this.equals(editor.getActiveEditor())) {
+			// changes of text content don't show up in the diagram, and a page
+			// that is not shown is refreshed once it gets the focus
+			return;
+		}
 		if (validateOnModelUpdate) {
 			if (!updatePosted.get()) {
 				updatePosted.set(true);
@@ -441,16 +520,128 @@ public abstract class AbstractConfigGraphicalEditor extends GraphicalEditorWithP
 	protected void refreshAll() {
 		ActivityDiagramPart part = (ActivityDiagramPart) getGraphicalViewer().getContents();
 		if (part != null && part.isActive()) {
+			diagramOutdated.set(false);
 			part.refreshAll();
 		}
 	}
 
+	private void diagramChanged() {
+		if (!diagramOutdated.getAndSet(true)) {
+			// the DOM may be notified only after the text change has been
+			// reported, e.g. for changes made through the DOM, in which case
+			// modelUpdated() has already found the diagram to be up to date
+			Display.getDefault().asyncExec(new Runnable() {
+				public void run() {
+					if (observedDocument != null) {
+						modelUpdated();
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Updates the activities of the given element after the given attribute
+	 * has changed. Returns <code>false</code> if the diagram has to be
+	 * refreshed from XML instead.
+	 */
+	private boolean updateActivities(Node element, Attr attr) {
+		if (diagramOutdated.get() || Display.getCurrent() == null) {
+			// a refresh is pending anyway, or the edit parts cannot be
+			// updated from this thread
+			return false;
+		}
+		String attributeName = (attr.getLocalName() != null ? attr.getLocalName() : attr.getName());
+		return diagram.updateActivitiesForAttribute(element, attributeName);
+	}
+
+	private void observeDomDocument() {
+		IDOMDocument document = getDomDocument();
+		if (document != observedDocument) {
+			unobserveAll();
+			observedDocument = document;
+			if (document != null) {
+				observe(document);
+			}
+			diagramOutdated.set(true);
+		}
+	}
+
+	private void observe(Node node) {
+		if (node instanceof INodeNotifier) {
+			INodeNotifier notifier = (INodeNotifier) node;
+			if (observedNodes.add(notifier)) {
+				notifier.addAdapter(domChangeAdapter);
+			}
+		}
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child.getNodeType() == Node.ELEMENT_NODE) {
+				observe(child);
+			}
+		}
+	}
+
+	private void unobserve(Node node) {
+		if (node instanceof INodeNotifier && observedNodes.remove(node)) {
+			((INodeNotifier) node).removeAdapter(domChangeAdapter);
+		}
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child.getNodeType() == Node.ELEMENT_NODE) {
+				unobserve(child);
+			}
+		}
+	}
+
+	/**
+	 * Stops observing the nodes that are no longer part of the observed
+	 * document. Nodes replaced as part of a structure change are not always
+	 * reported as removed.
+	 */
+	private void unobserveDetached() {
+		for (Iterator<INodeNotifier> iter = observedNodes.iterator(); iter.hasNext();) {
+			INodeNotifier notifier = iter.next();
+			if (!isAttached((Node) notifier)) {
+				notifier.removeAdapter(domChangeAdapter);
+				iter.remove();
+			}
+		}
+	}
+
+	private void unobserveAll() {
+		for (INodeNotifier notifier : observedNodes) {
+			notifier.removeAdapter(domChangeAdapter);
+		}
+		observedNodes.clear();
+	}
+
+	private boolean isAttached(Node node) {
+		while (node != null && node != observedDocument) {
+			node = node.getParentNode();
+		}
+		return node != null;
+	}
+
+	/**
+	 * Returns the number of DOM nodes observed for changes that can affect
+	 * the diagram.
+	 */
+	public int getObservedNodeCount() {
+		return observedNodes.size();
+	}
+
 	public void namespacesUpdated() {
 		if (paletteFactory != null) {
 			paletteFactory.updatePalette();
 		}
 	}
 
+	@Override
+	public void setFocus() {
+		super.setFocus();
+		// catch up with the changes made while another page has been shown
+		modelUpdated();
+	}
+
 	@Override
 	public void selectionChanged(IWorkbenchPart part, ISelection selection) {
 		if (this.equals(editor.getActiveEditor())) {
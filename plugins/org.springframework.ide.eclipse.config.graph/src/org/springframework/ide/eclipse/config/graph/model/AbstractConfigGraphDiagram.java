@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -14,9 +14,14 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
@@ -34,6 +39,7 @@ import org.eclipse.wst.xml.core.internal.provisional.document.IDOMDocument;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMElement;
 import org.springframework.ide.eclipse.beans.ui.editor.util.BeansEditorUtils;
 import org.springframework.ide.eclipse.config.core.contentassist.SpringConfigContentAssistProcessor;
+import org.springframework.ide.eclipse.config.core.schemas.BeansSchemaConstants;
 import org.springframework.ide.eclipse.config.core.extensions.PageAdaptersExtensionPointConstants;
 import org.springframework.ide.eclipse.config.graph.AbstractConfigGraphicalEditor;
 import org.springframework.ide.eclipse.config.graph.ConfigGraphPlugin;
@@ -80,14 +86,20 @@ public abstract class AbstractConfigGraphDiagram extends ParallelActivity {
 
 	private final AbstractConfigGraphicalEditor editor;
 
-	private final List<Activity> modelRegistry;
+	private final ActivityList modelRegistry;
 
 	private Map<String, Node> refNodeRegistry;
 
+	/**
+	 * Names of the attributes that the transitions of the registered
+	 * activities are read from; null if outdated
+	 */
+	private Set<String> transitionAttributes;
+
 	public AbstractConfigGraphDiagram(AbstractConfigGraphicalEditor editor) {
 		super();
 		this.editor = editor;
-		modelRegistry = new ArrayList<Activity>();
+		modelRegistry = new ActivityList();
 		refNodeRegistry = new HashMap<String, Node>();
 	}
 
@@ -213,8 +225,58 @@ public abstract class AbstractConfigGraphDiagram extends ParallelActivity {
 		return ""; //$NON-NLS-1$
 	}
 
+	/**
+	 * Returns the activities of the model registry whose input is the given
+	 * element, in registry order.
+	 * 
+	 * @param input an element of the DOM document
+	 * @return list of activities, empty if there are none
+	 */
+	public List<Activity> getActivitiesForInput(Node input) {
+		if (input == null) {
+			return Collections.emptyList();
+		}
+		List<Integer> positions = modelRegistry.getPositions(input);
+		if (positions == null) {
+			return Collections.emptyList();
+		}
+		List<Activity> activities = new ArrayList<Activity>(positions.size());
+		for (Integer position : positions) {
+			activities.add(modelRegistry.get(position));
+		}
+		return activities;
+	}
+
 	protected abstract IDiagramModelFactory getModelFactory();
 
+	/**
+	 * Returns the names of the attributes of activity input elements whose
+	 * change can add or remove activities or transitions, other than the
+	 * attributes transitions are read from. These are the attributes
+	 * referenceable elements are found by and those read by the model
+	 * factories. Subclasses whose model factory reads further attributes of
+	 * an input element must add them.
+	 * 
+	 * @return set of attribute names
+	 */
+	protected Set<String> getStructuralAttributes() {
+		return new HashSet<String>(Arrays.asList(BeansSchemaConstants.ATTR_ID, BeansSchemaConstants.ATTR_NAME));
+	}
+
+	private Set<String> getTransitionAttributes() {
+		if (transitionAttributes == null) {
+			Set<String> attributes = new HashSet<String>();
+			for (Activity activity : modelRegistry) {
+				attributes.addAll(activity.getPrimaryIncomingAttributes());
+				attributes.addAll(activity.getPrimaryOutgoingAttributes());
+				attributes.addAll(activity.getSecondaryIncomingAttributes());
+				attributes.addAll(activity.getSecondaryOutgoingAttributes());
+			}
+			transitionAttributes = attributes;
+		}
+		return transitionAttributes;
+	}
+
 	@Override
 	public List<Activity> getModelRegistry() {
 		return modelRegistry;
@@ -225,7 +287,7 @@ public abstract class AbstractConfigGraphDiagram extends ParallelActivity {
 	}
 
 	private List<Activity> getNestedChildrenFromXml(IDOMElement parent) {
-		List<Activity> list = new ArrayList<Activity>();
+		List<Activity> list = new ActivityList();
 		NodeList children = parent.getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
@@ -275,6 +337,48 @@ public abstract class AbstractConfigGraphDiagram extends ParallelActivity {
 		return refNodeRegistry.get(ref);
 	}
 
+	/**
+	 * Returns the activities of the model registry, other than parallel
+	 * activities, whose input is referenced by one of the given attributes of
+	 * the source activity, in registry order. These are the only possible
+	 * targets of
+	 * {@link #getTransitionsFromXml(Activity, Activity, List, List, boolean, boolean)}
+	 * for these attributes.
+	 */
+	protected List<Activity> getReferencedActivities(Activity source, List<String> primaryAttrs,
+			List<String> secondaryAttrs) {
+		if (source.getInput() == null || (primaryAttrs.isEmpty() && secondaryAttrs.isEmpty())) {
+			return Collections.emptyList();
+		}
+		Set<Integer> positions = new TreeSet<Integer>();
+		addReferencedPositions(source, primaryAttrs, positions);
+		addReferencedPositions(source, secondaryAttrs, positions);
+
+		List<Activity> activities = new ArrayList<Activity>(positions.size());
+		for (Integer position : positions) {
+			Activity activity = modelRegistry.get(position);
+			if (!(activity instanceof ParallelActivity)) {
+				activities.add(activity);
+			}
+		}
+		return activities;
+	}
+
+	private void addReferencedPositions(Activity source, List<String> attrs, Set<Integer> positions) {
+		for (String label : attrs) {
+			Attr attr = source.getInput().getAttributeNode(label);
+			if (attr instanceof IDOMAttr) {
+				Node ref = getReferencedNode(attr.getValue());
+				if (ref instanceof IDOMElement) {
+					List<Integer> refPositions = modelRegistry.getPositions(ref);
+					if (refPositions != null) {
+						positions.addAll(refPositions);
+					}
+				}
+			}
+		}
+	}
+
 	public IFile getResourceFile() {
 		return editor.getResourceFile();
 	}
@@ -317,6 +421,11 @@ public abstract class AbstractConfigGraphDiagram extends ParallelActivity {
 
 	// Move this into ConfigCoreUtils??
 	public boolean listContainsElement(List<Activity> list, Activity element) {
+		if (list instanceof ActivityList) {
+			// the lists created by the diagram and its activities index their
+			// elements and update the index on every change
+			return ((ActivityList) list).containsActivity(element);
+		}
 		for (Activity activity : list) {
 			if (activity.getClass().equals(element.getClass()) && activity.getInput() != null
 					&& activity.getInput().equals(element.getInput())) {
@@ -328,6 +437,7 @@ public abstract class AbstractConfigGraphDiagram extends ParallelActivity {
 
 	public void refreshModelFromXml() {
 		modelRegistry.clear();
+		transitionAttributes = null;
 		updateRefNodeRegistry();
 		updateChildrenFromXml();
 		updateTransitionsFromXml();
@@ -338,6 +448,33 @@ public abstract class AbstractConfigGraphDiagram extends ParallelActivity {
 		// no-op
 	}
 
+	/**
+	 * Updates the activities of the given element after one of its
+	 * attributes has changed, if the change cannot affect any other part of
+	 * the model. That is the case if the element is the input of registered
+	 * activities and the attribute is neither one of the
+	 * {@link #getStructuralAttributes() structural attributes} nor one that
+	 * transitions are read from. Only the names of these activities are
+	 * updated then.
+	 * 
+	 * @param input an element of the DOM document
+	 * @param attributeName the local name of the changed attribute
+	 * @return <code>true</code> if the activities have been updated,
+	 * <code>false</code> if the model has to be refreshed from XML instead
+	 */
+	public boolean updateActivitiesForAttribute(Node input, String attributeName) {
+		List<Activity> activities = getActivitiesForInput(input);
+		if (activities.isEmpty() || getStructuralAttributes().contains(attributeName)
+				|| getTransitionAttributes().contains(attributeName)) {
+			return false;
+		}
+		for (Activity activity : activities) {
+			activity.internalSetName();
+			activity.firePropertyChange(NAME, null, activity.getName());
+		}
+		return true;
+	}
+
 	private void updateRefNodeRegistry() {
 		refNodeRegistry = BeansEditorUtils.getReferenceableNodes(getDomDocument(), getResourceFile());
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -58,12 +58,11 @@ public abstract class Activity extends AbstractConfigGraphModelElement {
 
 	protected List<Transition> getIncomingTransitionsFromXml() {
 		List<Transition> list = new ArrayList<Transition>();
-		List<Activity> registry = getDiagram().getModelRegistry();
-		for (Activity activity : registry) {
-			if (!(activity instanceof ParallelActivity)) {
-				getDiagram().getTransitionsFromXml(this, activity, list, getPrimaryIncomingAttributes(), true, true);
-				getDiagram().getTransitionsFromXml(this, activity, list, getSecondaryIncomingAttributes(), true, false);
-			}
+		List<String> primaryAttrs = getPrimaryIncomingAttributes();
+		List<String> secondaryAttrs = getSecondaryIncomingAttributes();
+		for (Activity activity : getDiagram().getReferencedActivities(this, primaryAttrs, secondaryAttrs)) {
+			getDiagram().getTransitionsFromXml(this, activity, list, primaryAttrs, true, true);
+			getDiagram().getTransitionsFromXml(this, activity, list, secondaryAttrs, true, false);
 		}
 		return list;
 	}
@@ -74,13 +73,11 @@ public abstract class Activity extends AbstractConfigGraphModelElement {
 
 	protected List<Transition> getOutgoingTransitionsFromXml() {
 		List<Transition> list = new ArrayList<Transition>();
-		List<Activity> registry = getDiagram().getModelRegistry();
-		for (Activity activity : registry) {
-			if (!(activity instanceof ParallelActivity)) {
-				getDiagram().getTransitionsFromXml(this, activity, list, getPrimaryOutgoingAttributes(), false, true);
-				getDiagram()
-						.getTransitionsFromXml(this, activity, list, getSecondaryOutgoingAttributes(), false, false);
-			}
+		List<String> primaryAttrs = getPrimaryOutgoingAttributes();
+		List<String> secondaryAttrs = getSecondaryOutgoingAttributes();
+		for (Activity activity : getDiagram().getReferencedActivities(this, primaryAttrs, secondaryAttrs)) {
+			getDiagram().getTransitionsFromXml(this, activity, list, primaryAttrs, false, true);
+			getDiagram().getTransitionsFromXml(this, activity, list, secondaryAttrs, false, false);
 		}
 		return list;
 	}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Pivotal Software, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Pivotal Software, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.config.graph.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMElement;
+import org.w3c.dom.Node;
+
+/**
+ * List of activities that indexes its elements by their input element.
+ * <p>
+ * All changes of the list go through {@link #add(int, Activity)},
+ * {@link #set(int, Activity)}, {@link #remove(int)} and
+ * {@link #removeRange(int, int)}. Appending an activity extends the index, any
+ * other change drops it, and it is rebuilt on the next lookup.
+ *
+ * @since 3.9.22
+ */
+@SuppressWarnings("restriction")
+class ActivityList extends AbstractList<Activity> implements RandomAccess {
+
+	private final List<Activity> activities = new ArrayList<Activity>();
+
+	/** Positions of the activities by their input element; null if outdated */
+	private Map<Node, List<Integer>> positionsByInput;
+
+	@Override
+	public Activity get(int index) {
+		return activities.get(index);
+	}
+
+	@Override
+	public int size() {
+		return activities.size();
+	}
+
+	@Override
+	public void add(int index, Activity activity) {
+		activities.add(index, activity);
+		modCount++;
+		if (positionsByInput != null && index == activities.size() - 1) {
+			addPosition(activity, index);
+		}
+		else {
+			positionsByInput = null;
+		}
+	}
+
+	@Override
+	public Activity set(int index, Activity activity) {
+		Activity previous = activities.set(index, activity);
+		positionsByInput = null;
+		return previous;
+	}
+
+	@Override
+	public Activity remove(int index) {
+		Activity removed = activities.remove(index);
+		modCount++;
+		positionsByInput = null;
+		return removed;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		activities.subList(fromIndex, toIndex).clear();
+		modCount++;
+		positionsByInput = null;
+	}
+
+	/**
+	 * Returns whether the list contains an activity of the same class and
+	 * with the same input as the given one.
+	 */
+	public boolean containsActivity(Activity activity) {
+		List<Integer> positions = getPositions(activity.getInput());
+		if (positions != null) {
+			for (Integer position : positions) {
+				if (activities.get(position).getClass().equals(activity.getClass())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the positions of the activities with the given input in
+	 * ascending order, or <code>null</code> if there are none.
+	 */
+	public List<Integer> getPositions(Node input) {
+		if (input == null) {
+			return null;
+		}
+		if (positionsByInput == null) {
+			positionsByInput = new IdentityHashMap<Node, List<Integer>>();
+			for (int i = 0; i < activities.size(); i++) {
+				addPosition(activities.get(i), i);
+			}
+		}
+		return positionsByInput.get(input);
+	}
+
+	private void addPosition(Activity activity, int position) {
+		IDOMElement input = activity.getInput();
+		if (input != null) {
+			List<Integer> positions = positionsByInput.get(input);
+			if (positions == null) {
+				positions = new ArrayList<Integer>(1);
+				positionsByInput.put(input, positions);
+			}
+			positions.add(position);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -11,7 +11,9 @@
 package org.springframework.ide.eclipse.config.graph.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -106,7 +108,7 @@ public abstract class StructuredActivity extends Activity {
 
 	protected List<Activity> getChildrenFromXml() {
 		String defaultUri = getDiagram().getNamespaceUri();
-		List<Activity> list = new ArrayList<Activity>();
+		List<Activity> list = new ActivityList();
 		NodeList children = getInput().getChildNodes();
 		for (int i = 0; i < children.getLength(); i++) {
 			Node child = children.item(i);
@@ -152,17 +154,15 @@ public abstract class StructuredActivity extends Activity {
 
 	protected void updateChildrenFromXml() {
 		List<Activity> list = getChildrenFromXml();
-		List<Activity> workingCopy = new ArrayList<Activity>();
-		workingCopy.addAll(list);
+		// keep the existing model element of every child that is still there
+		Map<Activity, Activity> existingChildren = new HashMap<Activity, Activity>();
+		for (Activity child : children) {
+			existingChildren.put(child, child);
+		}
+		List<Activity> workingCopy = new ArrayList<Activity>(list.size());
 		for (Activity activity : list) {
-			for (int i = 0; i < children.size(); i++) {
-				Activity child = children.get(i);
-				if (activity.equals(child)) {
-					int index = list.indexOf(activity);
-					workingCopy.remove(activity);
-					workingCopy.add(index, child);
-				}
-			}
+			Activity child = existingChildren.get(activity);
+			workingCopy.add(child != null ? child : activity);
 		}
 		children = workingCopy;
 		getModelRegistry().addAll(children);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -10,17 +10,22 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.config.tests.graph;
 
+import org.eclipse.wst.xml.core.internal.provisional.document.IDOMElement;
 import org.springframework.ide.eclipse.config.core.schemas.BatchSchemaConstants;
 import org.springframework.ide.eclipse.config.core.schemas.BeansSchemaConstants;
 import org.springframework.ide.eclipse.config.core.schemas.IntegrationSchemaConstants;
 import org.springframework.ide.eclipse.config.core.schemas.UtilSchemaConstants;
 import org.springframework.ide.eclipse.config.graph.AbstractConfigGraphicalEditor;
+import org.springframework.ide.eclipse.config.graph.model.AbstractConfigGraphDiagram;
 import org.springframework.ide.eclipse.config.tests.AbstractConfigTestCase;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 /**
  * @author Leo Dos Santos
  * @author Tomasz Zarna
  */
+@SuppressWarnings("restriction")
 public class AbstractConfigGraphicalEditorTest extends AbstractConfigTestCase {
 
 	public void testBatchFile() throws Exception {
@@ -88,4 +93,73 @@ public class AbstractConfigGraphicalEditorTest extends AbstractConfigTestCase {
 		assertNull(util);
 	}
 
+	public void testAttributeChangeUpdatesActivitiesOfElement() throws Exception {
+		enableGefPages(true);
+		cEditor = openFileInEditor("src/integration-config.xml");
+		assertNotNull("Could not open a configuration editor.", cEditor);
+
+		AbstractConfigGraphicalEditor integration = cEditor.getGraphicalEditorForUri(IntegrationSchemaConstants.URI);
+		AbstractConfigGraphDiagram diagram = integration.getDiagram();
+		IDOMElement channel = getElementById(integration, "stdinToJmsoutChannel");
+		assertFalse(diagram.getActivitiesForInput(channel).isEmpty());
+
+		// only the channel itself is affected
+		channel.setAttribute(IntegrationSchemaConstants.ATTR_DATATYPE, "java.lang.String");
+		assertTrue(diagram.updateActivitiesForAttribute(channel, IntegrationSchemaConstants.ATTR_DATATYPE));
+
+		// other activities refer to the channel by its id
+		assertFalse(diagram.updateActivitiesForAttribute(channel, IntegrationSchemaConstants.ATTR_ID));
+
+		// the channel attributes of the gateway decide about its transitions
+		IDOMElement gateway = (IDOMElement) getElementByAttribute(integration,
+				IntegrationSchemaConstants.ATTR_REQUEST_CHANNEL);
+		assertFalse(diagram.updateActivitiesForAttribute(gateway, IntegrationSchemaConstants.ATTR_REQUEST_CHANNEL));
+		assertFalse(diagram.updateActivitiesForAttribute(gateway, IntegrationSchemaConstants.ATTR_REPLY_CHANNEL));
+
+		// the root element is not the input of an activity
+		Element root = integration.getDomDocument().getDocumentElement();
+		assertFalse(diagram.updateActivitiesForAttribute(root, "default-lazy-init"));
+	}
+
+	public void testRemovedElementsAreNoLongerObserved() throws Exception {
+		enableGefPages(true);
+		cEditor = openFileInEditor("src/integration-config.xml");
+		assertNotNull("Could not open a configuration editor.", cEditor);
+
+		AbstractConfigGraphicalEditor integration = cEditor.getGraphicalEditorForUri(IntegrationSchemaConstants.URI);
+		int observed = integration.getObservedNodeCount();
+		assertTrue(observed > 0);
+
+		IDOMElement channel = getElementById(integration, "stdinToJmsoutChannel");
+		Node parent = channel.getParentNode();
+		Node next = channel.getNextSibling();
+		parent.removeChild(channel);
+		assertEquals(observed - 1, integration.getObservedNodeCount());
+
+		parent.insertBefore(channel, next);
+		assertEquals(observed, integration.getObservedNodeCount());
+	}
+
+	private IDOMElement getElementById(AbstractConfigGraphicalEditor editor, String id) {
+		for (Node child = editor.getDomDocument().getDocumentElement().getFirstChild(); child != null; child = child
+				.getNextSibling()) {
+			if (child instanceof IDOMElement && id.equals(((IDOMElement) child).getAttribute("id"))) {
+				return (IDOMElement) child;
+			}
+		}
+		fail("No element with id " + id);
+		return null;
+	}
+
+	private Element getElementByAttribute(AbstractConfigGraphicalEditor editor, String attribute) {
+		for (Node child = editor.getDomDocument().getDocumentElement().getFirstChild(); child != null; child = child
+				.getNextSibling()) {
+			if (child instanceof Element && ((Element) child).hasAttribute(attribute)) {
+				return (Element) child;
+			}
+		}
+		fail("No element with attribute " + attribute);
+		return null;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -60,7 +60,6 @@ public abstract class AbstractChannelModelElement extends Activity {
 	@Override
 	protected List<Transition> getOutgoingTransitionsFromXml() {
 		List<Transition> list = super.getOutgoingTransitionsFromXml();
-		List<Activity> registry = getDiagram().getModelRegistry();
 		NodeList interceptors = getInput().getChildNodes();
 		for (int i = 0; i < interceptors.getLength(); i++) {
 			Node iNode = interceptors.item(i);
@@ -77,9 +76,8 @@ public abstract class AbstractChannelModelElement extends Activity {
 						if (channel != null && channel.trim().length() > 0) {
 							Node channelRef = getDiagram().getReferencedNode(channel);
 							if (channelRef != null) {
-								for (Activity activity : registry) {
-									if (!(activity instanceof ParallelActivity)
-											&& activity.getInput().equals(channelRef)) {
+								for (Activity activity : getDiagram().getActivitiesForInput(channelRef)) {
+									if (!(activity instanceof ParallelActivity)) {
 										Transition trans = new AlternateTransition(this, activity, wiretap);
 										list.add(trans);
 									}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -11,9 +11,11 @@
 package org.springframework.ide.eclipse.config.ui.editors.integration.graph.model;
 
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMAttr;
 import org.eclipse.wst.xml.core.internal.provisional.document.IDOMElement;
+import org.springframework.ide.eclipse.config.core.schemas.IntegrationSchemaConstants;
 import org.springframework.ide.eclipse.config.graph.AbstractConfigGraphicalEditor;
 import org.springframework.ide.eclipse.config.graph.model.AbstractConfigGraphDiagram;
 import org.springframework.ide.eclipse.config.graph.model.Activity;
@@ -40,6 +42,16 @@ public class IntegrationDiagram extends AbstractConfigGraphDiagram {
 		return new IntegrationModelFactory();
 	}
 
+	@Override
+	protected Set<String> getStructuralAttributes() {
+		// read by AbstractIntegrationModelFactory to create implicit channels
+		Set<String> attributes = super.getStructuralAttributes();
+		attributes.add(IntegrationSchemaConstants.ATTR_INPUT_CHANNEL);
+		attributes.add(IntegrationSchemaConstants.ATTR_REQUEST_CHANNEL);
+		attributes.add(IntegrationSchemaConstants.ATTR_OUTPUT_CHANNEL);
+		return attributes;
+	}
+
 	public String getNewChannelId() {
 		return Integer.toString(++channelCount);
 	}
@@ -80,15 +92,15 @@ public class IntegrationDiagram extends AbstractConfigGraphDiagram {
 
 	@Override
 	public boolean listContainsElement(List<Activity> list, Activity element) {
-		for (Activity activity : list) {
-			if (element instanceof ImplicitChannelModelElement) {
-				if (activity instanceof ImplicitChannelModelElement && element.getName() != null
-						&& activity.getName() != null && (element.getName().equals(activity.getName()))) {
-					return true;
+		if (element instanceof ImplicitChannelModelElement || element instanceof PlaceholderModelElement) {
+			for (Activity activity : list) {
+				if (element instanceof ImplicitChannelModelElement) {
+					if (activity instanceof ImplicitChannelModelElement && element.getName() != null
+							&& activity.getName() != null && (element.getName().equals(activity.getName()))) {
+						return true;
+					}
 				}
-			}
-			else if (element instanceof PlaceholderModelElement) {
-				if (element.getInput().equals(activity.getInput())) {
+				else if (element.getInput().equals(activity.getInput())) {
 					return true;
 				}
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -55,7 +55,6 @@ public class RecipientListRouterModelElement extends Activity {
 	@Override
 	protected List<Transition> getOutgoingTransitionsFromXml() {
 		List<Transition> list = super.getOutgoingTransitionsFromXml();
-		List<Activity> registry = getDiagram().getModelRegistry();
 		NodeList mappings = getInput().getChildNodes();
 		for (int i = 0; i < mappings.getLength(); i++) {
 			Node node = mappings.item(i);
@@ -65,8 +64,8 @@ public class RecipientListRouterModelElement extends Activity {
 				if (channel != null && channel.trim().length() > 0) {
 					Node channelRef = getDiagram().getReferencedNode(channel);
 					if (channelRef instanceof IDOMElement) {
-						for (Activity activity : registry) {
-							if (!(activity instanceof ParallelActivity) && activity.getInput().equals(channelRef)) {
+						for (Activity activity : getDiagram().getActivitiesForInput(channelRef)) {
+							if (!(activity instanceof ParallelActivity)) {
 								Transition trans = new AlternateTransition(this, activity, recipient);
 								list.add(trans);
 							}
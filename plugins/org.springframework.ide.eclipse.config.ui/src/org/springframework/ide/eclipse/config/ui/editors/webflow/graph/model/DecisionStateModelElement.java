@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -44,7 +44,6 @@ public class DecisionStateModelElement extends AbstractStateModelElement {
 	@Override
 	protected List<Transition> getOutgoingTransitionsFromXml() {
 		List<Transition> list = super.getOutgoingTransitionsFromXml();
-		List<Activity> registry = getDiagram().getModelRegistry();
 		NodeList transitions = getInput().getChildNodes();
 		for (int i = 0; i < transitions.getLength(); i++) {
 			Node node = transitions.item(i);
@@ -54,8 +53,8 @@ public class DecisionStateModelElement extends AbstractStateModelElement {
 				if (state != null && state.trim().length() > 0) {
 					Node stateRef = getDiagram().getReferencedNode(state);
 					if (stateRef instanceof IDOMElement) {
-						for (Activity activity : registry) {
-							if (!(activity instanceof ParallelActivity) && activity.getInput().equals(stateRef)) {
+						for (Activity activity : getDiagram().getActivitiesForInput(stateRef)) {
+							if (!(activity instanceof ParallelActivity)) {
 								Transition trans = new IfThenTransition(this, activity, transition);
 								list.add(trans);
 							}
@@ -66,8 +65,8 @@ public class DecisionStateModelElement extends AbstractStateModelElement {
 				if (state != null && state.trim().length() > 0) {
 					Node stateRef = getDiagram().getReferencedNode(state);
 					if (stateRef instanceof IDOMElement) {
-						for (Activity activity : registry) {
-							if (!(activity instanceof ParallelActivity) && activity.getInput().equals(stateRef)) {
+						for (Activity activity : getDiagram().getActivitiesForInput(stateRef)) {
+							if (!(activity instanceof ParallelActivity)) {
 								Transition trans = new IfElseTransition(this, activity, transition);
 								list.add(trans);
 							}
@@ -36,6 +36,8 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 
 	private static final String DESCRIPTION_ATTRIBUTE = "description";
 
+	private static final String FILE_EXTENSIONS_ATTRIBUTE = "fileExtensions";
+
 	private static final String ENABLED_BY_DEFAULT_ATTRIBUTE = "enabledByDefault";
 
 	private static final String ENABLEMENT_PREFIX = "validator.enable.";
@@ -50,6 +52,10 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 
 	private static final String ORDER_ATTRIBUTE = "order";
 
+	private static final String READS_ATTRIBUTE = "reads";
+
+	private static final String WRITES_ATTRIBUTE = "writes";
+
 	private String description;
 
 	private String iconUri;
@@ -66,6 +72,12 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 
 	private IValidator validator;
 
+	private Set<String> reads;
+
+	private Set<String> writes;
+
+	private Set<String> fileExtensions;
+
 	public ValidatorDefinition(IConfigurationElement element)
 			throws CoreException {
 		init(element);
@@ -121,6 +133,31 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 		return namespaceUri;
 	}
 
+	/**
+	 * Returns the keys of the state the validator reads or <code>null</code> if nothing has been declared.
+	 * @since 3.9.22
+	 */
+	public Set<String> getReads() {
+		return reads;
+	}
+
+	/**
+	 * Returns the keys of the state the validator modifies or <code>null</code> if nothing has been declared.
+	 * @since 3.9.22
+	 */
+	public Set<String> getWrites() {
+		return writes;
+	}
+
+	/**
+	 * Returns the extensions of the files the validator is interested in or <code>null</code> if it wants to see all
+	 * files.
+	 * @since 3.9.22
+	 */
+	public Set<String> getFileExtensions() {
+		return fileExtensions;
+	}
+
 	@Override
 	protected String getPreferenceId() {
 		return ENABLEMENT_PREFIX + id;
@@ -148,6 +185,18 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 		else {
 			order = Integer.MAX_VALUE;
 		}
+		String readsString = element.getAttribute(READS_ATTRIBUTE);
+		if (readsString != null) {
+			reads = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(readsString));
+		}
+		String writesString = element.getAttribute(WRITES_ATTRIBUTE);
+		if (writesString != null) {
+			writes = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(writesString));
+		}
+		String fileExtensionsString = element.getAttribute(FILE_EXTENSIONS_ATTRIBUTE);
+		if (fileExtensionsString != null) {
+			fileExtensions = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(fileExtensionsString));
+		}
 		markerId = element.getContributor().getName() + "."
 				+ element.getAttribute(MARKER_ID_ATTRIBUTE);
 		namespaceUri = element.getDeclaringExtension().getNamespaceIdentifier();
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.internal.project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Dependency-aware scheduler that runs project builders and validators of a single build concurrently on a
+ * bounded thread pool.
+ * <p>
+ * Every {@link Contribution} declares the keys of the state it reads and writes. Two contributions conflict if
+ * one of them writes a key the other one reads or writes; conflicting contributions are executed in the order
+ * they were given, all others may run in parallel. Contributions that don't declare anything conflict with
+ * every other contribution and are executed on the build thread, which keeps the previous sequential behaviour
+ * for contributors that are not prepared for concurrent execution.
+ * <p>
+ * Contributions running on a worker thread must not modify the workspace directly, as the build thread holds
+ * the workspace lock while waiting for them. Workspace operations (like creating problem markers) and listener
+ * callbacks are therefore passed to {@link #runOnBuildThread(IWorkspaceRunnable, IProgressMonitor)}, which
+ * hands them over to the build thread and waits for their completion.
+ *
+ * @since 3.9.22
+ */
+public class ProjectContributorScheduler {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.core.project.parallelContributors";
+
+	private static final String THREAD_NAME_TEMPLATE = "Spring Project Contributor Worker (%s)";
+
+	private static final int POOL_SIZE = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	private static final AtomicInteger threadCount = new AtomicInteger(0);
+
+	private static final ExecutorService EXECUTOR = createExecutor();
+
+	/** The scheduler the current worker thread is executing a contribution for */
+	private static final ThreadLocal<ProjectContributorScheduler> CURRENT = new ThreadLocal<ProjectContributorScheduler>();
+
+	/** Operations that need to be executed on the build thread; also used to signal finished contributions */
+	private final BlockingQueue<Runnable> buildThreadOperations = new LinkedBlockingQueue<Runnable>();
+
+	/**
+	 * A single builder or validator run.
+	 */
+	public static abstract class Contribution {
+
+		private final String id;
+
+		private final Set<String> reads;
+
+		private final Set<String> writes;
+
+		public Contribution(String id, Set<String> reads, Set<String> writes) {
+			this.id = id;
+			this.reads = reads;
+			this.writes = writes;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Returns <code>true</code> if this contribution declared the state it accesses.
+		 */
+		public boolean isDeclared() {
+			return reads != null || writes != null;
+		}
+
+		public boolean conflictsWith(Contribution other) {
+			if (!isDeclared() || !other.isDeclared()) {
+				return true;
+			}
+			return intersects(writes, other.reads) || intersects(writes, other.writes) || intersects(reads, other.writes);
+		}
+
+		public abstract void run(IProgressMonitor monitor);
+
+		private static boolean intersects(Set<String> first, Set<String> second) {
+			if (first == null || second == null) {
+				return false;
+			}
+			return !Collections.disjoint(first, second);
+		}
+
+		@Override
+		public String toString() {
+			return id;
+		}
+	}
+
+	/**
+	 * Runs all given contributions and returns when all of them are finished. Must be called from the build thread.
+	 */
+	public void run(List<? extends Contribution> contributions, IProgressMonitor monitor) {
+		int count = contributions.size();
+
+		// predecessors[j] counts the earlier contributions j has to wait for
+		final int[] predecessors = new int[count];
+		final List<List<Integer>> successors = new ArrayList<List<Integer>>(count);
+		for (int j = 0; j < count; j++) {
+			successors.add(new ArrayList<Integer>());
+			for (int i = 0; i < j; i++) {
+				if (contributions.get(i).conflictsWith(contributions.get(j))) {
+					successors.get(i).add(j);
+					predecessors[j]++;
+				}
+			}
+		}
+
+		final SynchronizedProgressMonitor workerMonitor = new SynchronizedProgressMonitor(monitor);
+		final boolean[] started = new boolean[count];
+		final int[] finished = new int[1];
+		int running = 0;
+		boolean interrupted = false;
+
+		while (finished[0] < count) {
+			// start everything that is ready to go
+			boolean ranInline = false;
+			for (int j = 0; j < count; j++) {
+				if (started[j] || predecessors[j] > 0) {
+					continue;
+				}
+				if (interrupted || monitor.isCanceled()) {
+					// don't start any new contributions, just mark them as done
+					started[j] = true;
+					finished[0]++;
+					for (int successor : successors.get(j)) {
+						predecessors[successor]--;
+					}
+					continue;
+				}
+
+				final Contribution contribution = contributions.get(j);
+				final int index = j;
+				if (!contribution.isDeclared()) {
+					// undeclared contributions conflict with everything, so nothing else is running right now
+					started[j] = true;
+					contribution.run(monitor);
+					finished[0]++;
+					for (int successor : successors.get(j)) {
+						predecessors[successor]--;
+					}
+					ranInline = true;
+					break;
+				}
+
+				started[j] = true;
+				running++;
+				EXECUTOR.execute(new Runnable() {
+					public void run() {
+						CURRENT.set(ProjectContributorScheduler.this);
+						try {
+							contribution.run(workerMonitor);
+						}
+						catch (Throwable e) {
+							SpringCore.log(e);
+						}
+						finally {
+							CURRENT.remove();
+							buildThreadOperations.add(new Runnable() {
+								public void run() {
+									finished[0]++;
+									for (int successor : successors.get(index)) {
+										predecessors[successor]--;
+									}
+								}
+							});
+						}
+					}
+				});
+			}
+
+			if (ranInline) {
+				continue;
+			}
+
+			// execute workspace operations of the workers until at least one of them finished
+			if (running > 0 || !buildThreadOperations.isEmpty()) {
+				int finishedBefore = finished[0];
+				while (finished[0] == finishedBefore) {
+					try {
+						buildThreadOperations.take().run();
+					}
+					catch (InterruptedException e) {
+						// ask the running contributions to stop; they are still waited for, as they might need the
+						// build thread to finish their workspace operations
+						interrupted = true;
+						workerMonitor.cancelWorkers();
+					}
+				}
+				running -= finished[0] - finishedBefore;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Executes the given operation on the build thread if the current thread is a worker thread of a
+	 * {@link ProjectContributorScheduler}, waiting for it to complete. Otherwise the operation is executed
+	 * directly.
+	 */
+	public static void runOnBuildThread(final IWorkspaceRunnable operation, final IProgressMonitor monitor)
+			throws CoreException {
+		ProjectContributorScheduler scheduler = CURRENT.get();
+		if (scheduler == null) {
+			operation.run(monitor);
+			return;
+		}
+
+		FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+			public void run() {
+				try {
+					operation.run(monitor);
+				}
+				catch (CoreException e) {
+					throw new WrappedCoreException(e);
+				}
+			}
+		}, null);
+		scheduler.buildThreadOperations.add(task);
+
+		try {
+			task.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof WrappedCoreException) {
+				throw ((WrappedCoreException) cause).getCoreException();
+			}
+			else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+		}
+	}
+
+	private static ExecutorService createExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, String.format(THREAD_NAME_TEMPLATE, threadCount.incrementAndGet()));
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static class WrappedCoreException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public WrappedCoreException(CoreException cause) {
+			super(cause);
+		}
+
+		public CoreException getCoreException() {
+			return (CoreException) getCause();
+		}
+	}
+
+	/**
+	 * Serializes progress reporting of the worker threads against the build monitor. The workers can be canceled
+	 * without canceling the build monitor.
+	 */
+	private static class SynchronizedProgressMonitor extends ProgressMonitorWrapper {
+
+		private volatile boolean workersCanceled = false;
+
+		public SynchronizedProgressMonitor(IProgressMonitor monitor) {
+			super(monitor);
+		}
+
+		public void cancelWorkers() {
+			workersCanceled = true;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return workersCanceled || super.isCanceled();
+		}
+
+		@Override
+		public synchronized void beginTask(String name, int totalWork) {
+			super.beginTask(name, totalWork);
+		}
+
+		@Override
+		public synchronized void done() {
+			super.done();
+		}
+
+		@Override
+		public synchronized void internalWorked(double work) {
+			super.internalWorked(work);
+		}
+
+		@Override
+		public synchronized void setTaskName(String name) {
+			super.setTaskName(name);
+		}
+
+		@Override
+		public synchronized void subTask(String name) {
+			super.subTask(name);
+		}
+
+		@Override
+		public synchronized void worked(int work) {
+			super.worked(work);
+		}
+	}
+
+}
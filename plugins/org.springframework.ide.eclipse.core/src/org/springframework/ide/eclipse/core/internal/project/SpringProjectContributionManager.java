@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.internal.project;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -23,15 +26,18 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.SpringCoreUtils;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinition;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinitionFactory;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
 import org.springframework.ide.eclipse.core.model.validation.IValidator;
 import org.springframework.ide.eclipse.core.project.DefaultProjectContributorState;
 import org.springframework.ide.eclipse.core.project.IProjectBuilder;
@@ -55,6 +61,9 @@ import org.springframework.ide.eclipse.core.project.ProjectContributionEventList
  * <p>
  * {@link IProjectBuilder} or {@link IValidator} implementations that want to access the state should implement the
  * {@link IProjectContributorStateAware} interface to a call back with the current state.
+ * <p>
+ * Builders and validators that declare the state they read and write via their extension are run concurrently by
+ * the {@link ProjectContributorScheduler}; all others are run one after the other on the build thread.
  * 
  * @author Torsten Juergeleit
  * @author Christian Dupuis
@@ -68,6 +77,10 @@ import org.springframework.ide.eclipse.core.project.ProjectContributionEventList
  */
 public class SpringProjectContributionManager extends IncrementalProjectBuilder {
 	
+	public static final String DEBUG_OPTION = SpringCore.PLUGIN_ID + "/project/builder/debug";
+
+	public static boolean DEBUG = SpringCore.isDebug(DEBUG_OPTION);
+
 	private static Object dummyMapObject = new Object();
 	private static Map<String, Object> classpathChanged = new ConcurrentHashMap<String, Object>();
 	
@@ -98,6 +111,9 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 		final List<IProjectContributionEventListener> listeners = ProjectContributionEventListenerFactory
 				.getProjectContributionEventListeners();
 
+		// Classes compiled earlier in this build are not yet visible to reused class loaders
+		ProjectClassLoaderCache.resetFolderClassLoaders(project);
+
 		// Set up the state object
 		final IProjectContributorState state = prepareState(project, builderDefinitions, validatorDefinitions);
 		
@@ -105,6 +121,8 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 		Object removed = classpathChanged.remove(project.getName());
 		final int buildKind = removed != null ? IncrementalProjectBuilder.FULL_BUILD : kind;
 		
+		long start = System.currentTimeMillis();
+
 		// Fire start event on listeners
 		for (final IProjectContributionEventListener listener : listeners) {
 			execute(new SafeExecutableWithMonitor() {
@@ -114,23 +132,57 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 			}, monitor);
 
 		}
+		long listenersStarted = System.currentTimeMillis();
 
-		// At first run all builders
+		// Collect the affected resources of all enabled contributors within a single traversal
+		Map<IProjectContributor, Set<String>> contributors = new LinkedHashMap<IProjectContributor, Set<String>>();
 		for (ProjectBuilderDefinition builderDefinition : builderDefinitions) {
 			if (builderDefinition.isEnabled(project)) {
-				Set<IResource> affectedResources = getAffectedResources(builderDefinition.getProjectBuilder(), project,
-						buildKind, delta);
-				runBuilder(builderDefinition, affectedResources, buildKind, monitor, listeners);
+				contributors.put(builderDefinition.getProjectBuilder(), builderDefinition.getFileExtensions());
+			}
+		}
+		for (ValidatorDefinition validatorDefinition : validatorDefinitions) {
+			if (validatorDefinition.isEnabled(project)) {
+				contributors.put(validatorDefinition.getValidator(), validatorDefinition.getFileExtensions());
+			}
+		}
+		final Map<IProjectContributor, Set<IResource>> affectedResources = getAffectedResources(contributors, project,
+				buildKind, delta);
+		long resourcesCollected = System.currentTimeMillis();
+
+		boolean parallel = Boolean.valueOf(System.getProperty(ProjectContributorScheduler.ENABLE_PROPERTY, "true"));
+
+		// At first run all builders
+		List<ProjectContributorScheduler.Contribution> builders = new ArrayList<ProjectContributorScheduler.Contribution>();
+		for (final ProjectBuilderDefinition builderDefinition : builderDefinitions) {
+			if (builderDefinition.isEnabled(project)) {
+				builders.add(new ProjectContributorScheduler.Contribution(builderDefinition.getId(),
+						parallel ? builderDefinition.getReads() : null, parallel ? builderDefinition.getWrites() : null) {
+					public void run(IProgressMonitor contributionMonitor) {
+						runBuilder(builderDefinition, affectedResources.get(builderDefinition.getProjectBuilder()),
+								buildKind, contributionMonitor, listeners);
+					}
+				});
 			}
 		}
+		new ProjectContributorScheduler().run(builders, monitor);
+		long buildersFinished = System.currentTimeMillis();
 
 		// Finally run all validators
-		for (ValidatorDefinition validatorDefinition : validatorDefinitions) {
+		List<ProjectContributorScheduler.Contribution> validators = new ArrayList<ProjectContributorScheduler.Contribution>();
+		for (final ValidatorDefinition validatorDefinition : validatorDefinitions) {
 			if (validatorDefinition.isEnabled(project)) {
-				Set<IResource> affectedResources = getAffectedResources(validatorDefinition.getValidator(), project, buildKind, delta);
-				runValidator(validatorDefinition, affectedResources, buildKind, monitor, listeners);
+				validators.add(new ProjectContributorScheduler.Contribution(validatorDefinition.getID(),
+						parallel ? validatorDefinition.getReads() : null, parallel ? validatorDefinition.getWrites() : null) {
+					public void run(IProgressMonitor contributionMonitor) {
+						runValidator(validatorDefinition, affectedResources.get(validatorDefinition.getValidator()),
+								buildKind, contributionMonitor, listeners);
+					}
+				});
 			}
 		}
+		new ProjectContributorScheduler().run(validators, monitor);
+		long validatorsFinished = System.currentTimeMillis();
 
 		// Fire end event on listeners
 		for (final IProjectContributionEventListener listener : listeners) {
@@ -141,26 +193,37 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 			}, monitor);
 		}
 
+		if (DEBUG) {
+			long end = System.currentTimeMillis();
+			System.out.println(String.format(
+					"%s build of '%s' took %sms (listeners start: %sms, affected resources of %s contributors: %sms, builders: %sms, validators: %sms, listeners finish: %sms)",
+					buildKind == IncrementalProjectBuilder.FULL_BUILD ? "full" : "incremental", project.getName(),
+					end - start, listenersStarted - start, contributors.size(), resourcesCollected - listenersStarted,
+					buildersFinished - resourcesCollected, validatorsFinished - buildersFinished, end - validatorsFinished));
+		}
+
 		return null;
 	}
 
 	/**
-	 * Collects all affected resources from the given {@link IResourceDelta} and {@link IProjectContributor}.
+	 * Collects the affected resources of all given {@link IProjectContributor}s from the given {@link IResourceDelta}
+	 * or, on full builds, the project's resource tree. The resources are traversed only once and every resource is
+	 * handed to all contributors whose file extension filter (if any) matches.
+	 * @param contributors the contributors mapped to the file extensions they are interested in or <code>null</code>
 	 */
-	private Set<IResource> getAffectedResources(IProjectContributor contributor, IProject project, int kind,
-			IResourceDelta delta) throws CoreException {
-		Set<IResource> affectedResources;
+	private Map<IProjectContributor, Set<IResource>> getAffectedResources(
+			Map<IProjectContributor, Set<String>> contributors, IProject project, int kind, IResourceDelta delta)
+			throws CoreException {
 		if (delta == null || kind == IncrementalProjectBuilder.FULL_BUILD) {
-			ResourceTreeVisitor visitor = new ResourceTreeVisitor(contributor);
+			MultiContributorResourceTreeVisitor visitor = new MultiContributorResourceTreeVisitor(contributors);
 			project.accept(visitor);
-			affectedResources = visitor.getResources();
+			return visitor.getAffectedResources();
 		}
 		else {
-			ResourceDeltaVisitor visitor = new ResourceDeltaVisitor(contributor, kind);
+			MultiContributorResourceDeltaVisitor visitor = new MultiContributorResourceDeltaVisitor(contributors, kind);
 			delta.accept(visitor);
-			affectedResources = visitor.getResources();
+			return visitor.getAffectedResources();
 		}
-		return affectedResources;
 	}
 
 	/**
@@ -196,14 +259,15 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 	}
 
 	/**
-	 * Runs all given {@link IProjectBuilder} in the order as they are given in the set.
+	 * Runs the given {@link IProjectBuilder}. Listeners are notified on the build thread, even if the builder itself
+	 * runs on a worker thread of the {@link ProjectContributorScheduler}.
 	 */
 	private void runBuilder(final ProjectBuilderDefinition builderDefinition, final Set<IResource> affectedResources,
 			final int kind, IProgressMonitor monitor, final List<IProjectContributionEventListener> listeners) {
 		
 		for (final IProjectContributionEventListener listener : listeners) {
 
-			execute(new SafeExecutableWithMonitor() {
+			executeOnBuildThread(new SafeExecutableWithMonitor() {
 
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
@@ -223,7 +287,7 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 
 		for (final IProjectContributionEventListener listener : listeners) {
 			
-			execute(new SafeExecutableWithMonitor() {
+			executeOnBuildThread(new SafeExecutableWithMonitor() {
 				
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
@@ -236,14 +300,15 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 	}
 
 	/**
-	 * Runs all given {@link IValidator} in the order as they are given in the set.
+	 * Runs the given {@link IValidator}. Listeners are notified on the build thread, even if the validator itself
+	 * runs on a worker thread of the {@link ProjectContributorScheduler}.
 	 */
 	private void runValidator(final ValidatorDefinition validatorDefinition, final Set<IResource> affectedResources,
 			final int kind, IProgressMonitor monitor, List<IProjectContributionEventListener> listeners) {
 
 		for (final IProjectContributionEventListener listener : listeners) {
 
-			execute(new SafeExecutableWithMonitor() {
+			executeOnBuildThread(new SafeExecutableWithMonitor() {
 
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
@@ -263,7 +328,7 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 
 		for (final IProjectContributionEventListener listener : listeners) {
 			
-			execute(new SafeExecutableWithMonitor() {
+			executeOnBuildThread(new SafeExecutableWithMonitor() {
 				
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
@@ -296,6 +361,23 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 		subMonitor.done();
 	}
 
+	/**
+	 * Executes the given {@link SafeExecutableWithMonitor} on the build thread.
+	 * @see ProjectContributorScheduler#runOnBuildThread(IWorkspaceRunnable, IProgressMonitor)
+	 */
+	protected void executeOnBuildThread(final SafeExecutableWithMonitor executable, final IProgressMonitor monitor) {
+		try {
+			ProjectContributorScheduler.runOnBuildThread(new IWorkspaceRunnable() {
+				public void run(IProgressMonitor runnableMonitor) throws CoreException {
+					execute(executable, monitor);
+				}
+			}, monitor);
+		}
+		catch (CoreException e) {
+			SpringCore.log(e);
+		}
+	}
+
 	protected interface SafeExecutableWithMonitor {
 
 		void execute(IProgressMonitor monitor) throws Exception;
@@ -305,24 +387,95 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 	/**
 	 * Create a list of affected resources from a resource delta.
 	 */
-	public static class ResourceDeltaVisitor implements IResourceDeltaVisitor {
+	public static class ResourceDeltaVisitor extends MultiContributorResourceDeltaVisitor {
 
-		private IProjectContributor contributor;
+		private final IProjectContributor contributor;
 
-		private int kind = -1;
+		public ResourceDeltaVisitor(IProjectContributor builder, int kind) {
+			super(Collections.singletonMap(builder, (Set<String>) null), kind);
+			this.contributor = builder;
+		}
 
-		private Set<IResource> resources;
+		public Set<IResource> getResources() {
+			return getAffectedResources().get(contributor);
+		}
+	}
 
-		public ResourceDeltaVisitor(IProjectContributor builder, int kind) {
+	/**
+	 * Create a list of affected resources from a resource tree.
+	 */
+	public static class ResourceTreeVisitor extends MultiContributorResourceTreeVisitor {
+
+		private final IProjectContributor contributor;
+
+		public ResourceTreeVisitor(IProjectContributor builder) {
+			super(Collections.singletonMap(builder, (Set<String>) null));
 			this.contributor = builder;
-			this.resources = new LinkedHashSet<IResource>();
-			this.kind = kind;
 		}
 
 		public Set<IResource> getResources() {
+			return getAffectedResources().get(contributor);
+		}
+	}
+
+	/**
+	 * Base class for visitors that collect the affected resources of several {@link IProjectContributor}s at once.
+	 * Every visited resource is handed to all contributors whose file extension filter (if any) matches.
+	 * @since 3.9.22
+	 */
+	public static abstract class MultiContributorVisitor {
+
+		private final Map<IProjectContributor, Set<String>> contributors;
+
+		private final Map<IProjectContributor, Set<IResource>> resources;
+
+		/**
+		 * @param contributors the contributors mapped to the file extensions they are interested in or
+		 * <code>null</code> for all files
+		 */
+		public MultiContributorVisitor(Map<IProjectContributor, Set<String>> contributors) {
+			this.contributors = contributors;
+			this.resources = new LinkedHashMap<IProjectContributor, Set<IResource>>();
+			for (IProjectContributor contributor : contributors.keySet()) {
+				resources.put(contributor, new LinkedHashSet<IResource>());
+			}
+		}
+
+		/**
+		 * Returns the affected resources per contributor.
+		 */
+		public Map<IProjectContributor, Set<IResource>> getAffectedResources() {
 			return resources;
 		}
 
+		protected void addAffectedResources(IResource resource, int kind, int deltaKind) throws CoreException {
+			String extension = (resource instanceof IFile ? resource.getFileExtension() : null);
+			for (Map.Entry<IProjectContributor, Set<String>> entry : contributors.entrySet()) {
+				Set<String> fileExtensions = entry.getValue();
+				if (fileExtensions != null && resource instanceof IFile
+						&& (extension == null || !fileExtensions.contains(extension))) {
+					continue;
+				}
+				IProjectContributor contributor = entry.getKey();
+				resources.get(contributor).addAll(contributor.getAffectedResources(resource, kind, deltaKind));
+			}
+		}
+	}
+
+	/**
+	 * Collects the affected resources of several contributors from a resource delta.
+	 * @since 3.9.22
+	 */
+	public static class MultiContributorResourceDeltaVisitor extends MultiContributorVisitor implements
+			IResourceDeltaVisitor {
+
+		private final int kind;
+
+		public MultiContributorResourceDeltaVisitor(Map<IProjectContributor, Set<String>> contributors, int kind) {
+			super(contributors);
+			this.kind = kind;
+		}
+
 		public boolean visit(IResourceDelta aDelta) throws CoreException {
 			boolean visitChildren = false;
 
@@ -332,23 +485,23 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 				// Only check projects with Spring beans nature
 				visitChildren = SpringCoreUtils.isSpringProject(resource);
 				if (visitChildren) {
-					resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+					addAffectedResources(resource, kind, aDelta.getKind());
 				}
 			}
 			else if (resource instanceof IFolder) {
-				resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+				addAffectedResources(resource, kind, aDelta.getKind());
 				visitChildren = true;
 			}
 			else if (resource instanceof IFile) {
 				switch (aDelta.getKind()) {
 				case IResourceDelta.ADDED:
 				case IResourceDelta.CHANGED:
-					resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+					addAffectedResources(resource, kind, aDelta.getKind());
 					visitChildren = true;
 					break;
 
 				case IResourceDelta.REMOVED:
-					resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+					addAffectedResources(resource, kind, aDelta.getKind());
 					break;
 				}
 			}
@@ -357,31 +510,19 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 	}
 
 	/**
-	 * Create a list of affected resources from a resource tree.
+	 * Collects the affected resources of several contributors from a resource tree.
+	 * @since 3.9.22
 	 */
-	public static class ResourceTreeVisitor implements IResourceVisitor {
+	public static class MultiContributorResourceTreeVisitor extends MultiContributorVisitor implements
+			IResourceVisitor {
 
-		private IProjectContributor contributor;
-
-		private Set<IResource> resources;
-
-		public ResourceTreeVisitor(IProjectContributor builder) {
-			this.contributor = builder;
-			this.resources = new LinkedHashSet<IResource>();
-		}
-
-		public Set<IResource> getResources() {
-			return resources;
+		public MultiContributorResourceTreeVisitor(Map<IProjectContributor, Set<String>> contributors) {
+			super(contributors);
 		}
 
 		public boolean visit(IResource resource) throws CoreException {
-			if (resource instanceof IFile) {
-				resources.addAll(contributor.getAffectedResources(resource, IncrementalProjectBuilder.FULL_BUILD,
-						IResourceDelta.CHANGED));
-			}
-			else if (resource instanceof IProject) {
-				resources.addAll(contributor.getAffectedResources(resource, IncrementalProjectBuilder.FULL_BUILD,
-						IResourceDelta.CHANGED));
+			if (resource instanceof IFile || resource instanceof IProject) {
+				addAffectedResources(resource, IncrementalProjectBuilder.FULL_BUILD, IResourceDelta.CHANGED);
 			}
 			return true;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 Spring IDE Developers
+ * Copyright (c) 2005, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.io.xml;
 
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 
 import org.apache.xerces.parsers.DOMParser;
 import org.apache.xerces.xni.Augmentations;
@@ -20,38 +20,173 @@ import org.apache.xerces.xni.QName;
 import org.apache.xerces.xni.XMLAttributes;
 import org.apache.xerces.xni.XMLLocator;
 import org.apache.xerces.xni.XNIException;
+import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
 /**
- * Extended version of Xerces' DOM parser which adds line numbers to an internal structure that can be queried in the
- * same thread.
+ * Extended version of Xerces' DOM parser which records the start and end position of every element.
+ * <p>
+ * The positions are kept in a compact table that is attached to the parsed document as user data and can be queried
+ * from any thread once the document has been parsed.
  * @author Torsten Juergeleit
  * @author Christian Dupuis
  */
 public class LineNumberPreservingDOMParser extends DOMParser {
 
-	private static final String START_LINE = "startLine";
+	private static final String LINE_TABLE = LineNumberPreservingDOMParser.class.getName() + ".lineTable";
 
-	private static final String END_LINE = "endLine";
+	/** The table that was looked up last, as lookups usually come in runs for the same document */
+	private static volatile WeakReference<LineTable> lastLineTable = new WeakReference<LineTable>(null);
 
 	private XMLLocator locator;
 
+	private LineTable lineTable;
+
 	public LineNumberPreservingDOMParser() throws SAXException {
 		// To access current nodes we have to turn off a feature
 		setFeature(DEFER_NODE_EXPANSION, false);
 	}
 
+	/**
+	 * Creates a parser that takes already compiled schemas and DTDs from the given pool and adds newly compiled ones
+	 * to it.
+	 * @since 3.9.22
+	 */
+	public LineNumberPreservingDOMParser(SharedGrammarPool grammarPool) throws SAXException {
+		super(grammarPool.getSymbolTable(), grammarPool);
+		// To access current nodes we have to turn off a feature
+		setFeature(DEFER_NODE_EXPANSION, false);
+	}
+
 	public static final int getStartLineNumber(Node node) {
-		return getLineNumberFromUserData(node, START_LINE);
+		return getPosition(node, LineTable.START_LINE);
 	}
 
 	public static final int getEndLineNumber(Node node) {
-		return getLineNumberFromUserData(node, END_LINE);
+		return getPosition(node, LineTable.END_LINE);
+	}
+
+	/**
+	 * Returns the column following the start tag of the given node or <code>-1</code> if unknown.
+	 * @since 3.9.22
+	 */
+	public static final int getStartColumnNumber(Node node) {
+		return getPosition(node, LineTable.START_COLUMN);
+	}
+
+	/**
+	 * Returns the column following the end tag of the given node or <code>-1</code> if unknown.
+	 * @since 3.9.22
+	 */
+	public static final int getEndColumnNumber(Node node) {
+		return getPosition(node, LineTable.END_COLUMN);
+	}
+
+	private static int getPosition(Node node, int field) {
+		LineTable table = getLineTable(node, false);
+		return (table != null ? table.get(node, field) : -1);
+	}
+
+	/**
+	 * Returns the table of the document the given node belongs to; optionally creates and attaches a new one.
+	 */
+	private static LineTable getLineTable(Node node, boolean create) {
+		if (node == null) {
+			return null;
+		}
+		Document document = (node.getNodeType() == Node.DOCUMENT_NODE ? (Document) node : node.getOwnerDocument());
+		if (document == null) {
+			return null;
+		}
+		LineTable last = lastLineTable.get();
+		if (last != null && last.document == document) {
+			return last;
+		}
+		Object table = document.getUserData(LINE_TABLE);
+		if (table instanceof LineTable) {
+			lastLineTable = new WeakReference<LineTable>((LineTable) table);
+			return (LineTable) table;
+		}
+		if (create) {
+			LineTable newTable = new LineTable(document);
+			document.setUserData(LINE_TABLE, newTable, null);
+			return newTable;
+		}
+		return null;
 	}
 
-	private static int getLineNumberFromUserData(Node node, String key) {
-		return NodeLineNumberAccessor.getLineNumber(node, key);
+	/**
+	 * Returns the positions of the given node and all its descendant elements in document order. This allows to
+	 * hand them over to a copy of the document, as the positions are not copied together with the nodes.
+	 * @since 3.9.22
+	 * @see #applyLineNumbers(Node, int[])
+	 */
+	public static int[] collectLineNumbers(Node root) {
+		LineTable table = getLineTable(root, false);
+		int count = 0;
+		for (Node node = root; node != null; node = nextLineNumberNode(root, node)) {
+			count++;
+		}
+		int[] result = new int[count * LineTable.FIELDS];
+		int i = 0;
+		for (Node node = root; node != null; node = nextLineNumberNode(root, node)) {
+			for (int field = 0; field < LineTable.FIELDS; field++) {
+				result[i++] = (table != null ? table.get(node, field) : -1);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Registers the positions returned by {@link #collectLineNumbers(Node)} for the given node, which has to be
+	 * an exact copy of the node the positions have been collected from.
+	 * @since 3.9.22
+	 */
+	public static void applyLineNumbers(Node root, int[] lines) {
+		LineTable table = getLineTable(root, true);
+		if (table == null) {
+			return;
+		}
+		int i = 0;
+		for (Node node = root; node != null && i + LineTable.FIELDS <= lines.length; node = nextLineNumberNode(root,
+				node)) {
+			for (int field = 0; field < LineTable.FIELDS; field++) {
+				if (lines[i + field] != -1) {
+					table.set(node, field, lines[i + field]);
+				}
+			}
+			i += LineTable.FIELDS;
+		}
+	}
+
+	/**
+	 * Returns the element following the given node in document order (pre-order) within the given root.
+	 */
+	private static Node nextLineNumberNode(Node root, Node node) {
+		Node next = node.getFirstChild();
+		if (next == null) {
+			if (node == root) {
+				return null;
+			}
+			next = node.getNextSibling();
+			Node parent = node.getParentNode();
+			while (next == null && parent != null && parent != root) {
+				next = parent.getNextSibling();
+				parent = parent.getParentNode();
+			}
+		}
+		while (next != null && next.getNodeType() != Node.ELEMENT_NODE) {
+			// skip text, comments and the like, they don't carry line numbers
+			Node sibling = next.getNextSibling();
+			Node parent = next.getParentNode();
+			while (sibling == null && parent != null && parent != root) {
+				sibling = parent.getNextSibling();
+				parent = parent.getParentNode();
+			}
+			next = sibling;
+		}
+		return next;
 	}
 
 	@Override
@@ -59,33 +194,46 @@ public class LineNumberPreservingDOMParser extends DOMParser {
 			throws XNIException {
 		this.locator = locator;
 		super.startDocument(locator, encoding, namespaceContext, augs);
-		addLineNumberToCurrentNode(START_LINE);
+		lineTable = null;
+		addPositionToCurrentNode(LineTable.START_LINE, LineTable.START_COLUMN);
 	}
 
 	@Override
 	public void endDocument(Augmentations augs) throws XNIException {
-		addLineNumberToCurrentNode(END_LINE);
+		addPositionToCurrentNode(LineTable.END_LINE, LineTable.END_COLUMN);
 		super.endDocument(augs);
+		lineTable = null;
 	}
 
 	@Override
 	public void startElement(QName element, XMLAttributes attributes, Augmentations augs) throws XNIException {
 		super.startElement(element, attributes, augs);
-		addLineNumberToCurrentNode(START_LINE);
+		addPositionToCurrentNode(LineTable.START_LINE, LineTable.START_COLUMN);
 	}
 
 	@Override
 	public void endElement(QName element, Augmentations augs) throws XNIException {
-		addLineNumberToCurrentNode(END_LINE);
+		addPositionToCurrentNode(LineTable.END_LINE, LineTable.END_COLUMN);
 		super.endElement(element, augs);
 	}
 
-	private void addLineNumberToCurrentNode(String key) throws XNIException {
+	@Override
+	public void reset() throws XNIException {
+		super.reset();
+		lineTable = null;
+	}
+
+	private void addPositionToCurrentNode(int lineField, int columnField) throws XNIException {
 		try {
 			Node node = (Node) getProperty(CURRENT_ELEMENT_NODE);
 			if (node != null) {
-				int line = locator.getLineNumber();
-				NodeLineNumberAccessor.setLineNumber(node, line, key);
+				if (lineTable == null) {
+					lineTable = getLineTable(node, true);
+				}
+				if (lineTable != null) {
+					lineTable.set(node, lineField, locator.getLineNumber());
+					lineTable.set(node, columnField, locator.getColumnNumber());
+				}
 			}
 		}
 		catch (SAXException e) {
@@ -93,65 +241,95 @@ public class LineNumberPreservingDOMParser extends DOMParser {
 		}
 	}
 
-	private static class NodeLineNumberAccessor {
+	/**
+	 * Positions of the elements of a document, stored by element ordinal in primitive arrays. Nodes are mapped to
+	 * their ordinal by an open addressing identity hash table.
+	 * <p>
+	 * The table is filled while the document is parsed (or copied) and only read afterwards, so it can be read from
+	 * any thread that got hold of the document.
+	 */
+	private static class LineTable {
 
-		private static ThreadLocal<Map<Node, LineNumbers>> LINE_NUMBERS = new ThreadLocal<Map<Node, LineNumbers>>() {
-			protected Map<Node, LineNumbers> initialValue() {
-				return new WeakHashMap<Node, LineNumbers>();
-			};
-		};
+		static final int START_LINE = 0;
 
-		public static void setLineNumber(Node node, int line, String key) {
-			LineNumbers lineNumbers = null;
-			if (LINE_NUMBERS.get().containsKey(node)) {
-				lineNumbers = LINE_NUMBERS.get().get(node);
-			}
-			else {
-				lineNumbers = new LineNumbers();
-				LINE_NUMBERS.get().put(node, lineNumbers);
-			}
+		static final int START_COLUMN = 1;
 
-			if (START_LINE.equals(key)) {
-				lineNumbers.setStart(line);
-			}
-			else if (END_LINE.equals(key)) {
-				lineNumbers.setEnd(line);
+		static final int END_LINE = 2;
+
+		static final int END_COLUMN = 3;
+
+		static final int FIELDS = 4;
+
+		private final Document document;
+
+		private Node[] nodes = new Node[64];
+
+		private int[] positions = new int[64 * FIELDS];
+
+		/** Ordinal + 1 of the node hashed to a slot, 0 for free slots */
+		private int[] slots = new int[128];
+
+		private int size = 0;
+
+		public LineTable(Document document) {
+			this.document = document;
+		}
+
+		public int get(Node node, int field) {
+			int ordinal = indexOf(node);
+			return (ordinal >= 0 ? positions[ordinal * FIELDS + field] : -1);
+		}
+
+		public void set(Node node, int field, int value) {
+			int ordinal = indexOf(node);
+			if (ordinal < 0) {
+				ordinal = add(node);
 			}
+			positions[ordinal * FIELDS + field] = value;
 		}
 
-		public static int getLineNumber(Node node, String key) {
-			if (LINE_NUMBERS.get().containsKey(node)) {
-				if (START_LINE.equals(key)) {
-					return LINE_NUMBERS.get().get(node).getStart();
-				}
-				else if (END_LINE.equals(key)) {
-					return LINE_NUMBERS.get().get(node).getEnd();
+		private int indexOf(Node node) {
+			int mask = slots.length - 1;
+			for (int i = hash(node) & mask; slots[i] != 0; i = (i + 1) & mask) {
+				if (nodes[slots[i] - 1] == node) {
+					return slots[i] - 1;
 				}
 			}
 			return -1;
 		}
-	}
-
-	private static class LineNumbers {
-
-		private int start = -1;
-
-		private int end = -1;
 
-		public int getStart() {
-			return start;
-		}
-
-		public void setStart(int start) {
-			this.start = start;
+		private int add(Node node) {
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, size * 2);
+				positions = Arrays.copyOf(positions, size * 2 * FIELDS);
+			}
+			int ordinal = size++;
+			nodes[ordinal] = node;
+			Arrays.fill(positions, ordinal * FIELDS, (ordinal + 1) * FIELDS, -1);
+			if (size * 2 > slots.length) {
+				slots = new int[slots.length * 2];
+				for (int i = 0; i < size; i++) {
+					insert(i);
+				}
+			}
+			else {
+				insert(ordinal);
+			}
+			return ordinal;
 		}
 
-		public int getEnd() {
-			return end;
+		private void insert(int ordinal) {
+			int mask = slots.length - 1;
+			int i = hash(nodes[ordinal]) & mask;
+			while (slots[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			slots[i] = ordinal + 1;
 		}
 
-		public void setEnd(int end) {
-			this.end = end;
+		private static int hash(Node node) {
+			int h = System.identityHashCode(node);
+			return h ^ (h >>> 16);
 		}
 	}
 }
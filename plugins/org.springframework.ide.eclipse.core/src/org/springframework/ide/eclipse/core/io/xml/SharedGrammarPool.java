@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.io.xml;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.xerces.util.SymbolTable;
+import org.apache.xerces.util.SynchronizedSymbolTable;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
+
+/**
+ * Thread-safe {@link XMLGrammarPool} that shares compiled XML schemas and DTDs between all documents whose schemas
+ * are resolved from the same class path.
+ * <p>
+ * Which schema a location resolves to depends on the class path that provides the <code>spring.schemas</code>
+ * mappings, so there is one pool per library class loader and set of folders in front of it. Schemas in the folders
+ * of one project are therefore never handed out to documents of another project that only shares the libraries. A
+ * pool goes away together with its library class loader; the class loader for the libraries of a project gets
+ * replaced when the class path of the project changes. Grammars are keyed by their namespace and location; unlike
+ * Xerces' default pool, different versions of the schema for the same namespace don't replace each other. All pools
+ * are dropped by {@link #clearAll()}, e.g. when a schema or DTD in the workspace changes.
+ * <p>
+ * The grammars of a pool refer to the names of its symbol table, so both are only ever dropped together: once the
+ * symbol table of a pool holds more than {@link #SYMBOL_LIMIT_PROPERTY} names, the pool is replaced by an empty one.
+ * Parsers that have been created with the old pool keep using it consistently.
+ * <p>
+ * Hit and miss counts are available from {@link #getHitCount()} and {@link #getMissCount()}. Sharing can be turned
+ * off with the system property {@link #ENABLE_PROPERTY}.
+ * @since 3.9.22
+ */
+public class SharedGrammarPool implements XMLGrammarPool {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.core.xml.sharedGrammarPool";
+
+	public static final String SYMBOL_LIMIT_PROPERTY = "org.springframework.ide.eclipse.core.xml.sharedGrammarPool.symbolLimit";
+
+	private static final int DEFAULT_SYMBOL_LIMIT = 100000;
+
+	private static final Grammar[] NO_GRAMMARS = new Grammar[0];
+
+	private static final Map<ClassLoader, Map<String, SharedGrammarPool>> POOLS = new WeakHashMap<ClassLoader, Map<String, SharedGrammarPool>>();
+
+	private static final AtomicLong HITS = new AtomicLong();
+
+	private static final AtomicLong MISSES = new AtomicLong();
+
+	private final CountingSymbolTable symbols = new CountingSymbolTable();
+
+	private final SymbolTable symbolTable = new SynchronizedSymbolTable(symbols);
+
+	private final Map<String, Grammar> grammars = new HashMap<String, Grammar>();
+
+	private volatile boolean locked = false;
+
+	private SharedGrammarPool() {
+	}
+
+	/**
+	 * Returns the pool for documents whose schemas are resolved from the given folders and, after these, the given
+	 * class loader, or <code>null</code> if sharing of grammars is disabled.
+	 * @param schemaClassLoader the class loader for the libraries
+	 * @param schemaFolders the folders that are searched before the libraries, e.g. the source and output folders of
+	 * a project
+	 */
+	public static SharedGrammarPool getPool(ClassLoader schemaClassLoader, URL[] schemaFolders) {
+		if (schemaClassLoader == null || schemaFolders == null || !isEnabled()) {
+			return null;
+		}
+		String folders = Arrays.toString(schemaFolders);
+		synchronized (POOLS) {
+			Map<String, SharedGrammarPool> pools = POOLS.get(schemaClassLoader);
+			if (pools == null) {
+				pools = new HashMap<String, SharedGrammarPool>();
+				POOLS.put(schemaClassLoader, pools);
+			}
+			SharedGrammarPool pool = pools.get(folders);
+			if (pool == null || pool.getSymbolCount() > getSymbolLimit()) {
+				pool = new SharedGrammarPool();
+				pools.put(folders, pool);
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * Drops all shared grammars.
+	 */
+	public static void clearAll() {
+		synchronized (POOLS) {
+			POOLS.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of grammars that have been taken from a pool instead of being loaded again.
+	 */
+	public static long getHitCount() {
+		return HITS.get();
+	}
+
+	/**
+	 * Returns the number of grammars that have been requested from a pool but had to be loaded.
+	 */
+	public static long getMissCount() {
+		return MISSES.get();
+	}
+
+	/**
+	 * Returns the number of names in the symbol table of this pool.
+	 */
+	public int getSymbolCount() {
+		return symbols.size();
+	}
+
+	/**
+	 * Returns the symbol table to be used by all parsers working with this pool. Xerces compares names by identity,
+	 * so the grammars only match documents that are parsed with the same symbol table as the grammars themselves.
+	 */
+	public SymbolTable getSymbolTable() {
+		return symbolTable;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Nothing gets preloaded, as the validator would register the grammars by namespace only; grammars are handed
+	 * out through {@link #retrieveGrammar(XMLGrammarDescription)} when they are needed.
+	 */
+	public Grammar[] retrieveInitialGrammarSet(String grammarType) {
+		return NO_GRAMMARS;
+	}
+
+	public void cacheGrammars(String grammarType, Grammar[] newGrammars) {
+		if (locked || newGrammars == null) {
+			return;
+		}
+		synchronized (grammars) {
+			for (Grammar grammar : newGrammars) {
+				String key = getKey(grammar.getGrammarDescription());
+				if (key != null && !grammars.containsKey(key)) {
+					grammars.put(key, grammar);
+				}
+			}
+		}
+	}
+
+	public Grammar retrieveGrammar(XMLGrammarDescription desc) {
+		String key = getKey(desc);
+		if (key == null) {
+			return null;
+		}
+		Grammar grammar;
+		synchronized (grammars) {
+			grammar = grammars.get(key);
+		}
+		(grammar != null ? HITS : MISSES).incrementAndGet();
+		return grammar;
+	}
+
+	public void lockPool() {
+		locked = true;
+	}
+
+	public void unlockPool() {
+		locked = false;
+	}
+
+	public void clear() {
+		synchronized (grammars) {
+			grammars.clear();
+		}
+	}
+
+	/**
+	 * Returns the key for a grammar: its type, namespace, public id and location. Relative locations are only
+	 * meaningful together with the document that refers to them and are only used in their expanded form.
+	 */
+	private static String getKey(XMLGrammarDescription desc) {
+		if (desc == null) {
+			return null;
+		}
+		String location = desc.getLiteralSystemId();
+		if (location == null || !isAbsolute(location)) {
+			location = desc.getExpandedSystemId();
+		}
+		if (location == null) {
+			return null;
+		}
+		return desc.getGrammarType() + '|' + desc.getNamespace() + '|' + desc.getPublicId() + '|' + location;
+	}
+
+	private static boolean isAbsolute(String location) {
+		try {
+			return new URI(location).isAbsolute();
+		}
+		catch (Exception e) {
+			return false;
+		}
+	}
+
+	private static boolean isEnabled() {
+		return Boolean.valueOf(System.getProperty(ENABLE_PROPERTY, "true"));
+	}
+
+	private static int getSymbolLimit() {
+		return Integer.getInteger(SYMBOL_LIMIT_PROPERTY, DEFAULT_SYMBOL_LIMIT);
+	}
+
+	/**
+	 * Symbol table that tells how many names it holds. The enclosing {@link SynchronizedSymbolTable} synchronizes on
+	 * it.
+	 */
+	private static class CountingSymbolTable extends SymbolTable {
+
+		public synchronized int size() {
+			return fCount;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2009 Spring IDE Developers
+ * Copyright (c) 2006, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.io.xml;
 
+import java.net.URL;
+
 import org.springframework.beans.factory.xml.DocumentLoader;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.ide.eclipse.core.SpringCore;
@@ -29,10 +31,34 @@ import org.xml.sax.SAXNotSupportedException;
  */
 public class XercesDocumentLoader implements DocumentLoader {
 
+	private final ClassLoader schemaClassLoader;
+
+	private final URL[] schemaFolders;
+
+	public XercesDocumentLoader() {
+		this(null, null);
+	}
+
+	/**
+	 * Creates a document loader that shares compiled schemas with all other loaders for the same class path.
+	 * @param schemaClassLoader the class loader for the libraries that provide the schemas available to the
+	 * documents; can be <code>null</code> to compile the schemas for each document
+	 * @param schemaFolders the folders that provide schemas in front of the libraries, e.g. the source and output
+	 * folders of a project; can be <code>null</code> to compile the schemas for each document
+	 * @since 3.9.22
+	 * @see SharedGrammarPool
+	 */
+	public XercesDocumentLoader(ClassLoader schemaClassLoader, URL[] schemaFolders) {
+		this.schemaClassLoader = schemaClassLoader;
+		this.schemaFolders = schemaFolders;
+	}
+
 	public Document loadDocument(InputSource inputSource, EntityResolver entityResolver, ErrorHandler errorHandler,
 			int validationMode, boolean namespaceAware) throws Exception {
 		try {
-			LineNumberPreservingDOMParser parser = new LineNumberPreservingDOMParser();
+			SharedGrammarPool grammarPool = SharedGrammarPool.getPool(schemaClassLoader, schemaFolders);
+			LineNumberPreservingDOMParser parser = (grammarPool != null ? new LineNumberPreservingDOMParser(
+					grammarPool) : new LineNumberPreservingDOMParser());
 			parser.setEntityResolver(entityResolver);
 			parser.setErrorHandler(errorHandler);
 			
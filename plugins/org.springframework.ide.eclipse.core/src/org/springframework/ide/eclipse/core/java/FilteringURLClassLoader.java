@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,13 @@ public class FilteringURLClassLoader extends URLClassLoader {
 		super(urls, parent);
 	}
 	
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		Class<?> clazz = super.findClass(name);
+		ProjectClassLoaderCache.classDefined();
+		return clazz;
+	}
+	
 	@Override
 	public URL findResource(String resourceName) {
 		if (ProjectClassLoaderCache.shouldFilter(resourceName)) return null;
@@ -0,0 +1,505 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Single {@link IElementChangedListener} that walks every Java element delta once and forwards the relevant parts to
+ * the registered {@link IJavaElementDeltaListener}s.
+ * <p>
+ * Listeners are registered for Java projects and are indexed by these projects, the projects they (transitively)
+ * depend on and the package fragment roots on their class paths. A listener only hears about changes within these.
+ * Registrations that include dependent projects are extended whenever the class path of another project changes
+ * so that it becomes dependent.
+ * @since 3.9.22
+ */
+public class JavaElementDeltaDispatcher implements IElementChangedListener {
+
+	private static final int ROOT_CHANGE_FLAGS = IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+			| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	private static final int CLASSPATH_CHANGE_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLOSED;
+
+	private static JavaElementDeltaDispatcher instance = null;
+
+	private final Map<String, Set<IJavaElementDeltaListener>> listenersByProject = new HashMap<String, Set<IJavaElementDeltaListener>>();
+
+	private final Map<IPath, Set<IJavaElementDeltaListener>> listenersByRoot = new HashMap<IPath, Set<IJavaElementDeltaListener>>();
+
+	private final Map<IJavaElementDeltaListener, Registration> registrations = new HashMap<IJavaElementDeltaListener, Registration>();
+
+	/** Class paths of projects by project name; dropped as soon as the class path of any project changes */
+	private final Map<String, ClassPath> classPaths = new HashMap<String, ClassPath>();
+
+	/** Incremented whenever {@link #classPaths} is dropped */
+	private long classPathGeneration = 0;
+
+	private JavaElementDeltaDispatcher() {
+	}
+
+	/**
+	 * Registers the given listener for changes of the given project and its class path. A listener can only be
+	 * registered for one project; registering it again replaces the previous registration.
+	 */
+	public static void addListener(IJavaElementDeltaListener listener, IJavaProject project) {
+		getInstance().register(listener, Collections.singleton(project), null);
+	}
+
+	/**
+	 * Registers the given listener for changes of the given project and its class path and, if requested, for
+	 * changes of all projects that depend on the given project and their class paths. The latter is needed by
+	 * listeners that care about subtypes of types in the given project.
+	 */
+	public static void addListener(IJavaElementDeltaListener listener, IJavaProject project,
+			boolean includeDependentProjects) {
+		getInstance().register(listener, Collections.singleton(project),
+				(includeDependentProjects ? Collections.<IPath> emptySet() : null));
+	}
+
+	/**
+	 * Registers the given listener for changes of the given projects and their class paths as well as for changes
+	 * of all projects that depend on one of the given projects or have one of the given package fragment roots on
+	 * their class path. Projects that become dependent later on are reported by
+	 * {@link IJavaElementDeltaListener#classPathChanged(IJavaProject)} and added to the registration.
+	 */
+	public static void addListener(IJavaElementDeltaListener listener, Collection<IJavaProject> projects,
+			Collection<IPath> sharedRoots) {
+		getInstance().register(listener, projects, new HashSet<IPath>(sharedRoots));
+	}
+
+	public static void removeListener(IJavaElementDeltaListener listener) {
+		JavaElementDeltaDispatcher dispatcher;
+		synchronized (JavaElementDeltaDispatcher.class) {
+			dispatcher = instance;
+		}
+		if (dispatcher != null) {
+			dispatcher.unregister(listener);
+		}
+	}
+
+	private static synchronized JavaElementDeltaDispatcher getInstance() {
+		if (instance == null) {
+			instance = new JavaElementDeltaDispatcher();
+			JavaCore.addElementChangedListener(instance, ElementChangedEvent.POST_CHANGE
+					| ElementChangedEvent.POST_RECONCILE);
+		}
+		return instance;
+	}
+
+	/**
+	 * Registers the listener; <code>sharedRoots</code> is <code>null</code> if dependent projects should not be
+	 * included.
+	 */
+	private void register(IJavaElementDeltaListener listener, Collection<IJavaProject> projects,
+			Set<IPath> sharedRoots) {
+		// compute the class path outside of the lock, as it might need to access the java model
+		Set<String> registeredProjectNames = new HashSet<String>();
+		Set<String> projectNames = new LinkedHashSet<String>();
+		Set<IPath> roots = new HashSet<IPath>();
+		for (IJavaProject project : projects) {
+			if (project != null) {
+				registeredProjectNames.add(project.getElementName());
+				ClassPath classPath = getClassPath(project);
+				projectNames.addAll(classPath.projectNames);
+				roots.addAll(classPath.roots);
+			}
+		}
+		Registration registration = new Registration(registeredProjectNames, sharedRoots, projectNames, roots);
+		if (sharedRoots != null) {
+			try {
+				for (IJavaProject other : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+					if (!projectNames.contains(other.getElementName())) {
+						ClassPath otherClassPath = getClassPath(other);
+						if (registration.isDependent(otherClassPath.projectNames, otherClassPath.roots)) {
+							projectNames.addAll(otherClassPath.projectNames);
+							roots.addAll(otherClassPath.roots);
+						}
+					}
+				}
+			}
+			catch (JavaModelException e) {
+				SpringCore.log(e);
+			}
+		}
+
+		synchronized (this) {
+			unregister(listener);
+			registrations.put(listener, registration);
+			for (String projectName : projectNames) {
+				add(listenersByProject, projectName, listener);
+			}
+			for (IPath root : roots) {
+				add(listenersByRoot, root, listener);
+			}
+		}
+	}
+
+	/**
+	 * Adds the current class paths of the given projects to the registrations that contain them and to the
+	 * registrations that include dependent projects and that the projects now depend on; the latter are reported
+	 * as changed class paths.
+	 */
+	private void updateRegistrations(Set<IJavaProject> changedProjects,
+			Map<IJavaElementDeltaListener, Set<IJavaProject>> changedClassPaths) {
+		for (IJavaProject project : changedProjects) {
+			ClassPath classPath = getClassPath(project);
+			Set<String> projectNames = classPath.projectNames;
+			Set<IPath> roots = classPath.roots;
+			synchronized (this) {
+				for (Map.Entry<IJavaElementDeltaListener, Registration> entry : registrations.entrySet()) {
+					IJavaElementDeltaListener listener = entry.getKey();
+					Registration registration = entry.getValue();
+					boolean registered = registration.projectNames.contains(project.getElementName());
+					if (registered || registration.isDependent(projectNames, roots)) {
+						for (String projectName : projectNames) {
+							if (registration.projectNames.add(projectName)) {
+								add(listenersByProject, projectName, listener);
+							}
+						}
+						for (IPath root : roots) {
+							if (registration.roots.add(root)) {
+								add(listenersByRoot, root, listener);
+							}
+						}
+						if (!registered) {
+							addAll(changedClassPaths, Collections.singleton(listener), project);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private synchronized void unregister(IJavaElementDeltaListener listener) {
+		Registration registration = registrations.remove(listener);
+		if (registration != null) {
+			for (String projectName : registration.projectNames) {
+				remove(listenersByProject, projectName, listener);
+			}
+			for (IPath root : registration.roots) {
+				remove(listenersByRoot, root, listener);
+			}
+		}
+	}
+
+	/**
+	 * Returns the class path of the given project. Class paths are shared by all registrations until the class path
+	 * of a project changes, so that registering many listeners doesn't resolve the class paths of all projects for
+	 * every one of them.
+	 */
+	private ClassPath getClassPath(IJavaProject project) {
+		long generation;
+		synchronized (this) {
+			ClassPath classPath = classPaths.get(project.getElementName());
+			if (classPath != null) {
+				return classPath;
+			}
+			generation = classPathGeneration;
+		}
+
+		Set<String> projectNames = new LinkedHashSet<String>();
+		Set<IPath> roots = new HashSet<IPath>();
+		collectClassPath(project, projectNames, roots);
+		ClassPath classPath = new ClassPath(projectNames, roots);
+		synchronized (this) {
+			// don't keep a class path that might have been computed from a model that changed in the meantime
+			if (generation == classPathGeneration) {
+				classPaths.put(project.getElementName(), classPath);
+			}
+		}
+		return classPath;
+	}
+
+	private synchronized void clearClassPaths() {
+		classPaths.clear();
+		classPathGeneration++;
+	}
+
+	/**
+	 * Collects the names of the given project and the projects it depends on as well as the paths of all package
+	 * fragment roots on their class paths.
+	 */
+	private void collectClassPath(IJavaProject project, Set<String> projectNames, Set<IPath> roots) {
+		if (project == null || !projectNames.add(project.getElementName())) {
+			return;
+		}
+		try {
+			for (IClasspathEntry entry : project.getResolvedClasspath(true)) {
+				if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+					collectClassPath(JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(
+							entry.getPath().lastSegment())), projectNames, roots);
+				}
+				else {
+					roots.add(entry.getPath());
+				}
+			}
+		}
+		catch (JavaModelException e) {
+			// project not open or no java project (anymore); changes of the project itself are still reported
+		}
+	}
+
+	public void elementChanged(ElementChangedEvent event) {
+		IJavaElementDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		Map<IJavaElementDeltaListener, List<IJavaElementDelta>> changedOpenables = new LinkedHashMap<IJavaElementDeltaListener, List<IJavaElementDelta>>();
+		Map<IJavaElementDeltaListener, Set<IJavaProject>> changedClassPaths = new LinkedHashMap<IJavaElementDeltaListener, Set<IJavaProject>>();
+		Set<IJavaProject> changedProjects = new LinkedHashSet<IJavaProject>();
+		IJavaProject project = delta.getElement().getJavaProject();
+		visit(delta, (project != null ? getListeners(project, null) : Collections.<IJavaElementDeltaListener> emptySet()),
+				changedOpenables, changedClassPaths, changedProjects);
+		updateRegistrations(changedProjects, changedClassPaths);
+
+		// notify outside of the walk; listeners are free to unregister themselves
+		for (Map.Entry<IJavaElementDeltaListener, Set<IJavaProject>> entry : changedClassPaths.entrySet()) {
+			for (IJavaProject changedProject : entry.getValue()) {
+				try {
+					entry.getKey().classPathChanged(changedProject);
+				}
+				catch (Exception e) {
+					SpringCore.log(e);
+				}
+			}
+		}
+		for (Map.Entry<IJavaElementDeltaListener, List<IJavaElementDelta>> entry : changedOpenables.entrySet()) {
+			if (!changedClassPaths.containsKey(entry.getKey())) {
+				try {
+					entry.getKey().openablesChanged(entry.getValue());
+				}
+				catch (Exception e) {
+					SpringCore.log(e);
+				}
+			}
+		}
+	}
+
+	private void visit(IJavaElementDelta delta, Set<IJavaElementDeltaListener> listeners,
+			Map<IJavaElementDeltaListener, List<IJavaElementDelta>> changedOpenables,
+			Map<IJavaElementDeltaListener, Set<IJavaProject>> changedClassPaths, Set<IJavaProject> changedProjects) {
+		IJavaElement element = delta.getElement();
+		int flags = delta.getFlags();
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_MODEL:
+			visitChildren(delta, listeners, changedOpenables, changedClassPaths, changedProjects);
+			break;
+		case IJavaElement.JAVA_PROJECT:
+			boolean classPathChanged = delta.getKind() != IJavaElementDelta.CHANGED
+					|| (flags & CLASSPATH_CHANGE_FLAGS) != 0 || (flags & IJavaElementDelta.F_OPENED) != 0;
+			if (classPathChanged) {
+				// the class paths of all projects that depend on this one change as well
+				clearClassPaths();
+			}
+			if (classPathChanged && delta.getKind() != IJavaElementDelta.REMOVED) {
+				changedProjects.add((IJavaProject) element);
+			}
+			listeners = getListeners((IJavaProject) element, null);
+			if (listeners.isEmpty()) {
+				break;
+			}
+			if (classPathChanged) {
+				addAll(changedClassPaths, listeners, (IJavaProject) element);
+			}
+			else {
+				visitChildren(delta, listeners, changedOpenables, changedClassPaths, changedProjects);
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			listeners = getListeners(element.getJavaProject(), element.getPath());
+			if (listeners.isEmpty()) {
+				break;
+			}
+			if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & ROOT_CHANGE_FLAGS) != 0) {
+				addAll(changedClassPaths, listeners, element.getJavaProject());
+			}
+			else {
+				visitChildren(delta, listeners, changedOpenables, changedClassPaths, changedProjects);
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+		case IJavaElement.CLASS_FILE:
+			for (IJavaElementDeltaListener listener : listeners) {
+				List<IJavaElementDelta> deltas = changedOpenables.get(listener);
+				if (deltas == null) {
+					deltas = new ArrayList<IJavaElementDelta>();
+					changedOpenables.put(listener, deltas);
+				}
+				deltas.add(delta);
+			}
+			break;
+		default:
+			visitChildren(delta, listeners, changedOpenables, changedClassPaths, changedProjects);
+		}
+	}
+
+	private void visitChildren(IJavaElementDelta delta, Set<IJavaElementDeltaListener> listeners,
+			Map<IJavaElementDeltaListener, List<IJavaElementDelta>> changedOpenables,
+			Map<IJavaElementDeltaListener, Set<IJavaProject>> changedClassPaths, Set<IJavaProject> changedProjects) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			visit(child, listeners, changedOpenables, changedClassPaths, changedProjects);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the listeners interested in the given project and, if given, package fragment root.
+	 */
+	private synchronized Set<IJavaElementDeltaListener> getListeners(IJavaProject project, IPath root) {
+		Set<IJavaElementDeltaListener> listeners = new LinkedHashSet<IJavaElementDeltaListener>();
+		if (project != null) {
+			Set<IJavaElementDeltaListener> projectListeners = listenersByProject.get(project.getElementName());
+			if (projectListeners != null) {
+				listeners.addAll(projectListeners);
+			}
+		}
+		if (root != null) {
+			Set<IJavaElementDeltaListener> rootListeners = listenersByRoot.get(root);
+			if (rootListeners != null) {
+				listeners.addAll(rootListeners);
+			}
+		}
+		return listeners;
+	}
+
+	private static void addAll(Map<IJavaElementDeltaListener, Set<IJavaProject>> changedClassPaths,
+			Set<IJavaElementDeltaListener> listeners, IJavaProject project) {
+		for (IJavaElementDeltaListener listener : listeners) {
+			Set<IJavaProject> projects = changedClassPaths.get(listener);
+			if (projects == null) {
+				projects = new LinkedHashSet<IJavaProject>();
+				changedClassPaths.put(listener, projects);
+			}
+			projects.add(project);
+		}
+	}
+
+	private static <K> void add(Map<K, Set<IJavaElementDeltaListener>> index, K key,
+			IJavaElementDeltaListener listener) {
+		Set<IJavaElementDeltaListener> listeners = index.get(key);
+		if (listeners == null) {
+			listeners = new LinkedHashSet<IJavaElementDeltaListener>();
+			index.put(key, listeners);
+		}
+		listeners.add(listener);
+	}
+
+	private static <K> void remove(Map<K, Set<IJavaElementDeltaListener>> index, K key,
+			IJavaElementDeltaListener listener) {
+		Set<IJavaElementDeltaListener> listeners = index.get(key);
+		if (listeners != null) {
+			listeners.remove(listener);
+			if (listeners.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Listener for the changes that concern a Java project and its class path.
+	 */
+	public interface IJavaElementDeltaListener {
+
+		/**
+		 * The class path of the given project changed, or the project itself or a package fragment root on its class
+		 * path has been added, removed, opened or closed. The given project is either the project the listener has
+		 * been registered for or one that is on its class path. No {@link #openablesChanged(List)} notification is
+		 * sent for the same event.
+		 */
+		void classPathChanged(IJavaProject project);
+
+		/**
+		 * Compilation units or class files on the class path of the project have been changed; the given deltas are
+		 * the deltas of these elements.
+		 */
+		void openablesChanged(List<IJavaElementDelta> deltas);
+
+	}
+
+	/**
+	 * The names of a project and the projects it depends on, and the package fragment roots on their class paths.
+	 */
+	private static class ClassPath {
+
+		private final Set<String> projectNames;
+
+		private final Set<IPath> roots;
+
+		public ClassPath(Set<String> projectNames, Set<IPath> roots) {
+			this.projectNames = Collections.unmodifiableSet(projectNames);
+			this.roots = Collections.unmodifiableSet(roots);
+		}
+	}
+
+	private static class Registration {
+
+		/** The projects the listener has been registered for */
+		private final Set<String> registeredProjectNames;
+
+		/** The roots that make a project dependent, or <code>null</code> if dependent projects are not included */
+		private final Set<IPath> sharedRoots;
+
+		private final Set<String> projectNames;
+
+		private final Set<IPath> roots;
+
+		public Registration(Set<String> registeredProjectNames, Set<IPath> sharedRoots, Set<String> projectNames,
+				Set<IPath> roots) {
+			this.registeredProjectNames = registeredProjectNames;
+			this.sharedRoots = sharedRoots;
+			this.projectNames = projectNames;
+			this.roots = roots;
+		}
+
+		/**
+		 * Checks if a project with the given class path depends on one of the registered projects or shared roots.
+		 */
+		public boolean isDependent(Set<String> otherProjectNames, Set<IPath> otherRoots) {
+			if (sharedRoots == null) {
+				return false;
+			}
+			for (String projectName : registeredProjectNames) {
+				if (otherProjectNames.contains(projectName)) {
+					return true;
+				}
+			}
+			for (IPath root : sharedRoots) {
+				if (otherRoots.contains(root)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,10 +17,13 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.xbean.classloader.NonLockingJarFileClassLoader;
 import org.eclipse.core.resources.IFolder;
@@ -38,17 +41,22 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Preferences.IPropertyChangeListener;
 import org.eclipse.core.runtime.Preferences.PropertyChangeEvent;
-import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.IElementChangedListener;
 import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher.IJavaElementDeltaListener;
 
 /**
  * Internal cache of classpath urls and corresponding classloaders.
+ * <p>
+ * The class loader of a project consists of two layers: a class loader for the jars on the class path, which is
+ * shared by all projects with the same jars (and parent class loader), and a class loader for the source and output
+ * folders of the project and the projects it depends on, which is reused until one of these folders changes.
+ * Statistics about the use of the cache are available from {@link #getHitCount()}, {@link #getMissCount()},
+ * {@link #getJarLayerCount()} and {@link #getDefinedClassCount()}.
  * @author Christian Dupuis
  * @author Martin Lippert
  * @since 2.2.5
@@ -63,6 +71,14 @@ public class ProjectClassLoaderCache {
 	private static final String DEBUG_OPTION = SpringCore.PLUGIN_ID + "/java/classloader/debug";
 	private static final boolean DEBUG_CLASSLOADER = SpringCore.isDebug(DEBUG_OPTION);
 
+	/** Shared jar class loaders, keyed by their parent class loader and the fingerprint of their jars */
+	private static final Map<ClassLoader, Map<String, JarLayer>> JAR_LAYERS = new HashMap<ClassLoader, Map<String, JarLayer>>();
+
+	private static final AtomicLong HITS = new AtomicLong();
+	private static final AtomicLong MISSES = new AtomicLong();
+	private static final AtomicLong JAR_LAYER_HITS = new AtomicLong();
+	private static final AtomicLong DEFINED_CLASSES = new AtomicLong();
+
 	private static ClassLoader cachedParentClassLoader = null;
 	private static IPropertyChangeListener propertyChangeListener = null;
 	private static IResourceChangeListener resourceChangeListener = null;
@@ -224,11 +240,13 @@ public class ProjectClassLoaderCache {
 				else {
 					if (entry.matches(project, parentClassLoader)) {
 						entry.markAsAccessed();
+						HITS.incrementAndGet();
 						return entry.getClassLoader();
 					}
 				}
 			}
 		}
+		MISSES.incrementAndGet();
 		return null;
 	}
 
@@ -289,6 +307,84 @@ public class ProjectClassLoaderCache {
 		return false;
 	}
 
+	/**
+	 * Returns the number of class loader requests that have been served by an existing cache entry.
+	 * @since 3.9.22
+	 */
+	public static long getHitCount() {
+		return HITS.get();
+	}
+
+	/**
+	 * Returns the number of class loader requests that required a new cache entry.
+	 * @since 3.9.22
+	 */
+	public static long getMissCount() {
+		return MISSES.get();
+	}
+
+	/**
+	 * Returns the number of cache entries that got an existing jar class loader instead of creating a new one.
+	 * @since 3.9.22
+	 */
+	public static long getJarLayerHitCount() {
+		return JAR_LAYER_HITS.get();
+	}
+
+	/**
+	 * Returns the number of jar class loaders currently shared by the cache entries.
+	 * @since 3.9.22
+	 */
+	public static int getJarLayerCount() {
+		synchronized (JAR_LAYERS) {
+			int count = 0;
+			for (Map<String, JarLayer> layers : JAR_LAYERS.values()) {
+				count += layers.size();
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Returns the number of classes that have been defined by the class loaders created by this cache.
+	 * @since 3.9.22
+	 */
+	public static long getDefinedClassCount() {
+		return DEFINED_CLASSES.get();
+	}
+
+	static void classDefined() {
+		DEFINED_CLASSES.incrementAndGet();
+	}
+
+	/**
+	 * Drops the directory class loaders of all cache entries that load classes or resources from the given folder.
+	 */
+	private static void directoryChanged(IResource folder) {
+		IPath location = folder.getLocation();
+		if (location == null) {
+			return;
+		}
+		String prefix = location.toFile().toURI().toString();
+		if (prefix.endsWith("/")) {
+			prefix = prefix.substring(0, prefix.length() - 1);
+		}
+		synchronized (CLASSLOADER_CACHE) {
+			for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE) {
+				entry.directoryChanged(prefix);
+			}
+		}
+	}
+
+	private static void clearCache() {
+		synchronized (CLASSLOADER_CACHE) {
+			for (ClassLoaderCacheEntry entry : new ArrayList<ClassLoaderCacheEntry>(CLASSLOADER_CACHE)) {
+				entry.dispose();
+			}
+			CLASSLOADER_CACHE.clear();
+		}
+	}
+
 	private static boolean useNonLockingClassLoader() {
 		boolean useNonLockingClassloaderPreference = SpringCore.getDefault().getPluginPreferences().getBoolean(SpringCore.USE_NON_LOCKING_CLASSLOADER);
 		if (useNonLockingClassloaderPreference) {
@@ -340,6 +436,42 @@ public class ProjectClassLoaderCache {
 		return classLoader;
 	}
 	
+	/**
+	 * Drops the folder class loaders of the cached entries for the given project, so that classes compiled since
+	 * they have been created become visible. Called at the beginning of each build of the project, as the resource
+	 * change notification about new class files only comes once the whole build has finished.
+	 * @param project the project whose folder class loaders should be dropped
+	 * @since 3.9.22
+	 */
+	public static void resetFolderClassLoaders(IProject project) {
+		synchronized (CLASSLOADER_CACHE) {
+			for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE) {
+				if (project.equals(entry.getProject())) {
+					entry.resetDirectoryClassLoader();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the folders the given class loader loads from before it delegates to its parent, the class loader for
+	 * the libraries of the project. The library class loader is shared by all projects with the same libraries.
+	 * @param classLoader a class loader returned by {@link #getClassLoader(IProject, ClassLoader)}
+	 * @return the folders or <code>null</code> if the class loader is not (or no longer) part of the cache
+	 * @since 3.9.22
+	 */
+	public static URL[] getFolderUrls(ClassLoader classLoader) {
+		synchronized (CLASSLOADER_CACHE) {
+			for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE) {
+				URL[] folders = entry.getDirectories(classLoader);
+				if (folders != null) {
+					return folders;
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Removes any cached {@link ClassLoaderCacheEntry} for the given {@link IProject}.
 	 * @param project the project to remove {@link ClassLoaderCacheEntry} for
@@ -362,11 +494,13 @@ public class ProjectClassLoaderCache {
 	/**
 	 * Internal cache entry
 	 */
-	static class ClassLoaderCacheEntry implements IElementChangedListener {
+	static class ClassLoaderCacheEntry implements IJavaElementDeltaListener {
 
 		private URL[] directories;
 
-		private ClassLoader jarClassLoader;
+		private ClassLoader directoryClassLoader;
+
+		private JarLayer jarLayer;
 
 		private long lastAccess;
 
@@ -381,38 +515,42 @@ public class ProjectClassLoaderCache {
 			this.urls = urls.toArray(new URL[urls.size()]);
 			this.parentClassLoader = parentClassLoader;
 			markAsAccessed();
-			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+			IJavaProject javaProject = JdtUtils.getJavaProject(project);
+			if (javaProject != null) {
+				JavaElementDeltaDispatcher.addListener(this, javaProject);
+			}
 		}
 
-		public void dispose() {
-			JavaCore.removeElementChangedListener(this);
+		public synchronized void dispose() {
+			JavaElementDeltaDispatcher.removeListener(this);
 			this.urls = null;
-			this.jarClassLoader = null;
+			this.directoryClassLoader = null;
+			if (jarLayer != null) {
+				jarLayer.release();
+				jarLayer = null;
+			}
 		}
 
-		public void elementChanged(ElementChangedEvent event) {
-			IJavaProject javaProject = JdtUtils.getJavaProject(project);
-			if (javaProject != null) {
-				for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
-					if ((delta.getFlags() & IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED) != 0
-							|| (delta.getFlags() & IJavaElementDelta.F_CLASSPATH_CHANGED) != 0) {
-						if (javaProject.equals(delta.getElement()) || javaProject.isOnClasspath(delta.getElement())) {
-							removeClassLoaderEntryFromCache(this);
-						}
-					}
-				}
-			}
+		public void classPathChanged(IJavaProject changedProject) {
+			removeClassLoaderEntryFromCache(this);
 		}
 
-		public ClassLoader getClassLoader() {
+		public void openablesChanged(List<IJavaElementDelta> deltas) {
+			// changed classes are picked up once the output folders change
+		}
+
+		public synchronized ClassLoader getClassLoader() {
 			ClassLoader parent = getJarClassLoader();
-			if (useNonLockingClassLoader()) {
-				return new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'", project.getName()),
-						directories, parent);
-			}
-			else {
-				return new FilteringURLClassLoader(directories, parent);
+			if (directoryClassLoader == null) {
+				if (useNonLockingClassLoader()) {
+					directoryClassLoader = new FilteringNonLockingJarFileClassLoader(String.format(
+							"ClassLoader for '%s'", project.getName()), directories, parent);
+				}
+				else {
+					directoryClassLoader = new FilteringURLClassLoader(directories, parent);
+				}
 			}
+			return directoryClassLoader;
 		}
 
 		public long getLastAccess() {
@@ -433,8 +571,35 @@ public class ProjectClassLoaderCache {
 							.equals(this.parentClassLoader)));
 		}
 
+		private synchronized URL[] getDirectories(ClassLoader classLoader) {
+			if (directoryClassLoader == null || directoryClassLoader != classLoader) {
+				return null;
+			}
+			return directories.clone();
+		}
+
+		private synchronized void resetDirectoryClassLoader() {
+			directoryClassLoader = null;
+		}
+
+		/**
+		 * Drops the directory class loader if one of its directories is the given location or inside of it.
+		 */
+		private synchronized void directoryChanged(String location) {
+			if (directoryClassLoader == null || directories == null) {
+				return;
+			}
+			for (URL directory : directories) {
+				String url = directory.toString();
+				if (url.equals(location) || url.startsWith(location + "/")) {
+					directoryClassLoader = null;
+					return;
+				}
+			}
+		}
+
 		private synchronized ClassLoader getJarClassLoader() {
-			if (jarClassLoader == null) {
+			if (jarLayer == null) {
 				Set<URL> jars = new LinkedHashSet<URL>();
 				List<URL> dirs = new ArrayList<URL>();
 				for (URL url : urls) {
@@ -445,30 +610,12 @@ public class ProjectClassLoaderCache {
 						dirs.add(url);
 					}
 				}
-				if (parentClassLoader != null) {
-					// We use the parent class loader of the org.springframework.ide.eclipse.beans.core bundle
-					if (useNonLockingClassLoader()) {
-						jarClassLoader = new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'",
-								project.getName()), (URL[]) jars.toArray(new URL[jars.size()]), parentClassLoader);
-					}
-					else {
-						jarClassLoader = new FilteringURLClassLoader((URL[]) jars.toArray(new URL[jars.size()]),
-								parentClassLoader);
-					}
-				}
-				else {
-					if (useNonLockingClassLoader()) {
-						jarClassLoader = new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'",
-								project.getName()), (URL[]) jars.toArray(new URL[jars.size()]), cachedParentClassLoader);
-					}
-					else {
-						jarClassLoader = new FilteringURLClassLoader((URL[]) jars.toArray(new URL[jars.size()]),
-								cachedParentClassLoader);
-					}
-				}
+				// We use the parent class loader of the org.springframework.ide.eclipse.beans.core bundle
+				ClassLoader parent = (parentClassLoader != null ? parentClassLoader : cachedParentClassLoader);
+				jarLayer = JarLayer.acquire(jars.toArray(new URL[jars.size()]), parent, project);
 				directories = dirs.toArray(new URL[dirs.size()]);
 			}
-			return jarClassLoader;
+			return jarLayer.classLoader;
 		}
 
 		private boolean shouldLoadFromParent(URL url) {
@@ -482,7 +629,93 @@ public class ProjectClassLoaderCache {
 			return false;
 		}
 	}
-	
+
+	/**
+	 * Class loader for a set of jars that is shared by all cache entries with the same jars and parent class loader.
+	 * The fingerprint includes size and modification time of the jars, so replaced jars are not picked up from an
+	 * existing layer.
+	 * @since 3.9.22
+	 */
+	static class JarLayer {
+
+		private final ClassLoader parent;
+
+		private final String fingerprint;
+
+		private final ClassLoader classLoader;
+
+		private int references = 0;
+
+		private JarLayer(ClassLoader parent, String fingerprint, ClassLoader classLoader) {
+			this.parent = parent;
+			this.fingerprint = fingerprint;
+			this.classLoader = classLoader;
+		}
+
+		public static JarLayer acquire(URL[] jars, ClassLoader parent, IProject project) {
+			boolean nonLocking = useNonLockingClassLoader();
+			String fingerprint = getFingerprint(jars, nonLocking);
+			synchronized (JAR_LAYERS) {
+				Map<String, JarLayer> layers = JAR_LAYERS.get(parent);
+				if (layers == null) {
+					layers = new HashMap<String, JarLayer>();
+					JAR_LAYERS.put(parent, layers);
+				}
+				JarLayer layer = layers.get(fingerprint);
+				if (layer != null) {
+					JAR_LAYER_HITS.incrementAndGet();
+				}
+				else {
+					ClassLoader classLoader;
+					if (nonLocking) {
+						classLoader = new FilteringNonLockingJarFileClassLoader(String.format(
+								"Library ClassLoader for '%s'", project.getName()), jars, parent);
+					}
+					else {
+						classLoader = new FilteringURLClassLoader(jars, parent);
+					}
+					layer = new JarLayer(parent, fingerprint, classLoader);
+					layers.put(fingerprint, layer);
+					if (DEBUG_CLASSLOADER) {
+						System.out.println(String.format("> creating new library classloader for '%s' : total %s",
+								project.getName(), layers.size()));
+					}
+				}
+				layer.references++;
+				return layer;
+			}
+		}
+
+		public void release() {
+			synchronized (JAR_LAYERS) {
+				Map<String, JarLayer> layers = JAR_LAYERS.get(parent);
+				if (--references <= 0 && layers != null && layers.get(fingerprint) == this) {
+					layers.remove(fingerprint);
+					if (layers.isEmpty()) {
+						JAR_LAYERS.remove(parent);
+					}
+				}
+			}
+		}
+
+		private static String getFingerprint(URL[] jars, boolean nonLocking) {
+			StringBuilder fingerprint = new StringBuilder(String.valueOf(nonLocking));
+			for (URL jar : jars) {
+				fingerprint.append('|').append(jar);
+				if (FILE_SCHEME.equalsIgnoreCase(jar.getProtocol())) {
+					try {
+						File file = new File(jar.toURI());
+						fingerprint.append(':').append(file.length()).append(':').append(file.lastModified());
+					}
+					catch (Exception e) {
+						// not a plain file; the url has to do
+					}
+				}
+			}
+			return fingerprint.toString();
+		}
+	}
+
 	/**
 	 * {@link IPropertyChangeListener} to clear the cache whenever the setting is changed.
 	 * @since 2.5.0
@@ -494,21 +727,23 @@ public class ProjectClassLoaderCache {
 		 */
 		public void propertyChange(PropertyChangeEvent event) {
 			if (SpringCore.USE_NON_LOCKING_CLASSLOADER.equals(event.getProperty())) {
-				synchronized (CLASSLOADER_CACHE) {
-					CLASSLOADER_CACHE.clear();
-				}
+				clearCache();
 			}
 		}
 	}
 	
 	/**
-	 * {@link IResourceChangeListener} to clear the cache whenever new source or output folders are being added.
+	 * {@link IResourceChangeListener} to clear the cache whenever new source or output folders are being added and to
+	 * drop directory class loaders whenever the contents of source or output folders change.
 	 * @since 2.5.2
 	 */
 	static class SourceAndOutputLocationResourceChangeListener implements IResourceChangeListener {
 
 		private static final int VISITOR_FLAGS = IResourceDelta.ADDED | IResourceDelta.CHANGED;
 
+		private static final int CONTENT_FLAGS = IResourceDelta.CONTENT | IResourceDelta.REPLACED
+				| IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO;
+
 		/**
 		 * {@inheritDoc}
 		 */
@@ -557,15 +792,77 @@ public class ProjectClassLoaderCache {
 		 */
 		protected class SourceAndOutputLocationResourceVisitor implements IResourceDeltaVisitor {
 
+			private final Map<IProject, Set<IPath>> classPathFolders = new HashMap<IProject, Set<IPath>>();
+
 			public final boolean visit(IResourceDelta delta) throws CoreException {
 				IResource resource = delta.getResource();
 				switch (delta.getKind()) {
 				case IResourceDelta.ADDED:
 					return resourceAdded(resource);
+				case IResourceDelta.CHANGED:
+					return resourceChanged(resource, delta);
+				}
+				return true;
+			}
+
+			/**
+			 * Drops the directory class loaders that use the given folder if it is a source or output folder and
+			 * files in it have been added, removed or changed.
+			 * @since 3.9.22
+			 */
+			protected boolean resourceChanged(IResource resource, IResourceDelta delta) {
+				if (resource instanceof IFolder && getClassPathFolders(resource.getProject()).contains(
+						resource.getFullPath())) {
+					if (hasContentChanges(delta)) {
+						directoryChanged(resource);
+					}
+					return false;
 				}
 				return true;
 			}
 
+			private boolean hasContentChanges(IResourceDelta delta) {
+				if (delta.getResource().getType() == IResource.FILE
+						&& (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & CONTENT_FLAGS) != 0)) {
+					return true;
+				}
+				for (IResourceDelta child : delta.getAffectedChildren()) {
+					if (hasContentChanges(child)) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			/**
+			 * Returns the source folders and output locations of the given project.
+			 */
+			private Set<IPath> getClassPathFolders(IProject project) {
+				Set<IPath> folders = classPathFolders.get(project);
+				if (folders == null) {
+					folders = new HashSet<IPath>();
+					IJavaProject javaProject = JdtUtils.getJavaProject(project);
+					if (javaProject != null) {
+						try {
+							folders.add(javaProject.getOutputLocation());
+							for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+								if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+									folders.add(entry.getPath());
+									if (entry.getOutputLocation() != null) {
+										folders.add(entry.getOutputLocation());
+									}
+								}
+							}
+						}
+						catch (JavaModelException e) {
+							// not a proper java project (anymore)
+						}
+					}
+					classPathFolders.put(project, folders);
+				}
+				return folders;
+			}
+
 			protected boolean resourceAdded(IResource resource) {
 				if (resource instanceof IFolder && JdtUtils.isJavaProject(resource)) {
 					try {
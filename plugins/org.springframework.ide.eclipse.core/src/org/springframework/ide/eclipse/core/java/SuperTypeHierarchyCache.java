@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2009 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,18 +11,36 @@
 package org.springframework.ide.eclipse.core.java;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
-import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
 import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.JavaElementDeltaDispatcher.IJavaElementDeltaListener;
 
 /**
  * Cache for {@link ITypeHierarchy} instances.
  * <p>
  * The implementation has been taken from {@link org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache}.
+ * <p>
+ * Cached hierarchies are indexed by all the types they contain, so lookups don't need to ask every cached hierarchy
+ * and don't block each other. The least recently used hierarchy is evicted once the number of hierarchies exceeds
+ * the {@link SpringCore#TYPE_HIERARCHY_CACHE_SIZE} preference.
  * @author Christian Dupuis
  * @since 2.0.1
  */
@@ -30,21 +48,71 @@ public class SuperTypeHierarchyCache {
 
 	/**
 	 * Internal cache entry
+	 * <p>
+	 * Entries are notified about changes by the {@link JavaElementDeltaDispatcher} instead of listening to the
+	 * hierarchy itself, so that the Java element deltas are only walked once for all entries. An entry is dropped
+	 * if the class path changes, if a compilation unit or class file that contributes a type to the hierarchy
+	 * changes its type structure, or if a new type might have been added to the hierarchy.
 	 */
-	private static class HierarchyCacheEntry implements ITypeHierarchyChangedListener {
+	private static class HierarchyCacheEntry implements IJavaElementDeltaListener {
+
+		private volatile ITypeHierarchy typeHierarchy;
 
-		private long lastAccess;
+		private volatile long lastAccess;
 
-		private ITypeHierarchy typeHierarchy;
+		private final IType focusType;
+
+		private final IType[] types;
+
+		/** The compilation units and class files of all types in the hierarchy */
+		private final Set<IJavaElement> openables = new HashSet<IJavaElement>();
 
 		public HierarchyCacheEntry(ITypeHierarchy hierarchy) {
 			typeHierarchy = hierarchy;
-			typeHierarchy.addTypeHierarchyChangedListener(this);
-			markAsAccessed();
+			focusType = hierarchy.getType();
+			types = hierarchy.getAllTypes();
+			for (IType type : types) {
+				ICompilationUnit compilationUnit = type.getCompilationUnit();
+				openables.add(compilationUnit != null ? compilationUnit.getPrimary() : type.getClassFile());
+			}
+		}
+
+		/**
+		 * Starts listening for changes that affect the hierarchy. Besides the projects of all types in the hierarchy
+		 * this includes every project that depends on one of them or has the root of the focus type on its class
+		 * path, as such a project might contribute new subtypes.
+		 */
+		public void register() {
+			Set<IJavaProject> projects = new LinkedHashSet<IJavaProject>();
+			for (IType type : types) {
+				IJavaProject project = type.getJavaProject();
+				if (project != null) {
+					projects.add(project);
+				}
+			}
+			if (projects.isEmpty()) {
+				return;
+			}
+			IPackageFragmentRoot root = (IPackageFragmentRoot) focusType
+					.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+			Set<IPath> sharedRoots = (root != null ? Collections.singleton(root.getPath())
+					: Collections.<IPath> emptySet());
+			JavaElementDeltaDispatcher.addListener(this, projects, sharedRoots);
+			if (typeHierarchy == null) {
+				// evicted in the meantime
+				JavaElementDeltaDispatcher.removeListener(this);
+			}
+		}
+
+		/**
+		 * Marks the entry as no longer valid; has to be called while holding the lock of the cache.
+		 */
+		public void invalidate() {
+			typeHierarchy = null;
 		}
 
 		public void dispose() {
-			typeHierarchy.removeTypeHierarchyChangedListener(this);
+			JavaElementDeltaDispatcher.removeListener(this);
 			typeHierarchy = null;
 		}
 
@@ -52,76 +120,190 @@ public class SuperTypeHierarchyCache {
 			return lastAccess;
 		}
 
+		public void accessed() {
+			lastAccess = ACCESS_CLOCK.incrementAndGet();
+		}
+
+		public IType getFocusType() {
+			return focusType;
+		}
+
+		public IType[] getTypes() {
+			return types;
+		}
+
 		public ITypeHierarchy getTypeHierarchy() {
 			return typeHierarchy;
 		}
 
-		public void markAsAccessed() {
-			lastAccess = System.currentTimeMillis();
+		public void classPathChanged(IJavaProject project) {
+			removeHierarchyEntryFromCache(this);
 		}
 
-		public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
-			removeHierarchyEntryFromCache(this);
+		public void openablesChanged(List<IJavaElementDelta> deltas) {
+			for (IJavaElementDelta delta : deltas) {
+				if (isAffected(delta)) {
+					removeHierarchyEntryFromCache(this);
+					return;
+				}
+			}
+		}
+
+		private boolean isAffected(IJavaElementDelta delta) {
+			if (delta.getKind() == IJavaElementDelta.ADDED) {
+				// might contain a new sub type or a missing super type
+				return true;
+			}
+			IJavaElement element = delta.getElement();
+			if (element instanceof ICompilationUnit) {
+				element = ((ICompilationUnit) element).getPrimary();
+			}
+			boolean contributesTypes = openables.contains(element);
+			if (delta.getKind() == IJavaElementDelta.REMOVED) {
+				return contributesTypes;
+			}
+			if ((delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0) {
+				// no details available; a changed class file is only relevant if it contributes a type
+				return (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_PRIMARY_RESOURCE)) != 0
+						&& (contributesTypes || element.getElementType() == IJavaElement.COMPILATION_UNIT);
+			}
+			return hasTypeStructureChange(delta);
+		}
+
+		private boolean hasTypeStructureChange(IJavaElementDelta delta) {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				if (child.getElement().getElementType() == IJavaElement.TYPE
+						&& (child.getKind() != IJavaElementDelta.CHANGED
+								|| (child.getFlags() & (IJavaElementDelta.F_SUPER_TYPES | IJavaElementDelta.F_MODIFIERS)) != 0)) {
+					return true;
+				}
+				if (hasTypeStructureChange(child)) {
+					return true;
+				}
+			}
+			return false;
 		}
 	}
 
-	private static final int CACHE_SIZE = 50;
+	private static final int DEFAULT_CACHE_SIZE = 50;
+
+	/** Cached hierarchies by their focus type; modifications are guarded by the lock of this map */
+	private static final Map<IType, HierarchyCacheEntry> HIERARCHY_CACHE = new ConcurrentHashMap<IType, HierarchyCacheEntry>();
+
+	/** Cached hierarchies by all the types they contain */
+	private static final Map<IType, HierarchyCacheEntry> TYPE_INDEX = new ConcurrentHashMap<IType, HierarchyCacheEntry>();
+
+	/** Orders the accesses to the cached hierarchies, so that the least recently used one can be evicted */
+	private static final AtomicLong ACCESS_CLOCK = new AtomicLong();
+
+	private static final AtomicLong HITS = new AtomicLong();
 
-	private static List<HierarchyCacheEntry> HIERACHY_CACHE = new ArrayList<HierarchyCacheEntry>(CACHE_SIZE);
+	private static final AtomicLong MISSES = new AtomicLong();
+
+	private static final AtomicLong EVICTIONS = new AtomicLong();
 
 	private static void addTypeHierarchyToCache(ITypeHierarchy hierarchy) {
-		synchronized (HIERACHY_CACHE) {
-			int nEntries = HIERACHY_CACHE.size();
-			if (nEntries >= CACHE_SIZE) {
-				// find obsolete entries or remove entry that was least recently
-				// accessed
-				HierarchyCacheEntry oldest = null;
-				List<HierarchyCacheEntry> obsoleteHierarchies = new ArrayList<HierarchyCacheEntry>(CACHE_SIZE);
-				for (int i = 0; i < nEntries; i++) {
-					HierarchyCacheEntry entry = (HierarchyCacheEntry) HIERACHY_CACHE.get(i);
-					ITypeHierarchy curr = entry.getTypeHierarchy();
-					if (!curr.exists() || hierarchy.contains(curr.getType())) {
-						obsoleteHierarchies.add(entry);
-					}
-					else {
-						if (oldest == null || entry.getLastAccess() < oldest.getLastAccess()) {
-							oldest = entry;
-						}
-					}
-				}
-				if (!obsoleteHierarchies.isEmpty()) {
-					for (int i = 0; i < obsoleteHierarchies.size(); i++) {
-						removeHierarchyEntryFromCache((HierarchyCacheEntry) obsoleteHierarchies.get(i));
-					}
-				}
-				else if (oldest != null) {
-					removeHierarchyEntryFromCache(oldest);
+		IType focusType = hierarchy.getType();
+		if (focusType == null) {
+			return;
+		}
+		HierarchyCacheEntry newEntry = new HierarchyCacheEntry(hierarchy);
+		newEntry.accessed();
+
+		// listen for changes before the entry gets visible, so that no change can be missed in between
+		newEntry.register();
+
+		List<HierarchyCacheEntry> obsoleteEntries = new ArrayList<HierarchyCacheEntry>();
+		synchronized (HIERARCHY_CACHE) {
+			if (newEntry.getTypeHierarchy() == null) {
+				// already dropped because of a change
+				return;
+			}
+
+			// hierarchies of types contained in the new hierarchy are superseded by it
+			for (IType type : newEntry.getTypes()) {
+				HierarchyCacheEntry entry = HIERARCHY_CACHE.get(type);
+				if (entry != null) {
+					obsoleteEntries.add(entry);
 				}
 			}
-			HierarchyCacheEntry newEntry = new HierarchyCacheEntry(hierarchy);
-			HIERACHY_CACHE.add(newEntry);
+			for (HierarchyCacheEntry entry : obsoleteEntries) {
+				unindex(entry);
+				entry.invalidate();
+			}
+
+			HIERARCHY_CACHE.put(focusType, newEntry);
+			for (IType type : newEntry.getTypes()) {
+				TYPE_INDEX.put(type, newEntry);
+			}
+
+			int cacheSize = getCacheSize();
+			while (HIERARCHY_CACHE.size() > cacheSize) {
+				HierarchyCacheEntry eldest = getLeastRecentlyUsedEntry();
+				unindex(eldest);
+				eldest.invalidate();
+				obsoleteEntries.add(eldest);
+				EVICTIONS.incrementAndGet();
+			}
+		}
+		for (HierarchyCacheEntry entry : obsoleteEntries) {
+			entry.dispose();
 		}
 	}
 
+	/**
+	 * Returns the cached hierarchy that has not been accessed for the longest time; has to be called while holding
+	 * the lock of the cache.
+	 */
+	private static HierarchyCacheEntry getLeastRecentlyUsedEntry() {
+		HierarchyCacheEntry eldest = null;
+		for (HierarchyCacheEntry entry : HIERARCHY_CACHE.values()) {
+			if (eldest == null || entry.getLastAccess() < eldest.getLastAccess()) {
+				eldest = entry;
+			}
+		}
+		return eldest;
+	}
+
 	private static ITypeHierarchy findTypeHierarchyInCache(IType type) {
-		synchronized (HIERACHY_CACHE) {
-			for (int i = HIERACHY_CACHE.size() - 1; i >= 0; i--) {
-				HierarchyCacheEntry curr = (HierarchyCacheEntry) HIERACHY_CACHE.get(i);
-				ITypeHierarchy hierarchy = curr.getTypeHierarchy();
-				if (!hierarchy.exists()) {
-					removeHierarchyEntryFromCache(curr);
-				}
-				else {
-					if (hierarchy.contains(type)) {
-						curr.markAsAccessed();
-						return hierarchy;
-					}
-				}
+		HierarchyCacheEntry entry = TYPE_INDEX.get(type);
+		if (entry != null) {
+			ITypeHierarchy hierarchy = entry.getTypeHierarchy();
+			if (hierarchy == null || !hierarchy.exists()) {
+				removeHierarchyEntryFromCache(entry);
+			}
+			else {
+				entry.accessed();
+				HITS.incrementAndGet();
+				return hierarchy;
 			}
 		}
+		MISSES.incrementAndGet();
 		return null;
 	}
 
+	/**
+	 * Removes the entry from the cache and the index; has to be called while holding the lock of the cache.
+	 */
+	private static void unindex(HierarchyCacheEntry entry) {
+		IType focusType = entry.getFocusType();
+		if (HIERARCHY_CACHE.get(focusType) == entry) {
+			HIERARCHY_CACHE.remove(focusType);
+		}
+		for (IType type : entry.getTypes()) {
+			TYPE_INDEX.remove(type, entry);
+		}
+	}
+
+	private static int getCacheSize() {
+		SpringCore springCore = SpringCore.getDefault();
+		if (springCore == null) {
+			return DEFAULT_CACHE_SIZE;
+		}
+		int cacheSize = springCore.getPluginPreferences().getInt(SpringCore.TYPE_HIERARCHY_CACHE_SIZE);
+		return (cacheSize > 0 ? cacheSize : DEFAULT_CACHE_SIZE);
+	}
+
 	/**
 	 * Get the {@link ITypeHierarchy} for the given {@link IType}.
 	 * <p>
@@ -162,10 +344,43 @@ public class SuperTypeHierarchyCache {
 		return findTypeHierarchyInCache(type) != null;
 	}
 
+	/**
+	 * Returns the number of lookups that have been answered from the cache.
+	 * @since 3.9.22
+	 */
+	public static long getHitCount() {
+		return HITS.get();
+	}
+
+	/**
+	 * Returns the number of lookups that found no cached hierarchy.
+	 * @since 3.9.22
+	 */
+	public static long getMissCount() {
+		return MISSES.get();
+	}
+
+	/**
+	 * Returns the number of hierarchies that have been evicted to stay within the configured cache size.
+	 * @since 3.9.22
+	 */
+	public static long getEvictionCount() {
+		return EVICTIONS.get();
+	}
+
+	/**
+	 * Returns the number of cached hierarchies.
+	 * @since 3.9.22
+	 */
+	public static int getSize() {
+		return HIERARCHY_CACHE.size();
+	}
+
 	private static void removeHierarchyEntryFromCache(HierarchyCacheEntry entry) {
-		synchronized (HIERACHY_CACHE) {
-			entry.dispose();
-			HIERACHY_CACHE.remove(entry);
+		synchronized (HIERARCHY_CACHE) {
+			unindex(entry);
+			entry.invalidate();
 		}
+		entry.dispose();
 	}
 }
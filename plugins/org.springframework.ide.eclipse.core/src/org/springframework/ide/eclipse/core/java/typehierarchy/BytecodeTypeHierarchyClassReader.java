@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,13 @@ package org.springframework.ide.eclipse.core.java.typehierarchy;
 
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
@@ -27,13 +32,46 @@ import org.springframework.ide.eclipse.core.SpringCore;
 public class BytecodeTypeHierarchyClassReader implements TypeHierarchyClassReader {
 	
 	private ClasspathLookup lookup;
+	private URL[] classpath;
+	private volatile Object[] classpathEntries;
 
 	public BytecodeTypeHierarchyClassReader(ClasspathLookup lookup) {
+		this(lookup, null);
+	}
+
+	/**
+	 * @param classpath the class path of the project in class path order. Folders are looked into directly and
+	 * jar files through their persistent {@link TypeHierarchyJarIndex}, up to the first entry that can't be handled
+	 * this way; from there on classes are looked up via the given {@link ClasspathLookup}.
+	 * @since 3.9.22
+	 */
+	public BytecodeTypeHierarchyClassReader(ClasspathLookup lookup, URL[] classpath) {
 		this.lookup = lookup;
+		this.classpath = classpath;
 	}
 
 	public TypeHierarchyElement readTypeHierarchyInformation(char[] fullyQualifiedClassName, IProject project) {
-		String fullyQualifiedClassFileName = new String(fullyQualifiedClassName) + ".class";
+		String name = new String(fullyQualifiedClassName);
+		String fullyQualifiedClassFileName = name + ".class";
+
+		for (Object entry : getClasspathEntries()) {
+			if (entry instanceof TypeHierarchyJarIndex) {
+				TypeHierarchyElement element = ((TypeHierarchyJarIndex) entry).get(name);
+				if (element != null) {
+					return element;
+				}
+			}
+			else if (entry instanceof File) {
+				File classFile = new File((File) entry, fullyQualifiedClassFileName);
+				if (classFile.isFile()) {
+					return readTypeHierarchy(classFile);
+				}
+			}
+			else {
+				// neither a folder nor an indexed jar; leave the rest of the class path to the lookup
+				break;
+			}
+		}
 		
 		String packageName = "";
 		String className = fullyQualifiedClassFileName;
@@ -66,6 +104,84 @@ public class BytecodeTypeHierarchyClassReader implements TypeHierarchyClassReade
 		lookup.close();
 	}
 
+	/**
+	 * Returns the folders ({@link File}s) and jar indexes of the class path, resolved once per reader. The first
+	 * entry that is neither is represented by its {@link URL}.
+	 */
+	private Object[] getClasspathEntries() {
+		Object[] entries = classpathEntries;
+		if (entries == null) {
+			synchronized (this) {
+				entries = classpathEntries;
+				if (entries == null) {
+					entries = resolveClasspathEntries();
+					classpathEntries = entries;
+				}
+			}
+		}
+		return entries;
+	}
+
+	private Object[] resolveClasspathEntries() {
+		if (classpath == null) {
+			return new Object[0];
+		}
+		boolean useIndex = System.getProperty(TypeHierarchyEngine.ENABLE_INDEX_PROPERTY, "true").equals("true");
+		List<Object> entries = new ArrayList<Object>(classpath.length);
+		for (URL url : classpath) {
+			Object entry = url;
+			if ("file".equals(url.getProtocol())) {
+				try {
+					File file = new File(url.toURI());
+					String path = file.getPath();
+					if (file.isDirectory()) {
+						entry = file;
+					}
+					else if (useIndex && (path.endsWith(".jar") || path.endsWith(".zip"))) {
+						TypeHierarchyJarIndex index = TypeHierarchyJarIndex.getIndex(file.getAbsolutePath());
+						if (index != null) {
+							entry = index;
+						}
+					}
+					else if (!file.exists()) {
+						// missing entries (e.g. not yet created output folders) contain nothing
+						continue;
+					}
+				}
+				catch (Exception e) {
+					// not a local file, leave it to the lookup
+				}
+			}
+			entries.add(entry);
+			if (entry instanceof URL) {
+				break;
+			}
+		}
+		return entries.toArray();
+	}
+
+	private TypeHierarchyElement readTypeHierarchy(File classFile) {
+		InputStream stream = null;
+		try {
+			stream = new FileInputStream(classFile);
+			return readTypeHierarchy(stream);
+		}
+		catch (IOException e) {
+			SpringCore.log(e);
+			return null;
+		}
+		finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				}
+				catch (IOException e) {
+					SpringCore.log(e);
+				}
+			}
+		}
+	}
+
 	public TypeHierarchyElement readTypeHierarchy(InputStream stream) {
 		try {
 			DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
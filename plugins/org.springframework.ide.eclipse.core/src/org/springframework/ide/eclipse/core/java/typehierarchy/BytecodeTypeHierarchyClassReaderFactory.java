@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,12 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
+import java.net.URL;
+import java.util.List;
+
 import org.eclipse.core.resources.IProject;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
 
 /**
  * @author Martin Lippert
@@ -26,7 +30,8 @@ public class BytecodeTypeHierarchyClassReaderFactory implements TypeHierarchyCla
 		ClassLoader loader = JdtUtils.getClassLoader(project, null);
 		ClasspathLookup lookup = new ClasspathLookupClassloader(loader);
 
-		return new BytecodeTypeHierarchyClassReader(lookup);
+		List<URL> classpath = ProjectClassLoaderCache.getClassPathUrls(project, null);
+		return new BytecodeTypeHierarchyClassReader(lookup, classpath.toArray(new URL[classpath.size()]));
 	}
 
 }
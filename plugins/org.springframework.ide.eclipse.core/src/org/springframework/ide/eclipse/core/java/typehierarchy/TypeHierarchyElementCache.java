@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,35 +10,133 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
+ * Cache of {@link TypeHierarchyElement}s keyed by their slash-separated class name.
+ * <p>
+ * Class names are interned into a {@link TypeHierarchySymbolTable} and elements are stored by symbol id,
+ * so lookups compare the real names (no hash collisions between different classes) and the super class
+ * and interface names of cached elements share one array per distinct name. Only the names of cached
+ * elements and their super types are interned; looking up an unknown name doesn't add it to the table.
+ * <p>
+ * Lookups share a read lock, so the threads of a parallel build only wait for each other while an element
+ * is added.
+ *
  * @author Martin Lippert
  * @since 3.3.0
  */
 public class TypeHierarchyElementCache {
 	
-	private Map<Integer, TypeHierarchyElement> cache;
+	private final TypeHierarchySymbolTable symbols;
+	private TypeHierarchyElement[] elements;
+	private int size;
+
+	private final Lock readLock;
+	private final Lock writeLock;
 	
 	public TypeHierarchyElementCache() {
-		this.cache = new ConcurrentHashMap<Integer, TypeHierarchyElement>();
+		this.symbols = new TypeHierarchySymbolTable();
+		this.elements = new TypeHierarchyElement[512];
+		
+		ReadWriteLock lock = new ReentrantReadWriteLock();
+		this.readLock = lock.readLock();
+		this.writeLock = lock.writeLock();
 	}
 
 	public TypeHierarchyElement get(char[] fullyQualifiedClassName) {
-		return cache.get(charArrayToHashcode(fullyQualifiedClassName));
+		readLock.lock();
+		try {
+			int id = symbols.lookup(fullyQualifiedClassName);
+			return id != TypeHierarchySymbolTable.NOT_FOUND && id < elements.length ? elements[id] : null;
+		}
+		finally {
+			readLock.unlock();
+		}
 	}
 
-	public void put(char[] fullyQualifiedClassName, TypeHierarchyElement typeElement) {
-		cache.put(charArrayToHashcode(fullyQualifiedClassName), typeElement);
+	/**
+	 * Adds the given element and returns the element that has been cached for it: either the given one or,
+	 * if some of its names are known already, a copy that uses the shared name arrays. Cached elements are
+	 * never changed afterwards, so they can be handed out to other threads without further locking.
+	 */
+	public TypeHierarchyElement put(char[] fullyQualifiedClassName, TypeHierarchyElement typeElement) {
+		writeLock.lock();
+		try {
+			int id = symbols.intern(fullyQualifiedClassName);
+			typeElement = intern(symbols.getSymbol(id), typeElement);
+			
+			if (id >= elements.length) {
+				TypeHierarchyElement[] newElements = new TypeHierarchyElement[Math.max(elements.length * 2, id + 1)];
+				System.arraycopy(elements, 0, newElements, 0, elements.length);
+				elements = newElements;
+			}
+			if (elements[id] == null) {
+				size++;
+			}
+			elements[id] = typeElement;
+			return typeElement;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	private TypeHierarchyElement intern(char[] className, TypeHierarchyElement typeElement) {
+		boolean shared = className == typeElement.className;
+		
+		char[] superclassName = typeElement.superclassName;
+		if (superclassName != null) {
+			superclassName = symbols.getSymbol(symbols.intern(superclassName));
+			shared &= superclassName == typeElement.superclassName;
+		}
+		
+		char[][] interfaces = typeElement.interfaces;
+		if (interfaces != null) {
+			interfaces = new char[typeElement.interfaces.length][];
+			for (int i = 0; i < interfaces.length; i++) {
+				interfaces[i] = symbols.getSymbol(symbols.intern(typeElement.interfaces[i]));
+				shared &= interfaces[i] == typeElement.interfaces[i];
+			}
+		}
+		
+		return shared ? typeElement : new TypeHierarchyElement(className, superclassName, interfaces);
 	}
 	
-	private int charArrayToHashcode(char[] characters) {
-		int h = 0;
-		for (int i = 0; i < characters.length; i++) {
-			h = 31*h + characters[i];
+	/**
+	 * Returns the slash-separated name array for the given dotted class name (e.g.
+	 * <code>java.lang.Object</code>). The shared array is returned if the name is known to this cache,
+	 * otherwise a new array is returned without adding the name to the cache.
+	 * @since 3.9.22
+	 */
+	public char[] getInternedName(String className) {
+		readLock.lock();
+		try {
+			int id = symbols.lookupDotted(className);
+			if (id != TypeHierarchySymbolTable.NOT_FOUND) {
+				return symbols.getSymbol(id);
+			}
+		}
+		finally {
+			readLock.unlock();
+		}
+		return className.replace('.', '/').toCharArray();
+	}
+
+	/**
+	 * Returns the number of cached elements.
+	 * @since 3.9.22
+	 */
+	public int size() {
+		readLock.lock();
+		try {
+			return size;
+		}
+		finally {
+			readLock.unlock();
 		}
-        return h;
 	}
 
 }
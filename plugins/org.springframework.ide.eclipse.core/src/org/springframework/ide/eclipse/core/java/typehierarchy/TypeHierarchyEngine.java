@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Spring IDE Developers
+ * Copyright (c) 2013, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,8 @@
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
 import java.util.ArrayDeque;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IJavaElement;
@@ -27,12 +27,13 @@ import org.eclipse.jdt.core.compiler.CharOperation;
 public class TypeHierarchyEngine {
 	
 	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.core.java.enableTypeHierarchyEngine";
+	public static final String ENABLE_INDEX_PROPERTY = "org.springframework.ide.eclipse.core.java.enableTypeHierarchyIndex";
 	
 	private TypeHierarchyClassReaderFactory classReaderFactory;
 	private TypeHierarchyElementCacheFactory elementCacheFactory;
 
-	private final Map<IProject, TypeHierarchyElementCache> cache;
-	private final Map<IProject, TypeHierarchyClassReader> readers;
+	private final ConcurrentMap<IProject, TypeHierarchyElementCache> cache;
+	private final ConcurrentMap<IProject, TypeHierarchyClassReader> readers;
 
 	private final boolean autoCleanup;
 	
@@ -85,9 +86,9 @@ public class TypeHierarchyEngine {
 	}
 	
 	public String getSupertype(IProject project, String className) {
-		char[] typeName = className.replace('.', '/').toCharArray();
 		try {
 			TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
+			char[] typeName = elementCache.getInternedName(className);
 			TypeHierarchyElement typeElement = getTypeElement(typeName, project, elementCache);
 			if (typeElement != null && typeElement.superclassName != null) {
 				return new String(typeElement.superclassName).replace("/", ".");
@@ -100,9 +101,9 @@ public class TypeHierarchyEngine {
 	}
 	
 	public String[] getInterfaces(IProject project, String className) {
-		char[] typeName = className.replace('.', '/').toCharArray();
 		try {
 			TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
+			char[] typeName = elementCache.getInternedName(className);
 			TypeHierarchyElement typeElement = getTypeElement(typeName, project, elementCache);
 			if (typeElement != null && typeElement.interfaces != null) {
 				String[] result = new String[typeElement.interfaces.length];
@@ -128,10 +129,10 @@ public class TypeHierarchyEngine {
 	}
 	
 	public boolean doesExtend(String type, String className, IProject project) {
-		char[] typeName = type.replace('.', '/').toCharArray();
-		char[] superTypeName = className.replace('.',  '/').toCharArray();
-	
 		TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
+
+		char[] typeName = elementCache.getInternedName(type);
+		char[] superTypeName = elementCache.getInternedName(className);
 		
 		try {
 			TypeHierarchyElement typeElement = null;
@@ -176,11 +177,10 @@ public class TypeHierarchyEngine {
 	}
 	
 	public boolean doesImplement(final String type, final String interfaceName, IProject project) {
-		char[] classTypeName = type.replace('.', '/').toCharArray();
-		char[] interfaceTypeName = interfaceName.replace('.',  '/').toCharArray();
-
 		try {
 			TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
+			char[] classTypeName = elementCache.getInternedName(type);
+			char[] interfaceTypeName = elementCache.getInternedName(interfaceName);
 			
 			// cached items first
 			boolean result = doesImplement(project, classTypeName, interfaceTypeName, true, elementCache)
@@ -253,7 +253,7 @@ public class TypeHierarchyEngine {
 		if (result == null) {
 			result = getClassReader(project).readTypeHierarchyInformation(fullyQualifiedClassName, project);
 			if (result != null) {
-				elementCache.put(fullyQualifiedClassName, result);
+				result = elementCache.put(fullyQualifiedClassName, result);
 			}
 		}
 		return result;
@@ -263,7 +263,10 @@ public class TypeHierarchyEngine {
 		TypeHierarchyElementCache elementCache = this.cache.get(project);
 		if (elementCache == null) {
 			elementCache = this.elementCacheFactory.createTypeHierarchyElementCache();
-			this.cache.put(project, elementCache);
+			TypeHierarchyElementCache existingCache = this.cache.putIfAbsent(project, elementCache);
+			if (existingCache != null) {
+				elementCache = existingCache;
+			}
 		}
 		return elementCache;
 	}
@@ -272,7 +275,12 @@ public class TypeHierarchyEngine {
 		TypeHierarchyClassReader result = this.readers.get(project);
 		if (result == null) {
 			result = classReaderFactory.createClassReader(project);
-			this.readers.put(project, result);
+			TypeHierarchyClassReader existingReader = this.readers.putIfAbsent(project, result);
+			if (existingReader != null) {
+				// another thread was faster; don't keep the resources of the superfluous reader
+				result.cleanup();
+				result = existingReader;
+			}
 		}
 		return result;
 	}
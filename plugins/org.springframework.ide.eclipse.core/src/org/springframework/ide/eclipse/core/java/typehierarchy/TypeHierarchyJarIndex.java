@@ -0,0 +1,451 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Persistent, memory-mapped index of the type hierarchy information (super class and interfaces)
+ * of all classes inside a single jar file.
+ * <p>
+ * The index file is versioned and stamped with the path, size and last modification time of the jar.
+ * A valid index file is mapped into memory without touching the jar at all, a stale or missing index
+ * file is rebuilt by reading all class files of the jar once. Lookups binary search the offset table
+ * of the mapped file, so opening an index does not read its records.
+ * <p>
+ * File layout: <code>magic, version, path, size, lastModified, count</code>, followed by an offset table of
+ * <code>count</code> pairs of <code>hash, recordOffset</code> sorted by hash, <code>count</code> records of
+ * <code>className, superclassName, interfaceCount, interfaceNames...</code> and the magic number again.
+ * The hash is the {@link String#hashCode()} of the class name. Names are stored as a char count followed by
+ * the chars, an empty super class name stands for no super class.
+ *
+ * @since 3.9.22
+ */
+public class TypeHierarchyJarIndex {
+
+	private static final int MAGIC = 0x53544849; // "STHI"
+	private static final int VERSION = 2;
+
+	private static final String INDEX_FOLDER_NAME = "typehierarchy";
+
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	// global index cache, shared by all projects that have the same jar on their classpath
+	private static final Map<String, TypeHierarchyJarIndex> INDEX_CACHE = new ConcurrentHashMap<String, TypeHierarchyJarIndex>();
+
+	// stamps (size and last modification) of jars for which no index could be created; not retried until the jar changes
+	private static final Map<String, String> FAILED_INDEXES = new ConcurrentHashMap<String, String>();
+
+	private final String jarPath;
+	private final long size;
+	private final long lastModified;
+
+	private final MappedByteBuffer buffer;
+	private final int tableOffset;
+	private final int count;
+
+	private TypeHierarchyJarIndex(String jarPath, long size, long lastModified, MappedByteBuffer buffer, int tableOffset, int count) {
+		this.jarPath = jarPath;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.buffer = buffer;
+		this.tableOffset = tableOffset;
+		this.count = count;
+	}
+
+	public String getJarPath() {
+		return jarPath;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given jar file still matches the stamp of this index.
+	 */
+	public boolean isValid(File jarFile) {
+		return jarFile.length() == size && jarFile.lastModified() == lastModified;
+	}
+
+	public boolean contains(String fullyQualifiedClassName) {
+		return find(fullyQualifiedClassName) >= 0;
+	}
+
+	/**
+	 * Returns the type hierarchy element of the given slash-separated class name or <code>null</code> if the
+	 * class is not part of the indexed jar.
+	 */
+	public TypeHierarchyElement get(String fullyQualifiedClassName) {
+		int offset = find(fullyQualifiedClassName);
+		if (offset < 0) {
+			return null;
+		}
+
+		try {
+			// the mapped buffer is shared, work on a duplicate to keep the position thread-local
+			ByteBuffer record = buffer.duplicate();
+			record.position(offset);
+
+			char[] className = readName(record);
+			char[] superclassName = readName(record);
+			if (superclassName.length == 0) {
+				superclassName = null;
+			}
+
+			int interfaceCount = record.getShort() & 0xFFFF;
+			char[][] interfaces = null;
+			if (interfaceCount > 0) {
+				interfaces = new char[interfaceCount][];
+				for (int i = 0; i < interfaceCount; i++) {
+					interfaces[i] = readName(record);
+				}
+			}
+			return new TypeHierarchyElement(className, superclassName, interfaces);
+		}
+		catch (RuntimeException e) {
+			// corrupt record (buffer underflow or an offset out of bounds)
+			return null;
+		}
+	}
+
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the offset of the record of the given class name or <code>-1</code>.
+	 */
+	private int find(String fullyQualifiedClassName) {
+		int hash = fullyQualifiedClassName.hashCode();
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleHash = buffer.getInt(tableOffset + middle * 8);
+			if (middleHash < hash) {
+				low = middle + 1;
+			}
+			else if (middleHash > hash) {
+				high = middle - 1;
+			}
+			else {
+				// compare the names of all entries with this hash
+				int first = middle;
+				while (first > 0 && buffer.getInt(tableOffset + (first - 1) * 8) == hash) {
+					first--;
+				}
+				for (int i = first; i < count && buffer.getInt(tableOffset + i * 8) == hash; i++) {
+					int offset = buffer.getInt(tableOffset + i * 8 + 4);
+					if (nameEquals(offset, fullyQualifiedClassName)) {
+						return offset;
+					}
+				}
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private boolean nameEquals(int offset, String name) {
+		if (offset < 0 || offset + 2 > buffer.limit()) {
+			return false;
+		}
+		int length = buffer.getShort(offset) & 0xFFFF;
+		if (length != name.length() || offset + 2 + length * 2 > buffer.limit()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (buffer.getChar(offset + 2 + i * 2) != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the index for the given jar file from the global cache or the index folder in the
+	 * Spring core plugin state location. Returns <code>null</code> if no index can be created for the jar.
+	 * Jars for which creating the index failed are not tried again until they change.
+	 */
+	public static TypeHierarchyJarIndex getIndex(String jarPath) {
+		File jarFile = new File(jarPath);
+		TypeHierarchyJarIndex index = INDEX_CACHE.get(jarPath);
+		if (index != null && index.isValid(jarFile)) {
+			return index;
+		}
+		String stamp = jarFile.length() + ":" + jarFile.lastModified();
+		if (stamp.equals(FAILED_INDEXES.get(jarPath))) {
+			return null;
+		}
+
+		synchronized (INDEX_CACHE) {
+			index = INDEX_CACHE.get(jarPath);
+			if (index == null || !index.isValid(jarFile)) {
+				try {
+					if (!jarFile.isFile()) {
+						INDEX_CACHE.remove(jarPath);
+						return null;
+					}
+					index = open(jarFile, getIndexFile(jarFile));
+					INDEX_CACHE.put(jarPath, index);
+				}
+				catch (IOException e) {
+					SpringCore.log(e);
+					INDEX_CACHE.remove(jarPath);
+					FAILED_INDEXES.put(jarPath, stamp);
+					return null;
+				}
+			}
+			return index;
+		}
+	}
+
+	private static File getIndexFile(File jarFile) {
+		String path = jarFile.getAbsolutePath();
+		File indexFolder = SpringCore.getDefault().getStateLocation().append(INDEX_FOLDER_NAME).toFile();
+		return new File(indexFolder, jarFile.getName() + "-" + Integer.toHexString(path.hashCode()) + ".idx");
+	}
+
+	/**
+	 * Maps the index file for the given jar, rebuilding it first if the file is missing, truncated,
+	 * belongs to a different version of the jar or has been written by a different index version.
+	 * <p>
+	 * A rebuilt index replaces the index file. If the old file cannot be replaced because it is still
+	 * mapped (which some platforms don't allow), the new index is mapped from a temporary file that
+	 * is removed once it is no longer in use.
+	 */
+	public static TypeHierarchyJarIndex open(File jarFile, File indexFile) throws IOException {
+		TypeHierarchyJarIndex index = null;
+		if (indexFile.exists()) {
+			index = map(indexFile);
+		}
+
+		if (index == null || !index.getJarPath().equals(jarFile.getAbsolutePath()) || !index.isValid(jarFile)) {
+			File writtenFile = write(jarFile, indexFile);
+			index = map(writtenFile);
+			if (index == null) {
+				throw new IOException("unable to read type hierarchy index " + writtenFile);
+			}
+		}
+		return index;
+	}
+
+	private static TypeHierarchyJarIndex map(File indexFile) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				return null;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+			String jarPath = new String(readName(buffer));
+			long size = buffer.getLong();
+			long lastModified = buffer.getLong();
+			int count = buffer.getInt();
+			int tableOffset = buffer.position();
+
+			// a truncated file misses the table or the trailing magic number
+			if (count < 0 || (long) tableOffset + count * 8L > buffer.limit() - 4
+					|| buffer.getInt(buffer.limit() - 4) != MAGIC) {
+				return null;
+			}
+			return new TypeHierarchyJarIndex(jarPath, size, lastModified, buffer, tableOffset, count);
+		}
+		catch (BufferUnderflowException e) {
+			// truncated or corrupt index file, will be rebuilt
+			return null;
+		}
+		finally {
+			// the mapping stays valid after the channel has been closed
+			file.close();
+		}
+	}
+
+	/**
+	 * Writes the index of the given jar and returns the file it has been written to.
+	 */
+	private static File write(File jarFile, File indexFile) throws IOException {
+		long size = jarFile.length();
+		long lastModified = jarFile.lastModified();
+
+		List<TypeHierarchyElement> elements = new ArrayList<TypeHierarchyElement>();
+		BytecodeTypeHierarchyClassReader reader = new BytecodeTypeHierarchyClassReader(null);
+
+		JarFile jar = new JarFile(jarFile);
+		try {
+			for (Enumeration<? extends ZipEntry> e = jar.entries(); e.hasMoreElements(); ) {
+				ZipEntry entry = e.nextElement();
+				String name = entry.getName();
+				if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith("module-info.class")) {
+					continue;
+				}
+
+				InputStream stream = jar.getInputStream(entry);
+				try {
+					TypeHierarchyElement element = reader.readTypeHierarchy(stream);
+					if (element != null) {
+						elements.add(element);
+					}
+				}
+				finally {
+					stream.close();
+				}
+			}
+		}
+		finally {
+			jar.close();
+		}
+
+		char[] jarPath = jarFile.getAbsolutePath().toCharArray();
+		int count = elements.size();
+		int tableOffset = 4 + 4 + nameLength(jarPath) + 8 + 8 + 4;
+
+		// the offset table, as pairs of hash and record offset sorted by hash
+		long[][] table = new long[count][];
+		long offset = tableOffset + count * 8L;
+		for (int i = 0; i < count; i++) {
+			TypeHierarchyElement element = elements.get(i);
+			table[i] = new long[] { new String(element.className).hashCode(), offset };
+			offset += recordLength(element);
+		}
+		if (offset + 4 > Integer.MAX_VALUE) {
+			throw new IOException("type hierarchy index too large for " + jarFile);
+		}
+		Arrays.sort(table, new Comparator<long[]>() {
+			public int compare(long[] entry1, long[] entry2) {
+				return entry1[0] < entry2[0] ? -1 : (entry1[0] == entry2[0] ? 0 : 1);
+			}
+		});
+
+		File indexFolder = indexFile.getParentFile();
+		indexFolder.mkdirs();
+		deleteTempFiles(indexFile);
+		File tempFile = File.createTempFile(indexFile.getName() + "-", TEMP_FILE_SUFFIX, indexFolder);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		boolean written = false;
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeName(out, jarPath);
+			out.writeLong(size);
+			out.writeLong(lastModified);
+			out.writeInt(count);
+
+			for (long[] entry : table) {
+				out.writeInt((int) entry[0]);
+				out.writeInt((int) entry[1]);
+			}
+
+			for (TypeHierarchyElement element : elements) {
+				writeName(out, element.className);
+				writeName(out, element.superclassName != null ? element.superclassName : new char[0]);
+				if (element.interfaces != null) {
+					out.writeShort(element.interfaces.length);
+					for (char[] interfaceName : element.interfaces) {
+						writeName(out, interfaceName);
+					}
+				}
+				else {
+					out.writeShort(0);
+				}
+			}
+			out.writeInt(MAGIC);
+			written = true;
+		}
+		finally {
+			out.close();
+			if (!written) {
+				tempFile.delete();
+			}
+		}
+
+		if ((indexFile.exists() && !indexFile.delete()) || !tempFile.renameTo(indexFile)) {
+			// the old index is still mapped, which prevents replacing it on some platforms; keep the new
+			// index in the temporary file, it is deleted when the index is rebuilt in a later session
+			tempFile.deleteOnExit();
+			return tempFile;
+		}
+		return indexFile;
+	}
+
+	/**
+	 * Deletes the temporary files left for the given index file by earlier sessions. Files that are
+	 * still mapped cannot be deleted on some platforms and are kept.
+	 */
+	private static void deleteTempFiles(final File indexFile) {
+		File[] tempFiles = indexFile.getParentFile().listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return file.getName().startsWith(indexFile.getName() + "-") && file.getName().endsWith(TEMP_FILE_SUFFIX);
+			}
+		});
+		if (tempFiles != null) {
+			for (File tempFile : tempFiles) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	private static int recordLength(TypeHierarchyElement element) {
+		int length = nameLength(element.className);
+		length += (element.superclassName != null ? nameLength(element.superclassName) : 2);
+		length += 2;
+		if (element.interfaces != null) {
+			for (char[] interfaceName : element.interfaces) {
+				length += nameLength(interfaceName);
+			}
+		}
+		return length;
+	}
+
+	private static int nameLength(char[] name) {
+		return 2 + name.length * 2;
+	}
+
+	private static void writeName(DataOutputStream out, char[] name) throws IOException {
+		out.writeShort(name.length);
+		for (int i = 0; i < name.length; i++) {
+			out.writeChar(name[i]);
+		}
+	}
+
+	private static char[] readName(ByteBuffer buffer) {
+		int length = buffer.getShort() & 0xFFFF;
+		char[] result = new char[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = buffer.getChar();
+		}
+		return result;
+	}
+
+}
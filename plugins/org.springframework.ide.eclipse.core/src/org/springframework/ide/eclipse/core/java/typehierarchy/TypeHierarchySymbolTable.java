@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+/**
+ * Open-addressing symbol table that interns slash-separated class names (e.g. <code>java/lang/Object</code>).
+ * Every distinct name is stored exactly once and gets a dense, non-negative symbol id, so that type hierarchy
+ * elements can share their name arrays instead of holding duplicated copies.
+ * <p>
+ * Lookups compare the real characters of the names, so two different names with the same hash code never
+ * collide. Names can be looked up in their dotted form (<code>java.lang.Object</code>) without allocating
+ * a converted copy first.
+ * <p>
+ * This class is not thread-safe. Lookups may run concurrently, but callers have to make sure that nothing is
+ * interned at the same time.
+ *
+ * @since 3.9.22
+ */
+public class TypeHierarchySymbolTable {
+
+	public static final int NOT_FOUND = -1;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private int[] slots; // symbol id + 1, 0 marks an empty slot
+	private char[][] symbols;
+	private int[] hashes;
+	private int size;
+
+	public TypeHierarchySymbolTable() {
+		this.slots = new int[INITIAL_CAPACITY];
+		this.symbols = new char[INITIAL_CAPACITY / 2][];
+		this.hashes = new int[INITIAL_CAPACITY / 2];
+	}
+
+	/**
+	 * Returns the id of the given slash-separated name, or {@link #NOT_FOUND} if the name is not interned.
+	 */
+	public int lookup(char[] name) {
+		int hash = hash(name);
+		int mask = slots.length - 1;
+		for (int index = hash & mask; slots[index] != 0; index = (index + 1) & mask) {
+			int id = slots[index] - 1;
+			if (hashes[id] == hash && matches(symbols[id], name)) {
+				return id;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Returns the id of the given dotted name (as reported by JDT), or {@link #NOT_FOUND} if the name is not interned.
+	 */
+	public int lookupDotted(String name) {
+		int hash = hashDotted(name);
+		int mask = slots.length - 1;
+		for (int index = hash & mask; slots[index] != 0; index = (index + 1) & mask) {
+			int id = slots[index] - 1;
+			if (hashes[id] == hash && matchesDotted(symbols[id], name)) {
+				return id;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Interns the given slash-separated name and returns its id. The array itself is
+	 * kept by the table if the name has not been interned before.
+	 */
+	public int intern(char[] name) {
+		int id = lookup(name);
+		if (id == NOT_FOUND) {
+			id = add(name, hash(name));
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the shared name array for the given symbol id.
+	 */
+	public char[] getSymbol(int id) {
+		return symbols[id];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private int add(char[] name, int hash) {
+		if ((size + 1) * 2 > slots.length) {
+			grow();
+		}
+
+		int id = size++;
+		symbols[id] = name;
+		hashes[id] = hash;
+		insertSlot(id, hash);
+		return id;
+	}
+
+	private void insertSlot(int id, int hash) {
+		int mask = slots.length - 1;
+		int index = hash & mask;
+		while (slots[index] != 0) {
+			index = (index + 1) & mask;
+		}
+		slots[index] = id + 1;
+	}
+
+	private void grow() {
+		int newCapacity = slots.length * 2;
+
+		char[][] newSymbols = new char[newCapacity / 2][];
+		System.arraycopy(symbols, 0, newSymbols, 0, size);
+		this.symbols = newSymbols;
+
+		int[] newHashes = new int[newCapacity / 2];
+		System.arraycopy(hashes, 0, newHashes, 0, size);
+		this.hashes = newHashes;
+
+		this.slots = new int[newCapacity];
+		for (int id = 0; id < size; id++) {
+			insertSlot(id, hashes[id]);
+		}
+	}
+
+	private static int hash(char[] name) {
+		int h = 0;
+		for (int i = 0; i < name.length; i++) {
+			h = 31 * h + name[i];
+		}
+		return spread(h);
+	}
+
+	private static int hashDotted(String name) {
+		int h = 0;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			h = 31 * h + (c == '.' ? '/' : c);
+		}
+		return spread(h);
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean matches(char[] symbol, char[] name) {
+		if (symbol.length != name.length) return false;
+		for (int i = 0; i < symbol.length; i++) {
+			if (symbol[i] != name[i]) return false;
+		}
+		return true;
+	}
+
+	private static boolean matchesDotted(char[] symbol, String name) {
+		if (symbol.length != name.length()) return false;
+		for (int i = 0; i < symbol.length; i++) {
+			char c = name.charAt(i);
+			if (symbol[i] != (c == '.' ? '/' : c)) return false;
+		}
+		return true;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import java.util.Set;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -22,6 +23,7 @@ import org.eclipse.core.runtime.SubProgressMonitor;
 import org.springframework.ide.eclipse.core.MarkerUtils;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinitionFactory;
+import org.springframework.ide.eclipse.core.internal.project.ProjectContributorScheduler;
 import org.springframework.ide.eclipse.core.model.IModelElement;
 import org.springframework.ide.eclipse.core.model.IModelElementVisitor;
 import org.springframework.ide.eclipse.core.model.IResourceModelElement;
@@ -78,13 +80,18 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 	 */
 	public final void validate(Set<IResource> affectedResources, int kind, IProgressMonitor monitor)
 			throws CoreException {
-		SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, affectedResources.size());
+		final SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, affectedResources.size());
 		try {
-			for (IResource resource : affectedResources) {
+			for (final IResource resource : affectedResources) {
 				String progressMessage = "Validating '" + resource.getFullPath().toString().substring(1) + "'";
 				reportProgress(progressMessage, subMonitor);
 
-				cleanup(resource, subMonitor);
+				// marker operations need to happen on the build thread in case this validator runs concurrently
+				ProjectContributorScheduler.runOnBuildThread(new IWorkspaceRunnable() {
+					public void run(IProgressMonitor runnableMonitor) throws CoreException {
+						cleanup(resource, subMonitor);
+					}
+				}, subMonitor);
 				if (subMonitor.isCanceled()) {
 					throw new OperationCanceledException();
 				}
@@ -101,8 +108,12 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 
 				Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(resource);
 				if (rootElement != null && ruleDefinitions != null && ruleDefinitions.size() > 0) {
-					Set<ValidationProblem> problems = validate(callback, ruleDefinitions, subMonitor);
-					ValidationUtils.createProblemMarkers(resource, problems, getMarkerId());
+					final Set<ValidationProblem> problems = validate(callback, ruleDefinitions, subMonitor);
+					ProjectContributorScheduler.runOnBuildThread(new IWorkspaceRunnable() {
+						public void run(IProgressMonitor runnableMonitor) throws CoreException {
+							ValidationUtils.createProblemMarkers(resource, problems, getMarkerId());
+						}
+					}, subMonitor);
 				}
 
 				// call close on callback to execute any required resource cleanup in template
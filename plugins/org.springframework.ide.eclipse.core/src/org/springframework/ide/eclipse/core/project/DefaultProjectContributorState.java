@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2010 Spring IDE Developers
+ * Copyright (c) 2009, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,7 +21,8 @@ import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.util.StringUtils;
 
 /**
- * Default implementation of the {@link IProjectContributorState} interface.
+ * Default implementation of the {@link IProjectContributorState} interface. Access is synchronized, as builders
+ * and validators of a single build may run concurrently.
  * @author Christian Dupuis
  */
 public class DefaultProjectContributorState implements IProjectContributorState {
@@ -30,7 +31,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 
 	private Map<Dictionary<String, String>, Object> managedObjectsWithFilters = new HashMap<Dictionary<String, String>, Object>();
 
-	public <T> T get(Class<T> clazz) {
+	public synchronized <T> T get(Class<T> clazz) {
 		if (managedObjects.containsKey(clazz)) {
 			return (T) managedObjects.get(clazz);
 		}
@@ -42,7 +43,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 		return null;
 	}
 
-	public boolean hold(Object obj) {
+	public synchronized boolean hold(Object obj) {
 		if (managedObjects.containsKey(obj.getClass())) {
 			return false;
 		}
@@ -52,7 +53,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 		}
 	}
 
-	public <T> T get(Class<T> clazz, String filterText) {
+	public synchronized <T> T get(Class<T> clazz, String filterText) {
 		if (!StringUtils.hasLength(filterText)) {
 			return null;
 		}
@@ -72,7 +73,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 		return null;
 	}
 
-	public boolean hold(Object obj, Dictionary<String, String> attibutes) {
+	public synchronized boolean hold(Object obj, Dictionary<String, String> attibutes) {
 		if (managedObjectsWithFilters.containsKey(attibutes)) {
 			return false;
 		}
@@ -38,6 +38,8 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 
 	private static final String DESCRIPTION_ATTRIBUTE = "description";
 
+	private static final String FILE_EXTENSIONS_ATTRIBUTE = "fileExtensions";
+
 	private static final String ENABLED_BY_DEFAULT_ATTRIBUTE = "enabledByDefault";
 
 	private static final String ICON_ATTRIBUTE = "icon";
@@ -48,6 +50,10 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 
 	private static final String ORDER_ATTRIBUTE = "order";
 
+	private static final String READS_ATTRIBUTE = "reads";
+
+	private static final String WRITES_ATTRIBUTE = "writes";
+
 	private String description;
 
 	private String iconUri;
@@ -61,6 +67,12 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 	private Long order;
 
 	private IProjectBuilder projectBuilder;
+
+	private Set<String> reads;
+
+	private Set<String> writes;
+
+	private Set<String> fileExtensions;
 	
 	public ProjectBuilderDefinition(IConfigurationElement element) throws Exception {
 		init(element);
@@ -126,6 +138,31 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 		return order;
 	}
 
+	/**
+	 * Returns the keys of the state the builder reads or <code>null</code> if nothing has been declared.
+	 * @since 3.9.22
+	 */
+	public Set<String> getReads() {
+		return reads;
+	}
+
+	/**
+	 * Returns the keys of the state the builder modifies or <code>null</code> if nothing has been declared.
+	 * @since 3.9.22
+	 */
+	public Set<String> getWrites() {
+		return writes;
+	}
+
+	/**
+	 * Returns the extensions of the files the builder is interested in or <code>null</code> if it wants to see all
+	 * files.
+	 * @since 3.9.22
+	 */
+	public Set<String> getFileExtensions() {
+		return fileExtensions;
+	}
+
 	private void init(IConfigurationElement element) throws Exception {
 		Object builder = element.createExecutableExtension(CLASS_ATTRIBUTE);
 		if (builder instanceof IProjectBuilder) {
@@ -143,6 +180,18 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 		else {
 			this.order = DEFAULT_ORDER;
 		}
+		String readsString = element.getAttribute(READS_ATTRIBUTE);
+		if (readsString != null) {
+			this.reads = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(readsString));
+		}
+		String writesString = element.getAttribute(WRITES_ATTRIBUTE);
+		if (writesString != null) {
+			this.writes = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(writesString));
+		}
+		String fileExtensionsString = element.getAttribute(FILE_EXTENSIONS_ATTRIBUTE);
+		if (fileExtensionsString != null) {
+			this.fileExtensions = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(fileExtensionsString));
+		}
 		String enabledByDefault = element.getAttribute(ENABLED_BY_DEFAULT_ATTRIBUTE);
 		if (enabledByDefault != null) {
 			setEnabledByDefault(Boolean.valueOf(enabledByDefault));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -33,6 +33,7 @@ import org.springframework.ide.eclipse.quickfix.proposals.tests.RemoveConstructo
 import org.springframework.ide.eclipse.quickfix.proposals.tests.RenamePropertyQuickFixProposalTest;
 import org.springframework.ide.eclipse.quickfix.proposals.tests.RenameToSimilarNameQuickFixProposalTest;
 import org.springframework.ide.eclipse.quickfix.validator.tests.BeanReferenceAttributeValidationTest;
+import org.springframework.ide.eclipse.quickfix.validator.tests.BeansEditorValidatorTest;
 import org.springframework.ide.eclipse.quickfix.validator.tests.ClassAttributeValidationTest;
 import org.springframework.ide.eclipse.quickfix.validator.tests.ConstructorArgNameValidationTest;
 import org.springframework.ide.eclipse.quickfix.validator.tests.FactoryBeanAttributeValidationTest;
@@ -77,6 +78,7 @@ public class AllQuickfixTests {
 		suite.addTest(new TestSuite(FactoryMethodAttributeValidationTest.class));
 		suite.addTest(new TestSuite(PropertyAttributeValidationTest.class));
 		suite.addTest(new TestSuite(ConstructorArgNameValidationTest.class));
+		suite.addTest(new TestSuite(BeansEditorValidatorTest.class));
 
 		suite.addTest(new TestSuite(AddConstructorArgQuickFixProposalTest.class));
 		suite.addTest(new TestSuite(AddConstructorParamQuickFixProposalTest.class));
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *  Copyright (c) 2019 VMware, Inc.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *      VMware, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.quickfix.validator.tests;
+
+import java.util.List;
+
+import org.eclipse.jface.text.Region;
+import org.eclipse.wst.validation.internal.provisional.core.IMessage;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigSet;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
+import org.springframework.ide.eclipse.quickfix.QuickfixUtils;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests that the context elements the validator keeps between reconciles follow changes of the beans model.
+ *
+ * @since 3.9.22
+ */
+@SuppressWarnings("restriction")
+public class BeansEditorValidatorTest extends AbstractBeanValidationTestCase {
+
+	@Override
+	protected void setUp() throws Exception {
+		createBeansEditorValidator("src/config-set-proposal-test.xml");
+	}
+
+	public void testUnchangedModelKeepsResults() throws Exception {
+		List<IMessage> messages = validateDocument();
+		assertNotNull(getErrorMessage(messages));
+
+		assertEquals(getVisibleMessages(messages), getVisibleMessages(validateDocument()));
+	}
+
+	public void testConfigSetChangeIsPickedUp() throws Exception {
+		// the parent bean is only defined in a config of the config set
+		assertNotNull(getErrorMessage(validateDocument()));
+
+		BeansProject beansProject = (BeansProject) BeansCorePlugin.getModel().getProject(project);
+		IBeansConfigSet configSet = beansProject.getConfigSet("AddToConfigSetTest");
+		BeansConfigSet newConfigSet = new BeansConfigSet(beansProject, configSet.getElementName(),
+				configSet.getConfigNames(), configSet.getType());
+		newConfigSet.addConfig(QuickfixUtils.getConfigName(file));
+		beansProject.removeConfigSet(configSet.getElementName());
+		beansProject.addConfigSet(newConfigSet);
+		beansProject.saveDescription();
+		StsTestUtil.waitForAutoBuild();
+
+		assertNull(getErrorMessage(validateDocument()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<IMessage> validateDocument() {
+		reporter.removeAllMessages(validator);
+		validator.validate(new Region(0, document.getLength()), null, reporter);
+		return reporter.getMessages();
+	}
+
+}
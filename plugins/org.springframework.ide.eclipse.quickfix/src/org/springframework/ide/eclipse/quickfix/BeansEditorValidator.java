@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2012, 2015 VMware, Inc.
+ *  Copyright (c) 2012, 2019 VMware, Inc.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -10,9 +10,13 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.quickfix;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.internal.resources.ICoreConstants;
@@ -55,9 +59,11 @@ import org.springframework.ide.eclipse.beans.core.model.IBeansImport;
 import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IImportedBeansConfig;
+import org.springframework.ide.eclipse.core.model.IModelChangeListener;
 import org.springframework.ide.eclipse.core.model.IModelElement;
 import org.springframework.ide.eclipse.core.model.IModelElementVisitor;
 import org.springframework.ide.eclipse.core.model.IResourceModelElement;
+import org.springframework.ide.eclipse.core.model.ModelChangeEvent;
 import org.springframework.ide.eclipse.core.model.validation.ValidationProblemAttribute;
 import org.springframework.ide.eclipse.quickfix.processors.BeanQuickAssistProcessor;
 import org.springframework.ide.eclipse.quickfix.processors.QuickfixProcessorFactory;
@@ -195,6 +201,25 @@ public class BeansEditorValidator implements ISourceValidator, IValidator {
 
 	private IProject project;
 
+	private final Object contextElementsLock = new Object();
+
+	/** The configs of the edited file and their context elements; reset on every change of the beans model */
+	private Map<IBeansConfig, Set<IResourceModelElement>> contextElementsByConfig = null;
+
+	private long modelChangeCount = 0;
+
+	private final IModelChangeListener modelChangeListener = new IModelChangeListener() {
+
+		public void elementChanged(ModelChangeEvent event) {
+			synchronized (contextElementsLock) {
+				contextElementsByConfig = null;
+				modelChangeCount++;
+			}
+		}
+	};
+
+	private boolean listening = false;
+
 	// add node and all children node to checked nodes
 	private void addCheckedNodes(IDOMNode node, Set<IDOMNode> checkedNodes) {
 		checkedNodes.add(node);
@@ -227,6 +252,10 @@ public class BeansEditorValidator implements ISourceValidator, IValidator {
 			else {
 				file = root.getFile(filePath);
 				project = file.getProject();
+				if (!listening) {
+					BeansCorePlugin.getModel().addChangeListener(modelChangeListener);
+					listening = true;
+				}
 			}
 		}
 	}
@@ -389,20 +418,57 @@ public class BeansEditorValidator implements ISourceValidator, IValidator {
 			model.releaseFromRead();
 			model = null;
 		}
+		if (listening) {
+			BeansCorePlugin.getModel().removeChangeListener(modelChangeListener);
+			listening = false;
+		}
+		synchronized (contextElementsLock) {
+			contextElementsByConfig = null;
+		}
 		this.document = null;
 	}
 
-	private final Set<IResourceModelElement> getContextElements(IBeansConfig config) {
-		Set<IResourceModelElement> contextElements = new LinkedHashSet<IResourceModelElement>();
+	/**
+	 * Returns the configs of the edited file together with the context elements they need to be validated in. The
+	 * result is computed once and reused for all reconciles until the beans model changes.
+	 */
+	private Map<IBeansConfig, Set<IResourceModelElement>> getContextElementsByConfig() {
+		long changeCount;
+		synchronized (contextElementsLock) {
+			if (contextElementsByConfig != null) {
+				return contextElementsByConfig;
+			}
+			changeCount = modelChangeCount;
+		}
 
-		BeansCorePlugin.getModel().accept(new ContextElementVisitor(config.getElementResource(), contextElements),
+		// all configs share the edited file as resource, so a single walk of the model is sufficient
+		Set<IResourceModelElement> fileContextElements = new LinkedHashSet<IResourceModelElement>();
+		BeansCorePlugin.getModel().accept(new ContextElementVisitor(file, fileContextElements),
 				new NullProgressMonitor());
 
-		if (contextElements.isEmpty()) {
-			contextElements.add(config);
+		Map<IBeansConfig, Set<IResourceModelElement>> result = new LinkedHashMap<IBeansConfig, Set<IResourceModelElement>>();
+		for (IBeansConfig config : BeansCorePlugin.getModel().getConfigs(file, true)) {
+			Set<IResourceModelElement> contextElements = fileContextElements;
+			if (!file.equals(config.getElementResource())) {
+				contextElements = new LinkedHashSet<IResourceModelElement>();
+				BeansCorePlugin.getModel().accept(
+						new ContextElementVisitor(config.getElementResource(), contextElements),
+						new NullProgressMonitor());
+			}
+			if (contextElements.isEmpty()) {
+				contextElements = new LinkedHashSet<IResourceModelElement>();
+				contextElements.add(config);
+			}
+			result.put(config, contextElements);
 		}
-		return contextElements;
 
+		synchronized (contextElementsLock) {
+			// don't keep a result that might have been computed from an outdated model
+			if (changeCount == modelChangeCount) {
+				contextElementsByConfig = result;
+			}
+		}
+		return result;
 	}
 
 	public IFile getFile() {
@@ -457,13 +523,17 @@ public class BeansEditorValidator implements ISourceValidator, IValidator {
 				dirtyRegion.getOffset(), dirtyRegion.getLength());
 
 		Set<IDOMNode> checkedNodes = new HashSet<IDOMNode>();
+		List<BeanValidatorVisitor> visitors = null;
 
 		// long start = System.currentTimeMillis();
 
 		for (IStructuredDocumentRegion region : regions) {
 			IDOMNode node = getNodeAt(region.getStartOffset(), region.getLength());
 			if (node != null && !checkedNodes.contains(node)) {
-				validateNode(node, reporter);
+				if (visitors == null) {
+					visitors = createVisitors(reporter);
+				}
+				validateNode(node, visitors);
 				addCheckedNodes(node, checkedNodes);
 			}
 		}
@@ -476,19 +546,26 @@ public class BeansEditorValidator implements ISourceValidator, IValidator {
 	public void validate(IValidationContext helper, IReporter reporter) throws ValidationException {
 	}
 
-	private void validateNode(IDOMNode node, IReporter reporter) {
-		IBeansModel model = BeansCorePlugin.getModel();
-		Set<IBeansConfig> configs = model.getConfigs(file, true);
-		for (IBeansConfig config : configs) {
-			Set<IResourceModelElement> contextElements = getContextElements(config);
-			for (IResourceModelElement contextElement : contextElements) {
-				BeanValidatorVisitor visitor = new BeanValidatorVisitor(config, contextElement, reporter, this);
-				if (visitor.visitNode(node, true, true)) {
-					return;
-				}
+	/**
+	 * Creates a visitor for each config of the edited file and each of its context elements; the visitors are shared
+	 * by all nodes of a dirty region.
+	 */
+	private List<BeanValidatorVisitor> createVisitors(IReporter reporter) {
+		List<BeanValidatorVisitor> visitors = new ArrayList<BeanValidatorVisitor>();
+		for (Map.Entry<IBeansConfig, Set<IResourceModelElement>> entry : getContextElementsByConfig().entrySet()) {
+			for (IResourceModelElement contextElement : entry.getValue()) {
+				visitors.add(new BeanValidatorVisitor(entry.getKey(), contextElement, reporter, this));
 			}
 		}
+		return visitors;
+	}
 
+	private void validateNode(IDOMNode node, List<BeanValidatorVisitor> visitors) {
+		for (BeanValidatorVisitor visitor : visitors) {
+			if (visitor.visitNode(node, true, true)) {
+				return;
+			}
+		}
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 Spring IDE Developers
+ * Copyright (c) 2011, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,28 @@ package org.springframework.ide.test;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
 
 /**
@@ -20,6 +41,33 @@ import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
  */
 public class ProjectClassLoaderCacheTest {
 
+	private final List<IProject> projects = new ArrayList<IProject>();
+
+	private File jar;
+
+	@Before
+	public void setUp() throws IOException {
+		jar = File.createTempFile("classloader-cache-test", ".jar");
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new ZipEntry("test/resource.txt"));
+			out.write("jar".getBytes("UTF-8"));
+			out.closeEntry();
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	@After
+	public void tearDown() throws CoreException {
+		for (IProject project : projects) {
+			JdtUtils.removeClassLoaderEntryFromCache(project);
+			project.delete(true, true, null);
+		}
+		jar.delete();
+	}
+
 	@Test
 	public void testFilter() {
 		assertFalse(ProjectClassLoaderCache.shouldFilter(null));
@@ -33,4 +81,112 @@ public class ProjectClassLoaderCacheTest {
 		assertTrue(ProjectClassLoaderCache.shouldFilter("META-INF/services/javax"));
 	}
 
+	@Test
+	public void testJarLayerSharedByProjectsWithSameJars() throws Exception {
+		IProject first = createJavaProject("ClassLoaderCacheFirst");
+		IProject second = createJavaProject("ClassLoaderCacheSecond");
+		int layers = ProjectClassLoaderCache.getJarLayerCount();
+		long layerHits = ProjectClassLoaderCache.getJarLayerHitCount();
+
+		ClassLoader firstLoader = JdtUtils.getClassLoader(first, null);
+		ClassLoader secondLoader = JdtUtils.getClassLoader(second, null);
+
+		assertNotSame(firstLoader, secondLoader);
+		assertSame(firstLoader.getParent(), secondLoader.getParent());
+		assertNotNull(firstLoader.getResource("test/resource.txt"));
+		assertEquals(layers + 1, ProjectClassLoaderCache.getJarLayerCount());
+		assertEquals(layerHits + 1, ProjectClassLoaderCache.getJarLayerHitCount());
+	}
+
+	@Test
+	public void testJarLayerReleasedWithLastEntry() throws Exception {
+		IProject first = createJavaProject("ClassLoaderCacheFirst");
+		IProject second = createJavaProject("ClassLoaderCacheSecond");
+		int layers = ProjectClassLoaderCache.getJarLayerCount();
+
+		ClassLoader jarLoader = JdtUtils.getClassLoader(first, null).getParent();
+		JdtUtils.getClassLoader(second, null);
+		assertEquals(layers + 1, ProjectClassLoaderCache.getJarLayerCount());
+
+		JdtUtils.removeClassLoaderEntryFromCache(first);
+		assertEquals(layers + 1, ProjectClassLoaderCache.getJarLayerCount());
+		assertSame(jarLoader, JdtUtils.getClassLoader(second, null).getParent());
+
+		JdtUtils.removeClassLoaderEntryFromCache(second);
+		assertEquals(layers, ProjectClassLoaderCache.getJarLayerCount());
+		assertNotSame(jarLoader, JdtUtils.getClassLoader(first, null).getParent());
+	}
+
+	@Test
+	public void testFolderLoaderReused() throws Exception {
+		IProject project = createJavaProject("ClassLoaderCacheFirst");
+		long hits = ProjectClassLoaderCache.getHitCount();
+		long misses = ProjectClassLoaderCache.getMissCount();
+
+		ClassLoader loader = JdtUtils.getClassLoader(project, null);
+		assertSame(loader, JdtUtils.getClassLoader(project, null));
+		assertEquals(misses + 1, ProjectClassLoaderCache.getMissCount());
+		assertEquals(hits + 1, ProjectClassLoaderCache.getHitCount());
+	}
+
+	@Test
+	public void testFolderLoaderDroppedWhenOutputFolderChanges() throws Exception {
+		IProject project = createJavaProject("ClassLoaderCacheFirst");
+		ClassLoader loader = JdtUtils.getClassLoader(project, null);
+		ClassLoader jarLoader = loader.getParent();
+		assertNull(loader.getResource("output.txt"));
+
+		project.getFolder("bin").getFile("output.txt").create(new ByteArrayInputStream(new byte[0]), true, null);
+
+		ClassLoader newLoader = JdtUtils.getClassLoader(project, null);
+		assertNotSame(loader, newLoader);
+		assertSame(jarLoader, newLoader.getParent());
+		assertNotNull(newLoader.getResource("output.txt"));
+	}
+
+	@Test
+	public void testFolderLoaderNotDroppedForOtherFolders() throws Exception {
+		IProject project = createJavaProject("ClassLoaderCacheFirst");
+		ClassLoader loader = JdtUtils.getClassLoader(project, null);
+
+		IFolder other = project.getFolder("other");
+		other.create(true, true, null);
+		other.getFile("other.txt").create(new ByteArrayInputStream(new byte[0]), true, null);
+
+		assertSame(loader, JdtUtils.getClassLoader(project, null));
+	}
+
+	@Test
+	public void testFolderLoaderDroppedOnBuild() throws Exception {
+		IProject project = createJavaProject("ClassLoaderCacheFirst");
+		ClassLoader loader = JdtUtils.getClassLoader(project, null);
+
+		ProjectClassLoaderCache.resetFolderClassLoaders(project);
+
+		ClassLoader newLoader = JdtUtils.getClassLoader(project, null);
+		assertNotSame(loader, newLoader);
+		assertSame(loader.getParent(), newLoader.getParent());
+	}
+
+	/**
+	 * Creates a java project with a <code>bin</code> output folder and the test jar as its only library.
+	 */
+	private IProject createJavaProject(String name) throws CoreException {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+		project.create(null);
+		project.open(null);
+		projects.add(project);
+
+		IProjectDescription description = project.getDescription();
+		description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+		project.setDescription(description, null);
+
+		IFolder bin = project.getFolder("bin");
+		bin.create(true, true, null);
+		IJavaProject javaProject = JavaCore.create(project);
+		javaProject.setRawClasspath(new IClasspathEntry[] { JavaCore.newLibraryEntry(
+				new Path(jar.getAbsolutePath()), null, null) }, bin.getFullPath(), null);
+		return project;
+	}
+
 }
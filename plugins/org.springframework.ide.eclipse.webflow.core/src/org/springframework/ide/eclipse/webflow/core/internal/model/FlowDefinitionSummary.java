@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.webflow.core.internal.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.SAXParser;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.wst.sse.core.StructuredModelManager;
+import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
+import org.eclipse.wst.xml.core.internal.document.DOMModelImpl;
+import org.springframework.ide.eclipse.core.SpringCoreUtils;
+import org.springframework.ide.eclipse.webflow.core.Activator;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Compact, read-only description of a flow definition file: the attributes of the root element that decide about
+ * the version and the parent flows, the top-level states by id and the flows whose states are referenced.
+ * <p>
+ * Validation only needs this information from referenced parent flows and for determining the version of a flow.
+ * Instead of loading a full structured model for every lookup, files that are not open in an editor are read with a
+ * SAX parser and the result is cached together with the modification stamp of the file. For files with an existing
+ * structured model (e.g. open in an editor) the summary is taken from that model, so unsaved changes are reflected;
+ * it is cached together with the modification stamp of the document, so an unchanged editor returns the same summary.
+ *
+ * @since 3.9.22
+ */
+@SuppressWarnings("restriction")
+public class FlowDefinitionSummary {
+
+	public static final String SIZE_PROPERTY = "org.springframework.ide.eclipse.webflow.core.flowSummaryCacheSize";
+
+	private static final int MAX_SIZE = Integer.getInteger(SIZE_PROPERTY, 5000);
+
+	private static final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+
+	private static final Set<String> STATE_ELEMENTS = new HashSet<String>(Arrays.asList("action-state",
+			"view-state", "decision-state", "end-state", "subflow-state"));
+
+	private static final FlowDefinitionSummary EMPTY = new FlowDefinitionSummary(null, null,
+			Collections.<String, StateSummary> emptyMap(), Collections.<String> emptySet());
+
+	private static final Map<String, CachedSummary> CACHE = new LinkedHashMap<String, CachedSummary>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedSummary> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private final String schemaLocation;
+
+	private final String parent;
+
+	private final Map<String, StateSummary> states;
+
+	private final Set<String> referencedFlowIds;
+
+	private FlowDefinitionSummary(String schemaLocation, String parent, Map<String, StateSummary> states,
+			Set<String> parentStateFlowIds) {
+		this.schemaLocation = schemaLocation;
+		this.parent = parent;
+		this.states = states;
+
+		Set<String> referencedFlowIds = new LinkedHashSet<String>();
+		if (parent != null) {
+			referencedFlowIds.addAll(StringUtils.commaDelimitedListToSet(parent));
+		}
+		referencedFlowIds.addAll(parentStateFlowIds);
+		this.referencedFlowIds = Collections.unmodifiableSet(referencedFlowIds);
+	}
+
+	/**
+	 * Returns the summary of the given flow definition file; never <code>null</code>.
+	 */
+	public static FlowDefinitionSummary getSummary(IResource resource) {
+		if (!(resource instanceof IFile) || !resource.isAccessible()) {
+			return EMPTY;
+		}
+		IFile file = (IFile) resource;
+
+		String key = file.getFullPath().toString();
+		IStructuredModel model = StructuredModelManager.getModelManager().getExistingModelForRead(file);
+		if (model != null) {
+			try {
+				if (model instanceof DOMModelImpl) {
+					IDocument document = model.getStructuredDocument();
+					long documentStamp = (document instanceof IDocumentExtension4 ? ((IDocumentExtension4) document)
+							.getModificationStamp() : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP);
+					if (documentStamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+						return createSummary(((DOMModelImpl) model).getDocument().getDocumentElement());
+					}
+					synchronized (CACHE) {
+						CachedSummary cachedSummary = CACHE.get(key);
+						if (cachedSummary != null && cachedSummary.isFor(document, documentStamp)) {
+							return cachedSummary.summary;
+						}
+					}
+					FlowDefinitionSummary summary = createSummary(((DOMModelImpl) model).getDocument()
+							.getDocumentElement());
+					cache(key, new CachedSummary(document, documentStamp, summary));
+					return summary;
+				}
+			}
+			finally {
+				model.releaseFromRead();
+			}
+		}
+
+		long modificationStamp = file.getModificationStamp();
+		long localTimeStamp = file.getLocalTimeStamp();
+		synchronized (CACHE) {
+			CachedSummary cachedSummary = CACHE.get(key);
+			if (cachedSummary != null && cachedSummary.isFor(modificationStamp, localTimeStamp)) {
+				return cachedSummary.summary;
+			}
+		}
+
+		FlowDefinitionSummary summary = parseSummary(file);
+		cache(key, new CachedSummary(modificationStamp, localTimeStamp, summary));
+		return summary;
+	}
+
+	private static void cache(String key, CachedSummary cachedSummary) {
+		if (MAX_SIZE > 0) {
+			synchronized (CACHE) {
+				CACHE.put(key, cachedSummary);
+			}
+		}
+	}
+
+	public static void clear() {
+		synchronized (CACHE) {
+			CACHE.clear();
+		}
+	}
+
+	/**
+	 * Returns the value of the <code>xsi:schemaLocation</code> attribute of the root element or <code>null</code>.
+	 */
+	public String getSchemaLocation() {
+		return schemaLocation;
+	}
+
+	/**
+	 * Returns the value of the <code>parent</code> attribute of the root element or <code>null</code>.
+	 */
+	public String getParent() {
+		return parent;
+	}
+
+	/**
+	 * Returns the first top-level state with the given id or <code>null</code>.
+	 */
+	public StateSummary getState(String id) {
+		return states.get(id);
+	}
+
+	/**
+	 * Returns the ids of the flows whose states are looked up when validating this flow: the parent flows and the
+	 * flows referenced by <code>parent</code> attributes of subflow states.
+	 */
+	public Set<String> getReferencedFlowIds() {
+		return referencedFlowIds;
+	}
+
+	/**
+	 * Mirrors {@link WebflowModelXmlUtils#isVersion1Flow(org.springframework.ide.eclipse.webflow.core.model.IWebflowModelElement)}.
+	 */
+	public boolean isVersion1Flow() {
+		return isVersion1Flow(schemaLocation);
+	}
+
+	private static boolean isVersion1Flow(String schemaLocation) {
+		return schemaLocation != null && !schemaLocation.contains("spring-webflow-2.0.xsd");
+	}
+
+	private static FlowDefinitionSummary createSummary(Element root) {
+		if (root == null) {
+			return EMPTY;
+		}
+		String schemaLocation = (root.hasAttributeNS(XSI_NAMESPACE, "schemaLocation") ? root.getAttributeNS(
+				XSI_NAMESPACE, "schemaLocation") : null);
+		Map<String, StateSummary> states = new LinkedHashMap<String, StateSummary>();
+		NodeList children = root.getChildNodes();
+		for (int i = 0; i < children.getLength(); i++) {
+			Node child = children.item(i);
+			if (child instanceof Element && STATE_ELEMENTS.contains(child.getLocalName())) {
+				Element state = (Element) child;
+				addState(states, state.getLocalName(), getAttribute(state, "id"),
+						getAttribute(state, isVersion1Flow(schemaLocation) ? "flow" : "subflow"));
+			}
+		}
+		Set<String> parentStateFlowIds = new LinkedHashSet<String>();
+		addParentStateFlowIds(root, parentStateFlowIds);
+		return new FlowDefinitionSummary(schemaLocation, getAttribute(root, "parent"), states, parentStateFlowIds);
+	}
+
+	private static void addParentStateFlowIds(Element element, Set<String> parentStateFlowIds) {
+		NodeList children = element.getChildNodes();
+		for (int i = 0; i < children.getLength(); i++) {
+			Node child = children.item(i);
+			if (child instanceof Element) {
+				if ("subflow-state".equals(child.getLocalName())) {
+					addParentStateFlowId(parentStateFlowIds, getAttribute((Element) child, "parent"));
+				}
+				addParentStateFlowIds((Element) child, parentStateFlowIds);
+			}
+		}
+	}
+
+	private static FlowDefinitionSummary parseSummary(IFile file) {
+		SAXParser parser = SpringCoreUtils.getSaxParser();
+		if (parser == null) {
+			return EMPTY;
+		}
+
+		SummaryHandler handler = new SummaryHandler();
+		InputStream contents = null;
+		try {
+			try {
+				parser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd",
+						false);
+			}
+			catch (SAXException e) {
+				// not supported by the parser, the entity resolver below still prevents remote access
+			}
+			contents = file.getContents(true);
+			parser.parse(contents, handler);
+		}
+		catch (SAXException e) {
+			// not a well-formed file; keep what has been read so far
+		}
+		catch (IOException e) {
+			Activator.log(e);
+		}
+		catch (CoreException e) {
+			Activator.log(e);
+		}
+		finally {
+			if (contents != null) {
+				try {
+					contents.close();
+				}
+				catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+		return new FlowDefinitionSummary(handler.schemaLocation, handler.parent, handler.states,
+				handler.parentStateFlowIds);
+	}
+
+	private static void addState(Map<String, StateSummary> states, String elementName, String id, String flow) {
+		// the first state with a given id wins, as in WebflowModelXmlUtils.getStateById
+		if (id != null && !states.containsKey(id)) {
+			states.put(id, new StateSummary(elementName, flow));
+		}
+	}
+
+	/**
+	 * Adds the flow id of a <code>flowId#stateId</code> reference.
+	 */
+	private static void addParentStateFlowId(Set<String> parentStateFlowIds, String parentState) {
+		if (parentState != null && parentState.lastIndexOf('#') > 0) {
+			parentStateFlowIds.add(parentState.substring(0, parentState.lastIndexOf('#')));
+		}
+	}
+
+	private static String getAttribute(Element element, String name) {
+		return (element.hasAttribute(name) ? element.getAttribute(name) : null);
+	}
+
+	/**
+	 * A top-level state of a flow definition.
+	 */
+	public static class StateSummary {
+
+		private final String elementName;
+
+		private final String flow;
+
+		private StateSummary(String elementName, String flow) {
+			this.elementName = elementName;
+			this.flow = flow;
+		}
+
+		public boolean isSubflowState() {
+			return "subflow-state".equals(elementName);
+		}
+
+		/**
+		 * Returns the flow referenced by a subflow state, as {@link SubflowState#getFlow()} does.
+		 */
+		public String getFlow() {
+			return flow;
+		}
+	}
+
+	private static class CachedSummary {
+
+		private final WeakReference<IDocument> document;
+
+		private final long modificationStamp;
+
+		private final long localTimeStamp;
+
+		private final FlowDefinitionSummary summary;
+
+		public CachedSummary(long modificationStamp, long localTimeStamp, FlowDefinitionSummary summary) {
+			this.document = null;
+			this.modificationStamp = modificationStamp;
+			this.localTimeStamp = localTimeStamp;
+			this.summary = summary;
+		}
+
+		public CachedSummary(IDocument document, long modificationStamp, FlowDefinitionSummary summary) {
+			this.document = new WeakReference<IDocument>(document);
+			this.modificationStamp = modificationStamp;
+			this.localTimeStamp = IResource.NULL_STAMP;
+			this.summary = summary;
+		}
+
+		/**
+		 * Returns <code>true</code> if this summary has been read from the file with the given stamps.
+		 */
+		public boolean isFor(long modificationStamp, long localTimeStamp) {
+			return document == null && this.modificationStamp == modificationStamp
+					&& this.localTimeStamp == localTimeStamp;
+		}
+
+		/**
+		 * Returns <code>true</code> if this summary has been read from the given document at the given stamp.
+		 */
+		public boolean isFor(IDocument document, long modificationStamp) {
+			return this.document != null && this.document.get() == document
+					&& this.modificationStamp == modificationStamp;
+		}
+	}
+
+	/**
+	 * Records the root attributes, the top-level states and the parent state references without building a
+	 * document.
+	 */
+	private static class SummaryHandler extends DefaultHandler {
+
+		private final Map<String, StateSummary> states = new LinkedHashMap<String, StateSummary>();
+
+		private final Set<String> parentStateFlowIds = new LinkedHashSet<String>();
+
+		private String schemaLocation;
+
+		private String parent;
+
+		private int depth = 0;
+
+		@Override
+		public InputSource resolveEntity(String publicId, String systemId) {
+			// never resolve external entities or DTDs
+			return new InputSource(new StringReader(""));
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			String name = (localName != null && localName.length() > 0 ? localName : qName);
+			if (depth == 0) {
+				schemaLocation = attributes.getValue(XSI_NAMESPACE, "schemaLocation");
+				parent = attributes.getValue("parent");
+			}
+			else if (depth == 1 && STATE_ELEMENTS.contains(name)) {
+				addState(states, name, attributes.getValue("id"),
+						attributes.getValue(isVersion1Flow(schemaLocation) ? "flow" : "subflow"));
+			}
+			if (depth > 0 && "subflow-state".equals(name)) {
+				addParentStateFlowId(parentStateFlowIds, attributes.getValue("parent"));
+			}
+			depth++;
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			depth--;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -115,6 +115,7 @@ public class WebflowConfig extends AbstractModelElement implements
 				this.name = this.resource.getName();
 			}
 		}
+		configModified();
 	}
 
 	public void setBeansConfigsElementIds(Set<String> beansConfigs) {
@@ -143,6 +144,7 @@ public class WebflowConfig extends AbstractModelElement implements
 
 	public void setName(String name) {
 		this.name = name;
+		configModified();
 	}
 
 	public void accept(IModelElementVisitor visitor, IProgressMonitor monitor) {
@@ -167,6 +169,12 @@ public class WebflowConfig extends AbstractModelElement implements
 		}
 	}
 
+	private void configModified() {
+		if (project instanceof WebflowProject) {
+			((WebflowProject) project).configModified(this);
+		}
+	}
+
 	public Object getAdapter(Class adapter) {
 		if (adapter == IPersistableElement.class) {
 			return new WebflowModelElementToPersistableElementAdapter(this);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,7 +15,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.eclipse.core.resources.IFile;
 import org.eclipse.wst.sse.core.StructuredModelManager;
 import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
 import org.eclipse.wst.xml.core.internal.document.DOMModelImpl;
@@ -363,20 +362,19 @@ public class WebflowModelXmlUtils {
 			model = StructuredModelManager.getModelManager().getExistingModelForRead(
 					element.getElementResource());
 			if (model == null) {
-				model = StructuredModelManager.getModelManager().getModelForRead(
-						(IFile) element.getElementResource());
-
-			}
-			if (model != null) {
-				IDOMDocument document = ((DOMModelImpl) model).getDocument();
-				NamedNodeMap attributes = document.getDocumentElement().getAttributes();
-				IDOMAttr schemaLocationNode = (IDOMAttr) attributes.getNamedItemNS(
-						"http://www.w3.org/2001/XMLSchema-instance", "schemaLocation");
-				String content = schemaLocationNode.getValue();
-				return !content.contains("spring-webflow-2.0.xsd");
+				// not open in an editor or being validated; don't load a full model
+				return FlowDefinitionSummary.getSummary(element.getElementResource()).isVersion1Flow();
 			}
+			IDOMDocument document = ((DOMModelImpl) model).getDocument();
+			NamedNodeMap attributes = document.getDocumentElement().getAttributes();
+			IDOMAttr schemaLocationNode = (IDOMAttr) attributes.getNamedItemNS(
+					"http://www.w3.org/2001/XMLSchema-instance", "schemaLocation");
+			String content = schemaLocationNode.getValue();
+			return !content.contains("spring-webflow-2.0.xsd");
 		}
 		catch (Exception e) {
+		}
+		finally {
 			if (model != null) {
 				model.releaseFromRead();
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,12 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.webflow.core.internal.model;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
@@ -41,6 +45,24 @@ public class WebflowProject extends AbstractModelElement
 
 	private WebflowProjectDescription description;
 
+	/**
+	 * Lookup tables for the configs of {@link #indexedConfigs}; rebuilt when the configs have been changed or set, or
+	 * when one of them has been modified
+	 */
+	private List<IWebflowConfig> indexedConfigs;
+
+	private int indexedConfigsSize;
+
+	private Map<String, IWebflowConfig> configsByName = new HashMap<String, IWebflowConfig>();
+
+	private Map<IFile, IWebflowConfig> configsByFile = new HashMap<IFile, IWebflowConfig>();
+
+	/** The flow summaries the references below have been read from */
+	private final Map<IWebflowConfig, FlowDefinitionSummary> referenceSummaries = new HashMap<IWebflowConfig, FlowDefinitionSummary>();
+
+	/** Reverse references: flow id to the configs that look up states in that flow */
+	private final Map<String, Set<IWebflowConfig>> referencingConfigs = new HashMap<String, Set<IWebflowConfig>>();
+
 	public WebflowProject(IProject project, IWebflowModel model) {
 		this.project = project;
 		this.model = model;
@@ -65,20 +87,25 @@ public class WebflowProject extends AbstractModelElement
 		WebflowProjectDescription description = getDescription();
 		description.setConfigs(configs);
 		WebflowProjectDescriptionWriter.write(project, description);
+		synchronized (this) {
+			// names and resources of existing configs may have been changed before they got set again
+			indexedConfigs = null;
+		}
 
 		model.fireModelChangedEvent(this);
 	}
 
+	/**
+	 * Drops the lookup tables and the reverse references of the given config after its name or resource has been
+	 * changed in place.
+	 */
+	synchronized void configModified(IWebflowConfig config) {
+		indexedConfigs = null;
+		removeReferences(config);
+	}
+
 	public IWebflowConfig getConfig(IFile file) {
-		List<IWebflowConfig> configs = getDescription().getConfigs();
-		if (configs != null) {
-			for (IWebflowConfig config : configs) {
-				if (config.getResource().equals(file)) {
-					return config;
-				}
-			}
-		}
-		return null;
+		return getConfigsByFile().get(file);
 	}
 
 	public String getElementName() {
@@ -120,17 +147,137 @@ public class WebflowProject extends AbstractModelElement
 	}
 	
 	public IWebflowConfig getConfig(String flowId) {
-		for (IWebflowConfig config : getConfigs()) {
-			if (config.getName().equals(flowId)) {
-				return config;
+		return getConfigsByName().get(flowId);
+	}
+
+	/**
+	 * Returns the configs that need to be validated again if the given config has changed: all configs that look up
+	 * states in the given config, directly or through other configs, either as parent flow or through a
+	 * <code>flowId#stateId</code> reference.
+	 */
+	public Set<IWebflowConfig> getDependentConfigs(IWebflowConfig config) {
+		// The reverse references are kept between calls. Only the given config and configs that have not been
+		// indexed yet are read again: every other changed config is passed in by a call of its own, so reading all
+		// summaries here would make validating n changed configs quadratic.
+		List<IWebflowConfig> configs = getConfigs();
+		Set<IWebflowConfig> unindexedConfigs = new HashSet<IWebflowConfig>(configs);
+		synchronized (this) {
+			unindexedConfigs.removeAll(referenceSummaries.keySet());
+		}
+		unindexedConfigs.add(config);
+
+		// read the summaries before locking, as this may need to access structured models
+		Map<IWebflowConfig, FlowDefinitionSummary> summaries = new HashMap<IWebflowConfig, FlowDefinitionSummary>();
+		for (IWebflowConfig c : unindexedConfigs) {
+			summaries.put(c, FlowDefinitionSummary.getSummary(c.getElementResource()));
+		}
+		return getDependentConfigs(config, configs, summaries);
+	}
+
+	private synchronized Set<IWebflowConfig> getDependentConfigs(IWebflowConfig config,
+			List<IWebflowConfig> configs, Map<IWebflowConfig, FlowDefinitionSummary> summaries) {
+		updateReferences(configs, summaries);
+
+		Set<IWebflowConfig> dependentConfigs = new LinkedHashSet<IWebflowConfig>();
+		List<IWebflowConfig> changedConfigs = new ArrayList<IWebflowConfig>();
+		changedConfigs.add(config);
+		for (int i = 0; i < changedConfigs.size(); i++) {
+			Set<IWebflowConfig> configs = referencingConfigs.get(changedConfigs.get(i).getName());
+			if (configs != null) {
+				for (IWebflowConfig dependentConfig : configs) {
+					if (!dependentConfig.equals(config) && dependentConfigs.add(dependentConfig)) {
+						changedConfigs.add(dependentConfig);
+					}
+				}
 			}
 		}
-		return null;
+		return dependentConfigs;
+	}
+
+	/**
+	 * Drops the reverse references of configs that are no longer part of the given configs and updates the ones of
+	 * the given summaries if they are not the ones the references have been read from.
+	 */
+	private void updateReferences(List<IWebflowConfig> configs,
+			Map<IWebflowConfig, FlowDefinitionSummary> summaries) {
+		Set<IWebflowConfig> removedConfigs = new HashSet<IWebflowConfig>(referenceSummaries.keySet());
+		removedConfigs.removeAll(configs);
+		for (IWebflowConfig removedConfig : removedConfigs) {
+			removeReferences(removedConfig);
+		}
+
+		for (Map.Entry<IWebflowConfig, FlowDefinitionSummary> entry : summaries.entrySet()) {
+			IWebflowConfig config = entry.getKey();
+			FlowDefinitionSummary summary = entry.getValue();
+			if (referenceSummaries.get(config) != summary) {
+				removeReferences(config);
+				referenceSummaries.put(config, summary);
+				for (String flowId : summary.getReferencedFlowIds()) {
+					Set<IWebflowConfig> referencing = referencingConfigs.get(flowId);
+					if (referencing == null) {
+						referencing = new LinkedHashSet<IWebflowConfig>();
+						referencingConfigs.put(flowId, referencing);
+					}
+					referencing.add(config);
+				}
+			}
+		}
+	}
+
+	private void removeReferences(IWebflowConfig config) {
+		FlowDefinitionSummary summary = referenceSummaries.remove(config);
+		if (summary != null) {
+			for (String flowId : summary.getReferencedFlowIds()) {
+				Set<IWebflowConfig> referencing = referencingConfigs.get(flowId);
+				if (referencing != null) {
+					referencing.remove(config);
+					if (referencing.isEmpty()) {
+						referencingConfigs.remove(flowId);
+					}
+				}
+			}
+		}
+	}
+
+	private synchronized Map<String, IWebflowConfig> getConfigsByName() {
+		updateIndexes();
+		return configsByName;
+	}
+
+	private synchronized Map<IFile, IWebflowConfig> getConfigsByFile() {
+		updateIndexes();
+		return configsByFile;
+	}
+
+	private void updateIndexes() {
+		List<IWebflowConfig> configs = getConfigs();
+		if (indexedConfigs != configs || (configs != null && indexedConfigsSize != configs.size())) {
+			Map<String, IWebflowConfig> byName = new HashMap<String, IWebflowConfig>();
+			Map<IFile, IWebflowConfig> byFile = new HashMap<IFile, IWebflowConfig>();
+			if (configs != null) {
+				// the first config with a given name or file wins
+				for (IWebflowConfig config : configs) {
+					if (config.getName() != null && !byName.containsKey(config.getName())) {
+						byName.put(config.getName(), config);
+					}
+					if (config.getResource() != null && !byFile.containsKey(config.getResource())) {
+						byFile.put(config.getResource(), config);
+					}
+				}
+			}
+			configsByName = byName;
+			configsByFile = byFile;
+			indexedConfigs = configs;
+			indexedConfigsSize = (configs != null ? configs.size() : 0);
+		}
 	}
 	
 	public void saveDescription() {
 		WebflowProjectDescription description = getDescription();
 		WebflowProjectDescriptionWriter.write(project, description);
+		synchronized (this) {
+			indexedConfigs = null;
+		}
 	}
 	
 	public boolean isUpdatable() {
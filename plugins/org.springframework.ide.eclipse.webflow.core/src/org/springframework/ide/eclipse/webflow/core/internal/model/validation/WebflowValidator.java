@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -89,6 +89,10 @@ public class WebflowValidator extends AbstractValidator {
 		Set<IResource> resources = new LinkedHashSet<IResource>();
 		if (WebflowModelUtils.isWebflowConfig(resource)) {
 			resources.add(resource);
+			IWebflowConfig config = WebflowModelUtils.getWebflowConfig((IFile) resource);
+			for (IWebflowConfig dependentConfig : config.getProject().getDependentConfigs(config)) {
+				resources.add(dependentConfig.getElementResource());
+			}
 		}
 		else if (JdtUtils.isClassPathFile(resource)) {
 			IWebflowProject webflowProject = Activator.getModel().getProject(
@@ -144,19 +148,32 @@ public class WebflowValidator extends AbstractValidator {
 		return new WebflowStateLifecycleManager();
 	}
 
+	/**
+	 * Builds the {@link IWebflowState} of a flow definition for validation.
+	 * <p>
+	 * Flows that are open in an editor are validated against the shared
+	 * structured model, so unsaved changes are reflected. Any other flow is
+	 * read into a private, unmanaged model: it is neither registered with the
+	 * model manager nor connected to a text file buffer, and it is simply
+	 * dropped after validation. The rules report problems against the line
+	 * numbers of the DOM nodes, therefore the model is still an IDOM model.
+	 */
 	private static class WebflowStateLifecycleManager implements
 			IValidationElementLifecycleManager {
 
 		private IStructuredModel model = null;
 
+		private boolean shared = false;
+
 		private IFile file = null;
 
 		private IWebflowState rootElement;
 
 		public void destroy() {
-			if (model != null) {
+			if (model != null && shared) {
 				model.releaseFromRead();
 			}
+			model = null;
 		}
 
 		public Set<IResourceModelElement> getContextElements() {
@@ -176,12 +193,12 @@ public class WebflowValidator extends AbstractValidator {
 			try {
 				model = StructuredModelManager.getModelManager()
 						.getExistingModelForRead(resource);
-				if (model == null) {
+				shared = (model != null);
+				if (model == null && file != null) {
 					model = StructuredModelManager.getModelManager()
-							.getModelForRead(file);
-
+							.createUnManagedStructuredModelFor(file);
 				}
-				if (model != null) {
+				if (model instanceof DOMModelImpl) {
 					IDOMDocument document = ((DOMModelImpl) model)
 							.getDocument();
 					rootElement = new WebflowState(WebflowModelUtils
@@ -191,9 +208,7 @@ public class WebflowValidator extends AbstractValidator {
 				}
 			}
 			catch (Exception e) {
-				if (model != null) {
-					model.releaseFromRead();
-				}
+				destroy();
 			}
 		}
 	}
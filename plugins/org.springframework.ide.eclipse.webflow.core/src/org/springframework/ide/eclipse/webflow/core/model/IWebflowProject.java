@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 Spring IDE Developers
+ * Copyright (c) 2007, 2019 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.springframework.ide.eclipse.webflow.core.model;
 
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -34,6 +35,15 @@ public interface IWebflowProject extends IModelElement {
 	IWebflowConfig getConfig(IFile file);
 	
 	IWebflowConfig getConfig(String flowId);
+
+	/**
+	 * Returns the configs whose validation depends on the contents of the given config, e.g. because they inherit
+	 * from it.
+	 * @param config the changed config
+	 * @return the dependent configs, not including the given config
+	 * @since 3.9.22
+	 */
+	Set<IWebflowConfig> getDependentConfigs(IWebflowConfig config);
 	
 	/**
 	 * Returns true if this project's settings can be changed 